@@ -3,6 +3,7 @@ package com.huntly.interfaces.external.dto;
 import lombok.Data;
 
 import java.time.Instant;
+import java.util.List;
 
 /**
  * @author lcomplete
@@ -71,6 +72,12 @@ public class PageItem {
      */
     private Instant collectedAt;
 
+    /**
+     * passages of the content matching the search, html escaped with the matches wrapped in em tags.
+     * only set on search results.
+     */
+    private List<String> snippets;
+
     //region source
 
     private String siteName;
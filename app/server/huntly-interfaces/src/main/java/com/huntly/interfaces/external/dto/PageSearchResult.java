@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author lcomplete
@@ -18,4 +19,15 @@ public class PageSearchResult {
     private long totalHits;
     
     private Integer page;
+
+    /**
+     * pass as cursor to fetch the next page, null when there are no more results
+     */
+    private String nextCursor;
+
+    /**
+     * match counts by field (contentType, connectorType, connectorId, librarySaveStatus, collectionId),
+     * then by field value, only when requested. collectionId -1 means unsorted.
+     */
+    private Map<String, Map<Long, Long>> facets;
 }
@@ -16,6 +16,8 @@ public class SearchOption {
     private Boolean alreadyRead;
     
     private Boolean onlySearchTitle;
+
+    private Sort sort;
     
     public enum Type {
         TWEET,
@@ -32,4 +34,14 @@ public class SearchOption {
         HIGHLIGHTS,
         UNSORTED
     }
+
+    public enum Sort {
+        RELEVANCE,
+        NEWEST,
+        OLDEST,
+        /**
+         * relevance blended with how recent the page is
+         */
+        RECENT
+    }
 }
@@ -29,10 +29,41 @@ public class SearchQuery {
     private String endDate;
 
     private String dateField;
+
+    /**
+     * relevance (default), newest, oldest or recent (relevance boosted by recency), dates come from dateField
+     */
+    private String sort;
     
     private Integer page;
     
     private Integer size;
+
+    /**
+     * nextCursor of the previous result, continues the same search from there instead of using page
+     */
+    private String cursor;
+
+    /**
+     * also count the matches by content type, connector, library status and collection
+     */
+    private Boolean facets;
+
+    /**
+     * highlighted content snippets per item, none by default
+     */
+    private Integer snippetCount;
+
+    /**
+     * approximate length of a snippet, it ends at the closest sentence boundary
+     */
+    private Integer snippetLength;
+
+    /**
+     * also search page embeddings and merge them with the keyword matches, only for relevance sorted
+     * searches when semantic search is enabled
+     */
+    private Boolean hybrid;
     
     //private Integer connectorId;
     
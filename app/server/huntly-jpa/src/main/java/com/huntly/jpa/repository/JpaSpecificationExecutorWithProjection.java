@@ -2,11 +2,13 @@ package com.huntly.jpa.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.query.JpaEntityGraph;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -19,6 +21,20 @@ public interface JpaSpecificationExecutorWithProjection<T> {
 
     <R> Page<R> findAll(Specification<T> spec, Class<R> projectionClass, Pageable pageable);
 
+    /**
+     * Select only the columns of an interface projection instead of loading the whole entity.
+     * @param spec
+     * @param projectionInterface interface whose getters name the entity attributes to select
+     * @param offset
+     * @param maxResults
+     * @param sort
+     * @param <R>
+     * @return
+     */
+    <R> List<R> findAll(Specification<T> spec, Class<R> projectionInterface, int offset, int maxResults, Sort sort);
+
+    <R> List<R> findAll(Specification<T> spec, Class<R> projectionInterface, int maxResults, Sort sort);
+
     /**
      * Use Spring Data Annotation instead of manually provide EntityGraph.
      * @param spec
@@ -11,17 +11,26 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.query.Jpa21Utils;
 import org.springframework.data.jpa.repository.query.JpaEntityGraph;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
 import org.springframework.data.projection.ProjectionFactory;
 import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import javax.persistence.*;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.beans.PropertyDescriptor;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 
 /**
@@ -36,6 +45,8 @@ public class CustomJpaRepository<T, ID extends Serializable> extends SimpleJpaRe
 
     private final JpaEntityInformation entityInformation;
 
+    private final Map<Class<?>, List<String>> projectionProperties = new ConcurrentHashMap<>();
+
     public CustomJpaRepository(JpaEntityInformation entityInformation, EntityManager entityManager) {
         super(entityInformation, entityManager);
         this.entityManager = entityManager;
@@ -88,6 +99,59 @@ public class CustomJpaRepository<T, ID extends Serializable> extends SimpleJpaRe
         return result.map(item -> projectionFactory.createProjection(projectionType, item));
     }
 
+    @Override
+    public <R> List<R> findAll(Specification<T> spec, Class<R> projectionInterface, int offset, int maxResults, Sort sort) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be less than zero!");
+        }
+        if (maxResults < 1) {
+            throw new IllegalArgumentException("Max results must not be less than one!");
+        }
+        List<String> properties = projectionProperties(projectionInterface);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(getDomainClass());
+        query.multiselect(properties.stream().map(property -> root.get(property).alias(property)).collect(Collectors.toList()));
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, builder));
+        }
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(maxResults)
+                .getResultList();
+        List<R> result = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> values = new HashMap<>(properties.size() * 2);
+            for (String property : properties) {
+                values.put(property, tuple.get(property));
+            }
+            result.add(projectionFactory.createProjection(projectionInterface, values));
+        }
+        return result;
+    }
+
+    @Override
+    public <R> List<R> findAll(Specification<T> spec, Class<R> projectionInterface, int maxResults, Sort sort) {
+        return findAll(spec, projectionInterface, 0, maxResults, sort);
+    }
+
+    private List<String> projectionProperties(Class<?> projectionInterface) {
+        return projectionProperties.computeIfAbsent(projectionInterface, type -> {
+            if (!type.isInterface()) {
+                throw new IllegalArgumentException("Column projection must be an interface -> " + type.getName());
+            }
+            return projectionFactory.getProjectionInformation(type).getInputProperties().stream()
+                    .map(PropertyDescriptor::getName)
+                    .collect(Collectors.toList());
+        });
+    }
+
     private void applyEntityGraphQueryHints(Query query, Map<String, Object> hints) {
         for (Map.Entry<String, Object> hint : hints.entrySet()) {
             query.setHint(hint.getKey(), hint.getValue());
@@ -9,8 +9,10 @@ import com.huntly.jpa.spec.Specifications;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
@@ -43,4 +45,25 @@ public class RepositoryEqualTest {
         assertThat(result.get().getName()).isEqualTo(person.getName());
     }
 
+    @Test
+    public void should_be_able_to_select_projection_columns_by_using_equal() {
+        // given
+        personRepository.save(new PersonBuilder().name("Jack").age(18).married(true).build());
+        personRepository.save(new PersonBuilder().name("Eric").age(20).married(true).build());
+        personRepository.save(new PersonBuilder().name("Aaron").age(18).married(false).build());
+
+        // when
+        Specification<Person> specification = Specifications.<Person>and()
+                .eq("married", Boolean.TRUE)
+                .build();
+
+        List<PersonInfo> result = personRepository.findAll(specification, PersonInfo.class, 10, Sort.by("name"));
+        List<PersonInfo> secondPage = personRepository.findAll(specification, PersonInfo.class, 1, 1, Sort.by("name"));
+
+        // then
+        assertThat(result).extracting(PersonInfo::getName).containsExactly("Eric", "Jack");
+        assertThat(result.get(0)).isNotInstanceOf(Person.class);
+        assertThat(secondPage).extracting(PersonInfo::getName).containsExactly("Jack");
+    }
+
 }
@@ -1,11 +1,18 @@
 package com.huntly.server.config;
 
+import com.huntly.server.domain.constant.AppConstants;
+import com.huntly.server.domain.dto.IndexReconcileResult;
 import com.huntly.server.service.ArticleShortcutService;
+import com.huntly.server.service.LuceneService;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Runs initialization tasks after the application has started
  */
@@ -15,13 +22,29 @@ public class ApplicationStartupRunner implements ApplicationRunner {
 
     private final ArticleShortcutService articleShortcutService;
 
-    public ApplicationStartupRunner(ArticleShortcutService articleShortcutService) {
+    private final ObjectProvider<LuceneService> luceneService;
+
+    private final HuntlyProperties huntlyProperties;
+
+    public ApplicationStartupRunner(ArticleShortcutService articleShortcutService, ObjectProvider<LuceneService> luceneService,
+                                    HuntlyProperties huntlyProperties) {
         this.articleShortcutService = articleShortcutService;
+        this.luceneService = luceneService;
+        this.huntlyProperties = huntlyProperties;
     }
 
     @Override
     public void run(ApplicationArguments args) {
         log.info("Application started, initializing default shortcuts if needed");
         articleShortcutService.initializeDefaultShortcuts();
+
+        // repair index drift left by a crash, whatever is not checked in time is left to the scheduled task
+        LuceneService lucene = luceneService.getIfAvailable();
+        int reconcileSeconds = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneReconcileStartupSeconds(),
+                AppConstants.DEFAULT_LUCENE_RECONCILE_STARTUP_SECONDS);
+        if (lucene != null && reconcileSeconds > 0) {
+            IndexReconcileResult result = lucene.reconcileIndex(TimeUnit.SECONDS.toMillis(reconcileSeconds));
+            log.info("Search index reconciled at startup: {}, checked pages: {}", result.getStatus(), result.getCheckedPages());
+        }
     }
 }
@@ -22,8 +22,165 @@ public class HuntlyProperties {
     private Integer connectorFetchMaxPoolSize;
 
     private Integer defaultFeedFetchIntervalSeconds = 600;
+
+    /**
+     * lucene (default) or sqlite, the sqlite fts5 tables need less memory but have no suggestions, related pages,
+     * facets or semantic search. its tables are built on the first start, switching back and forth needs a reindex.
+     */
+    private String searchEngine;
+
+    /**
+     * read-only sqlite connections for read-only transactions, writes keep a single connection.
+     */
+    private Integer sqliteReadPoolSize;
+
+    /**
+     * milliseconds a sqlite connection waits for a lock before it fails with SQLITE_BUSY.
+     */
+    private Integer sqliteBusyTimeoutMillis;
+
+    /**
+     * max write commands waiting for the database writer thread, callers block when it is full.
+     */
+    private Integer dbWriterQueueCapacity;
+
+    /**
+     * max write commands committed in one transaction.
+     */
+    private Integer dbWriterMaxBatchSize;
     
     private String luceneDir;
+
+    /**
+     * max milliseconds an index change may wait before it is visible to searches.
+     */
+    private Integer luceneRefreshMaxStaleMillis;
+
+    /**
+     * min milliseconds between searcher refreshes when a caller waits for its change.
+     */
+    private Integer luceneRefreshMinStaleMillis;
+
+    /**
+     * max index writes waiting for the indexer thread, callers block when it is full.
+     */
+    private Integer luceneIndexQueueCapacity;
+
+    /**
+     * max milliseconds an applied index write stays uncommitted.
+     */
+    private Integer luceneCommitIntervalMillis;
+
+    /**
+     * commit as soon as this many index writes are uncommitted.
+     */
+    private Integer luceneCommitMaxDocs;
+
+    /**
+     * memory buffered by the index writer before it flushes a segment.
+     */
+    private Double luceneRamBufferMb;
+
+    /**
+     * segments of about the same size the merge policy allows before merging them.
+     */
+    private Double luceneMergeSegmentsPerTier;
+
+    /**
+     * segments below this size are merged as if they had this size.
+     */
+    private Double luceneMergeFloorSegmentMb;
+
+    /**
+     * percent of deleted docs the merge policy tolerates before favoring merges that reclaim them, 5 to 50.
+     */
+    private Double luceneMergeDeletesPctAllowed;
+
+    /**
+     * run the daily index maintenance, which merges segments and expunges deletes.
+     */
+    private Boolean luceneMaintenanceEnabled;
+
+    /**
+     * off-peak time of the daily index maintenance, HH:mm.
+     */
+    private String luceneMaintenanceTime;
+
+    /**
+     * the maintenance merges the index down to this many segments.
+     */
+    private Integer luceneForceMergeMaxSegments;
+
+    /**
+     * the maintenance expunges deletes once this percent of the docs are deleted.
+     */
+    private Double luceneExpungeDeletesPct;
+
+    /**
+     * pages loaded from the database per chunk during a full reindex.
+     */
+    private Integer luceneReindexChunkSize;
+
+    /**
+     * worker threads building documents during a full reindex, defaults to the number of cores.
+     */
+    private Integer luceneReindexThreads;
+
+    /**
+     * pages that may change while a full reindex is running, more abort the reindex.
+     */
+    private Integer luceneReindexJournalMaxPages;
+
+    /**
+     * pages compared per chunk by the index reconciler.
+     */
+    private Integer luceneReconcileChunkSize;
+
+    /**
+     * time the index reconciler may take at startup, 0 skips it.
+     */
+    private Integer luceneReconcileStartupSeconds;
+
+    /**
+     * time a scheduled index reconciler run may take, an unfinished run is continued by the next one.
+     */
+    private Integer luceneReconcileMaxSeconds;
+
+    /**
+     * dimensions of the page embeddings, at most 1024. longer vectors are cut and shorter ones padded,
+     * changing it needs a full reindex.
+     */
+    private Integer luceneEmbeddingDimensions;
+
+    /**
+     * pages sent to the embeddings endpoint in one request.
+     */
+    private Integer luceneEmbeddingBatchSize;
+
+    /**
+     * page items held by the search result cache, 0 disables it.
+     */
+    private Integer luceneSearchCacheMaxItems;
+
+    /**
+     * threads searching index slices in parallel, defaults to the number of cores, 1 searches on the caller thread.
+     */
+    private Integer luceneSearchThreads;
+
+    /**
+     * a search slice groups segments up to this many docs.
+     */
+    private Integer luceneSearchSliceMaxDocs;
+
+    /**
+     * a search slice groups at most this many segments.
+     */
+    private Integer luceneSearchSliceMaxSegments;
+
+    /**
+     * directory of the search suggestion index, defaults to the lucene dir with a _suggest suffix.
+     */
+    private String luceneSuggestDir;
     
     private String dataDir;
 }
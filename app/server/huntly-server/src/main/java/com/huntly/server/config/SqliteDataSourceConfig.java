@@ -0,0 +1,114 @@
+package com.huntly.server.config;
+
+import com.huntly.server.domain.constant.AppConstants;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * One writer connection and a pool of read-only connections on the same sqlite file.
+ * <p>
+ * sqlite allows a single writer, but in WAL mode readers do not wait for it and it does not wait for them.
+ * Read-only transactions, which includes the query methods of the spring data repositories, run on the reader
+ * pool. Everything else runs on the writer, so a read inside a write transaction still sees its own changes.
+ *
+ * @author lcomplete
+ */
+@Slf4j
+@Configuration
+@ConditionalOnExpression("'${spring.datasource.url:}'.toLowerCase().contains('sqlite')")
+public class SqliteDataSourceConfig {
+
+    /**
+     * the writer keeps the spring.datasource.hikari settings, which pin it to one connection.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writerDataSource(DataSourceProperties dataSourceProperties, HuntlyProperties huntlyProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("sqlite-writer");
+        applyPragmas(dataSource, huntlyProperties, false);
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource readerDataSource(DataSourceProperties dataSourceProperties, HuntlyProperties huntlyProperties,
+                                             HikariDataSource writerDataSource) throws SQLException {
+        // the writer creates the file and switches it to WAL before a read-only connection can open it
+        try (Connection ignored = writerDataSource.getConnection()) {
+            log.info("sqlite writer connection opened");
+        }
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        int poolSize = ObjectUtils.defaultIfNull(huntlyProperties.getSqliteReadPoolSize(),
+                AppConstants.DEFAULT_SQLITE_READ_POOL_SIZE);
+        dataSource.setPoolName("sqlite-reader");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(1);
+        dataSource.setConnectionTimeout(writerDataSource.getConnectionTimeout());
+        dataSource.setReadOnly(true);
+        applyPragmas(dataSource, huntlyProperties, true);
+        return dataSource;
+    }
+
+    /**
+     * the lazy proxy fetches the connection on the first statement, when the read-only flag of the transaction is set.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource writerDataSource, HikariDataSource readerDataSource) {
+        return routingDataSource(writerDataSource, readerDataSource);
+    }
+
+    static DataSource routingDataSource(DataSource writer, DataSource reader) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(ReadWriteRoutingDataSource.WRITER, writer, ReadWriteRoutingDataSource.READER, reader));
+        routing.setDefaultTargetDataSource(writer);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * pragmas applied by the driver to every new connection, journal mode is kept in the file so only the writer sets it.
+     */
+    static void applyPragmas(HikariDataSource dataSource, HuntlyProperties huntlyProperties, boolean readOnly) {
+        int busyTimeout = ObjectUtils.defaultIfNull(huntlyProperties.getSqliteBusyTimeoutMillis(),
+                AppConstants.DEFAULT_SQLITE_BUSY_TIMEOUT_MILLIS);
+        dataSource.addDataSourceProperty("busy_timeout", String.valueOf(busyTimeout));
+        // a negative size is in KiB
+        dataSource.addDataSourceProperty("cache_size", String.valueOf(-AppConstants.SQLITE_CACHE_SIZE_KIB));
+        dataSource.addDataSourceProperty("temp_store", "MEMORY");
+        if (readOnly) {
+            // SQLITE_OPEN_READONLY
+            dataSource.addDataSourceProperty("open_mode", "1");
+        } else {
+            dataSource.addDataSourceProperty("journal_mode", "WAL");
+            // durable at checkpoints in WAL mode, a power loss may only drop the last commits
+            dataSource.addDataSourceProperty("synchronous", "NORMAL");
+        }
+    }
+
+    static class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+        static final String WRITER = "writer";
+
+        static final String READER = "reader";
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? READER : WRITER;
+        }
+    }
+}
@@ -1,14 +1,26 @@
 package com.huntly.server.controller;
 
+import com.huntly.common.exceptions.RequestVerifyException;
+import com.huntly.interfaces.external.dto.PageItem;
 import com.huntly.interfaces.external.dto.PageSearchResult;
 import com.huntly.interfaces.external.query.SearchQuery;
+import com.huntly.server.domain.constant.AppConstants;
+import com.huntly.server.domain.dto.IndexReconcileResult;
+import com.huntly.server.domain.dto.IndexSegmentStats;
+import com.huntly.server.domain.dto.ReindexProgress;
+import com.huntly.server.domain.dto.SearchIndexStats;
+import com.huntly.server.domain.dto.SearchSuggestion;
 import com.huntly.server.domain.entity.SearchHistory;
 import com.huntly.server.service.LuceneService;
+import com.huntly.server.service.SearchEngine;
 import com.huntly.server.service.SearchHistoryService;
 import com.huntly.server.service.TweetTrackService;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author lcomplete
@@ -17,19 +29,46 @@ import java.util.List;
 @RequestMapping("/api/search")
 public class SearchController {
 
-    private final LuceneService luceneService;
+    private final SearchEngine searchEngine;
+
+    /**
+     * only there when lucene is the search engine
+     */
+    private final ObjectProvider<LuceneService> luceneService;
 
     private final SearchHistoryService searchHistoryService;
 
-    public SearchController(LuceneService luceneService, SearchHistoryService searchHistoryService) {
+    public SearchController(SearchEngine searchEngine, ObjectProvider<LuceneService> luceneService,
+                            SearchHistoryService searchHistoryService) {
+        this.searchEngine = searchEngine;
         this.luceneService = luceneService;
         this.searchHistoryService = searchHistoryService;
     }
 
+    private LuceneService luceneService() {
+        LuceneService service = luceneService.getIfAvailable();
+        if (service == null) {
+            throw new RequestVerifyException("only available with the lucene search engine");
+        }
+        return service;
+    }
+
     @PostMapping
     public PageSearchResult searchPages(@RequestBody SearchQuery searchQuery) {
         searchHistoryService.save(searchQuery.getQ(), searchQuery.getQueryOptions());
-        return luceneService.searchPages(searchQuery);
+        return searchEngine.searchPages(searchQuery);
+    }
+
+    @GetMapping("/suggest")
+    public List<SearchSuggestion> suggest(@RequestParam("q") String q,
+                                          @RequestParam(value = "limit", required = false) Integer limit) {
+        return searchEngine.suggest(q, limit);
+    }
+
+    @GetMapping("/related/{id}")
+    public List<PageItem> findRelatedPages(@PathVariable("id") Long id,
+                                           @RequestParam(value = "limit", required = false) Integer limit) {
+        return searchEngine.findRelatedPages(id, limit);
     }
 
     @GetMapping("/recent")
@@ -37,4 +76,48 @@ public class SearchController {
         return searchHistoryService.getRecentSearches(5);
     }
 
+    @PostMapping("/reindex")
+    public ReindexProgress reindex() {
+        return searchEngine.indexAllPages();
+    }
+
+    @GetMapping("/reindex")
+    public ReindexProgress getReindexProgress() {
+        return searchEngine.getReindexProgress();
+    }
+
+    @PostMapping("/reconcile")
+    public IndexReconcileResult reconcileIndex(@RequestParam(value = "maxSeconds", required = false) Integer maxSeconds) {
+        return luceneService().reconcileIndex(TimeUnit.SECONDS.toMillis(ObjectUtils.defaultIfNull(maxSeconds,
+                AppConstants.DEFAULT_LUCENE_RECONCILE_MAX_SECONDS)));
+    }
+
+    @GetMapping("/reconcile")
+    public IndexReconcileResult getLastReconcileResult() {
+        return luceneService().getLastReconcileResult();
+    }
+
+    /**
+     * queue the pages still missing an embedding of the current model
+     */
+    @PostMapping("/embeddings")
+    public int embedMissingPages() {
+        return luceneService().embedMissingPages();
+    }
+
+    @GetMapping("/segments")
+    public IndexSegmentStats getSegmentStats() {
+        return luceneService().getSegmentStats();
+    }
+
+    @PostMapping("/maintain")
+    public IndexSegmentStats maintainIndex() {
+        return luceneService().maintainIndex();
+    }
+
+    @GetMapping("/index-stats")
+    public SearchIndexStats getIndexStats() {
+        return luceneService().getIndexStats();
+    }
+
 }
@@ -11,6 +11,7 @@ import com.huntly.interfaces.external.model.GitHubSetting;
 import com.huntly.interfaces.external.model.LoginRequest;
 import com.huntly.server.connector.rss.FeedUtils;
 import com.huntly.server.domain.dto.DatabaseBackupInfo;
+import com.huntly.server.domain.dto.DatabaseWriterStats;
 import com.huntly.server.domain.entity.Connector;
 import com.huntly.server.domain.entity.Folder;
 import com.huntly.server.domain.entity.GlobalSetting;
@@ -63,7 +64,9 @@ public class SettingController {
 
     private final DatabaseBackupService databaseBackupService;
 
-    public SettingController(TwitterUserSettingService twitterUserSettingService, ConnectorService connectorService, OPMLService opmlService, FeedsService feedsService, FolderService folderService, UserService userService, GlobalSettingService globalSettingService, DatabaseBackupService databaseBackupService) {
+    private final DatabaseWriter databaseWriter;
+
+    public SettingController(TwitterUserSettingService twitterUserSettingService, ConnectorService connectorService, OPMLService opmlService, FeedsService feedsService, FolderService folderService, UserService userService, GlobalSettingService globalSettingService, DatabaseBackupService databaseBackupService, DatabaseWriter databaseWriter) {
         this.twitterUserSettingService = twitterUserSettingService;
         this.connectorService = connectorService;
         this.opmlService = opmlService;
@@ -72,6 +75,7 @@ public class SettingController {
         this.userService = userService;
         this.globalSettingService = globalSettingService;
         this.databaseBackupService = databaseBackupService;
+        this.databaseWriter = databaseWriter;
     }
 
     @PostMapping("github/save-token")
@@ -229,6 +233,11 @@ public class SettingController {
         return ApiResult.ok(databaseBackupService.listBackups());
     }
 
+    @GetMapping("general/database-writer-stats")
+    public DatabaseWriterStats getDatabaseWriterStats() {
+        return databaseWriter.getStats();
+    }
+
     @GetMapping("general/database-backups/download")
     public ResponseEntity<Resource> downloadDatabaseBackup(@RequestParam String fileName) throws IOException {
         Path backupPath;
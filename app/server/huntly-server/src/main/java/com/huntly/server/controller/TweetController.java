@@ -53,7 +53,7 @@ public class TweetController {
         // Get minLikes from server-side GlobalSetting instead of extension request
         int minLikes = globalSettingService.getAutoSaveTweetMinLikes();
         parsedPages.forEach(parsedPage -> {
-            // SQLite only supports one connection. To avoid other threads from being unable to obtain the SQLite connection, asynchronous events are used
+            // SQLite only has one writer connection. To avoid holding it for the whole batch, asynchronous events are used
             eventPublisher.publishTweetPageCaptureEvent(new TweetPageCaptureEvent(parsedPage, tweets.getLoginScreenName(), tweets.getBrowserScreenName(), minLikes));
             count.getAndIncrement();
         });
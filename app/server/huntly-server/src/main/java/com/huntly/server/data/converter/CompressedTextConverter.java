@@ -0,0 +1,70 @@
+package com.huntly.server.data.converter;
+
+import com.huntly.server.util.CompressionUtils;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * stores large text columns deflated, behind a marker that utf-8 text never starts with.
+ * <p>
+ * short text, or text that does not get smaller, is stored as its utf-8 bytes. Rows written before the column was
+ * compressed come back from sqlite as the same utf-8 bytes, so they are read as they are.
+ *
+ * @author lcomplete
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    /**
+     * a nul byte, "HD" and the format version.
+     */
+    private static final byte[] DEFLATE_MARKER = {0, 'H', 'D', 1};
+
+    static final int MIN_COMPRESS_BYTES = 512;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        return text == null ? null : encode(text);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        return bytes == null ? null : decode(bytes);
+    }
+
+    public static byte[] encode(String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < MIN_COMPRESS_BYTES) {
+            return raw;
+        }
+        byte[] deflated = CompressionUtils.deflate(raw);
+        if (deflated.length + DEFLATE_MARKER.length >= raw.length) {
+            return raw;
+        }
+        byte[] encoded = new byte[DEFLATE_MARKER.length + deflated.length];
+        System.arraycopy(DEFLATE_MARKER, 0, encoded, 0, DEFLATE_MARKER.length);
+        System.arraycopy(deflated, 0, encoded, DEFLATE_MARKER.length, deflated.length);
+        return encoded;
+    }
+
+    public static String decode(byte[] bytes) {
+        if (!isDeflated(bytes)) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return CompressionUtils.inflate(bytes, DEFLATE_MARKER.length, bytes.length - DEFLATE_MARKER.length);
+    }
+
+    static boolean isDeflated(byte[] bytes) {
+        if (bytes.length < DEFLATE_MARKER.length) {
+            return false;
+        }
+        for (int i = 0; i < DEFLATE_MARKER.length; i++) {
+            if (bytes[i] != DEFLATE_MARKER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
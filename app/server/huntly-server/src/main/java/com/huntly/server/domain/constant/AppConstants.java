@@ -9,6 +9,205 @@ import lombok.experimental.UtilityClass;
 public class AppConstants {
     public static final String DEFAULT_LUCENE_DIR = "lucene";
 
+    public static final Integer DEFAULT_LUCENE_REFRESH_MAX_STALE_MILLIS = 1000;
+
+    public static final Integer DEFAULT_LUCENE_REFRESH_MIN_STALE_MILLIS = 50;
+
+    public static final Integer DEFAULT_LUCENE_INDEX_QUEUE_CAPACITY = 10000;
+
+    public static final Integer DEFAULT_LUCENE_COMMIT_INTERVAL_MILLIS = 1000;
+
+    public static final Integer DEFAULT_LUCENE_COMMIT_MAX_DOCS = 500;
+
+    public static final long LUCENE_INDEX_QUEUE_CLOSE_TIMEOUT_MILLIS = 30_000L;
+
+    public static final Integer DEFAULT_LUCENE_REINDEX_CHUNK_SIZE = 200;
+
+    public static final Integer DEFAULT_LUCENE_REINDEX_JOURNAL_MAX_PAGES = 100_000;
+
+    public static final Double DEFAULT_LUCENE_RAM_BUFFER_MB = 32.0;
+
+    public static final Double DEFAULT_LUCENE_MERGE_SEGMENTS_PER_TIER = 10.0;
+
+    /**
+     * frequent small commits flush tiny segments, merging everything below this size as if it was this size
+     * gets rid of them sooner.
+     */
+    public static final Double DEFAULT_LUCENE_MERGE_FLOOR_SEGMENT_MB = 16.0;
+
+    public static final Double DEFAULT_LUCENE_MERGE_DELETES_PCT_ALLOWED = 20.0;
+
+    public static final String DEFAULT_LUCENE_MAINTENANCE_TIME = "04:30";
+
+    public static final Integer DEFAULT_LUCENE_FORCE_MERGE_MAX_SEGMENTS = 5;
+
+    /**
+     * the maintenance expunges deletes once this percent of the docs are deleted.
+     */
+    public static final Double DEFAULT_LUCENE_EXPUNGE_DELETES_PCT = 10.0;
+
+    public static final Integer DEFAULT_LUCENE_RECONCILE_CHUNK_SIZE = 2000;
+
+    public static final Integer DEFAULT_LUCENE_RECONCILE_STARTUP_SECONDS = 30;
+
+    public static final Integer DEFAULT_LUCENE_RECONCILE_MAX_SECONDS = 300;
+
+    public static final Integer DEFAULT_LUCENE_SEARCH_CACHE_MAX_ITEMS = 5000;
+
+    public static final Integer DEFAULT_LUCENE_SEARCH_SLICE_MAX_DOCS = 50_000;
+
+    public static final Integer DEFAULT_LUCENE_SEARCH_SLICE_MAX_SEGMENTS = 5;
+
+    public static final int DEFAULT_LUCENE_SUGGEST_LIMIT = 10;
+
+    public static final int LUCENE_SUGGEST_MAX_LIMIT = 50;
+
+    /**
+     * suggestion updates waiting for the suggest thread, further updates are dropped until the next rebuild.
+     */
+    public static final int LUCENE_SUGGEST_QUEUE_CAPACITY = 10000;
+
+    public static final int DEFAULT_LUCENE_RELATED_LIMIT = 10;
+
+    public static final int LUCENE_RELATED_MAX_LIMIT = 50;
+
+    public static final int LUCENE_RELATED_MAX_QUERY_TERMS = 25;
+
+    /**
+     * terms of a page whose doc freq is looked up when finding related pages, bounds the cost for long pages.
+     */
+    public static final int LUCENE_RELATED_MAX_CANDIDATE_TERMS = 1000;
+
+    /**
+     * terms in more than this percent of the docs are too common to tell pages apart.
+     */
+    public static final int LUCENE_RELATED_MAX_DOC_FREQ_PERCENT = 20;
+
+    public static final int LUCENE_RELATED_CACHE_MAX_PAGES = 1000;
+
+    public static final int LUCENE_RELATED_CACHE_EXPIRE_MINUTES = 10;
+
+    /**
+     * segmented words of recent search keywords.
+     */
+    public static final int LUCENE_SEGMENT_CACHE_MAX_KEYWORDS = 1000;
+
+    public static final int DEFAULT_LUCENE_EMBEDDING_DIMENSIONS = 512;
+
+    public static final int DEFAULT_LUCENE_EMBEDDING_BATCH_SIZE = 32;
+
+    public static final String DEFAULT_EMBEDDING_MODEL = "text-embedding-3-small";
+
+    /**
+     * only the start of a page is embedded, it stays below the input limit of common embedding models.
+     */
+    public static final int LUCENE_EMBEDDING_MAX_CHARS = 4000;
+
+    /**
+     * pages waiting for their embeddings, pages beyond are picked up by the next backfill.
+     */
+    public static final int LUCENE_EMBEDDING_QUEUE_CAPACITY = 10000;
+
+    /**
+     * recently used vectors kept in memory in front of the embedding cache table.
+     */
+    public static final int LUCENE_EMBEDDING_MEMORY_CACHE_SIZE = 2000;
+
+    /**
+     * how long the embedding settings are reused before they are read again.
+     */
+    public static final long EMBEDDING_SETTING_REFRESH_MILLIS = 60_000;
+
+    /**
+     * the k of reciprocal rank fusion, higher values flatten the difference between top ranks.
+     */
+    public static final int LUCENE_HYBRID_RRF_K = 60;
+
+    /**
+     * hybrid search fuses at most this many hits of each kind.
+     */
+    public static final int LUCENE_HYBRID_MAX_HITS = 500;
+
+    /**
+     * snippets per result of the mcp search tool, searches of the web ui ask for none.
+     */
+    public static final int DEFAULT_MCP_SNIPPET_COUNT = 1;
+
+    public static final int LUCENE_SNIPPET_MAX_COUNT = 5;
+
+    /**
+     * snippets end at the sentence boundary closest to this length.
+     */
+    public static final int DEFAULT_LUCENE_SNIPPET_LENGTH = 160;
+
+    public static final int LUCENE_SNIPPET_MAX_LENGTH = 1000;
+
+    /**
+     * only the start of longer content is searched for snippets, so huge pages do not slow down a result page.
+     */
+    public static final int LUCENE_SNIPPET_MAX_CONTENT_LENGTH = 100_000;
+
+    /**
+     * how long a replaced searcher is kept for search cursors.
+     */
+    public static final double LUCENE_SEARCH_CURSOR_MAX_AGE_SECONDS = 600;
+
+    public static final long LUCENE_REINDEX_SWAP_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    /**
+     * bump when the document layout changes, an index with an older version is rebuilt on startup.
+     * 2: n-gram subfields for title, url and author.
+     * 3: content no longer stored as text, a deflated copy is stored last.
+     * 4: numeric doc values on the facet fields.
+     * 5: numeric doc values on the timestamps and highlight count.
+     * 6: status fields only indexed as doc values, so status changes are updated in place.
+     * 7: term vectors on title and content for related pages.
+     * 8: offsets in the content postings for search snippets.
+     * 9: numeric id and updated at doc values for the index reconciler.
+     */
+    public static final int LUCENE_SCHEMA_VERSION = 9;
+
+    /**
+     * max score the recent sort adds, a title match scores 100 and a content match 5.
+     */
+    public static final float LUCENE_RECENCY_BOOST_WEIGHT = 20f;
+
+    public static final long LUCENE_RECENCY_PIVOT_DAYS = 30;
+
+    public static final int DEFAULT_SQLITE_READ_POOL_SIZE = 4;
+
+    public static final int DEFAULT_SQLITE_BUSY_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * page cache of each sqlite connection.
+     */
+    public static final int SQLITE_CACHE_SIZE_KIB = 16 * 1024;
+
+    public static final int DEFAULT_DB_WRITER_QUEUE_CAPACITY = 10000;
+
+    public static final int DEFAULT_DB_WRITER_MAX_BATCH_SIZE = 64;
+
+    public static final long DB_WRITER_CLOSE_TIMEOUT_MILLIS = 30_000L;
+
+    public static final String SEARCH_ENGINE_LUCENE = "lucene";
+
+    public static final String SEARCH_ENGINE_SQLITE = "sqlite";
+
+    /**
+     * pages read and written per write command of a sqlite search rebuild, other writes wait for one chunk at most.
+     */
+    public static final int SQLITE_SEARCH_REINDEX_CHUNK_SIZE = 200;
+
+    /**
+     * rows migrated per transaction when existing article content is compressed or moved to the page content store.
+     */
+    public static final int CONTENT_MIGRATION_CHUNK_SIZE = 100;
+
+    /**
+     * bm25 weight of a title match in the sqlite search, lucene boosts the title 20 times the content.
+     */
+    public static final double SQLITE_SEARCH_TITLE_WEIGHT = 20.0;
+
     public static final String HTTP_FEED_CACHE_DIR = "feed_cache";
 
     public static final Long HTTP_FEED_CACHE_MAXSIZE = 50L * 1024L * 1024L; // 50 MB
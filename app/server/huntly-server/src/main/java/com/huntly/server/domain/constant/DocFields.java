@@ -11,6 +11,10 @@ public class DocFields {
     public static final String ID = "id";
     public static final String TITLE = "title";
     public static final String CONTENT = "content";
+    /**
+     * deflated content text, always the last stored field of a doc so list loading can stop before it
+     */
+    public static final String CONTENT_STORED = "content_stored";
     public static final String DESCRIPTION = "description";
     public static final String SOURCE_ID = "sourceId";
     public static final String CONNECTOR_ID = "connectorId";
@@ -31,4 +35,24 @@ public class DocFields {
     public static final String HIGHLIGHT_COUNT = "highlightCount";
     public static final String COLLECTION_ID = "collectionId";
     public static final String COLLECTED_AT = "collectedAt";
+    /**
+     * epoch millis of the page updated at, the watermark the index reconciler compares with the page table
+     */
+    public static final String UPDATED_AT = "updatedAt";
+
+    /**
+     * knn vector of the page embedding
+     */
+    public static final String EMBEDDING = "embedding";
+
+    /**
+     * model of the embedding, vectors of other models are never compared with a query
+     */
+    public static final String EMBEDDING_MODEL = "embeddingModel";
+    /**
+     * n-gram subfields used for substring matching
+     */
+    public static final String TITLE_NGRAM = "title_ngram";
+    public static final String URL_NGRAM = "url_ngram";
+    public static final String AUTHOR_NGRAM = "author_ngram";
 }
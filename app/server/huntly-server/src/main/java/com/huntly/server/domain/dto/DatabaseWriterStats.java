@@ -0,0 +1,52 @@
+package com.huntly.server.domain.dto;
+
+import lombok.Data;
+
+/**
+ * runtime statistics of the database writer queue.
+ *
+ * @author lcomplete
+ */
+@Data
+public class DatabaseWriterStats {
+    private Integer queueDepth;
+
+    private Integer queueCapacity;
+
+    private Long submittedCommands;
+
+    private Long completedCommands;
+
+    private Long failedCommands;
+
+    /**
+     * commands run on the caller thread because it already holds a write transaction.
+     */
+    private Long inlineCommands;
+
+    private Long batchCount;
+
+    private Double avgBatchSize;
+
+    private Integer maxBatchSize;
+
+    /**
+     * batches rolled back by a failing command, their commands were retried one transaction each.
+     */
+    private Long rolledBackBatches;
+
+    private Long lastBatchMillis;
+
+    private Long maxBatchMillis;
+
+    private Long backpressureCount;
+
+    private Long backpressureWaitMillis;
+
+    /**
+     * side effects of committed commands, like index updates, not run yet.
+     */
+    private Integer pendingAfterCommitActions;
+
+    private String lastError;
+}
@@ -0,0 +1,68 @@
+package com.huntly.server.domain.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * result of an index reconciler run, which compares the lucene index with the page table and repairs the drift.
+ *
+ * @author lcomplete
+ */
+@Data
+public class IndexReconcileResult {
+    public static final String STATUS_IDLE = "IDLE";
+
+    /**
+     * the pages up to the last id were checked, the next run starts over
+     */
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    /**
+     * out of time, the next run continues after lastCheckedId
+     */
+    public static final String STATUS_PARTIAL = "PARTIAL";
+
+    /**
+     * a full reindex is running or pending, it fixes everything anyway
+     */
+    public static final String STATUS_SKIPPED = "SKIPPED";
+
+    public static final String STATUS_FAILED = "FAILED";
+
+    private String status;
+
+    /**
+     * the run checked the pages after this id
+     */
+    private Long fromId;
+
+    private Long lastCheckedId;
+
+    private Long checkedPages;
+
+    /**
+     * pages without a doc in the index
+     */
+    private Long missingDocs;
+
+    /**
+     * docs whose updated at differs from the page
+     */
+    private Long staleDocs;
+
+    /**
+     * docs of pages that no longer exist
+     */
+    private Long orphanDocs;
+
+    private Long repairedDocs;
+
+    private Long failedRepairs;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private String error;
+}
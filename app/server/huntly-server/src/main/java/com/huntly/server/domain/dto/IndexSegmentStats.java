@@ -0,0 +1,65 @@
+package com.huntly.server.domain.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * segments of the lucene search index and the merges and maintenance runs that shaped them.
+ *
+ * @author lcomplete
+ */
+@Data
+public class IndexSegmentStats {
+    public static final String ACTION_FORCE_MERGE = "FORCE_MERGE";
+
+    public static final String ACTION_EXPUNGE_DELETES = "EXPUNGE_DELETES";
+
+    public static final String ACTION_NONE = "NONE";
+
+    public static final String ACTION_SKIPPED = "SKIPPED";
+
+    private Integer segmentCount;
+
+    private Integer numDocs;
+
+    /**
+     * docs including the deleted ones not merged away yet
+     */
+    private Integer maxDoc;
+
+    private Integer deletedDocs;
+
+    private Double deletedDocsRatio;
+
+    /**
+     * size of all segments, in bytes
+     */
+    private Long sizeBytes;
+
+    private Long largestSegmentBytes;
+
+    /**
+     * background and forced merges since startup
+     */
+    private Long mergeCount;
+
+    private Long totalMergeMillis;
+
+    private Long lastMergeMillis;
+
+    private Instant lastMergeAt;
+
+    private Boolean maintenanceRunning;
+
+    /**
+     * FORCE_MERGE, EXPUNGE_DELETES, NONE when the index needed nothing, SKIPPED during a full reindex
+     */
+    private String lastMaintenanceAction;
+
+    private Instant lastMaintenanceAt;
+
+    private Long lastMaintenanceMillis;
+
+    private String lastMaintenanceError;
+}
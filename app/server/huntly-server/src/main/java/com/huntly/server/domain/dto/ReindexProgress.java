@@ -0,0 +1,44 @@
+package com.huntly.server.domain.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * progress of a full search index rebuild.
+ *
+ * @author lcomplete
+ */
+@Data
+public class ReindexProgress {
+    public static final String STATUS_IDLE = "IDLE";
+
+    public static final String STATUS_RUNNING = "RUNNING";
+
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    public static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * IDLE, RUNNING, SWAPPING, COMPLETED or FAILED
+     */
+    private String status;
+
+    private Long totalPages;
+
+    private Long processedPages;
+
+    private Long failedPages;
+
+    private Double percent;
+
+    private Double pagesPerSecond;
+
+    private Long etaSeconds;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private String error;
+}
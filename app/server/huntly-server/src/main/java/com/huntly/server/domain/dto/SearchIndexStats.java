@@ -0,0 +1,103 @@
+package com.huntly.server.domain.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * runtime statistics of the lucene search index.
+ *
+ * @author lcomplete
+ */
+@Data
+public class SearchIndexStats {
+    private Long searcherVersion;
+
+    private Boolean searcherCurrent;
+
+    private Integer numDocs;
+
+    private Long refreshCount;
+
+    private Instant lastRefreshAt;
+
+    /**
+     * time from the oldest pending change to the refresh that made it visible.
+     */
+    private Long lastRefreshLagMillis;
+
+    private Long maxRefreshLagMillis;
+
+    private Long avgRefreshLagMillis;
+
+    /**
+     * age of the oldest change not yet visible to searches, 0 when the searcher is up to date.
+     */
+    private Long pendingRefreshMillis;
+
+    private Integer indexQueueDepth;
+
+    private Integer indexQueueCapacity;
+
+    private Long enqueuedOperations;
+
+    private Long appliedOperations;
+
+    /**
+     * writes accepted but not yet durable on disk.
+     */
+    private Long uncommittedOperations;
+
+    private Long commitCount;
+
+    private Double avgOperationsPerCommit;
+
+    private Instant lastCommitAt;
+
+    private Long failedOperations;
+
+    /**
+     * times a caller found the index queue full and had to wait.
+     */
+    private Long backpressureCount;
+
+    private Long backpressureWaitMillis;
+
+    private String lastIndexError;
+
+    /**
+     * pages changed during a running reindex, they are read again from the table when the rebuilt index is swapped in.
+     */
+    private Integer reindexJournalPages;
+
+    private Long searchCacheSize;
+
+    private Long searchCacheHits;
+
+    private Long searchCacheMisses;
+
+    private Double searchCacheHitRate;
+
+    private Long segmentCacheSize;
+
+    private Double segmentCacheHitRate;
+
+    /**
+     * missing, stale and orphan docs found by the index reconciler since startup.
+     */
+    private Long reconcileDriftDocs;
+
+    private Instant lastReconcileAt;
+
+    /**
+     * pages waiting for their embeddings.
+     */
+    private Integer embeddingQueueDepth;
+
+    /**
+     * texts sent to the embeddings endpoint since startup, cached ones are not counted.
+     */
+    private Long embeddedTexts;
+
+    private Long failedEmbeddings;
+}
@@ -0,0 +1,36 @@
+package com.huntly.server.domain.dto;
+
+import lombok.Data;
+
+/**
+ * a search-as-you-type suggestion.
+ *
+ * @author lcomplete
+ */
+@Data
+public class SearchSuggestion {
+    public static final String TYPE_TITLE = "title";
+
+    public static final String TYPE_AUTHOR = "author";
+
+    public static final String TYPE_SITE = "site";
+
+    public static final String TYPE_COLLECTION = "collection";
+
+    private String text;
+
+    /**
+     * title, author, site or collection
+     */
+    private String type;
+
+    /**
+     * the page a title suggestion belongs to
+     */
+    private Long pageId;
+
+    /**
+     * the collection a collection suggestion belongs to
+     */
+    private Long collectionId;
+}
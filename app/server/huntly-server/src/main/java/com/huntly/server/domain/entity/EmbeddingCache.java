@@ -0,0 +1,42 @@
+package com.huntly.server.domain.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * embedding vectors by content hash, so unchanged pages are never sent to the embeddings endpoint again.
+ *
+ * @author lcomplete
+ */
+@Data
+@Entity
+@Table(name = "embedding_cache")
+public class EmbeddingCache implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * sha-256 of the model and the embedded text
+     */
+    @Id
+    @Column(name = "content_hash")
+    private String contentHash;
+
+    @Column(name = "model")
+    private String model;
+
+    @Column(name = "dimensions")
+    private Integer dimensions;
+
+    /**
+     * little endian floats
+     */
+    @Column(name = "vector")
+    private byte[] vector;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+}
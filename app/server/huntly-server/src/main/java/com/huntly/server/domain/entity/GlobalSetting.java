@@ -43,6 +43,12 @@ public class GlobalSetting implements Serializable {
     @Column(name = "open_api_model")
     private String openApiModel;
 
+    @Column(name = "open_api_embedding_model")
+    private String openApiEmbeddingModel;
+
+    @Column(name = "is_enable_semantic_search")
+    private Boolean enableSemanticSearch;
+
     @Column(name = "article_summary_prompt", columnDefinition = "TEXT")
     private String articleSummaryPrompt;
 
@@ -1,11 +1,20 @@
 package com.huntly.server.domain.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.huntly.server.data.converter.CompressedTextConverter;
+import com.huntly.server.domain.projection.PageListView;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import java.io.Serializable;
 import java.time.Instant;
+import java.util.function.Supplier;
 
 /**
  * @author lcomplete
@@ -27,10 +36,11 @@ import java.time.Instant;
         @Index(name = "idx_page_created_at", columnList = "created_at DESC"),
         @Index(name = "idx_page_unique_id", columnList = "page_unique_id"),
         @Index(name = "idx_page_collection_id", columnList = "collection_id"),
-        @Index(name = "idx_page_collected_at", columnList = "collected_at DESC")
+        @Index(name = "idx_page_collected_at", columnList = "collected_at DESC"),
+        @Index(name = "idx_page_content_hash", columnList = "content_hash")
 })
 @DynamicUpdate
-public class Page implements Serializable {
+public class Page implements Serializable, PageListView {
 
     private static final long serialVersionUID = -7326920334191810988L;
 
@@ -81,9 +91,40 @@ public class Page implements Serializable {
     @Column(name = "category")
     private String category;
 
-    @Column(name = "content")
+    /**
+     * the article body, kept in the page content store and loaded on first access.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String content;
 
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient Supplier<String> contentLoader;
+
+    /**
+     * id of the body in the page content store, the sha-256 of the body.
+     */
+    @Column(name = "content_hash")
+    @JsonIgnore
+    private String contentHash;
+
+    /**
+     * the body of pages saved before the content store, moved to the store in the background or by the next save.
+     */
+    @Column(name = "content")
+    @Convert(converter = CompressedTextConverter.class)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String inlineContent;
+
     @Column(name = "content_type")
     private Integer contentType;
 
@@ -160,4 +201,33 @@ public class Page implements Serializable {
 
     @Transient
     private String contentText;
+
+    public String getContent() {
+        Supplier<String> loader = contentLoader;
+        if (loader != null) {
+            content = loader.get();
+            contentLoader = null;
+        }
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+        this.contentLoader = null;
+    }
+
+    /**
+     * defer loading the stored body to the first {@link #getContent()}.
+     */
+    public void loadContentLazily(Supplier<String> contentLoader) {
+        this.content = null;
+        this.contentLoader = contentLoader;
+    }
+
+    /**
+     * whether the stored body was never loaded, so it cannot have been changed either.
+     */
+    public boolean hasUnloadedContent() {
+        return contentLoader != null;
+    }
 }
\ No newline at end of file
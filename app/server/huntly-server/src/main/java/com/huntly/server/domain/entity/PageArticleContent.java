@@ -1,5 +1,6 @@
 package com.huntly.server.domain.entity;
 
+import com.huntly.server.data.converter.CompressedTextConverter;
 import lombok.Data;
 
 import javax.persistence.*;
@@ -24,6 +25,7 @@ public class PageArticleContent implements Serializable {
     private Long pageId;
 
     @Column(name = "content")
+    @Convert(converter = CompressedTextConverter.class)
     private String content;
     
     @Column(name = "article_content_category")
@@ -0,0 +1,30 @@
+package com.huntly.server.domain.entity;
+
+import com.huntly.server.data.converter.CompressedTextConverter;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * article bodies of pages, stored once per distinct body.
+ *
+ * @author lcomplete
+ */
+@Data
+@Entity
+@Table(name = "page_content")
+public class PageContent implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * sha-256 of the body.
+     */
+    @Id
+    @Column(name = "id")
+    private String id;
+
+    @Column(name = "content")
+    @Convert(converter = CompressedTextConverter.class)
+    private String content;
+}
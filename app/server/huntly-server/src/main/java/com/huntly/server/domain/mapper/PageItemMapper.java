@@ -3,8 +3,8 @@ package com.huntly.server.domain.mapper;
 import com.huntly.interfaces.external.dto.PageItem;
 import com.huntly.interfaces.external.query.PageListSort;
 import com.huntly.server.domain.entity.Connector;
-import com.huntly.server.domain.entity.Page;
 import com.huntly.server.domain.entity.Source;
+import com.huntly.server.domain.projection.PageListView;
 import org.mapstruct.Mapper;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.factory.Mappers;
@@ -13,9 +13,9 @@ import org.mapstruct.factory.Mappers;
 public interface PageItemMapper {
     PageItemMapper INSTANCE = Mappers.getMapper(PageItemMapper.class);
 
-    PageItem fromPage(Page page);
+    PageItem fromPage(PageListView page);
 
-    default PageItem updateRecordAt(@MappingTarget PageItem item, Page page, PageListSort listSort) {
+    default PageItem updateRecordAt(@MappingTarget PageItem item, PageListView page, PageListSort listSort) {
         switch (listSort) {
             case SAVED_AT:
                 item.setRecordAt(page.getSavedAt());
@@ -0,0 +1,77 @@
+package com.huntly.server.domain.projection;
+
+import java.time.Instant;
+
+/**
+ * the page columns shown in page lists, selected without the article content.
+ * <p>
+ * every getter must match an attribute of the page entity, the projection query selects them by name.
+ *
+ * @author lcomplete
+ */
+public interface PageListView {
+    Long getId();
+
+    Integer getSourceId();
+
+    Integer getConnectorId();
+
+    Integer getConnectorType();
+
+    Integer getFolderId();
+
+    String getTitle();
+
+    String getUrl();
+
+    String getPageUniqueId();
+
+    String getDescription();
+
+    String getAuthor();
+
+    String getLanguage();
+
+    String getCategory();
+
+    Integer getReadCount();
+
+    Integer getContentType();
+
+    Long getVoteScore();
+
+    Integer getLibrarySaveStatus();
+
+    Boolean getStarred();
+
+    Boolean getReadLater();
+
+    Boolean getMarkRead();
+
+    String getThumbUrl();
+
+    /**
+     * tweets are rendered from it in the list.
+     */
+    String getPageJsonProperties();
+
+    Integer getHighlightCount();
+
+    Long getCollectionId();
+
+    Instant getCreatedAt();
+
+    Instant getLastReadAt();
+
+    Instant getSavedAt();
+
+    Instant getStarredAt();
+
+    Instant getReadLaterAt();
+
+    Instant getArchivedAt();
+
+    Instant getConnectedAt();
+
+    Instant getCollectedAt();
+}
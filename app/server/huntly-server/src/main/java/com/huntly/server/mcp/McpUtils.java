@@ -146,7 +146,8 @@ public class McpUtils {
                     .recordAt(pageItem.getRecordAt() != null ? pageItem.getRecordAt().toString() : null)
                     .publishedAt(pageItem.getConnectedAt() != null ? pageItem.getConnectedAt().toString() : null)
                     .voteScore(pageItem.getVoteScore())
-                    .connectorId(pageItem.getConnectorId());
+                    .connectorId(pageItem.getConnectorId())
+                    .snippets(pageItem.getSnippets());
 
             if (isGithub) {
                 builder.language(pageItem.getLanguage());
@@ -373,6 +374,20 @@ public class McpUtils {
         }
     }
 
+    /**
+     * Parse long from arguments, null if absent
+     */
+    public Long getLongArg(Map<String, Object> args, String key) {
+        Object value = args.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return Long.parseLong(value.toString());
+    }
+
     /**
      * Parse boolean from arguments with default
      */
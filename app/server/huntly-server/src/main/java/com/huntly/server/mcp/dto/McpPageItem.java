@@ -44,6 +44,10 @@ public class McpPageItem {
     private String connectorName;
     private Long collectionId;
     private String collectedAt;
+    /**
+     * Content passages matching a search, matches wrapped in em tags
+     */
+    private List<String> snippets;
 
     // Tweet-specific fields
     private Long favoriteCount;
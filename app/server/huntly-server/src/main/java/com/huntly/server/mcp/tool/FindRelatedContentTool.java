@@ -0,0 +1,85 @@
+package com.huntly.server.mcp.tool;
+
+import com.huntly.interfaces.external.dto.PageItem;
+import com.huntly.server.domain.constant.AppConstants;
+import com.huntly.server.mcp.McpUtils;
+import com.huntly.server.service.SearchEngine;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * MCP Tool: find_related_content - Find saved content similar to a given item
+ */
+@Component
+public class FindRelatedContentTool implements McpTool {
+
+    private final SearchEngine searchEngine;
+    private final McpUtils mcpUtils;
+
+    public FindRelatedContentTool(SearchEngine searchEngine, McpUtils mcpUtils) {
+        this.searchEngine = searchEngine;
+        this.mcpUtils = mcpUtils;
+    }
+
+    @Override
+    public String getName() {
+        return "find_related_content";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Find content in Huntly related to a given item, ranked by the distinctive terms its title and content share with other items. Use this after reading an item to discover similar articles, tweets or repos without guessing keywords. IMPORTANT: Each result includes 'huntlyUrl' (Huntly's reading page) and 'url' (original source). When referencing content, prefer using huntlyUrl as the primary link.";
+    }
+
+    @Override
+    public Map<String, Object> getInputSchema() {
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("id", Map.of(
+                "type", "integer",
+                "description", "ID of the content to find related items for"
+        ));
+        properties.put("limit", Map.of(
+                "type", "integer",
+                "minimum", 1,
+                "maximum", AppConstants.LUCENE_RELATED_MAX_LIMIT,
+                "default", AppConstants.DEFAULT_LUCENE_RELATED_LIMIT,
+                "description", "Number of related items to return, max " + AppConstants.LUCENE_RELATED_MAX_LIMIT
+        ));
+        properties.put("title_only", Map.of(
+                "type", "boolean",
+                "default", false,
+                "description", "Return only title and URL in response to reduce token usage"
+        ));
+
+        schema.put("properties", properties);
+        schema.put("required", List.of("id"));
+        return schema;
+    }
+
+    @Override
+    public Object execute(Map<String, Object> arguments) {
+        Long id = mcpUtils.getLongArg(arguments, "id");
+        if (id == null) {
+            return Map.of("error", "id is required");
+        }
+        int limit = mcpUtils.getIntArg(arguments, "limit", AppConstants.DEFAULT_LUCENE_RELATED_LIMIT);
+        boolean titleOnly = mcpUtils.getBoolArg(arguments, "title_only", false);
+
+        List<PageItem> items = searchEngine.findRelatedPages(id, limit);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", id);
+        response.put("count", items.size());
+        response.put("items", items.stream()
+                .map(item -> mcpUtils.toMcpPageItem(item, titleOnly))
+                .collect(Collectors.toList()));
+        return response;
+    }
+}
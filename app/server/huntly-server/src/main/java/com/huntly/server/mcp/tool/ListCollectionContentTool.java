@@ -85,7 +85,7 @@ public class ListCollectionContentTool implements McpTool {
 
     @Override
     public Object execute(Map<String, Object> arguments) {
-        Long collectionId = getLongArg(arguments, "collection_id");
+        Long collectionId = mcpUtils.getLongArg(arguments, "collection_id");
         boolean unsorted = mcpUtils.getBoolArg(arguments, "unsorted", false);
         String sourceType = mcpUtils.getStringArg(arguments, "source_type");
         String startDate = mcpUtils.getStringArg(arguments, "start_date");
@@ -134,17 +134,6 @@ public class ListCollectionContentTool implements McpTool {
         return response;
     }
 
-    private Long getLongArg(Map<String, Object> arguments, String key) {
-        Object value = arguments.get(key);
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof Number) {
-            return ((Number) value).longValue();
-        }
-        return Long.parseLong(value.toString());
-    }
-
     private void applySourceTypeFilter(PageListQuery query, String sourceType) {
         if (sourceType == null || "all".equals(sourceType)) {
             return;
@@ -1,9 +1,11 @@
 package com.huntly.server.mcp.tool;
 
+import com.huntly.common.exceptions.RequestVerifyException;
 import com.huntly.interfaces.external.dto.PageSearchResult;
 import com.huntly.interfaces.external.query.SearchQuery;
+import com.huntly.server.domain.constant.AppConstants;
 import com.huntly.server.mcp.McpUtils;
-import com.huntly.server.service.LuceneService;
+import com.huntly.server.service.SearchEngine;
 import com.huntly.server.util.PageSizeUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
@@ -24,11 +26,11 @@ public class SearchContentTool implements McpTool {
     private static final int MAX_LUCENE_RESULT_WINDOW = 10_000;
     private static final int MAX_PAGE = Math.max(1, MAX_LUCENE_RESULT_WINDOW / MAX_LIMIT);
 
-    private final LuceneService luceneService;
+    private final SearchEngine searchEngine;
     private final McpUtils mcpUtils;
 
-    public SearchContentTool(LuceneService luceneService, McpUtils mcpUtils) {
-        this.luceneService = luceneService;
+    public SearchContentTool(SearchEngine searchEngine, McpUtils mcpUtils) {
+        this.searchEngine = searchEngine;
         this.mcpUtils = mcpUtils;
     }
 
@@ -39,7 +41,7 @@ public class SearchContentTool implements McpTool {
 
     @Override
     public String getDescription() {
-        return "Full-text search across all saved content in Huntly. Use this when you have keywords, topics, authors, URLs, collection names, or date ranges and want relevance-ranked results. Supports Chinese/English tokenization and advanced syntax in query: url:{pattern}, author:{name}, collection:{name}. Wrap advanced values that contain spaces in quotes, for example collection:\"Daily Reads\" or author:\"Jane Doe\"; escape quotes inside quoted values with backslash. Use start_date/end_date with date_field for time filtering. Results are sorted by relevance, with title matches weighted higher than content matches. IMPORTANT: Each result includes 'huntlyUrl' (Huntly's reading page) and 'url' (original source). When referencing content, prefer using huntlyUrl as the primary link.";
+        return "Full-text search across all saved content in Huntly. Use this when you have keywords, topics, authors, URLs, collection names, or date ranges and want relevance-ranked results. Supports Chinese/English tokenization and advanced syntax in query: url:{pattern}, author:{name}, collection:{name}. Wrap advanced values that contain spaces in quotes, for example collection:\"Daily Reads\" or author:\"Jane Doe\"; escape quotes inside quoted values with backslash. Use start_date/end_date with date_field for time filtering. Results are sorted by relevance by default, with title matches weighted higher than content matches; use sort for newest, oldest or recency boosted results. IMPORTANT: Each result includes 'huntlyUrl' (Huntly's reading page) and 'url' (original source). When referencing content, prefer using huntlyUrl as the primary link.";
     }
 
     @Override
@@ -86,6 +88,12 @@ public class SearchContentTool implements McpTool {
                 "default", "created_at",
                 "description", "Timestamp field used by start_date/end_date. created_at: saved/fetched time, collected_at: collection assignment time, last_read_at: last read time."
         ));
+        properties.put("sort", Map.of(
+                "type", "string",
+                "enum", List.of("relevance", "newest", "oldest", "recent"),
+                "default", "relevance",
+                "description", "Result order. newest/oldest: by the date_field timestamp. recent: relevance boosted for newer items."
+        ));
         properties.put("limit", Map.of(
                 "type", "integer",
                 "minimum", 1,
@@ -97,7 +105,35 @@ public class SearchContentTool implements McpTool {
                 "minimum", 1,
                 "maximum", MAX_PAGE,
                 "default", 1,
-                "description", "Page number for search results, starting from 1. Use with limit to inspect additional pages. Capped to " + MAX_PAGE + " so Lucene collection stays bounded when limit is at its maximum."
+                "description", "Page number for search results, starting from 1. Use with limit to inspect additional pages. Capped to " + MAX_PAGE + " so Lucene collection stays bounded when limit is at its maximum. To go deeper, use cursor instead."
+        ));
+        properties.put("cursor", Map.of(
+                "type", "string",
+                "description", "next_cursor from a previous response, returns the page after it for the same query and filters. Cheaper than page for deep results and not capped. Cursors expire after about 10 minutes; when expired, search again without cursor."
+        ));
+        properties.put("include_facets", Map.of(
+                "type", "boolean",
+                "default", false,
+                "description", "Also return match counts of the whole result set by contentType (0 browser, 1 tweet, 2 markdown, 3 quoted tweet, 4 snippet), connectorType (1 rss, 2 github), connectorId, librarySaveStatus (0 not saved, 1 saved, 2 archived) and collectionId (-1 unsorted), computed in the same search. Use it instead of one search per filter."
+        ));
+        properties.put("snippet_count", Map.of(
+                "type", "integer",
+                "minimum", 0,
+                "maximum", AppConstants.LUCENE_SNIPPET_MAX_COUNT,
+                "default", AppConstants.DEFAULT_MCP_SNIPPET_COUNT,
+                "description", "Number of content passages matching the query to include per result as 'snippets', with matches wrapped in <em> tags. Use them to judge relevance before fetching full content. 0 for none; ignored with title_only."
+        ));
+        properties.put("snippet_length", Map.of(
+                "type", "integer",
+                "minimum", 1,
+                "maximum", AppConstants.LUCENE_SNIPPET_MAX_LENGTH,
+                "default", AppConstants.DEFAULT_LUCENE_SNIPPET_LENGTH,
+                "description", "Approximate length of each snippet in characters, snippets end at the closest sentence boundary."
+        ));
+        properties.put("hybrid", Map.of(
+                "type", "boolean",
+                "default", false,
+                "description", "Also match pages by meaning through their embeddings and merge them with the keyword matches, finds pages that use other words for the same thing. Only with relevance sort and page numbers, no next_cursor; falls back to keyword search when semantic search is not enabled."
         ));
         properties.put("title_only", Map.of(
                 "type", "boolean",
@@ -120,9 +156,15 @@ public class SearchContentTool implements McpTool {
         String startDate = mcpUtils.getStringArg(arguments, "start_date");
         String endDate = mcpUtils.getStringArg(arguments, "end_date");
         String dateField = mcpUtils.getStringArg(arguments, "date_field");
+        String sort = mcpUtils.getStringArg(arguments, "sort");
         int limit = Math.min(Math.max(mcpUtils.getIntArg(arguments, "limit", 50), 1), MAX_LIMIT);
         int page = Math.min(Math.max(mcpUtils.getIntArg(arguments, "page", 1), 1), MAX_PAGE);
         boolean titleOnly = mcpUtils.getBoolArg(arguments, "title_only", false);
+        String cursor = mcpUtils.getStringArg(arguments, "cursor");
+        boolean includeFacets = mcpUtils.getBoolArg(arguments, "include_facets", false);
+        int snippetCount = mcpUtils.getIntArg(arguments, "snippet_count", AppConstants.DEFAULT_MCP_SNIPPET_COUNT);
+        int snippetLength = mcpUtils.getIntArg(arguments, "snippet_length", AppConstants.DEFAULT_LUCENE_SNIPPET_LENGTH);
+        boolean hybrid = mcpUtils.getBoolArg(arguments, "hybrid", false);
 
         if (StringUtils.isBlank(query)) {
             return Map.of("error", "query is required and cannot be empty");
@@ -139,6 +181,12 @@ public class SearchContentTool implements McpTool {
         searchQuery.setStartDate(startDate);
         searchQuery.setEndDate(endDate);
         searchQuery.setDateField(dateField);
+        searchQuery.setSort(sort);
+        searchQuery.setCursor(StringUtils.trimToNull(cursor));
+        searchQuery.setFacets(includeFacets);
+        searchQuery.setSnippetCount(titleOnly ? 0 : snippetCount);
+        searchQuery.setSnippetLength(snippetLength);
+        searchQuery.setHybrid(hybrid);
 
         // Build query options from filter parameters
         String queryOptions = buildQueryOptions(contentType, libraryFilter, searchTitleOnly, alreadyRead);
@@ -146,7 +194,12 @@ public class SearchContentTool implements McpTool {
             searchQuery.setQueryOptions(queryOptions);
         }
 
-        PageSearchResult result = luceneService.searchPages(searchQuery);
+        PageSearchResult result;
+        try {
+            result = searchEngine.searchPages(searchQuery);
+        } catch (RequestVerifyException e) {
+            return Map.of("error", e.getMessage());
+        }
 
         long totalHits = result.getTotalHits();
         int resultPage = result.getPage() != null ? result.getPage() : page;
@@ -157,10 +210,14 @@ public class SearchContentTool implements McpTool {
         response.put("page", resultPage);
         response.put("page_size", limit);
         response.put("total_pages", totalPages);
-        response.put("has_more", totalPages > resultPage);
+        response.put("has_more", result.getNextCursor() != null || totalPages > resultPage);
+        response.put("next_cursor", result.getNextCursor() != null ? result.getNextCursor() : "");
         response.put("cost_seconds", result.getCostSeconds());
         response.put("query", query);
         response.put("query_options", queryOptions != null ? queryOptions : "");
+        if (result.getFacets() != null) {
+            response.put("facets", result.getFacets());
+        }
         response.put("items", result.getItems().stream()
                 .map(item -> mcpUtils.toMcpPageItem(item, titleOnly))
                 .collect(Collectors.toList()));
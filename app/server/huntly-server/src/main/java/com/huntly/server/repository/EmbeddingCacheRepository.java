@@ -0,0 +1,12 @@
+package com.huntly.server.repository;
+
+import com.huntly.server.domain.entity.EmbeddingCache;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * @author lcomplete
+ */
+@Repository
+public interface EmbeddingCacheRepository extends JpaRepository<EmbeddingCache, String> {
+}
@@ -1,9 +1,12 @@
 package com.huntly.server.repository;
 
 import com.huntly.server.domain.entity.PageArticleContent;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +16,10 @@ import java.util.Optional;
 @Repository
 public interface PageArticleContentRepository extends BaseRepository<PageArticleContent,Long>  {
     Optional<PageArticleContent> findByPageIdAndArticleContentCategory(Long pageId, Integer articleContentCategory);
+
+    @Query("select c.pageId from PageArticleContent c where c.pageId in :pageIds and c.articleContentCategory = :articleContentCategory")
+    List<Long> findPageIdsByPageIdInAndArticleContentCategory(@Param("pageIds") Collection<Long> pageIds,
+            @Param("articleContentCategory") Integer articleContentCategory);
     
     @Transactional
     void deleteByPageIdAndArticleContentCategory(Long pageId, Integer articleContentCategory);
@@ -3,6 +3,7 @@ package com.huntly.server.repository;
 import com.huntly.jpa.repository.JpaRepositoryWithLimit;
 import com.huntly.jpa.repository.JpaSpecificationExecutorWithProjection;
 import com.huntly.server.domain.entity.Page;
+import com.huntly.server.domain.projection.PageListView;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,10 +24,35 @@ public interface PageRepository extends JpaRepository<Page, Long>, JpaSpecificat
 
     Optional<Page> findTop1ByUrl(String url);
 
+    /**
+     * keyset pagination by id, used to stream the page table in chunks.
+     */
+    List<Page> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * id and updated at of the pages after an id, in keyset chunks, without loading the content.
+     */
+    @Query("select p.id, p.updatedAt from Page p where p.id > :id order by p.id")
+    List<Object[]> findIdAndUpdatedAtByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * list columns of the pages, without the content.
+     */
+    List<PageListView> findListViewsByIdIn(Collection<Long> ids);
+
+    @Query("select p.id from Page p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
     @Query("select p from Page p where p.url = :url and (p.contentType is null or p.contentType <> :excludedContentType)")
     List<Page> findByUrlExcludingContentType(@Param("url") String url,
             @Param("excludedContentType") Integer excludedContentType, Pageable pageable);
 
+    @Query("select p from Page p where p.url in :urls and (p.contentType is null or p.contentType <> :excludedContentType)")
+    List<Page> findByUrlInExcludingContentType(@Param("urls") Collection<String> urls,
+            @Param("excludedContentType") Integer excludedContentType);
+
+    List<Page> findByUrlIn(Collection<String> urls);
+
     Optional<Page> findTop1ByPageUniqueId(String pageUniqueId);
 
     Optional<Page> findTop1ByUrlWithoutHash(String urlWithoutHash);
@@ -5,10 +5,14 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SourceRepository extends JpaRepository<Source, Integer>, JpaSpecificationExecutor<Source> {
 
     Optional<Source> findByDomain(String domain);
+
+    List<Source> findByDomainIn(Collection<String> domains);
 }
\ No newline at end of file
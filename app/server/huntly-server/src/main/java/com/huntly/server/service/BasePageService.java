@@ -2,9 +2,10 @@ package com.huntly.server.service;
 
 import com.huntly.server.domain.entity.Page;
 import com.huntly.server.repository.PageRepository;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author lcomplete
@@ -13,23 +14,89 @@ public abstract class BasePageService {
 
     protected PageRepository pageRepository;
 
-    LuceneService luceneService;
+    SearchEngine searchEngine;
 
-    protected BasePageService(PageRepository pageRepository, LuceneService luceneService) {
+    protected DatabaseWriter databaseWriter;
+
+    protected PageContentService pageContentService;
+
+    protected BasePageService(PageRepository pageRepository, SearchEngine searchEngine, DatabaseWriter databaseWriter,
+                              PageContentService pageContentService) {
         this.pageRepository = pageRepository;
-        this.luceneService = luceneService;
+        this.searchEngine = searchEngine;
+        this.databaseWriter = databaseWriter;
+        this.pageContentService = pageContentService;
     }
 
-    //@Transactional(rollbackFor = Exception.class)
     protected Page save(Page page) {
-        page.setUpdatedAt(Instant.now());
-        pageRepository.save(page);
-        luceneService.indexPage(page);
-        return page;
+        return databaseWriter.execute(() -> {
+            page.setUpdatedAt(Instant.now());
+            pageContentService.storeContent(page);
+            // a rolled back batch may leave a stale id on a new page, the returned entity carries the saved one
+            Page saved = pageRepository.save(page);
+            if (saved != page && !page.hasUnloadedContent()) {
+                // the merged copy is not given the body, it would load it again
+                saved.setContent(page.getContent());
+            }
+            updateIndex(() -> searchEngine.indexPage(saved));
+            return saved;
+        });
+    }
+
+    /**
+     * {@link #save(Page)} for several pages as one write command, the bodies are stored and the pages indexed as
+     * one batch.
+     *
+     * @return the saved pages, in the order given
+     */
+    protected List<Page> saveAll(List<Page> pages) {
+        return databaseWriter.execute(() -> {
+            Instant now = Instant.now();
+            pages.forEach(page -> page.setUpdatedAt(now));
+            pageContentService.storeContents(pages);
+            List<Page> savedPages = new ArrayList<>(pages.size());
+            for (Page page : pages) {
+                Page saved = pageRepository.save(page);
+                if (saved != page && !page.hasUnloadedContent()) {
+                    saved.setContent(page.getContent());
+                }
+                savedPages.add(saved);
+            }
+            updateIndex(() -> searchEngine.indexPages(savedPages));
+            return savedPages;
+        });
+    }
+
+    /**
+     * save a change that only touches status fields like starred, read later or highlight count,
+     * the index updates them in place instead of rebuilding the document from the article text.
+     */
+    protected Page saveStatus(Page page) {
+        return databaseWriter.execute(() -> {
+            page.setUpdatedAt(Instant.now());
+            Page saved = pageRepository.save(page);
+            updateIndex(() -> searchEngine.updatePageStatus(saved));
+            return saved;
+        });
     }
     
     protected void deleteById(Long id){
-        pageRepository.deleteById(id);
-        luceneService.deletePage(id);
+        databaseWriter.run(() -> {
+            pageRepository.deleteById(id);
+            updateIndex(() -> searchEngine.deletePage(id));
+        });
+    }
+
+    /**
+     * apply an index change once the write transaction has committed. A rolled back batch of the
+     * {@link DatabaseWriter} runs its commands again, so an index outside the database must not see the first run.
+     * The documents are built off the writer thread, a failed change is left to the index reconciler.
+     */
+    private void updateIndex(Runnable change) {
+        if (searchEngine.writesInTransaction()) {
+            change.run();
+            return;
+        }
+        databaseWriter.afterCommit(change);
     }
 }
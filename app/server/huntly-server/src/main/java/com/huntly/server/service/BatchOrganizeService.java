@@ -9,11 +9,11 @@ import com.huntly.interfaces.external.model.LibrarySaveStatus;
 import com.huntly.interfaces.external.query.BatchFilterQuery;
 import com.huntly.jpa.spec.Specifications;
 import com.huntly.server.domain.entity.Page;
+import com.huntly.server.domain.projection.PageListView;
 import com.huntly.server.repository.PageRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
@@ -63,7 +63,7 @@ public class BatchOrganizeService {
 
         Specification<Page> spec = buildSpecification(query);
 
-        // Validate and clamp page/size to prevent invalid PageRequest
+        // Validate and clamp page/size to prevent an invalid offset
         int page = query.getPage() != null ? Math.max(0, query.getPage()) : 0;
         int size = query.getSize() != null ? query.getSize() : DEFAULT_PAGE_SIZE;
         size = Math.max(1, Math.min(size, MAX_PAGE_SIZE)); // Clamp between 1 and MAX_PAGE_SIZE
@@ -71,15 +71,18 @@ public class BatchOrganizeService {
         long totalCount = pageRepository.count(spec);
         int totalPages = (int) Math.ceil((double) totalCount / size);
 
-        org.springframework.data.domain.Page<Page> pageResult = pageRepository.findAll(spec, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
-        List<BatchPageItem> items = pageResult.getContent().stream()
+        // the count above already gives the total, so page by offset without a second count query
+        int offset = (int) Math.min((long) page * size, Integer.MAX_VALUE);
+        List<PageListView> pages = pageRepository.findAll(spec, PageListView.class, offset, size,
+                Sort.by(Sort.Direction.DESC, "createdAt"));
+        List<BatchPageItem> items = pages.stream()
                 .map(this::toBatchPageItem)
                 .collect(Collectors.toList());
 
         return BatchFilterResult.of(totalCount, items, page, totalPages);
     }
 
-    private BatchPageItem toBatchPageItem(Page p) {
+    private BatchPageItem toBatchPageItem(PageListView p) {
         return BatchPageItem.builder()
                 .id(p.getId())
                 .contentType(p.getContentType())
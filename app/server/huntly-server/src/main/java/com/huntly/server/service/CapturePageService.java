@@ -22,11 +22,18 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 /**
  * @author lcomplete
@@ -41,8 +48,8 @@ public class CapturePageService extends BasePageService {
     private final ConcurrentHashMap<String, Object> tweetSaveLocks = new ConcurrentHashMap<>();
 
 
-    public CapturePageService(PageRepository pageRepository, LuceneService luceneService, SourceRepository sourceRepository, ConnectorRepository connectorRepository, TwitterUserSettingRepository twitterUserSettingRepository) {
-        super(pageRepository, luceneService);
+    public CapturePageService(PageRepository pageRepository, SearchEngine searchEngine, SourceRepository sourceRepository, ConnectorRepository connectorRepository, TwitterUserSettingRepository twitterUserSettingRepository, DatabaseWriter databaseWriter, PageContentService pageContentService) {
+        super(pageRepository, searchEngine, databaseWriter, pageContentService);
         this.sourceRepository = sourceRepository;
         this.connectorRepository = connectorRepository;
         this.twitterUserSettingRepository = twitterUserSettingRepository;
@@ -50,29 +57,113 @@ public class CapturePageService extends BasePageService {
 
     public Page save(CapturePage capturePage) {
         String contentText = cleanPageContent(capturePage);
+        // the lookups and the save run as one write command, so concurrent captures of the same url do not both insert
+        return databaseWriter.execute(() -> savePage(capturePage, contentText));
+    }
+
+    private Page savePage(CapturePage capturePage, String contentText) {
         var source = saveSource(capturePage);
-        boolean isSnippet = ObjectUtils.equals(capturePage.getContentType(), ContentType.SNIPPET.getCode());
+        boolean isSnippet = isSnippet(capturePage);
         Optional<Page> existPage = isSnippet ? Optional.empty() : handleSamePage(capturePage);
-        Page page;
-        if (existPage.isEmpty()) {
-            page = new Page();
-            page.setLibrarySaveStatus(LibrarySaveStatus.NOT_SAVED.getCode());
-            page.setStarred(false);
-            page.setReadLater(false);
-            page.setMarkRead(false);
-            page.setCreatedAt(Instant.now());
-            if (capturePage.getConnectorId() == null) {
-                page.setFirstReadAt(Instant.now());
-            }
-            page.setReadCount(0);
-        } else {
-            page = existPage.get();
-        }
-        Optional<Connector> connector = capturePage.getConnectorId() != null ? connectorRepository.findById(capturePage.getConnectorId()) : Optional.empty();
+        Page page = existPage.orElseGet(() -> newPage(capturePage));
+        Connector connector = capturePage.getConnectorId() != null ? connectorRepository.findById(capturePage.getConnectorId()).orElse(null) : null;
         Connector rawConnector = null;
         if (page.getConnectorId() != null) {
             rawConnector = connectorRepository.findById(page.getConnectorId()).orElse(null);
         }
+        mergeCapturePage(page, capturePage, contentText, source, connector, rawConnector);
+        return save(page);
+    }
+
+    /**
+     * save the pages fetched by a connector as one write command. The existing pages, sources and connectors are
+     * looked up with one query each instead of per page, and the pages are indexed as one batch.
+     * <p>
+     * an entry is merged like {@link #save(CapturePage)} merges it, an entry whose url appeared earlier in the
+     * batch updates the page of that entry.
+     *
+     * @return the saved pages, in the order of the capture pages
+     */
+    public List<Page> saveFetchedPages(List<CapturePage> capturePages) {
+        if (capturePages.isEmpty()) {
+            return List.of();
+        }
+        List<String> contentTexts = new ArrayList<>(capturePages.size());
+        for (CapturePage capturePage : capturePages) {
+            contentTexts.add(cleanPageContent(capturePage));
+        }
+        return databaseWriter.execute(() -> saveFetchedPages(capturePages, contentTexts));
+    }
+
+    private List<Page> saveFetchedPages(List<CapturePage> capturePages, List<String> contentTexts) {
+        Map<String, Source> sources = saveSources(capturePages);
+        Set<String> urls = new HashSet<>();
+        for (CapturePage capturePage : capturePages) {
+            if (!isSnippet(capturePage)) {
+                String url = guessMainUrl(capturePage.getUrl());
+                capturePage.setUrl(url);
+                urls.add(url);
+                urls.add(otherProtocolUrl(url));
+            }
+        }
+        Map<String, Page> pagesByUrl = new HashMap<>();
+        for (Page page : pageRepository.findByUrlInExcludingContentType(urls, ContentType.SNIPPET.getCode())) {
+            pagesByUrl.putIfAbsent(page.getUrl(), page);
+        }
+        Set<Integer> connectorIds = new HashSet<>();
+        capturePages.forEach(capturePage -> connectorIds.add(capturePage.getConnectorId()));
+        pagesByUrl.values().forEach(page -> connectorIds.add(page.getConnectorId()));
+        connectorIds.remove(null);
+        Map<Integer, Connector> connectors = new HashMap<>();
+        connectorRepository.findAllById(connectorIds).forEach(connector -> connectors.put(connector.getId(), connector));
+
+        List<Page> pages = new ArrayList<>(capturePages.size());
+        for (int i = 0; i < capturePages.size(); i++) {
+            CapturePage capturePage = capturePages.get(i);
+            boolean isSnippet = isSnippet(capturePage);
+            Page page = null;
+            if (!isSnippet) {
+                page = pagesByUrl.get(capturePage.getUrl());
+                if (page == null) {
+                    page = pagesByUrl.get(otherProtocolUrl(capturePage.getUrl()));
+                }
+            }
+            if (page == null) {
+                page = newPage(capturePage);
+            }
+            Source source = StringUtils.isBlank(capturePage.getDomain()) ? null : sources.get(capturePage.getDomain());
+            Connector connector = capturePage.getConnectorId() != null ? connectors.get(capturePage.getConnectorId()) : null;
+            Connector rawConnector = page.getConnectorId() != null ? connectors.get(page.getConnectorId()) : null;
+            mergeCapturePage(page, capturePage, contentTexts.get(i), source, connector, rawConnector);
+            if (!isSnippet) {
+                pagesByUrl.putIfAbsent(page.getUrl(), page);
+            }
+            pages.add(page);
+        }
+        return saveAll(pages);
+    }
+
+    private static boolean isSnippet(CapturePage capturePage) {
+        return ObjectUtils.equals(capturePage.getContentType(), ContentType.SNIPPET.getCode());
+    }
+
+    private static Page newPage(CapturePage capturePage) {
+        Page page = new Page();
+        page.setLibrarySaveStatus(LibrarySaveStatus.NOT_SAVED.getCode());
+        page.setStarred(false);
+        page.setReadLater(false);
+        page.setMarkRead(false);
+        page.setCreatedAt(Instant.now());
+        if (capturePage.getConnectorId() == null) {
+            page.setFirstReadAt(Instant.now());
+        }
+        page.setReadCount(0);
+        return page;
+    }
+
+    private void mergeCapturePage(Page page, CapturePage capturePage, String contentText, Source source,
+                                  Connector connector, Connector rawConnector) {
+        boolean isSnippet = isSnippet(capturePage);
         // if page is new or raw connector is null or from same connector
         boolean shouldUpdateContent = page.getId() == null || rawConnector == null || Objects.equals(page.getConnectorId(), capturePage.getConnectorId());
         // Check if page is already saved to library - skip content updates for saved pages
@@ -95,10 +186,10 @@ public class CapturePageService extends BasePageService {
             page.setLanguage(capturePage.getLanguage());
             page.setCategory(capturePage.getCategory());
             page.setPageJsonProperties(capturePage.getPageJsonProperties());
-            if (connector.isPresent()) {
-                page.setConnectorId(connector.get().getId());
-                page.setFolderId(connector.get().getFolderId());
-                page.setConnectorType(connector.get().getType());
+            if (connector != null) {
+                page.setConnectorId(connector.getId());
+                page.setFolderId(connector.getFolderId());
+                page.setConnectorType(connector.getType());
             }
         }
         if (source != null && !isAlreadySavedToLibrary) {
@@ -120,8 +211,6 @@ public class CapturePageService extends BasePageService {
         if (capturePage.getConnectedAt() != null && page.getConnectedAt() == null) {
             page.setConnectedAt(capturePage.getConnectedAt());
         }
-
-        return save(page);
     }
 
     public Page saveTweetPage(Page page, String loginScreenName, String browserScreenName, Integer minLikes, int favoriteCount) {
@@ -131,7 +220,7 @@ public class CapturePageService extends BasePageService {
 
         try {
             synchronized (lock) {
-                return doSaveTweetPage(page, loginScreenName, browserScreenName, minLikes, favoriteCount);
+                return databaseWriter.execute(() -> doSaveTweetPage(page, loginScreenName, browserScreenName, minLikes, favoriteCount));
             }
         } finally {
             tweetSaveLocks.remove(lockKey);
@@ -304,8 +393,7 @@ public class CapturePageService extends BasePageService {
         }
 
         // check other protocol url
-        String otherProtocolUrl = UrlUtils.isHttpUrl(url) ? UrlUtils.getHttpsUrl(url) : UrlUtils.getHttpUrl(url);
-        pages = pageRepository.findByUrlExcludingContentType(otherProtocolUrl, snippetContentType, limitOne);
+        pages = pageRepository.findByUrlExcludingContentType(otherProtocolUrl(url), snippetContentType, limitOne);
         page = pages.stream().findFirst();
         
         if (page.isPresent()) {
@@ -348,6 +436,10 @@ public class CapturePageService extends BasePageService {
         return url;
     }
 
+    private static String otherProtocolUrl(String url) {
+        return UrlUtils.isHttpUrl(url) ? UrlUtils.getHttpsUrl(url) : UrlUtils.getHttpUrl(url);
+    }
+
     private static String getUrlWithoutHash(String url) {
         return url.contains("#") ? url.split("#")[0] : url;
     }
@@ -380,14 +472,41 @@ public class CapturePageService extends BasePageService {
         if (StringUtils.isBlank(page.getDomain())) {
             return null;
         }
-        var existSource = sourceRepository.findByDomain(page.getDomain());
-        Source source;
-        if (existSource.isEmpty()) {
-            source = new Source();
-            source.setDomain(page.getDomain());
-        } else {
-            source = existSource.get();
+        Source source = sourceRepository.findByDomain(page.getDomain()).orElseGet(() -> newSource(page.getDomain()));
+        mergeSource(source, page);
+        return sourceRepository.save(source);
+    }
+
+    /**
+     * save the sources of the pages with one lookup, a domain shared by several pages is saved once.
+     *
+     * @return saved sources by domain
+     */
+    private Map<String, Source> saveSources(List<CapturePage> pages) {
+        Set<String> domains = pages.stream().map(CapturePage::getDomain).filter(StringUtils::isNotBlank)
+                .collect(Collectors.toSet());
+        if (domains.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Source> sources = new HashMap<>();
+        sourceRepository.findByDomainIn(domains).forEach(source -> sources.putIfAbsent(source.getDomain(), source));
+        for (CapturePage page : pages) {
+            if (StringUtils.isNotBlank(page.getDomain())) {
+                mergeSource(sources.computeIfAbsent(page.getDomain(), CapturePageService::newSource), page);
+            }
         }
+        Map<String, Source> savedSources = new HashMap<>();
+        sourceRepository.saveAll(sources.values()).forEach(source -> savedSources.put(source.getDomain(), source));
+        return savedSources;
+    }
+
+    private static Source newSource(String domain) {
+        Source source = new Source();
+        source.setDomain(domain);
+        return source;
+    }
+
+    private static void mergeSource(Source source, CapturePage page) {
         if (StringUtils.isNotBlank(page.getHomeUrl())) {
             source.setHomeUrl(page.getHomeUrl());
         }
@@ -400,10 +519,21 @@ public class CapturePageService extends BasePageService {
         if (StringUtils.isNotBlank(page.getSubscribeUrl())) {
             source.setSubscribeUrl(page.getSubscribeUrl());
         }
-        return sourceRepository.save(source);
     }
 
     public Page findByUrl(String url) {
         return pageRepository.findTop1ByUrl(url).orElse(null);
     }
+
+    /**
+     * @return pages by url, one for each of the urls that has a page
+     */
+    public Map<String, Page> findByUrls(Collection<String> urls) {
+        if (urls.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Page> pages = new HashMap<>();
+        pageRepository.findByUrlIn(urls).forEach(page -> pages.putIfAbsent(page.getUrl(), page));
+        return pages;
+    }
 }
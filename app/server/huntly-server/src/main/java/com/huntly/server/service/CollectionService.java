@@ -24,13 +24,16 @@ public class CollectionService {
     private final CollectionRepository collectionRepository;
     private final CollectionGroupRepository collectionGroupRepository;
     private final PageRepository pageRepository;
+    private final SearchEngine searchEngine;
 
     public CollectionService(CollectionRepository collectionRepository,
             CollectionGroupRepository collectionGroupRepository,
-            PageRepository pageRepository) {
+            PageRepository pageRepository,
+            SearchEngine searchEngine) {
         this.collectionRepository = collectionRepository;
         this.collectionGroupRepository = collectionGroupRepository;
         this.pageRepository = pageRepository;
+        this.searchEngine = searchEngine;
     }
 
     /**
@@ -166,7 +169,9 @@ public class CollectionService {
                     .max().orElse(0);
             collection.setDisplaySequence(maxSeq + 1);
         }
-        return collectionRepository.save(collection);
+        Collection saved = collectionRepository.save(collection);
+        searchEngine.indexCollectionSuggestion(saved);
+        return saved;
     }
 
     /**
@@ -177,6 +182,7 @@ public class CollectionService {
         Collection existing = collectionRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Collection not found: " + id));
 
+        boolean renamed = updates.getName() != null && !updates.getName().equals(existing.getName());
         if (updates.getName() != null) {
             existing.setName(updates.getName());
         }
@@ -193,7 +199,11 @@ public class CollectionService {
             existing.setGroupId(updates.getGroupId());
         }
 
-        return collectionRepository.save(existing);
+        Collection saved = collectionRepository.save(existing);
+        if (renamed) {
+            searchEngine.indexCollectionSuggestion(saved);
+        }
+        return saved;
     }
 
     /**
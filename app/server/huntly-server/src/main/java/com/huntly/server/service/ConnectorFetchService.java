@@ -24,6 +24,7 @@ import java.util.*;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * @author lcomplete
@@ -159,17 +160,25 @@ public class ConnectorFetchService {
         }
 
         boolean inboxChangedTriggered = false;
-
+        boolean isCrawlFullContent = Boolean.TRUE.equals(connector.getCrawlFullContent());
+        // the existing pages of the feed and the ones holding crawled content are looked up at once
+        Map<String, Page> existPages = capturePageService.findByUrls(
+                pages.stream().map(CapturePage::getUrl).filter(Objects::nonNull).collect(Collectors.toSet()));
+        Set<Long> crawledPageIds = pageArticleContentService.findPageIdsWithContent(
+                existPages.values().stream().map(Page::getId).collect(Collectors.toList()),
+                ArticleContentCategory.RAW_CONTENT);
+
+        List<CapturePage> pagesToSave = new ArrayList<>();
+        List<String> rawContents = new ArrayList<>();
+        List<Page> unchangedPages = new ArrayList<>();
         for (CapturePage page : pages) {
             page.setConnectorId(connector.getId());
             String rawContent = page.getContent();
-            Page existPage = capturePageService.findByUrl(page.getUrl());
-            String fullContent = fetchedFullContent(existPage);
-            boolean isCrawlFullContent = Boolean.TRUE.equals(connector.getCrawlFullContent());
+            Page existPage = page.getUrl() != null ? existPages.get(page.getUrl()) : null;
             boolean isExecuteFetch = false;
 
-            if (StringUtils.isNotBlank(fullContent)) {
-                page.setContent(fullContent);
+            if (existPage != null && crawledPageIds.contains(existPage.getId())) {
+                page.setContent(existPage.getContent());
             } else if (isRssFetch && isCrawlFullContent) {
                 infoConnector.fetchPageContent(page);
                 isExecuteFetch = true;
@@ -184,21 +193,30 @@ public class ConnectorFetchService {
                 }
             }
 
-            Page savedPage = null;
             // Avoid frequent updates of RSS articles.
             if (isRssFetch && existPage != null && Objects.equals(existPage.getConnectorId(), page.getConnectorId())
                     && Objects.equals(existPage.getTitle(), page.getTitle())
                     && Objects.equals(existPage.getConnectedAt(), page.getConnectedAt())) {
-                savedPage = existPage;
+                unchangedPages.add(existPage);
             } else {
-                savedPage = capturePageService.save(page);
+                pagesToSave.add(page);
+                rawContents.add(isRssFetch && isExecuteFetch ? rawContent : null);
             }
+        }
 
-            if (isRssFetch && isExecuteFetch) {
-                pageArticleContentService.saveContent(savedPage.getId(), rawContent,
-                        ArticleContentCategory.RAW_CONTENT);
+        List<Page> savedPages = new ArrayList<>(unchangedPages);
+        if (!pagesToSave.isEmpty()) {
+            List<Page> fetchedPages = capturePageService.saveFetchedPages(pagesToSave);
+            for (int i = 0; i < fetchedPages.size(); i++) {
+                if (rawContents.get(i) != null) {
+                    pageArticleContentService.saveContent(fetchedPages.get(i).getId(), rawContents.get(i),
+                            ArticleContentCategory.RAW_CONTENT);
+                }
             }
+            savedPages.addAll(fetchedPages);
+        }
 
+        for (Page savedPage : savedPages) {
             if (savedPage.getMarkRead() == null || Objects.equals(savedPage.getMarkRead(), false)) {
                 inboxChangedTriggered = true;
                 eventPublisher.publishInboxChangedEvent(new InboxChangedEvent(savedPage.getConnectorId()));
@@ -222,16 +240,6 @@ public class ConnectorFetchService {
         }
     }
 
-    private String fetchedFullContent(Page existPage) {
-        if (existPage != null) {
-            var content = pageArticleContentService.findContent(existPage.getId(), ArticleContentCategory.RAW_CONTENT);
-            if (content != null) {
-                return existPage.getContent();
-            }
-        }
-        return null;
-    }
-
     private boolean isAtFetchTime(Connector connector) {
         if (connector == null) {
             return false;
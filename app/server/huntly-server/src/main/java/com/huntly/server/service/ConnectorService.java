@@ -41,16 +41,19 @@ public class ConnectorService {
 
     private GlobalSettingService globalSettingService;
 
+    private final DatabaseWriter databaseWriter;
+
     public ConnectorService(HuntlyProperties huntlyProperties, FolderRepository folderRepository,
             ConnectorSettingRepository connectorSettingRepository,
             ConnectorRepository connectorRepository, PageRepository pageRepository,
-            GlobalSettingService globalSettingService) {
+            GlobalSettingService globalSettingService, DatabaseWriter databaseWriter) {
         this.huntlyProperties = huntlyProperties;
         this.folderRepository = folderRepository;
         this.connectorSettingRepository = connectorSettingRepository;
         this.connectorRepository = connectorRepository;
         this.pageRepository = pageRepository;
         this.globalSettingService = globalSettingService;
+        this.databaseWriter = databaseWriter;
     }
 
     public Connector findById(Integer id) {
@@ -82,33 +85,39 @@ public class ConnectorService {
     }
 
     public void updateLastFetchBeginAt(Integer connectorId, Instant beginAt) {
-        var connector = connectorRepository.findById(connectorId).orElse(null);
-        if (connector != null) {
-            connector.setLastFetchBeginAt(beginAt);
-            connectorRepository.save(connector);
-        }
+        databaseWriter.run(() -> {
+            var connector = connectorRepository.findById(connectorId).orElse(null);
+            if (connector != null) {
+                connector.setLastFetchBeginAt(beginAt);
+                connectorRepository.save(connector);
+            }
+        });
     }
 
     public void updateLastFetchEndAt(Integer connectorId, Instant endAt, boolean success) {
-        var connector = connectorRepository.findById(connectorId).orElse(null);
-        if (connector != null) {
-            connector.setLastFetchEndAt(endAt);
-            connector.setLastFetchSuccess(success);
-            connectorRepository.save(connector);
-        }
+        databaseWriter.run(() -> {
+            var connector = connectorRepository.findById(connectorId).orElse(null);
+            if (connector != null) {
+                connector.setLastFetchEndAt(endAt);
+                connector.setLastFetchSuccess(success);
+                connectorRepository.save(connector);
+            }
+        });
     }
 
     public void updateHttpCacheHeaders(Integer connectorId, String httpEtag, String httpLastModified) {
-        var connector = connectorRepository.findById(connectorId).orElse(null);
-        if (connector != null) {
-            if (httpEtag != null) {
-                connector.setHttpEtag(httpEtag);
-            }
-            if (httpLastModified != null) {
-                connector.setHttpLastModified(httpLastModified);
+        databaseWriter.run(() -> {
+            var connector = connectorRepository.findById(connectorId).orElse(null);
+            if (connector != null) {
+                if (httpEtag != null) {
+                    connector.setHttpEtag(httpEtag);
+                }
+                if (httpLastModified != null) {
+                    connector.setHttpLastModified(httpLastModified);
+                }
+                connectorRepository.save(connector);
             }
-            connectorRepository.save(connector);
-        }
+        });
     }
 
     public Connector saveWhenNotExist(Connector connector) {
@@ -174,20 +183,24 @@ public class ConnectorService {
     }
 
     public void updateInboxCount(Integer connectorId) {
-        var connector = findById(connectorId);
-        if (connector != null) {
-            var inboxCount = getUnreadCount(connectorId);
-            connector.setInboxCount(inboxCount);
-            connectorRepository.save(connector);
-        }
+        databaseWriter.run(() -> {
+            var connector = findById(connectorId);
+            if (connector != null) {
+                var inboxCount = getUnreadCount(connectorId);
+                connector.setInboxCount(inboxCount);
+                connectorRepository.save(connector);
+            }
+        });
     }
 
     public void updateInboxCount(Integer connectorId, Integer inboxCount) {
-        var connector = findById(connectorId);
-        if (connector != null) {
-            connector.setInboxCount(inboxCount);
-            connectorRepository.save(connector);
-        }
+        databaseWriter.run(() -> {
+            var connector = findById(connectorId);
+            if (connector != null) {
+                connector.setInboxCount(inboxCount);
+                connectorRepository.save(connector);
+            }
+        });
     }
 
     private int getUnreadCount(Integer connectorId) {
@@ -232,11 +245,13 @@ public class ConnectorService {
     }
 
     public void updateIconUrl(Integer id, String iconUrl) {
-        var connector = findById(id);
-        if (connector != null) {
-            connector.setIconUrl(iconUrl);
-            connectorRepository.save(connector);
-        }
+        databaseWriter.run(() -> {
+            var connector = findById(id);
+            if (connector != null) {
+                connector.setIconUrl(iconUrl);
+                connectorRepository.save(connector);
+            }
+        });
     }
 
     public List<Connector> getSortedConnectorsByFolderId(Integer folderId) {
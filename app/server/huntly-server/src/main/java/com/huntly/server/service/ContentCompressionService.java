@@ -0,0 +1,76 @@
+package com.huntly.server.service;
+
+import com.huntly.server.data.converter.CompressedTextConverter;
+import com.huntly.server.domain.constant.AppConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * compresses the article content stored before the content columns were compressed, page bodies are compressed as
+ * {@link PageContentService} moves them to the page content store.
+ * <p>
+ * content written through {@link CompressedTextConverter} is a blob, so the rows still stored as text are the ones
+ * to migrate. They are read in id chunks from the read pool and each chunk is written back as one command of the
+ * {@link DatabaseWriter}.
+ *
+ * @author lcomplete
+ */
+@Service
+@Slf4j
+public class ContentCompressionService {
+    static final List<String> CONTENT_TABLES = List.of("page_article_content");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DatabaseWriter databaseWriter;
+
+    private final TransactionTemplate readTransactionTemplate;
+
+    public ContentCompressionService(JdbcTemplate jdbcTemplate, DatabaseWriter databaseWriter,
+                                     PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseWriter = databaseWriter;
+        this.readTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * @return rows compressed
+     */
+    public long compressStoredContent() {
+        long compressed = 0;
+        for (String table : CONTENT_TABLES) {
+            compressed += compressTable(table);
+        }
+        return compressed;
+    }
+
+    long compressTable(String table) {
+        String select = "SELECT id, content FROM " + table + " WHERE id > ? AND typeof(content) = 'text' ORDER BY id LIMIT ?";
+        // a row rewritten by the app meanwhile is already a blob and is left alone
+        String update = "UPDATE " + table + " SET content = ? WHERE id = ? AND typeof(content) = 'text'";
+        long lastId = 0;
+        long compressed = 0;
+        while (true) {
+            long afterId = lastId;
+            List<Object[]> rows = readTransactionTemplate.execute(status -> jdbcTemplate.query(select,
+                    (rs, rowNum) -> new Object[]{CompressedTextConverter.encode(rs.getString(2)), rs.getLong(1)},
+                    afterId, AppConstants.CONTENT_MIGRATION_CHUNK_SIZE));
+            if (rows == null || rows.isEmpty()) {
+                break;
+            }
+            lastId = (Long) rows.get(rows.size() - 1)[1];
+            databaseWriter.run(() -> jdbcTemplate.batchUpdate(update, rows));
+            compressed += rows.size();
+        }
+        if (compressed > 0) {
+            log.info("compressed content of {} rows in {}", compressed, table);
+        }
+        return compressed;
+    }
+}
@@ -0,0 +1,398 @@
+package com.huntly.server.service;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.constant.AppConstants;
+import com.huntly.server.domain.dto.DatabaseWriterStats;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single writer thread in front of the sqlite database.
+ * <p>
+ * sqlite takes one writer at a time, so instead of request threads, fetch threads and async listeners competing for
+ * the writer connection, they submit write commands here. The writer thread drains the queue and runs up to
+ * {@code dbWriterMaxBatchSize} commands in one transaction, a burst of captures costs one commit instead of one each.
+ * When a command fails the batch is rolled back and its commands are retried one transaction each, so a command may
+ * run twice and should read what it changes inside the command.
+ * <p>
+ * Callers that already hold a write transaction, and commands submitted from the writer thread, run directly.
+ * <p>
+ * Side effects of a command outside the database, like search index updates, are registered with
+ * {@link #afterCommit(Runnable)} and run on a thread of their own once the transaction has committed, so a slow
+ * consumer never holds up the writes.
+ *
+ * @author lcomplete
+ */
+@Slf4j
+@Component
+public class DatabaseWriter implements DisposableBean {
+
+    private static class WriteTask<T> {
+        private final Supplier<T> command;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+
+        WriteTask(Supplier<T> command) {
+            this.command = command;
+        }
+
+        void execute() {
+            result = command.get();
+        }
+
+        void complete() {
+            future.complete(result);
+        }
+    }
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManager entityManager;
+
+    private final BlockingQueue<WriteTask<?>> queue;
+
+    private final int capacity;
+
+    private final int maxBatchSize;
+
+    private final Thread writerThread;
+
+    private final ExecutorService afterCommitExecutor;
+
+    private final AtomicInteger pendingAfterCommitActions = new AtomicInteger();
+
+    private volatile boolean running = true;
+
+    private volatile long lastBatchMillis;
+
+    private volatile long maxBatchMillis;
+
+    private volatile int maxBatchSizeSeen;
+
+    private volatile String lastError;
+
+    private final AtomicLong submittedCommands = new AtomicLong();
+
+    private final AtomicLong completedCommands = new AtomicLong();
+
+    private final AtomicLong failedCommands = new AtomicLong();
+
+    private final AtomicLong inlineCommands = new AtomicLong();
+
+    private final AtomicLong batchCount = new AtomicLong();
+
+    private final AtomicLong batchedCommands = new AtomicLong();
+
+    private final AtomicLong rolledBackBatches = new AtomicLong();
+
+    private final AtomicLong backpressureCount = new AtomicLong();
+
+    private final AtomicLong backpressureWaitNanos = new AtomicLong();
+
+    public DatabaseWriter(PlatformTransactionManager transactionManager, EntityManager entityManager,
+                          HuntlyProperties huntlyProperties) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.capacity = ObjectUtils.defaultIfNull(huntlyProperties.getDbWriterQueueCapacity(),
+                AppConstants.DEFAULT_DB_WRITER_QUEUE_CAPACITY);
+        this.maxBatchSize = ObjectUtils.defaultIfNull(huntlyProperties.getDbWriterMaxBatchSize(),
+                AppConstants.DEFAULT_DB_WRITER_MAX_BATCH_SIZE);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writerThread = new Thread(this::runWriter, "db_writer_thread");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        this.afterCommitExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "db_after_commit_thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * queue a write command, blocking only when the queue is full.
+     *
+     * @return completed with the result of the command once its transaction is committed
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> command) {
+        if (runsInline()) {
+            return runInline(command);
+        }
+        WriteTask<T> task = new WriteTask<>(command);
+        if (!queue.offer(task)) {
+            backpressureCount.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                queue.put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for database writer queue", e);
+            } finally {
+                backpressureWaitNanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+        submittedCommands.incrementAndGet();
+        if (!writerThread.isAlive() && queue.remove(task)) {
+            // closed while this command was being queued
+            return runInline(command);
+        }
+        return task.future;
+    }
+
+    private <T> CompletableFuture<T> runInline(Supplier<T> command) {
+        countInline();
+        try {
+            return CompletableFuture.completedFuture(command.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * run a write command on the writer thread and wait for its committed result.
+     */
+    public <T> T execute(Supplier<T> command) {
+        if (runsInline()) {
+            countInline();
+            return command.get();
+        }
+        try {
+            return submit(command).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public void run(Runnable command) {
+        execute(() -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /**
+     * run the action once the current write transaction has committed, actions run one at a time in commit order.
+     * nothing runs if the transaction rolls back, outside a transaction the action runs right away on the caller thread.
+     */
+    public void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runAfterCommitAction(action);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pendingAfterCommitActions.incrementAndGet();
+                try {
+                    // the queue is unbounded, the writer thread must never wait on a slow consumer
+                    afterCommitExecutor.execute(() -> {
+                        try {
+                            runAfterCommitAction(action);
+                        } finally {
+                            pendingAfterCommitActions.decrementAndGet();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // closed, like commands the action runs on the caller thread
+                    pendingAfterCommitActions.decrementAndGet();
+                    runAfterCommitAction(action);
+                }
+            }
+        });
+    }
+
+    private void runAfterCommitAction(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            // the rows are committed, failing the command would make the caller retry it
+            lastError = e.getMessage();
+            log.error("failed to run action after commit", e);
+        }
+    }
+
+    /**
+     * wait until the after commit actions of the transactions committed so far have run.
+     *
+     * @return true if they ran within the timeout
+     */
+    public boolean flushAfterCommit(long timeoutMillis) {
+        try {
+            afterCommitExecutor.submit(() -> {
+            }).get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException | ExecutionException | TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean runsInline() {
+        return Thread.currentThread() == writerThread || !running
+                || (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    private void countInline() {
+        // commands nested in a command of the writer thread are part of that command
+        if (Thread.currentThread() != writerThread) {
+            inlineCommands.incrementAndGet();
+        }
+    }
+
+    private void runWriter() {
+        List<WriteTask<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                WriteTask<?> first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                runBatch(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (Throwable e) {
+                // keep the writer alive, the failed tasks are completed in runBatch
+                lastError = e.getMessage();
+                log.error("database writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+        // commands submitted after the thread gave up must not wait forever
+        WriteTask<?> task;
+        while ((task = queue.poll()) != null) {
+            task.future.completeExceptionally(new IllegalStateException("database writer is closed"));
+        }
+    }
+
+    private void runBatch(List<WriteTask<?>> batch) {
+        long start = System.nanoTime();
+        maxBatchSizeSeen = Math.max(maxBatchSizeSeen, batch.size());
+        batchCount.incrementAndGet();
+        batchedCommands.addAndGet(batch.size());
+        try {
+            inTransaction(batch);
+            completedCommands.addAndGet(batch.size());
+            batch.forEach(WriteTask::complete);
+        } catch (Throwable e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+            } else {
+                rolledBackBatches.incrementAndGet();
+                log.warn("database write batch of {} commands rolled back, retrying one by one, {}", batch.size(),
+                        e.getMessage());
+                for (WriteTask<?> task : batch) {
+                    try {
+                        inTransaction(List.of(task));
+                        completedCommands.incrementAndGet();
+                        task.complete();
+                    } catch (Throwable taskError) {
+                        fail(task, taskError);
+                    }
+                }
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastBatchMillis = elapsedMillis;
+        maxBatchMillis = Math.max(maxBatchMillis, elapsedMillis);
+    }
+
+    private void inTransaction(List<WriteTask<?>> tasks) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (WriteTask<?> task : tasks) {
+                task.execute();
+                // every command starts from an empty persistence context, like it would in its own transaction
+                entityManager.flush();
+                entityManager.clear();
+            }
+        });
+    }
+
+    private void fail(WriteTask<?> task, Throwable e) {
+        failedCommands.incrementAndGet();
+        lastError = e.getMessage();
+        task.future.completeExceptionally(e);
+    }
+
+    public DatabaseWriterStats getStats() {
+        long batches = batchCount.get();
+        DatabaseWriterStats stats = new DatabaseWriterStats();
+        stats.setQueueDepth(queue.size());
+        stats.setQueueCapacity(capacity);
+        stats.setSubmittedCommands(submittedCommands.get());
+        stats.setCompletedCommands(completedCommands.get());
+        stats.setFailedCommands(failedCommands.get());
+        stats.setInlineCommands(inlineCommands.get());
+        stats.setBatchCount(batches);
+        stats.setAvgBatchSize(batches == 0 ? 0 : batchedCommands.get() / (double) batches);
+        stats.setMaxBatchSize(maxBatchSizeSeen);
+        stats.setRolledBackBatches(rolledBackBatches.get());
+        stats.setLastBatchMillis(lastBatchMillis);
+        stats.setMaxBatchMillis(maxBatchMillis);
+        stats.setBackpressureCount(backpressureCount.get());
+        stats.setBackpressureWaitMillis(TimeUnit.NANOSECONDS.toMillis(backpressureWaitNanos.get()));
+        stats.setPendingAfterCommitActions(pendingAfterCommitActions.get());
+        stats.setLastError(lastError);
+        return stats;
+    }
+
+    /**
+     * stop taking commands and commit everything already queued, later writes run on the caller thread.
+     */
+    @Override
+    public void destroy() {
+        running = false;
+        try {
+            writerThread.join(AppConstants.DB_WRITER_CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            log.warn("database writer did not drain in {} ms, pending commands: {}",
+                    AppConstants.DB_WRITER_CLOSE_TIMEOUT_MILLIS, queue.size());
+            writerThread.interrupt();
+        }
+        afterCommitExecutor.shutdown();
+        try {
+            if (!afterCommitExecutor.awaitTermination(AppConstants.DB_WRITER_CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                log.warn("after commit actions did not drain in {} ms, pending actions: {}",
+                        AppConstants.DB_WRITER_CLOSE_TIMEOUT_MILLIS, pendingAfterCommitActions.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.huntly.server.service;
+
+import java.util.List;
+
+/**
+ * Turns texts into embedding vectors for semantic search.
+ *
+ * @author lcomplete
+ */
+public interface EmbeddingProvider {
+
+    /**
+     * identifies the model, vectors of different models are never compared.
+     *
+     * @return null if no model is configured, semantic search is off then
+     */
+    String getModelId();
+
+    /**
+     * @return one vector per text, in the order of the texts
+     */
+    List<float[]> embed(List<String> texts);
+}
@@ -147,6 +147,8 @@ public class GlobalSettingService {
         dbSetting.setAutoSaveSiteBlacklists(globalSetting.getAutoSaveSiteBlacklists());
         dbSetting.setOpenApiBaseUrl(globalSetting.getOpenApiBaseUrl());
         dbSetting.setOpenApiModel(globalSetting.getOpenApiModel());
+        dbSetting.setOpenApiEmbeddingModel(globalSetting.getOpenApiEmbeddingModel());
+        dbSetting.setEnableSemanticSearch(globalSetting.getEnableSemanticSearch());
         dbSetting.setArticleSummaryPrompt(globalSetting.getArticleSummaryPrompt());
         dbSetting.setMarkReadOnScroll(globalSetting.getMarkReadOnScroll());
         dbSetting.setDefaultFeedFetchIntervalMinutes(globalSetting.getDefaultFeedFetchIntervalMinutes());
@@ -0,0 +1,110 @@
+package com.huntly.server.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.huntly.server.domain.constant.DocFields;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.wltea.analyzer.lucene.IKAnalyzer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The analyzers of the index, shared by the index writers, the queries and the highlighter.
+ * <p>
+ * An analyzer reuses its token stream components per thread, so every thread keeps one IK segmenter
+ * instead of building a new one for each keyword. Search keywords repeat a lot, their words are cached.
+ *
+ * @author lcomplete
+ */
+class LuceneAnalysis implements Closeable {
+
+    /**
+     * fine grained words, used for the indexed text.
+     */
+    private final Analyzer ikAnalyzer = new IKAnalyzer();
+
+    /**
+     * the longest words, used to split search keywords.
+     */
+    private final Analyzer smartAnalyzer = new IKAnalyzer(true);
+
+    private final Analyzer ngramAnalyzer = new NGramSubstringAnalyzer();
+
+    private final Analyzer indexAnalyzer = new PerFieldAnalyzerWrapper(ikAnalyzer, Map.of(
+            DocFields.TITLE_NGRAM, ngramAnalyzer,
+            DocFields.URL_NGRAM, ngramAnalyzer,
+            DocFields.AUTHOR_NGRAM, ngramAnalyzer));
+
+    private final Cache<String, List<String>> wordCache;
+
+    LuceneAnalysis(int wordCacheMaxKeywords) {
+        wordCache = CacheBuilder.newBuilder()
+                .maximumSize(wordCacheMaxKeywords)
+                .recordStats()
+                .build();
+    }
+
+    Analyzer getIndexAnalyzer() {
+        return indexAnalyzer;
+    }
+
+    Analyzer getIkAnalyzer() {
+        return ikAnalyzer;
+    }
+
+    /**
+     * the words of a search keyword, the returned list is shared and must not be modified.
+     */
+    List<String> segmentWords(String keyword) {
+        if (StringUtils.isBlank(keyword)) {
+            return List.of();
+        }
+        try {
+            return wordCache.get(keyword, () -> Collections.unmodifiableList(analyzeWords(keyword)));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * segment without the cache.
+     */
+    List<String> analyzeWords(String keyword) throws IOException {
+        List<String> words = new ArrayList<>();
+        try (TokenStream tokenStream = smartAnalyzer.tokenStream("", keyword)) {
+            CharTermAttribute term = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                words.add(term.toString());
+            }
+            tokenStream.end();
+        }
+        return words;
+    }
+
+    long getWordCacheSize() {
+        return wordCache.size();
+    }
+
+    double getWordCacheHitRate() {
+        return wordCache.stats().hitRate();
+    }
+
+    @Override
+    public void close() {
+        indexAnalyzer.close();
+        ikAnalyzer.close();
+        smartAnalyzer.close();
+        ngramAnalyzer.close();
+    }
+}
@@ -0,0 +1,343 @@
+package com.huntly.server.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.huntly.server.domain.constant.AppConstants;
+import com.huntly.server.domain.entity.EmbeddingCache;
+import com.huntly.server.domain.entity.Page;
+import com.huntly.server.repository.EmbeddingCacheRepository;
+import com.huntly.server.repository.PageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes the page embeddings in the background and hands them to the index.
+ * <p>
+ * A page indexed without a known vector is queued here, saves never wait for the embeddings endpoint. Queued
+ * pages are embedded in batches, the vectors are stored by content hash and the pages are indexed again, this
+ * time with their vector. Unchanged text is never embedded twice, not even by a full reindex.
+ *
+ * @author lcomplete
+ */
+@Slf4j
+class LuceneEmbeddingIndexer {
+
+    private final LuceneService luceneService;
+
+    private final PageRepository pageRepository;
+
+    private final EmbeddingCacheRepository cacheRepository;
+
+    private final EmbeddingProvider provider;
+
+    private final int dimensions;
+
+    private final int batchSize;
+
+    /**
+     * vectors by content hash, in front of the cache table.
+     */
+    private final Cache<String, float[]> vectorCache = CacheBuilder.newBuilder()
+            .maximumSize(AppConstants.LUCENE_EMBEDDING_MEMORY_CACHE_SIZE)
+            .build();
+
+    private final LinkedHashSet<Long> pendingPageIds = new LinkedHashSet<>();
+
+    private final AtomicLong embeddedTexts = new AtomicLong();
+
+    private final AtomicLong failedPages = new AtomicLong();
+
+    private Thread workerThread;
+
+    /**
+     * the worker is embedding a batch.
+     */
+    private boolean busy;
+
+    private boolean closed;
+
+    /**
+     * @param provider null turns semantic search off
+     */
+    LuceneEmbeddingIndexer(LuceneService luceneService, PageRepository pageRepository,
+                           EmbeddingCacheRepository cacheRepository, EmbeddingProvider provider,
+                           int dimensions, int batchSize) {
+        this.luceneService = luceneService;
+        this.pageRepository = pageRepository;
+        this.cacheRepository = cacheRepository;
+        this.provider = provider;
+        this.dimensions = dimensions;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return null if semantic search is off
+     */
+    String getModelId() {
+        return provider != null ? provider.getModelId() : null;
+    }
+
+    int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * the text of a page that is embedded, the start of the title, description and content.
+     */
+    static String embeddingText(String title, String description, String contentText) {
+        StringBuilder text = new StringBuilder();
+        for (String part : new String[]{title, description, contentText}) {
+            if (StringUtils.isNotBlank(part)) {
+                if (text.length() > 0) {
+                    text.append('\n');
+                }
+                text.append(part.trim());
+            }
+            if (text.length() >= AppConstants.LUCENE_EMBEDDING_MAX_CHARS) {
+                break;
+            }
+        }
+        return StringUtils.left(text.toString(), AppConstants.LUCENE_EMBEDDING_MAX_CHARS);
+    }
+
+    static String contentHash(String model, String text) {
+        return Hashing.sha256().hashString(model + "\n" + text, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * @return the vector if this text was embedded before, null otherwise
+     */
+    float[] findVector(String model, String text) {
+        String hash = contentHash(model, text);
+        float[] vector = vectorCache.getIfPresent(hash);
+        if (vector == null && cacheRepository != null) {
+            vector = cacheRepository.findById(hash).map(this::toVector).orElse(null);
+            if (vector != null) {
+                vectorCache.put(hash, vector);
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * embed a search keyword right away, queries are only cached in memory.
+     *
+     * @return null if the keyword could not be embedded
+     */
+    float[] embedQuery(String model, String keyword) {
+        String hash = contentHash(model, keyword);
+        float[] vector = vectorCache.getIfPresent(hash);
+        if (vector == null) {
+            try {
+                vector = fit(provider.embed(List.of(keyword)).get(0), dimensions);
+            } catch (RuntimeException e) {
+                log.warn("failed to embed search keyword, searching keywords only", e);
+                return null;
+            }
+            if (vector != null) {
+                vectorCache.put(hash, vector);
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * queue a page for embedding, returns immediately. a full queue drops the page until the next backfill.
+     */
+    synchronized void submit(Long pageId) {
+        if (closed || pendingPageIds.size() >= AppConstants.LUCENE_EMBEDDING_QUEUE_CAPACITY) {
+            return;
+        }
+        pendingPageIds.add(pageId);
+        if (workerThread == null) {
+            workerThread = new Thread(this::runWorker, "lucene_embedding_thread");
+            workerThread.setDaemon(true);
+            workerThread.start();
+        }
+        notifyAll();
+    }
+
+    private synchronized List<Long> takeBatch() throws InterruptedException {
+        busy = false;
+        while (pendingPageIds.isEmpty() && !closed) {
+            wait();
+        }
+        busy = !closed;
+        List<Long> batch = new ArrayList<>(batchSize);
+        Iterator<Long> iterator = pendingPageIds.iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        return batch;
+    }
+
+    private void runWorker() {
+        while (true) {
+            List<Long> pageIds;
+            try {
+                pageIds = takeBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (pageIds.isEmpty()) {
+                return;
+            }
+            try {
+                embedPages(pageIds);
+            } catch (RuntimeException e) {
+                failedPages.addAndGet(pageIds.size());
+                log.warn("failed to embed " + pageIds.size() + " pages", e);
+            }
+        }
+    }
+
+    void embedPages(List<Long> pageIds) {
+        String model = getModelId();
+        if (model == null) {
+            return;
+        }
+        Map<String, String> missingTexts = new LinkedHashMap<>();
+        List<Page> pages = new ArrayList<>();
+        List<String> pageTexts = new ArrayList<>();
+        List<Page> loaded = pageRepository.findAllById(pageIds);
+        luceneService.loadContents(loaded);
+        for (Page page : loaded) {
+            String text = embeddingText(page.getTitle(), page.getDescription(), LuceneService.contentTextOf(page));
+            if (StringUtils.isBlank(text)) {
+                continue;
+            }
+            pages.add(page);
+            pageTexts.add(text);
+            if (findVector(model, text) == null) {
+                missingTexts.put(contentHash(model, text), text);
+            }
+        }
+        if (!missingTexts.isEmpty()) {
+            List<String> texts = new ArrayList<>(missingTexts.values());
+            List<float[]> vectors = provider.embed(texts);
+            if (vectors.size() != texts.size()) {
+                throw new IllegalStateException("expected " + texts.size() + " embeddings, got " + vectors.size());
+            }
+            List<EmbeddingCache> rows = new ArrayList<>();
+            Iterator<String> hashes = missingTexts.keySet().iterator();
+            for (float[] embedding : vectors) {
+                String hash = hashes.next();
+                float[] vector = fit(embedding, dimensions);
+                if (vector == null) {
+                    continue;
+                }
+                vectorCache.put(hash, vector);
+                rows.add(toRow(hash, model, vector));
+            }
+            if (cacheRepository != null) {
+                cacheRepository.saveAll(rows);
+            }
+            embeddedTexts.addAndGet(rows.size());
+        }
+        // indexed again, now with their vectors, a page without one would be queued again
+        for (int i = 0; i < pages.size(); i++) {
+            if (findVector(model, pageTexts.get(i)) != null) {
+                luceneService.indexPage(pages.get(i));
+            }
+        }
+    }
+
+    /**
+     * cut or pad to the index dimensions and scale to unit length, zero padding keeps the dot products.
+     *
+     * @return null for a zero vector
+     */
+    static float[] fit(float[] embedding, int dimensions) {
+        float[] vector = new float[dimensions];
+        System.arraycopy(embedding, 0, vector, 0, Math.min(embedding.length, dimensions));
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            return null;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private static EmbeddingCache toRow(String hash, String model, float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        EmbeddingCache row = new EmbeddingCache();
+        row.setContentHash(hash);
+        row.setModel(model);
+        row.setDimensions(vector.length);
+        row.setVector(buffer.array());
+        row.setCreatedAt(Instant.now());
+        return row;
+    }
+
+    private float[] toVector(EmbeddingCache row) {
+        float[] vector = new float[row.getVector().length / Float.BYTES];
+        ByteBuffer.wrap(row.getVector()).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        // cached with other dimensions before the setting changed
+        return vector.length == dimensions ? vector : fit(vector, dimensions);
+    }
+
+    synchronized int getQueueDepth() {
+        return pendingPageIds.size();
+    }
+
+    long getEmbeddedTexts() {
+        return embeddedTexts.get();
+    }
+
+    long getFailedPages() {
+        return failedPages.get();
+    }
+
+    /**
+     * wait until the queued pages are embedded and submitted to the index.
+     */
+    boolean flush(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (isWorking()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private synchronized boolean isWorking() {
+        return !closed && (busy || !pendingPageIds.isEmpty());
+    }
+
+    void close(long timeoutMillis) throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            closed = true;
+            pendingPageIds.clear();
+            notifyAll();
+            thread = workerThread;
+        }
+        if (thread != null) {
+            thread.join(timeoutMillis);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.huntly.server.service;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.constant.AppConstants;
+import com.huntly.server.domain.dto.IndexSegmentStats;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.index.TieredMergePolicy;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Merge settings of the index writers and the off-peak maintenance of the live index.
+ * <p>
+ * Index writes are committed every second or so, which flushes many tiny segments that every search has to
+ * visit. The merge policy folds them together in the background, the maintenance merges the index down to a few
+ * segments, or only rewrites the segments holding many deleted docs when the segment count is already fine.
+ *
+ * @author lcomplete
+ */
+@Slf4j
+class LuceneIndexMaintainer {
+
+    private final double ramBufferMb;
+
+    private final double segmentsPerTier;
+
+    private final double floorSegmentMb;
+
+    private final double deletesPctAllowed;
+
+    private final int forceMergeMaxSegments;
+
+    private final double expungeDeletesPct;
+
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+
+    private volatile String lastAction;
+
+    private volatile Instant lastRunAt;
+
+    private volatile Long lastRunMillis;
+
+    private volatile String lastError;
+
+    LuceneIndexMaintainer(HuntlyProperties huntlyProperties) {
+        ramBufferMb = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneRamBufferMb(),
+                AppConstants.DEFAULT_LUCENE_RAM_BUFFER_MB);
+        segmentsPerTier = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneMergeSegmentsPerTier(),
+                AppConstants.DEFAULT_LUCENE_MERGE_SEGMENTS_PER_TIER);
+        floorSegmentMb = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneMergeFloorSegmentMb(),
+                AppConstants.DEFAULT_LUCENE_MERGE_FLOOR_SEGMENT_MB);
+        deletesPctAllowed = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneMergeDeletesPctAllowed(),
+                AppConstants.DEFAULT_LUCENE_MERGE_DELETES_PCT_ALLOWED);
+        forceMergeMaxSegments = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneForceMergeMaxSegments(),
+                AppConstants.DEFAULT_LUCENE_FORCE_MERGE_MAX_SEGMENTS);
+        expungeDeletesPct = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneExpungeDeletesPct(),
+                AppConstants.DEFAULT_LUCENE_EXPUNGE_DELETES_PCT);
+    }
+
+    IndexWriterConfig configure(IndexWriterConfig writerConfig) {
+        TieredMergePolicy mergePolicy = new TieredMergePolicy();
+        mergePolicy.setSegmentsPerTier(segmentsPerTier);
+        mergePolicy.setFloorSegmentMB(floorSegmentMb);
+        mergePolicy.setDeletesPctAllowed(deletesPctAllowed);
+        return writerConfig.setRAMBufferSizeMB(ramBufferMb)
+                .setMergePolicy(mergePolicy)
+                .setMergeScheduler(new LuceneMergeScheduler());
+    }
+
+    /**
+     * merge the segments of the live index if needed, returns right away when a run is in progress.
+     *
+     * @param stats  the segments before the run
+     * @param commit makes the merged segments durable
+     */
+    void maintain(IndexWriter writer, IndexSegmentStats stats, Runnable commit) {
+        if (!maintenanceLock.tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        String action = IndexSegmentStats.ACTION_NONE;
+        try {
+            if (stats.getSegmentCount() > forceMergeMaxSegments) {
+                action = IndexSegmentStats.ACTION_FORCE_MERGE;
+                writer.forceMerge(forceMergeMaxSegments);
+            } else if (stats.getDeletedDocsRatio() * 100 >= expungeDeletesPct) {
+                action = IndexSegmentStats.ACTION_EXPUNGE_DELETES;
+                writer.forceMergeDeletes();
+            }
+            if (!IndexSegmentStats.ACTION_NONE.equals(action)) {
+                commit.run();
+            }
+            lastError = null;
+        } catch (IOException | RuntimeException e) {
+            lastError = e.getMessage();
+            log.error("lucene index maintenance failed, action: " + action, e);
+        } finally {
+            lastAction = action;
+            lastRunAt = Instant.now();
+            lastRunMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            maintenanceLock.unlock();
+        }
+        log.info("lucene index maintenance: {}, segments before: {}, cost: {} ms", lastAction,
+                stats.getSegmentCount(), lastRunMillis);
+    }
+
+    /**
+     * record a run that did not touch the index, e.g. while a full reindex rebuilds it anyway.
+     */
+    void skip() {
+        lastAction = IndexSegmentStats.ACTION_SKIPPED;
+        lastRunAt = Instant.now();
+        lastRunMillis = 0L;
+    }
+
+    IndexSegmentStats stats(IndexWriter writer, IndexReader reader) throws IOException {
+        IndexSegmentStats stats = new IndexSegmentStats();
+        long sizeBytes = 0;
+        long largestSegmentBytes = 0;
+        for (LeafReaderContext leaf : reader.leaves()) {
+            LeafReader leafReader = FilterLeafReader.unwrap(leaf.reader());
+            if (leafReader instanceof SegmentReader) {
+                long segmentBytes = ((SegmentReader) leafReader).getSegmentInfo().sizeInBytes();
+                sizeBytes += segmentBytes;
+                largestSegmentBytes = Math.max(largestSegmentBytes, segmentBytes);
+            }
+        }
+        stats.setSegmentCount(reader.leaves().size());
+        stats.setNumDocs(reader.numDocs());
+        stats.setMaxDoc(reader.maxDoc());
+        stats.setDeletedDocs(reader.numDeletedDocs());
+        stats.setDeletedDocsRatio(reader.maxDoc() > 0 ? (double) reader.numDeletedDocs() / reader.maxDoc() : 0);
+        stats.setSizeBytes(sizeBytes);
+        stats.setLargestSegmentBytes(largestSegmentBytes);
+        if (writer.getConfig().getMergeScheduler() instanceof LuceneMergeScheduler) {
+            LuceneMergeScheduler mergeScheduler = (LuceneMergeScheduler) writer.getConfig().getMergeScheduler();
+            stats.setMergeCount(mergeScheduler.getMergeCount());
+            stats.setTotalMergeMillis(mergeScheduler.getTotalMergeMillis());
+            stats.setLastMergeMillis(mergeScheduler.getLastMergeMillis());
+            stats.setLastMergeAt(mergeScheduler.getLastMergeAt());
+        }
+        stats.setMaintenanceRunning(maintenanceLock.isLocked());
+        stats.setLastMaintenanceAction(lastAction);
+        stats.setLastMaintenanceAt(lastRunAt);
+        stats.setLastMaintenanceMillis(lastRunMillis);
+        stats.setLastMaintenanceError(lastError);
+        return stats;
+    }
+}
@@ -0,0 +1,378 @@
+package com.huntly.server.service;
+
+import com.huntly.server.domain.dto.SearchIndexStats;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.index.IndexWriter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded queue in front of the lucene index writer.
+ * <p>
+ * Callers enqueue write operations and return immediately, a single indexer thread applies them in batches
+ * and coalesces commits by time or by count, so a burst of page saves costs one fsync instead of one per page.
+ * When the queue is full, callers block until the indexer catches up (backpressure).
+ *
+ * @author lcomplete
+ */
+@Slf4j
+class LuceneIndexQueue {
+
+    /**
+     * a single write applied to the index writer on the indexer thread.
+     */
+    @FunctionalInterface
+    interface IndexOperation {
+        void apply(IndexWriter writer) throws IOException;
+    }
+
+    /**
+     * the last change of a page recorded while a full reindex is running.
+     */
+    enum JournalKind {
+        /**
+         * the page is read again from the table, status updates included.
+         */
+        INDEX,
+        DELETE
+    }
+
+    private static class IndexTask {
+        private final long seq;
+        private final IndexOperation operation;
+        private final JournalKind journalKind;
+        private final List<Long> pageIds;
+        private final boolean forceCommit;
+
+        IndexTask(long seq, IndexOperation operation, JournalKind journalKind, List<Long> pageIds, boolean forceCommit) {
+            this.seq = seq;
+            this.operation = operation;
+            this.journalKind = journalKind;
+            this.pageIds = pageIds;
+            this.forceCommit = forceCommit;
+        }
+    }
+
+    private static final int MAX_BATCH_SIZE = 256;
+
+    private final IndexWriter writer;
+
+    private final Runnable onApplied;
+
+    private final BlockingQueue<IndexTask> queue;
+
+    private final int capacity;
+
+    private final long commitIntervalNanos;
+
+    private final int commitMaxDocs;
+
+    private final int journalMaxPages;
+
+    private final Thread indexerThread;
+
+    private final Object submitLock = new Object();
+
+    private final Object commitMonitor = new Object();
+
+    private volatile boolean running = true;
+
+    private long enqueuedSeq;
+
+    private volatile long appliedSeq;
+
+    private volatile long committedSeq;
+
+    private volatile Instant lastCommitAt;
+
+    private volatile String lastError;
+
+    private final AtomicLong commitCount = new AtomicLong();
+
+    private final AtomicLong committedOperations = new AtomicLong();
+
+    private final AtomicLong failedOperations = new AtomicLong();
+
+    private final AtomicLong backpressureCount = new AtomicLong();
+
+    private final AtomicLong backpressureWaitNanos = new AtomicLong();
+
+    /**
+     * pages changed while a full reindex is running, only touched on the indexer thread.
+     * only ids are kept, the documents would hold the whole library in memory on a long rebuild.
+     */
+    private Map<Long, JournalKind> journal;
+
+    private volatile int journalSize;
+
+    private volatile boolean journalOverflowed;
+
+    /**
+     * @param journalMaxPages more changed pages than this during a reindex abort it
+     * @param onApplied       called on the indexer thread after a batch has been applied to the writer
+     */
+    LuceneIndexQueue(IndexWriter writer, int capacity, long commitIntervalMillis, int commitMaxDocs,
+                     int journalMaxPages, Runnable onApplied) {
+        this.writer = writer;
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(commitIntervalMillis);
+        this.commitMaxDocs = commitMaxDocs;
+        this.journalMaxPages = journalMaxPages;
+        this.onApplied = onApplied;
+        this.indexerThread = new Thread(this::runIndexer, "lucene_index_thread");
+        this.indexerThread.setDaemon(true);
+        this.indexerThread.start();
+    }
+
+    /**
+     * enqueue a write, blocking only when the queue is full.
+     *
+     * @return sequence number of the operation, usable with {@link #awaitCommitted(long, long)}
+     */
+    long submit(IndexOperation operation) {
+        return enqueue(operation, null, null, false);
+    }
+
+    /**
+     * enqueue a write of pages, they are journaled while a full reindex is running.
+     */
+    long submit(JournalKind journalKind, List<Long> pageIds, IndexOperation operation) {
+        return enqueue(operation, journalKind, pageIds, false);
+    }
+
+    /**
+     * commit everything submitted so far and wait until it is durable.
+     *
+     * @return true if all operations were committed within the timeout
+     */
+    boolean flush(long timeoutMillis) {
+        long seq = enqueue(null, null, null, true);
+        return awaitCommitted(seq, timeoutMillis);
+    }
+
+    boolean awaitCommitted(long seq, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (commitMonitor) {
+            while (committedSeq < seq) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !indexerThread.isAlive()) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(commitMonitor, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private long enqueue(IndexOperation operation, JournalKind journalKind, List<Long> pageIds, boolean forceCommit) {
+        if (!running) {
+            throw new IllegalStateException("lucene index queue is closed");
+        }
+        synchronized (submitLock) {
+            long seq = enqueuedSeq + 1;
+            IndexTask task = new IndexTask(seq, operation, journalKind, pageIds, forceCommit);
+            if (!queue.offer(task)) {
+                backpressureCount.incrementAndGet();
+                long start = System.nanoTime();
+                try {
+                    queue.put(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while waiting for lucene index queue", e);
+                } finally {
+                    backpressureWaitNanos.addAndGet(System.nanoTime() - start);
+                }
+            }
+            enqueuedSeq = seq;
+            return seq;
+        }
+    }
+
+    private void runIndexer() {
+        List<IndexTask> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        long lastCommitNanos = System.nanoTime();
+        int uncommitted = 0;
+        while (running || !queue.isEmpty()) {
+            boolean forceCommit = false;
+            try {
+                long waitNanos = uncommitted > 0
+                        ? Math.max(0, lastCommitNanos + commitIntervalNanos - System.nanoTime())
+                        : commitIntervalNanos;
+                IndexTask first = queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                    for (IndexTask task : batch) {
+                        forceCommit |= task.forceCommit;
+                        if (task.operation != null) {
+                            applyOperation(task);
+                            uncommitted++;
+                        }
+                        appliedSeq = task.seq;
+                    }
+                    batch.clear();
+                    onApplied.run();
+                }
+            } catch (InterruptedException e) {
+                // closing, drain what is left
+                running = false;
+            }
+            boolean commitDue = uncommitted >= commitMaxDocs
+                    || (uncommitted > 0 && System.nanoTime() - lastCommitNanos >= commitIntervalNanos);
+            if (forceCommit || commitDue || (!running && queue.isEmpty())) {
+                commit(uncommitted);
+                uncommitted = 0;
+                lastCommitNanos = System.nanoTime();
+            }
+        }
+    }
+
+    private void applyOperation(IndexTask task) {
+        boolean journaled = journal != null && task.pageIds != null;
+        try {
+            task.operation.apply(writer);
+        } catch (Exception e) {
+            if (!journaled) {
+                failedOperations.incrementAndGet();
+                lastError = e.getMessage();
+                log.error("failed to apply lucene index operation, seq: " + task.seq, e);
+                return;
+            }
+            // the old index rejects docs whose field schema changed, the rebuilt index takes them
+            log.warn("lucene index operation deferred to the rebuilt index, seq: {}, {}", task.seq, e.getMessage());
+        }
+        if (journaled) {
+            record(task);
+        }
+    }
+
+    private void record(IndexTask task) {
+        for (Long pageId : task.pageIds) {
+            journal.put(pageId, task.journalKind);
+        }
+        if (journal.size() > journalMaxPages) {
+            log.warn("more than {} pages changed during the reindex, it is aborted", journalMaxPages);
+            journal = null;
+            journalSize = 0;
+            journalOverflowed = true;
+            return;
+        }
+        journalSize = journal.size();
+    }
+
+    private void commit(int operations) {
+        long seq = appliedSeq;
+        try {
+            if (operations > 0) {
+                writer.commit();
+                commitCount.incrementAndGet();
+                committedOperations.addAndGet(operations);
+                lastCommitAt = Instant.now();
+            }
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("failed to commit lucene index", e);
+            return;
+        }
+        synchronized (commitMonitor) {
+            committedSeq = seq;
+            commitMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * start recording changed pages so they can be indexed again on top of a rebuilt index,
+     * must be called from an operation running on the indexer thread.
+     */
+    void startJournal() {
+        journal = new HashMap<>();
+        journalSize = 0;
+        journalOverflowed = false;
+    }
+
+    /**
+     * stop recording, must be called from an operation running on the indexer thread.
+     *
+     * @return pages changed since {@link #startJournal()} with their last kind of change
+     * @throws IllegalStateException if more pages changed than the journal holds, the rebuilt index would miss some
+     */
+    Map<Long, JournalKind> stopJournal() {
+        Map<Long, JournalKind> recorded = journal != null ? journal : new HashMap<>();
+        boolean overflowed = journalOverflowed;
+        discardJournal();
+        if (overflowed) {
+            throw new IllegalStateException("more than " + journalMaxPages + " pages changed during the reindex");
+        }
+        return recorded;
+    }
+
+    /**
+     * stop recording and drop what was recorded, must be called from an operation running on the indexer thread.
+     */
+    void discardJournal() {
+        journal = null;
+        journalSize = 0;
+        journalOverflowed = false;
+    }
+
+    /**
+     * safe to call from any thread, a running reindex stops early instead of building an index it can not swap in.
+     */
+    boolean isJournalOverflowed() {
+        return journalOverflowed;
+    }
+
+    /**
+     * stop accepting writes, apply and commit everything already queued.
+     */
+    void close(long timeoutMillis) {
+        // the marker wakes the indexer up and commits whatever is pending
+        enqueue(null, null, null, true);
+        running = false;
+        try {
+            indexerThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (indexerThread.isAlive()) {
+            log.warn("lucene index queue did not drain in {} ms, pending operations: {}", timeoutMillis, queue.size());
+            indexerThread.interrupt();
+        }
+    }
+
+    void fillStats(SearchIndexStats stats) {
+        long enqueued;
+        synchronized (submitLock) {
+            enqueued = enqueuedSeq;
+        }
+        long commits = commitCount.get();
+        stats.setIndexQueueDepth(queue.size());
+        stats.setIndexQueueCapacity(capacity);
+        stats.setEnqueuedOperations(enqueued);
+        stats.setAppliedOperations(appliedSeq);
+        stats.setUncommittedOperations(Math.max(0, enqueued - committedSeq));
+        stats.setCommitCount(commits);
+        stats.setAvgOperationsPerCommit(commits == 0 ? 0 : committedOperations.get() / (double) commits);
+        stats.setLastCommitAt(lastCommitAt);
+        stats.setFailedOperations(failedOperations.get());
+        stats.setBackpressureCount(backpressureCount.get());
+        stats.setBackpressureWaitMillis(TimeUnit.NANOSECONDS.toMillis(backpressureWaitNanos.get()));
+        stats.setLastIndexError(lastError);
+        stats.setReindexJournalPages(journalSize);
+    }
+}
@@ -0,0 +1,174 @@
+package com.huntly.server.service;
+
+import com.huntly.server.domain.dto.IndexReconcileResult;
+import com.huntly.server.domain.entity.Page;
+import com.huntly.server.repository.PageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds the drift between the page table and the lucene index and repairs only the differences.
+ * <p>
+ * Both sides are walked in id ordered chunks. The ids and updated at of a chunk of pages are compared with the
+ * ids and updated at watermarks of the docs in the same id range, pages without a doc or with a different
+ * watermark are indexed again and docs of deleted pages are removed. A run stops at its deadline and the next
+ * one continues from there, so it can run at startup in bounded time.
+ *
+ * @author lcomplete
+ */
+@Slf4j
+class LuceneIndexReconciler {
+
+    private final LuceneService luceneService;
+
+    private final PageRepository pageRepository;
+
+    private final int chunkSize;
+
+    private final AtomicLong driftDocs = new AtomicLong();
+
+    /**
+     * an unfinished run is continued after this id.
+     */
+    private long resumeAfterId;
+
+    private volatile IndexReconcileResult lastResult;
+
+    LuceneIndexReconciler(LuceneService luceneService, PageRepository pageRepository, int chunkSize) {
+        this.luceneService = luceneService;
+        this.pageRepository = pageRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    synchronized IndexReconcileResult run(long maxMillis) {
+        long deadline = System.currentTimeMillis() + maxMillis;
+        IndexReconcileResult result = new IndexReconcileResult();
+        result.setStartedAt(Instant.now());
+        result.setFromId(resumeAfterId);
+        long checkedPages = 0;
+        long missing = 0;
+        long stale = 0;
+        long orphans = 0;
+        // repaired and failed docs
+        long[] repairs = new long[2];
+        long lastId = resumeAfterId;
+        try {
+            // docs still waiting in the index queue would look missing or stale
+            luceneService.flush(Math.max(0, deadline - System.currentTimeMillis()));
+            luceneService.refreshSearcher();
+            boolean completed = false;
+            while (System.currentTimeMillis() < deadline) {
+                List<Object[]> rows = pageRepository.findIdAndUpdatedAtByIdGreaterThan(lastId, PageRequest.ofSize(chunkSize));
+                boolean lastChunk = rows.size() < chunkSize;
+                // the last chunk also covers docs above the largest page id
+                long toId = lastChunk ? Long.MAX_VALUE : (Long) rows.get(rows.size() - 1)[0];
+                Map<Long, Long> watermarks = luceneService.loadIndexWatermarks(lastId + 1, toId);
+                List<Long> reindexIds = new ArrayList<>();
+                for (Object[] row : rows) {
+                    Long id = (Long) row[0];
+                    Long updatedAt = row[1] != null ? ((Instant) row[1]).toEpochMilli() : null;
+                    if (!watermarks.containsKey(id)) {
+                        missing++;
+                        reindexIds.add(id);
+                    } else if (!Objects.equals(watermarks.remove(id), updatedAt)) {
+                        stale++;
+                        reindexIds.add(id);
+                    }
+                }
+                Set<Long> orphanIds = watermarks.keySet();
+                orphans += orphanIds.size();
+                reindex(reindexIds, repairs);
+                deleteOrphans(orphanIds, repairs);
+                checkedPages += rows.size();
+                if (lastChunk) {
+                    if (!rows.isEmpty()) {
+                        lastId = (Long) rows.get(rows.size() - 1)[0];
+                    }
+                    completed = true;
+                    break;
+                }
+                lastId = toId;
+            }
+            resumeAfterId = completed ? 0 : lastId;
+            result.setStatus(completed ? IndexReconcileResult.STATUS_COMPLETED : IndexReconcileResult.STATUS_PARTIAL);
+        } catch (Exception e) {
+            // the chunk is checked again by the next run
+            resumeAfterId = lastId;
+            result.setStatus(IndexReconcileResult.STATUS_FAILED);
+            result.setError(e.getMessage());
+            log.error("reconcile lucene index failed", e);
+        }
+        result.setLastCheckedId(lastId);
+        result.setCheckedPages(checkedPages);
+        result.setMissingDocs(missing);
+        result.setStaleDocs(stale);
+        result.setOrphanDocs(orphans);
+        result.setRepairedDocs(repairs[0]);
+        result.setFailedRepairs(repairs[1]);
+        result.setFinishedAt(Instant.now());
+        driftDocs.addAndGet(missing + stale + orphans);
+        lastResult = result;
+        if (missing + stale + orphans > 0) {
+            log.info("reconciled lucene index, checked: {}, missing: {}, stale: {}, orphan: {}, failed: {}",
+                    checkedPages, missing, stale, orphans, repairs[1]);
+        }
+        return result;
+    }
+
+    private void reindex(List<Long> ids, long[] repairs) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<Long> found = new HashSet<>();
+        List<Page> pages = pageRepository.findAllById(ids);
+        luceneService.loadContents(pages);
+        for (Page page : pages) {
+            found.add(page.getId());
+            try {
+                luceneService.indexPage(page);
+                repairs[0]++;
+            } catch (RuntimeException e) {
+                repairs[1]++;
+                log.warn("failed to reindex page, id: " + page.getId(), e);
+            }
+        }
+        // deleted since the chunk was read
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                luceneService.deletePage(id);
+                repairs[0]++;
+            }
+        }
+    }
+
+    private void deleteOrphans(Set<Long> ids, long[] repairs) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        // pages created since the chunk was read are already indexed
+        Set<Long> created = new HashSet<>(pageRepository.findExistingIds(ids));
+        for (Long id : ids) {
+            if (!created.contains(id)) {
+                luceneService.deletePage(id);
+                repairs[0]++;
+            }
+        }
+    }
+
+    IndexReconcileResult getLastResult() {
+        return lastResult;
+    }
+
+    long getDriftDocs() {
+        return driftDocs.get();
+    }
+}
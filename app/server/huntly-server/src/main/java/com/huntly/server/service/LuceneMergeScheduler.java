@@ -0,0 +1,52 @@
+package com.huntly.server.service;
+
+import org.apache.lucene.index.ConcurrentMergeScheduler;
+import org.apache.lucene.index.MergePolicy;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent merge scheduler that records how many merges ran and how long they took, for the segment stats.
+ *
+ * @author lcomplete
+ */
+class LuceneMergeScheduler extends ConcurrentMergeScheduler {
+
+    private final AtomicLong mergeCount = new AtomicLong();
+
+    private final AtomicLong totalMergeNanos = new AtomicLong();
+
+    private volatile long lastMergeNanos;
+
+    private volatile Instant lastMergeAt;
+
+    @Override
+    protected void doMerge(MergeSource mergeSource, MergePolicy.OneMerge merge) throws IOException {
+        long start = System.nanoTime();
+        super.doMerge(mergeSource, merge);
+        long nanos = System.nanoTime() - start;
+        mergeCount.incrementAndGet();
+        totalMergeNanos.addAndGet(nanos);
+        lastMergeNanos = nanos;
+        lastMergeAt = Instant.now();
+    }
+
+    long getMergeCount() {
+        return mergeCount.get();
+    }
+
+    long getTotalMergeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalMergeNanos.get());
+    }
+
+    long getLastMergeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastMergeNanos);
+    }
+
+    Instant getLastMergeAt() {
+        return lastMergeAt;
+    }
+}
@@ -0,0 +1,207 @@
+package com.huntly.server.service;
+
+import com.huntly.server.domain.dto.ReindexProgress;
+import com.huntly.server.domain.entity.Page;
+import com.huntly.server.repository.PageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rebuilds the whole lucene index without loading the page table into memory.
+ * <p>
+ * Pages are streamed in keyset ordered chunks by id, documents are built on a worker pool and written
+ * into a fresh index directory, which is then swapped into the live index in one commit.
+ *
+ * @author lcomplete
+ */
+@Slf4j
+class LuceneReindexJob implements Runnable {
+
+    enum Status {
+        RUNNING, SWAPPING, COMPLETED, FAILED
+    }
+
+    private final LuceneService luceneService;
+
+    private final PageRepository pageRepository;
+
+    private final int chunkSize;
+
+    private final int threads;
+
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.RUNNING);
+
+    private final AtomicLong processedPages = new AtomicLong();
+
+    private final AtomicLong failedPages = new AtomicLong();
+
+    private final AtomicInteger failedChunks = new AtomicInteger();
+
+    private volatile long totalPages;
+
+    private volatile Instant startedAt;
+
+    private volatile Instant finishedAt;
+
+    private volatile String error;
+
+    LuceneReindexJob(LuceneService luceneService, PageRepository pageRepository, int chunkSize, int threads) {
+        this.luceneService = luceneService;
+        this.pageRepository = pageRepository;
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+    }
+
+    boolean isRunning() {
+        Status current = status.get();
+        return current == Status.RUNNING || current == Status.SWAPPING;
+    }
+
+    @Override
+    public void run() {
+        startedAt = Instant.now();
+        Path buildPath = luceneService.getIndexPath().resolveSibling(
+                luceneService.getIndexPath().getFileName() + "_reindex_" + startedAt.toEpochMilli());
+        log.info("reindex all pages into {}", buildPath);
+        boolean journalStarted = false;
+        try {
+            totalPages = pageRepository.count();
+            luceneService.beginReindex();
+            journalStarted = true;
+            try (Directory buildDir = FSDirectory.open(buildPath)) {
+                try (IndexWriter buildWriter = new IndexWriter(buildDir, luceneService.newIndexWriterConfig()
+                        .setRAMBufferSizeMB(64))) {
+                    buildIndex(buildWriter);
+                    buildWriter.commit();
+                }
+                status.set(Status.SWAPPING);
+                luceneService.completeReindex(buildDir);
+                journalStarted = false;
+            }
+            status.set(Status.COMPLETED);
+            log.info("reindex completed, pages: {}, failed: {}, cost: {}", processedPages.get(), failedPages.get(),
+                    Duration.between(startedAt, Instant.now()));
+        } catch (Exception e) {
+            error = e.getMessage();
+            status.set(Status.FAILED);
+            log.error("reindex all pages failed", e);
+            if (journalStarted) {
+                luceneService.abortReindex();
+            }
+        } finally {
+            finishedAt = Instant.now();
+            try {
+                FileSystemUtils.deleteRecursively(buildPath);
+            } catch (IOException e) {
+                log.warn("failed to delete reindex directory " + buildPath, e);
+            }
+        }
+    }
+
+    private void buildIndex(IndexWriter buildWriter) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> new Thread(r, "lucene_reindex_worker"));
+        // bound the chunks held in memory while workers are busy
+        Semaphore inFlight = new Semaphore(threads * 2);
+        try {
+            long lastId = 0;
+            while (true) {
+                if (luceneService.isReindexJournalOverflowed()) {
+                    throw new IllegalStateException("too many pages changed during the reindex");
+                }
+                List<Page> pages = pageRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.ofSize(chunkSize));
+                if (pages.isEmpty()) {
+                    break;
+                }
+                lastId = pages.get(pages.size() - 1).getId();
+                inFlight.acquire();
+                workers.execute(() -> {
+                    try {
+                        indexChunk(buildWriter, pages);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquire(threads * 2);
+        } finally {
+            workers.shutdownNow();
+        }
+        if (failedChunks.get() > 0) {
+            throw new IllegalStateException("failed to write " + failedChunks.get() + " chunks into the rebuilt index");
+        }
+    }
+
+    private void indexChunk(IndexWriter buildWriter, List<Page> pages) {
+        try {
+            luceneService.loadContents(pages);
+        } catch (RuntimeException e) {
+            failedChunks.incrementAndGet();
+            log.error("failed to load the content of a chunk, from id: " + pages.get(0).getId(), e);
+            return;
+        }
+        for (Page page : pages) {
+            try {
+                Document doc = luceneService.pageToDocument(page);
+                buildWriter.addDocument(doc);
+                // the vector arrives through the live queue, which is replayed after the rebuilt index
+                luceneService.embedIfMissing(page, doc);
+            } catch (IOException e) {
+                // the writer itself failed, the rebuilt index can not be trusted
+                failedChunks.incrementAndGet();
+                log.error("failed to write page into rebuilt index, id: " + page.getId(), e);
+                return;
+            } catch (RuntimeException e) {
+                failedPages.incrementAndGet();
+                log.warn("failed to build document for page, id: " + page.getId(), e);
+            }
+            processedPages.incrementAndGet();
+        }
+    }
+
+    ReindexProgress getProgress() {
+        ReindexProgress progress = new ReindexProgress();
+        long processed = processedPages.get();
+        Instant start = startedAt;
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        progress.setStatus(status.get().name());
+        progress.setTotalPages(totalPages);
+        progress.setProcessedPages(processed);
+        progress.setFailedPages(failedPages.get());
+        progress.setStartedAt(start);
+        progress.setFinishedAt(finishedAt);
+        progress.setError(error);
+        if (totalPages > 0) {
+            progress.setPercent(Math.min(100.0, processed * 100.0 / totalPages));
+        }
+        if (start != null) {
+            double seconds = Math.max(1, Duration.between(start, end).toMillis()) / 1000.0;
+            double rate = processed / seconds;
+            progress.setPagesPerSecond(rate);
+            if (isRunning() && rate > 0) {
+                progress.setEtaSeconds((long) Math.ceil(Math.max(0, totalPages - processed) / rate));
+            }
+        }
+        return progress;
+    }
+
+    static int defaultThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -1,5 +1,9 @@
 package com.huntly.server.service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.huntly.common.exceptions.RequestVerifyException;
 import com.huntly.interfaces.external.dto.PageItem;
 import com.huntly.interfaces.external.dto.PageSearchResult;
 import com.huntly.interfaces.external.model.ContentType;
@@ -10,38 +14,62 @@ import com.huntly.server.config.HuntlyProperties;
 import com.huntly.server.connector.ConnectorType;
 import com.huntly.server.domain.constant.AppConstants;
 import com.huntly.server.domain.constant.DocFields;
+import com.huntly.server.domain.dto.IndexReconcileResult;
+import com.huntly.server.domain.dto.IndexSegmentStats;
+import com.huntly.server.domain.dto.ReindexProgress;
+import com.huntly.server.domain.dto.SearchIndexStats;
+import com.huntly.server.domain.dto.SearchSuggestion;
+import com.huntly.server.domain.entity.Collection;
 import com.huntly.server.domain.entity.Page;
 import com.huntly.server.repository.CollectionRepository;
+import com.huntly.server.repository.EmbeddingCacheRepository;
 import com.huntly.server.repository.PageRepository;
+import com.huntly.server.util.CompressionUtils;
 import com.huntly.server.util.HtmlUtils;
 import com.huntly.server.util.PageSizeUtils;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.*;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.Fields;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.VectorSimilarityFunction;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.queries.function.FunctionScoreQuery;
+import org.apache.lucene.queries.mlt.MoreLikeThis;
 import org.apache.lucene.search.*;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StopWatch;
-import org.wltea.analyzer.core.IKSegmenter;
-import org.wltea.analyzer.core.Lexeme;
-import org.wltea.analyzer.lucene.IKAnalyzer;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.StringReader;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -50,43 +78,362 @@ import java.time.ZoneId;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
  * @author lcomplete
  */
+@Slf4j
 @Service
-public class LuceneService implements DisposableBean {
+@ConditionalOnProperty(name = "huntly.search-engine", havingValue = AppConstants.SEARCH_ENGINE_LUCENE, matchIfMissing = true)
+public class LuceneService implements SearchEngine, DisposableBean {
+
+    private static final String SCHEMA_VERSION_KEY = "schema_version";
+
+    /**
+     * first schema version with the n-gram subfields.
+     */
+    private static final int NGRAM_SCHEMA_VERSION = 2;
+
+    /**
+     * first schema version where the status fields are only indexed as doc values, so they can be updated in place.
+     */
+    private static final int STATUS_DOC_VALUES_SCHEMA_VERSION = 6;
+
+    /**
+     * first schema version with offsets in the content postings, needed for search snippets.
+     */
+    private static final int SNIPPET_OFFSETS_SCHEMA_VERSION = 8;
+
+    /**
+     * first schema version with the numeric id and updated at doc values the index reconciler compares.
+     */
+    private static final int RECONCILE_SCHEMA_VERSION = 9;
+
+    /**
+     * fields a status change can touch, see {@link #updatePageStatus(Page)}.
+     */
+    private static final String[] STATUS_FIELDS = {DocFields.LIBRARY_SAVE_STATUS, DocFields.STARRED,
+            DocFields.READ_LATER, DocFields.LAST_READ_AT, DocFields.HIGHLIGHT_COUNT, DocFields.COLLECTION_ID,
+            DocFields.COLLECTED_AT};
+
+    /**
+     * n-gram subfields only serve term lookups, so positions and norms are not indexed.
+     */
+    private static final FieldType NGRAM_FIELD_TYPE = new FieldType();
+
+    static {
+        NGRAM_FIELD_TYPE.setTokenized(true);
+        NGRAM_FIELD_TYPE.setOmitNorms(true);
+        NGRAM_FIELD_TYPE.setIndexOptions(IndexOptions.DOCS);
+        NGRAM_FIELD_TYPE.freeze();
+    }
+
+    /**
+     * title and content keep term vectors, so related pages are found without analyzing the text again.
+     * the content postings also keep offsets for the search snippets.
+     */
+    private static final FieldType TITLE_FIELD_TYPE = new FieldType(TextField.TYPE_STORED);
+
+    private static final FieldType CONTENT_FIELD_TYPE = new FieldType(TextField.TYPE_NOT_STORED);
+
+    static {
+        TITLE_FIELD_TYPE.setStoreTermVectors(true);
+        TITLE_FIELD_TYPE.freeze();
+        CONTENT_FIELD_TYPE.setStoreTermVectors(true);
+        CONTENT_FIELD_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        CONTENT_FIELD_TYPE.freeze();
+    }
 
     private final String indexDirPath;
 
+    private final double refreshMaxStaleSeconds;
+
+    private final double refreshMinStaleSeconds;
+
+    private final int indexQueueCapacity;
+
+    private final int commitIntervalMillis;
+
+    private final int commitMaxDocs;
+
+    private final int reindexChunkSize;
+
+    private final int reindexThreads;
+
+    private final int reindexJournalMaxPages;
+
     private final PageRepository pageRepository;
 
     private final PageListService pageListService;
 
     private final CollectionRepository collectionRepository;
 
+    private final PageContentService pageContentService;
+
+    /**
+     * runs the segment slices of a search in parallel, null when searches run on the caller thread only.
+     */
+    private final ThreadPoolExecutor searchExecutor;
+
+    private final int searchSliceMaxDocs;
+
+    private final int searchSliceMaxSegments;
+
+    private Directory directory;
+
     private IndexWriter writer;
 
-    public LuceneService(PageRepository pageRepository, PageListService pageListService, 
+    /**
+     * near-real-time searcher manager built on the writer, shared by all search threads.
+     */
+    private SearcherManager searcherManager;
+
+    private ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+    /**
+     * keeps recent searchers alive so cursors can page through the same point in time view.
+     */
+    private final SearcherLifetimeManager searcherLifetimeManager = new SearcherLifetimeManager();
+
+    /**
+     * all writes go through this queue, applied and group committed by a dedicated indexer thread.
+     */
+    private volatile LuceneIndexQueue indexQueue;
+
+    private final RefreshLagListener refreshLagListener = new RefreshLagListener();
+
+    /**
+     * held while a rebuilt index is swapped in, so no searcher is opened on a half swapped index.
+     */
+    private final ReentrantLock swapLock = new ReentrantLock();
+
+    private LuceneReindexJob reindexJob;
+
+    /**
+     * recent search results, bounded by the number of page items they hold and cleared when the searcher refreshes.
+     */
+    private final Cache<SearchCacheKey, PageSearchResult> searchCache;
+
+    /**
+     * schema version of the live index, queries keep matching the older layout until the rebuild is swapped in.
+     */
+    private volatile int indexSchemaVersion;
+
+    /**
+     * search-as-you-type suggestions, opened on first use.
+     */
+    private final LuceneSuggester suggester;
+
+    private final LuceneIndexReconciler reconciler;
+
+    private final LuceneIndexMaintainer maintainer;
+
+    /**
+     * page embeddings for hybrid search, computed in the background.
+     */
+    private final LuceneEmbeddingIndexer embeddings;
+
+    /**
+     * analyzers shared by the writers and the queries.
+     */
+    private final LuceneAnalysis analysis = new LuceneAnalysis(AppConstants.LUCENE_SEGMENT_CACHE_MAX_KEYWORDS);
+
+    private volatile boolean suggesterOpened;
+
+    /**
+     * ids of the related pages of a page, invalidated when the page changes or the index is rebuilt.
+     */
+    private final Cache<Long, List<Long>> relatedPageCache = CacheBuilder.newBuilder()
+            .maximumSize(AppConstants.LUCENE_RELATED_CACHE_MAX_PAGES)
+            .expireAfterWrite(AppConstants.LUCENE_RELATED_CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    private Thread suggestRebuildThread;
+
+    /**
+     * the time recent sorted searches boost from, replaced by tests.
+     */
+    Clock clock = Clock.systemUTC();
+
+    public LuceneService(PageRepository pageRepository, PageListService pageListService,
                          HuntlyProperties huntlyProperties, CollectionRepository collectionRepository) {
+        this(pageRepository, pageListService, huntlyProperties, collectionRepository, null, null);
+    }
+
+    public LuceneService(PageRepository pageRepository, PageListService pageListService,
+                         HuntlyProperties huntlyProperties, CollectionRepository collectionRepository,
+                         EmbeddingProvider embeddingProvider, EmbeddingCacheRepository embeddingCacheRepository) {
+        this(pageRepository, pageListService, huntlyProperties, collectionRepository, embeddingProvider,
+                embeddingCacheRepository, null);
+    }
+
+    /**
+     * @param embeddingProvider  null turns semantic search off
+     * @param pageContentService null leaves each page to load its own body
+     */
+    @Autowired
+    public LuceneService(PageRepository pageRepository, PageListService pageListService,
+                         HuntlyProperties huntlyProperties, CollectionRepository collectionRepository,
+                         EmbeddingProvider embeddingProvider, EmbeddingCacheRepository embeddingCacheRepository,
+                         PageContentService pageContentService) {
+        this.pageContentService = pageContentService;
         this.pageListService = pageListService;
         indexDirPath = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneDir(), AppConstants.DEFAULT_LUCENE_DIR);
+        refreshMaxStaleSeconds = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneRefreshMaxStaleMillis(),
+                AppConstants.DEFAULT_LUCENE_REFRESH_MAX_STALE_MILLIS) / 1000.0;
+        refreshMinStaleSeconds = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneRefreshMinStaleMillis(),
+                AppConstants.DEFAULT_LUCENE_REFRESH_MIN_STALE_MILLIS) / 1000.0;
+        indexQueueCapacity = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneIndexQueueCapacity(),
+                AppConstants.DEFAULT_LUCENE_INDEX_QUEUE_CAPACITY);
+        commitIntervalMillis = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneCommitIntervalMillis(),
+                AppConstants.DEFAULT_LUCENE_COMMIT_INTERVAL_MILLIS);
+        commitMaxDocs = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneCommitMaxDocs(),
+                AppConstants.DEFAULT_LUCENE_COMMIT_MAX_DOCS);
+        reindexChunkSize = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneReindexChunkSize(),
+                AppConstants.DEFAULT_LUCENE_REINDEX_CHUNK_SIZE);
+        reindexThreads = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneReindexThreads(),
+                LuceneReindexJob.defaultThreads());
+        reindexJournalMaxPages = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneReindexJournalMaxPages(),
+                AppConstants.DEFAULT_LUCENE_REINDEX_JOURNAL_MAX_PAGES);
         this.pageRepository = pageRepository;
         this.collectionRepository = collectionRepository;
+        int searchCacheMaxItems = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneSearchCacheMaxItems(),
+                AppConstants.DEFAULT_LUCENE_SEARCH_CACHE_MAX_ITEMS);
+        int searchThreads = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneSearchThreads(),
+                Runtime.getRuntime().availableProcessors());
+        searchSliceMaxDocs = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneSearchSliceMaxDocs(),
+                AppConstants.DEFAULT_LUCENE_SEARCH_SLICE_MAX_DOCS);
+        searchSliceMaxSegments = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneSearchSliceMaxSegments(),
+                AppConstants.DEFAULT_LUCENE_SEARCH_SLICE_MAX_SEGMENTS);
+        searchExecutor = searchThreads > 1 ? newSearchExecutor(searchThreads) : null;
+        String suggestDirPath = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneSuggestDir(), indexDirPath + "_suggest");
+        suggester = new LuceneSuggester(Paths.get(suggestDirPath).toAbsolutePath(),
+                AppConstants.LUCENE_SUGGEST_QUEUE_CAPACITY);
+        reconciler = new LuceneIndexReconciler(this, pageRepository, ObjectUtils.defaultIfNull(
+                huntlyProperties.getLuceneReconcileChunkSize(), AppConstants.DEFAULT_LUCENE_RECONCILE_CHUNK_SIZE));
+        maintainer = new LuceneIndexMaintainer(huntlyProperties);
+        embeddings = new LuceneEmbeddingIndexer(this, pageRepository, embeddingCacheRepository, embeddingProvider,
+                ObjectUtils.defaultIfNull(huntlyProperties.getLuceneEmbeddingDimensions(),
+                        AppConstants.DEFAULT_LUCENE_EMBEDDING_DIMENSIONS),
+                ObjectUtils.defaultIfNull(huntlyProperties.getLuceneEmbeddingBatchSize(),
+                        AppConstants.DEFAULT_LUCENE_EMBEDDING_BATCH_SIZE));
+        searchCache = CacheBuilder.newBuilder()
+                .maximumWeight(searchCacheMaxItems)
+                .weigher((SearchCacheKey key, PageSearchResult result) -> result.getItems().size() + 1)
+                .recordStats()
+                .build();
+    }
+
+    private static ThreadPoolExecutor newSearchExecutor(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // when all threads are busy the searcher runs the remaining slices on the caller thread
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(threads * 4),
+                r -> {
+                    Thread thread = new Thread(r, "lucene_search_thread_" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * creates searchers that split the index into slices and search them on the search executor.
+     */
+    SearcherFactory newSearcherFactory() {
+        ThreadPoolExecutor executor = searchExecutor;
+        int sliceMaxDocs = searchSliceMaxDocs;
+        int sliceMaxSegments = searchSliceMaxSegments;
+        return new SearcherFactory() {
+            @Override
+            public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+                return new IndexSearcher(reader, executor) {
+                    // called from the super constructor, only captured locals are initialized by then
+                    @Override
+                    protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+                        return slices(leaves, sliceMaxDocs, sliceMaxSegments);
+                    }
+                };
+            }
+        };
     }
 
     @Override
-    public void destroy() throws Exception {
+    public synchronized void destroy() throws Exception {
+        if (suggestRebuildThread != null) {
+            suggestRebuildThread.join(AppConstants.LUCENE_INDEX_QUEUE_CLOSE_TIMEOUT_MILLIS);
+        }
+        embeddings.close(AppConstants.LUCENE_INDEX_QUEUE_CLOSE_TIMEOUT_MILLIS);
+        if (indexQueue != null) {
+            indexQueue.close(AppConstants.LUCENE_INDEX_QUEUE_CLOSE_TIMEOUT_MILLIS);
+        }
+        if (reopenThread != null) {
+            reopenThread.close();
+        }
+        searcherLifetimeManager.close();
+        if (searcherManager != null) {
+            searcherManager.close();
+        }
         if (writer != null) {
             writer.close();
         }
+        if (directory != null) {
+            directory.close();
+        }
+        if (searchExecutor != null) {
+            searchExecutor.shutdown();
+        }
+        if (suggesterOpened) {
+            suggester.close(AppConstants.LUCENE_INDEX_QUEUE_CLOSE_TIMEOUT_MILLIS);
+        }
+        analysis.close();
+    }
+
+    /**
+     * start rebuilding the whole index in the background, the running job is reused if there is one.
+     */
+    @Override
+    public synchronized ReindexProgress indexAllPages() {
+        if (reindexJob == null || !reindexJob.isRunning()) {
+            ensureLuceneIndexWriter();
+            reindexJob = new LuceneReindexJob(this, pageRepository, reindexChunkSize, reindexThreads);
+            Thread thread = new Thread(reindexJob, "lucene_reindex_thread");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return reindexJob.getProgress();
+    }
+
+    @Override
+    public synchronized ReindexProgress getReindexProgress() {
+        if (reindexJob == null) {
+            ReindexProgress progress = new ReindexProgress();
+            progress.setStatus(ReindexProgress.STATUS_IDLE);
+            return progress;
+        }
+        return reindexJob.getProgress();
     }
 
-    public void indexAllPages() {
-        ensureCreateDirectory();
-        indexPages();
+    Path getIndexPath() {
+        return Paths.get(indexDirPath).toAbsolutePath();
     }
 
     private void ensureCreateDirectory() {
@@ -96,80 +443,322 @@ public class LuceneService implements DisposableBean {
         }
     }
 
-    public Directory getDirectory() {
-        ensureCreateDirectory();
-        try {
-            return FSDirectory.open(Paths.get(indexDirPath));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    public synchronized Directory getDirectory() {
+        if (directory == null) {
+            ensureCreateDirectory();
+            try {
+                directory = FSDirectory.open(Paths.get(indexDirPath));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         }
+        return directory;
+    }
+
+    IndexWriterConfig newIndexWriterConfig() {
+        IndexWriterConfig writerConfig = new IndexWriterConfig(analysis.getIndexAnalyzer());
+        writerConfig.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        return maintainer.configure(writerConfig);
     }
 
     private synchronized void ensureLuceneIndexWriter() {
         if (writer == null) {
             Directory dir = getDirectory();
-            Analyzer analyzer = new IKAnalyzer();
-            IndexWriterConfig writerConfig = new IndexWriterConfig(analyzer);
-            writerConfig.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
             try {
-                writer = new IndexWriter(dir, writerConfig);
+                writer = new IndexWriter(dir, newIndexWriterConfig());
+                searcherManager = new SearcherManager(writer, newSearcherFactory());
+                searcherManager.addListener(new ReferenceManager.RefreshListener() {
+                    @Override
+                    public void beforeRefresh() {
+                        swapLock.lock();
+                    }
+
+                    @Override
+                    public void afterRefresh(boolean didRefresh) {
+                        swapLock.unlock();
+                    }
+                });
+                searcherManager.addListener(refreshLagListener);
+                searcherManager.addListener(new ReferenceManager.RefreshListener() {
+                    @Override
+                    public void beforeRefresh() {
+                    }
+
+                    @Override
+                    public void afterRefresh(boolean didRefresh) {
+                        if (didRefresh) {
+                            // keys carry the searcher version, entries of older versions can never hit again
+                            searchCache.invalidateAll();
+                        }
+                    }
+                });
+                // reopen at most every max stale seconds, or sooner when someone waits for a generation
+                reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager,
+                        refreshMaxStaleSeconds, refreshMinStaleSeconds);
+                reopenThread.setName("lucene_reopen_thread");
+                reopenThread.setDaemon(true);
+                reopenThread.start();
+                indexQueue = new LuceneIndexQueue(writer, indexQueueCapacity, commitIntervalMillis, commitMaxDocs,
+                        reindexJournalMaxPages, refreshLagListener::markChanged);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
+            checkSchemaVersion();
         }
     }
 
-    private void indexPages() {
-        List<Page> pages = pageRepository.findAll();
-        for (var page : pages) {
-            indexPage(page);
+    private void checkSchemaVersion() {
+        int schemaVersion = 0;
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (SCHEMA_VERSION_KEY.equals(entry.getKey())) {
+                    schemaVersion = Integer.parseInt(entry.getValue());
+                }
+            }
+        }
+        if (schemaVersion < AppConstants.LUCENE_SCHEMA_VERSION && writer.getDocStats().numDocs == 0) {
+            // persisted with the first commit
+            writer.setLiveCommitData(schemaCommitData());
+            schemaVersion = AppConstants.LUCENE_SCHEMA_VERSION;
         }
+        indexSchemaVersion = schemaVersion;
+        if (schemaVersion < AppConstants.LUCENE_SCHEMA_VERSION) {
+            log.info("lucene index schema version {} is older than {}, rebuilding the index", schemaVersion,
+                    AppConstants.LUCENE_SCHEMA_VERSION);
+            indexAllPages();
+        }
+    }
+
+    private static Iterable<Map.Entry<String, String>> schemaCommitData() {
+        return Map.of(SCHEMA_VERSION_KEY, String.valueOf(AppConstants.LUCENE_SCHEMA_VERSION)).entrySet();
     }
 
-    public synchronized void indexPage(Page page) {
+    private SearcherManager getSearcherManager() {
         ensureLuceneIndexWriter();
-        try {
-            boolean docExists = false;
-            Directory dir = getDirectory();
-            if (DirectoryReader.indexExists(dir)) {
-                try (DirectoryReader reader = DirectoryReader.open(dir)) {
-                    IndexSearcher searcher = new IndexSearcher(reader);
-                    Query idQuery = new TermQuery(new Term("id", page.getId().toString()));
-                    TopDocs docs = searcher.search(idQuery, 1);
-                    docExists = docs.totalHits.value > 0;
+        return searcherManager;
+    }
+
+    private LuceneIndexQueue getIndexQueue() {
+        LuceneIndexQueue queue = indexQueue;
+        if (queue == null) {
+            ensureLuceneIndexWriter();
+            queue = indexQueue;
+        }
+        return queue;
+    }
+
+    /**
+     * record changed pages from now on, they are indexed again on top of the rebuilt index when it is swapped in.
+     */
+    void beginReindex() {
+        LuceneIndexQueue queue = getIndexQueue();
+        queue.submit(indexWriter -> queue.startJournal());
+    }
+
+    /**
+     * replace the live index with the rebuilt one in a single commit.
+     */
+    void completeReindex(Directory rebuiltDir) {
+        LuceneIndexQueue queue = getIndexQueue();
+        AtomicReference<Exception> swapError = new AtomicReference<>();
+        queue.submit(indexWriter -> {
+            swapLock.lock();
+            try {
+                Map<Long, LuceneIndexQueue.JournalKind> journal = queue.stopJournal();
+                indexWriter.deleteAll();
+                indexWriter.addIndexes(rebuiltDir);
+                replayJournal(indexWriter, journal);
+                indexWriter.setLiveCommitData(schemaCommitData());
+            } catch (IOException | RuntimeException e) {
+                swapError.set(e);
+                throw e;
+            } finally {
+                swapLock.unlock();
+            }
+        });
+        if (!queue.flush(AppConstants.LUCENE_REINDEX_SWAP_TIMEOUT_MILLIS)) {
+            throw new IllegalStateException("timeout waiting for the rebuilt index to be committed");
+        }
+        if (swapError.get() != null) {
+            throw new IllegalStateException("failed to swap in the rebuilt index", swapError.get());
+        }
+        refreshSearcher();
+        indexSchemaVersion = AppConstants.LUCENE_SCHEMA_VERSION;
+        relatedPageCache.invalidateAll();
+        rebuildSuggestions();
+    }
+
+    /**
+     * the pages are read again from the table, the rebuilt index may have taken an older version of them.
+     */
+    private void replayJournal(IndexWriter indexWriter, Map<Long, LuceneIndexQueue.JournalKind> journal)
+            throws IOException {
+        List<Long> changedIds = new ArrayList<>();
+        for (Map.Entry<Long, LuceneIndexQueue.JournalKind> entry : journal.entrySet()) {
+            if (entry.getValue() == LuceneIndexQueue.JournalKind.DELETE) {
+                indexWriter.deleteDocuments(new Term(DocFields.ID, entry.getKey().toString()));
+            } else {
+                changedIds.add(entry.getKey());
+            }
+        }
+        for (int from = 0; from < changedIds.size(); from += reindexChunkSize) {
+            Set<Long> missingIds = new HashSet<>(changedIds.subList(from,
+                    Math.min(from + reindexChunkSize, changedIds.size())));
+            List<Page> pages = pageRepository.findAllById(new ArrayList<>(missingIds));
+            loadContents(pages);
+            for (Page page : pages) {
+                missingIds.remove(page.getId());
+                try {
+                    indexWriter.updateDocument(new Term(DocFields.ID, page.getId().toString()), pageToDocument(page));
+                } catch (RuntimeException e) {
+                    log.warn("failed to build document for page, id: " + page.getId(), e);
                 }
             }
+            // deleted after the change was recorded, its delete is on the way
+            for (Long id : missingIds) {
+                indexWriter.deleteDocuments(new Term(DocFields.ID, id.toString()));
+            }
+        }
+    }
+
+    /**
+     * load the bodies of pages read in bulk with one query, before their documents are built.
+     */
+    void loadContents(List<Page> pages) {
+        if (pageContentService != null) {
+            pageContentService.fillContents(pages);
+        }
+    }
+
+    void abortReindex() {
+        LuceneIndexQueue queue = getIndexQueue();
+        queue.submit(indexWriter -> queue.discardJournal());
+    }
+
+    boolean isReindexJournalOverflowed() {
+        LuceneIndexQueue queue = indexQueue;
+        return queue != null && queue.isJournalOverflowed();
+    }
+
+    /**
+     * queue the page for indexing, the document is built on the caller thread
+     * so later changes to the entity do not leak into the index.
+     */
+    @Override
+    public void indexPage(Page page) {
+        Document doc = pageToDocument(page);
+        Term idTerm = new Term(DocFields.ID, page.getId().toString());
+        // updateDocument deletes any previous doc with the same id, so no existence lookup is needed
+        getIndexQueue().submit(LuceneIndexQueue.JournalKind.INDEX, List.of(page.getId()),
+                indexWriter -> indexWriter.updateDocument(idTerm, doc));
+        embedIfMissing(page, doc);
+        relatedPageCache.invalidate(page.getId());
+        getSuggester().submit(suggestEntries(page.getId(), page.getTitle(), page.getAuthor(), page.getConnectorId(),
+                page.getSourceId(), page.getCreatedAt() != null ? page.getCreatedAt().getEpochSecond() : 0));
+    }
+
+    /**
+     * queue the pages as one index operation, so a fetched feed takes one slot of the queue and its suggestions
+     * are updated together.
+     */
+    @Override
+    public void indexPages(List<Page> pages) {
+        if (pages.isEmpty()) {
+            return;
+        }
+        loadContents(pages);
+        List<Long> ids = new ArrayList<>(pages.size());
+        List<Term> idTerms = new ArrayList<>(pages.size());
+        List<Document> docs = new ArrayList<>(pages.size());
+        List<LuceneSuggester.Entry> suggestions = new ArrayList<>();
+        for (Page page : pages) {
             Document doc = pageToDocument(page);
-            if (docExists) {
-                writer.updateDocument(new Term("id", page.getId().toString()), doc);
-            } else {
-                writer.addDocument(doc);
+            ids.add(page.getId());
+            idTerms.add(new Term(DocFields.ID, page.getId().toString()));
+            docs.add(doc);
+            embedIfMissing(page, doc);
+            relatedPageCache.invalidate(page.getId());
+            suggestions.addAll(suggestEntries(page.getId(), page.getTitle(), page.getAuthor(), page.getConnectorId(),
+                    page.getSourceId(), page.getCreatedAt() != null ? page.getCreatedAt().getEpochSecond() : 0));
+        }
+        getIndexQueue().submit(LuceneIndexQueue.JournalKind.INDEX, ids, indexWriter -> {
+            for (int i = 0; i < docs.size(); i++) {
+                indexWriter.updateDocument(idTerms.get(i), docs.get(i));
             }
-            writer.commit();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        });
+        getSuggester().submit(suggestions);
+    }
+
+    /**
+     * apply a change that only touches the status fields, their doc values are rewritten in place
+     * without extracting and analyzing the article text again.
+     */
+    @Override
+    public void updatePageStatus(Page page) {
+        LuceneIndexQueue queue = getIndexQueue();
+        if (indexSchemaVersion < STATUS_DOC_VALUES_SCHEMA_VERSION) {
+            // older docs still carry the status as points and terms, which can only be replaced with the whole doc
+            indexPage(page);
+            return;
         }
+        Field[] updates = statusDocValues(page);
+        Term idTerm = new Term(DocFields.ID, page.getId().toString());
+        queue.submit(LuceneIndexQueue.JournalKind.INDEX, List.of(page.getId()),
+                indexWriter -> indexWriter.updateDocValues(idTerm, updates));
+    }
+
+    /**
+     * the status fields are only indexed as doc values, a null value removes the field of a doc when updating.
+     */
+    static Field[] statusDocValues(Page page) {
+        // use -1 for unsorted (null collectionId)
+        long collectionIdValue = page.getCollectionId() != null ? page.getCollectionId() : -1L;
+        return new Field[]{
+                new NumericDocValuesField(DocFields.LIBRARY_SAVE_STATUS, page.getLibrarySaveStatus() != null
+                        ? page.getLibrarySaveStatus().longValue() : null),
+                new NumericDocValuesField(DocFields.STARRED, Boolean.TRUE.equals(page.getStarred()) ? 1L : 0L),
+                new NumericDocValuesField(DocFields.READ_LATER, Boolean.TRUE.equals(page.getReadLater()) ? 1L : 0L),
+                new NumericDocValuesField(DocFields.LAST_READ_AT, epochSecondOrNull(page.getLastReadAt())),
+                new NumericDocValuesField(DocFields.HIGHLIGHT_COUNT, page.getHighlightCount() != null
+                        ? page.getHighlightCount().longValue() : null),
+                new NumericDocValuesField(DocFields.COLLECTION_ID, collectionIdValue),
+                new NumericDocValuesField(DocFields.COLLECTED_AT, epochSecondOrNull(page.getCollectedAt())),
+                // every save sets it, so a status change keeps the doc in sync for the index reconciler
+                new NumericDocValuesField(DocFields.UPDATED_AT, page.getUpdatedAt() != null
+                        ? page.getUpdatedAt().toEpochMilli() : null)
+        };
     }
 
-    private Document pageToDocument(Page page) {
+    private static Long epochSecondOrNull(Instant instant) {
+        return instant != null ? instant.getEpochSecond() : null;
+    }
+
+    Document pageToDocument(Page page) {
         Document doc = new Document();
         doc.add(new StringField(DocFields.ID, page.getId().toString(), Field.Store.YES));
+        // numeric copies let the index reconciler walk the docs in id ranges
+        doc.add(new LongPoint(DocFields.ID, page.getId()));
+        doc.add(new NumericDocValuesField(DocFields.ID, page.getId()));
         if (StringUtils.isNotBlank(page.getTitle())) {
-            doc.add(new TextField(DocFields.TITLE, page.getTitle(), Field.Store.YES));
+            doc.add(new Field(DocFields.TITLE, page.getTitle(), TITLE_FIELD_TYPE));
+            doc.add(new Field(DocFields.TITLE_NGRAM, page.getTitle(), NGRAM_FIELD_TYPE));
         }
         if (StringUtils.isNotBlank(page.getDescription())) {
             doc.add(new TextField(DocFields.DESCRIPTION, page.getDescription(), Field.Store.YES));
         }
-        if (StringUtils.isNotBlank(page.getContentText())) {
-            doc.add(new TextField(DocFields.CONTENT, page.getContentText(), Field.Store.YES));
-        } else if (StringUtils.isNotBlank(page.getContent())) {
-            doc.add(new TextField(DocFields.CONTENT, HtmlUtils.getDocText(page.getContent()), Field.Store.YES));
+        String contentText = contentTextOf(page);
+        if (contentText != null) {
+            doc.add(new Field(DocFields.CONTENT, contentText, CONTENT_FIELD_TYPE));
         }
+        addEmbedding(doc, page, contentText);
         if (StringUtils.isNotBlank(page.getAuthor())) {
             doc.add(new TextField(DocFields.AUTHOR, page.getAuthor(), Field.Store.YES));
+            doc.add(new Field(DocFields.AUTHOR_NGRAM, page.getAuthor(), NGRAM_FIELD_TYPE));
         }
         if (StringUtils.isNotBlank(page.getUrl())) {
             doc.add(new TextField(DocFields.URL_TEXT, page.getUrl(), Field.Store.YES));
+            doc.add(new Field(DocFields.URL_NGRAM, page.getUrl(), NGRAM_FIELD_TYPE));
         }
         if (StringUtils.isNotBlank(page.getThumbUrl())) {
             doc.add(new StoredField(DocFields.THUMB_URL, page.getThumbUrl()));
@@ -181,14 +770,17 @@ public class LuceneService implements DisposableBean {
         if (page.getConnectorId() != null) {
             doc.add(new IntPoint(DocFields.CONNECTOR_ID, page.getConnectorId()));
             doc.add(new StoredField(DocFields.CONNECTOR_ID, page.getConnectorId()));
+            doc.add(new NumericDocValuesField(DocFields.CONNECTOR_ID, page.getConnectorId()));
         }
         if (page.getConnectorType() != null) {
             doc.add(new IntPoint(DocFields.CONNECTOR_TYPE, page.getConnectorType()));
             doc.add(new StoredField(DocFields.CONNECTOR_TYPE, page.getConnectorType()));
+            doc.add(new NumericDocValuesField(DocFields.CONNECTOR_TYPE, page.getConnectorType()));
         }
         if (page.getContentType() != null) {
             doc.add(new IntPoint(DocFields.CONTENT_TYPE, page.getContentType()));
             doc.add(new StoredField(DocFields.CONTENT_TYPE, page.getContentType()));
+            doc.add(new NumericDocValuesField(DocFields.CONTENT_TYPE, page.getContentType()));
         }
         if (page.getFolderId() != null) {
             doc.add(new IntPoint(DocFields.FOLDER_ID, page.getFolderId()));
@@ -197,39 +789,126 @@ public class LuceneService implements DisposableBean {
         if (page.getCreatedAt() != null) {
             doc.add(new LongPoint(DocFields.CREATED_AT, page.getCreatedAt().getEpochSecond()));
             doc.add(new StoredField(DocFields.CREATED_AT, page.getCreatedAt().getEpochSecond()));
+            doc.add(new NumericDocValuesField(DocFields.CREATED_AT, page.getCreatedAt().getEpochSecond()));
         }
-        if (page.getLastReadAt() != null) {
-            doc.add(new LongPoint(DocFields.LAST_READ_AT, page.getLastReadAt().getEpochSecond()));
-            doc.add(new StoredField(DocFields.LAST_READ_AT, page.getLastReadAt().getEpochSecond()));
+        if (page.getPageJsonProperties() != null) {
+            doc.add(new StoredField(DocFields.PAGE_JSON_PROPERTIES, page.getPageJsonProperties()));
         }
-        if (page.getLibrarySaveStatus() != null) {
-            doc.add(new IntPoint(DocFields.LIBRARY_SAVE_STATUS, page.getLibrarySaveStatus()));
-            doc.add(new StoredField(DocFields.LIBRARY_SAVE_STATUS, page.getLibrarySaveStatus()));
+        for (Field statusField : statusDocValues(page)) {
+            if (statusField.numericValue() != null) {
+                doc.add(statusField);
+            }
         }
-        if (page.getStarred() != null && page.getStarred()) {
-            doc.add(new StringField(DocFields.STARRED, "1", Field.Store.YES));
+        // must stay the last stored field, see PageItemFieldVisitor
+        if (contentText != null) {
+            doc.add(new StoredField(DocFields.CONTENT_STORED, CompressionUtils.deflate(contentText)));
         }
-        if (page.getReadLater() != null && page.getReadLater()) {
-            doc.add(new StringField(DocFields.READ_LATER, "1", Field.Store.YES));
+        return doc;
+    }
+
+    static String contentTextOf(Page page) {
+        if (StringUtils.isNotBlank(page.getContentText())) {
+            return page.getContentText();
+        } else if (StringUtils.isNotBlank(page.getContent())) {
+            return HtmlUtils.getDocText(page.getContent());
         }
-        if (page.getPageJsonProperties() != null) {
-            doc.add(new StoredField(DocFields.PAGE_JSON_PROPERTIES, page.getPageJsonProperties()));
+        return null;
+    }
+
+    /**
+     * add the vector of the page text if it is known, pages without one are queued by {@link #embedIfMissing}.
+     */
+    private void addEmbedding(Document doc, Page page, String contentText) {
+        String model = embeddings.getModelId();
+        if (model == null) {
+            return;
+        }
+        String text = LuceneEmbeddingIndexer.embeddingText(page.getTitle(), page.getDescription(), contentText);
+        if (StringUtils.isBlank(text)) {
+            return;
+        }
+        float[] vector = embeddings.findVector(model, text);
+        if (vector != null) {
+            doc.add(new KnnVectorField(DocFields.EMBEDDING, vector, VectorSimilarityFunction.DOT_PRODUCT));
+            doc.add(new StringField(DocFields.EMBEDDING_MODEL, model, Field.Store.NO));
         }
-        if (page.getHighlightCount() != null) {
-            doc.add(new IntPoint(DocFields.HIGHLIGHT_COUNT, page.getHighlightCount()));
-            doc.add(new StoredField(DocFields.HIGHLIGHT_COUNT, page.getHighlightCount()));
+    }
+
+    /**
+     * queue a page indexed without a vector to be embedded and indexed again. only called once its doc is
+     * submitted, otherwise the doc with the vector could be overwritten by the one without.
+     */
+    void embedIfMissing(Page page, Document doc) {
+        if (doc.getField(DocFields.EMBEDDING) != null || embeddings.getModelId() == null) {
+            return;
+        }
+        if (StringUtils.isNotBlank(page.getTitle()) || StringUtils.isNotBlank(page.getDescription())
+                || StringUtils.isNotBlank(page.getContentText()) || StringUtils.isNotBlank(page.getContent())) {
+            embeddings.submit(page.getId());
         }
-        // Store collectionId: use -1 for unsorted (null collectionId)
-        long collectionIdValue = page.getCollectionId() != null ? page.getCollectionId() : -1L;
-        doc.add(new LongPoint(DocFields.COLLECTION_ID, collectionIdValue));
-        doc.add(new StoredField(DocFields.COLLECTION_ID, collectionIdValue));
-        if (page.getCollectedAt() != null) {
-            doc.add(new LongPoint(DocFields.COLLECTED_AT, page.getCollectedAt().getEpochSecond()));
-            doc.add(new StoredField(DocFields.COLLECTED_AT, page.getCollectedAt().getEpochSecond()));
+    }
+
+    /**
+     * load the content text of a page from the index, only read on demand since it is the largest field.
+     */
+    String loadContent(Long pageId) {
+        try {
+            SearcherManager manager = getSearcherManager();
+            IndexSearcher searcher = manager.acquire();
+            try {
+                TopDocs docs = searcher.search(new TermQuery(new Term(DocFields.ID, pageId.toString())), 1);
+                if (docs.scoreDocs.length == 0) {
+                    return null;
+                }
+                return readStoredContent(searcher, docs.scoreDocs[0].doc, Integer.MAX_VALUE);
+            } finally {
+                manager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param maxChars only this many chars from the start of the content are inflated
+     */
+    static String readStoredContent(IndexSearcher searcher, int docId, int maxChars) throws IOException {
+        Document doc = searcher.doc(docId, Set.of(DocFields.CONTENT_STORED, DocFields.CONTENT));
+        BytesRef compressed = doc.getBinaryValue(DocFields.CONTENT_STORED);
+        if (compressed != null) {
+            return CompressionUtils.inflate(compressed.bytes, compressed.offset, compressed.length, maxChars);
+        }
+        // docs indexed before the content was compressed
+        return StringUtils.truncate(doc.get(DocFields.CONTENT), maxChars);
+    }
+
+    /**
+     * load the fields of a list item, status fields are read from their doc values since those are updated in place.
+     */
+    private static Document loadPageItemDocument(IndexSearcher searcher, int docId) throws IOException {
+        var visitor = new PageItemFieldVisitor();
+        searcher.doc(docId, visitor);
+        Document doc = visitor.getDocument();
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(docId, leaves));
+        for (String field : STATUS_FIELDS) {
+            NumericDocValues values = leaf.reader().getNumericDocValues(field);
+            if (values != null && values.advanceExact(docId - leaf.docBase)) {
+                // docs indexed before STATUS_DOC_VALUES_SCHEMA_VERSION also have a stored copy
+                doc.removeFields(field);
+                doc.add(new StoredField(field, values.longValue()));
+            }
         }
         return doc;
     }
 
+    private static boolean isFlagSet(IndexableField field) {
+        if (field.numericValue() != null) {
+            return field.numericValue().longValue() == 1;
+        }
+        return "1".equals(field.stringValue());
+    }
+
     private PageItem docToPageItem(Document doc) {
         var item = new PageItem();
         item.setId(Long.parseLong(doc.get(DocFields.ID)));
@@ -276,10 +955,10 @@ public class LuceneService implements DisposableBean {
             item.setLibrarySaveStatus(doc.getField(DocFields.LIBRARY_SAVE_STATUS).numericValue().intValue());
         }
         if (doc.getField(DocFields.STARRED) != null) {
-            item.setStarred("1".equals(doc.getField(DocFields.STARRED).stringValue()));
+            item.setStarred(isFlagSet(doc.getField(DocFields.STARRED)));
         }
         if (doc.getField(DocFields.READ_LATER) != null) {
-            item.setReadLater("1".equals(doc.getField(DocFields.READ_LATER).stringValue()));
+            item.setReadLater(isFlagSet(doc.getField(DocFields.READ_LATER)));
         }
         if (doc.getField(DocFields.PAGE_JSON_PROPERTIES) != null) {
             item.setPageJsonProperties(doc.get(DocFields.PAGE_JSON_PROPERTIES));
@@ -300,164 +979,402 @@ public class LuceneService implements DisposableBean {
         return pageListService.updatePageItemRelationData(item);
     }
 
+    @Override
     public PageSearchResult searchPages(@NonNull SearchQuery searchQuery) {
-        String keyword = searchQuery.getQ().trim();
-        CompleteSearch completeSearch = extractCompleteSearch(keyword);
-        keyword = completeSearch.getKeyword();
+        SearchCursor cursor = StringUtils.isNotBlank(searchQuery.getCursor())
+                ? SearchCursor.decode(searchQuery.getCursor()) : null;
+
+        try {
+            SearcherManager manager = getSearcherManager();
+            IndexSearcher searcher;
+            long searcherVersion;
+            if (cursor != null) {
+                // later pages must see the same doc ids as the first one
+                searcherVersion = cursor.getSearcherVersion();
+                searcher = searcherLifetimeManager.acquire(searcherVersion);
+                if (searcher == null) {
+                    throw new RequestVerifyException("search cursor expired, start the search again");
+                }
+            } else {
+                searcher = manager.acquire();
+                try {
+                    searcherVersion = searcherLifetimeManager.record(searcher);
+                    searcherLifetimeManager.prune(new SearcherLifetimeManager.PruneByAge(AppConstants.LUCENE_SEARCH_CURSOR_MAX_AGE_SECONDS));
+                } catch (IOException | RuntimeException e) {
+                    manager.release(searcher);
+                    throw e;
+                }
+            }
+            try {
+                // collection names can be created or renamed without an index commit, resolve them before the lookup
+                CompleteSearch completeSearch = extractCompleteSearch(searchQuery.getQ().trim());
+                SearchCacheKey cacheKey = SearchCacheKey.of(searcherVersion, searchQuery, completeSearch.getCollectionIds());
+                PageSearchResult cached = searchCache.getIfPresent(cacheKey);
+                if (cached != null) {
+                    return cached;
+                }
+                PageSearchResult searchResult = searchPages(searchQuery, completeSearch, cursor, searcher, searcherVersion);
+                searchCache.put(cacheKey, searchResult);
+                return searchResult;
+            } finally {
+                searcherLifetimeManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private PageSearchResult searchPages(SearchQuery searchQuery, CompleteSearch completeSearch, SearchCursor cursor,
+                                         IndexSearcher searcher, long searcherVersion) throws IOException {
+        String keyword = completeSearch.getKeyword();
 
         PageSearchResult searchResult = new PageSearchResult();
         List<PageItem> pageItems = new ArrayList<>();
         searchResult.setItems(pageItems);
-        List<String> words = segmentWords(keyword, true);
+        List<String> words = analysis.segmentWords(keyword);
         SearchOption option = resolveSearchOption(searchQuery);
 
-        try {
-            Directory dir = getDirectory();
-            if (DirectoryReader.indexExists(dir)) {
-                try (DirectoryReader reader = DirectoryReader.open(dir)) {
-                    IndexSearcher searcher = new IndexSearcher(reader);
-                    List<FieldQueryInfo> fields = new ArrayList<>();
-                    fields.add(new FieldQueryInfo().setName(DocFields.TITLE).setWildcard(true).setBoost(100));
-                    if (!Boolean.TRUE.equals(option.getOnlySearchTitle())) {
-                        fields.add(new FieldQueryInfo().setName(DocFields.CONTENT).setWildcard(true).setBoost(5));
-                    }
-                    var boolQueryBuilder = new BooleanQuery.Builder();
-                    if (Boolean.TRUE.equals(option.getAlreadyRead())) {
-                        Query query = LongPoint.newRangeQuery(DocFields.LAST_READ_AT, 1, Long.MAX_VALUE);
-                        boolQueryBuilder.add(query, BooleanClause.Occur.MUST);
-                    }
-                    if (option.getType() != null) {
-                        Query query = null;
-                        switch (option.getType()) {
-                            case TWEET:
-                                query = IntPoint.newExactQuery(DocFields.CONTENT_TYPE, ContentType.TWEET.getCode());
-                                break;
-                            case GITHUB_STARRED_REPO:
-                                query = IntPoint.newExactQuery(DocFields.CONNECTOR_TYPE, ConnectorType.GITHUB.getCode());
-                                break;
-                            case BROWSER_HISTORY:
-                                query = IntPoint.newExactQuery(DocFields.CONTENT_TYPE, ContentType.BROWSER_HISTORY.getCode());
-                                break;
-                            case FEEDS:
-                                query = IntPoint.newExactQuery(DocFields.CONNECTOR_TYPE, ConnectorType.RSS.getCode());
-                                break;
-                            default:
-                                break;
-                        }
-                        if (query != null) {
-                            boolQueryBuilder.add(query, BooleanClause.Occur.MUST);
-                        }
-                    }
-                    if (option.getLibrary() != null) {
-                        Query query = null;
-                        switch (option.getLibrary()) {
-                            case MY_LIST:
-                                query = IntPoint.newExactQuery(DocFields.LIBRARY_SAVE_STATUS, LibrarySaveStatus.SAVED.getCode());
-                                break;
-                            case STARRED:
-                                query = new TermQuery(new Term(DocFields.STARRED, "1"));
-                                break;
-                            case READ_LATER:
-                                query = new TermQuery(new Term(DocFields.READ_LATER, "1"));
-                                break;
-                            case ARCHIVE:
-                                query = IntPoint.newExactQuery(DocFields.LIBRARY_SAVE_STATUS, LibrarySaveStatus.ARCHIVED.getCode());
-                                break;
-                            case HIGHLIGHTS:
-                                query = IntPoint.newRangeQuery(DocFields.HIGHLIGHT_COUNT, 1, Integer.MAX_VALUE);
-                                break;
-                            case UNSORTED:
-                                // Unsorted: must be in library (librarySaveStatus > 0) AND no collection assigned
-                                // For backward compatibility with old docs that don't have collection_id field:
-                                // Match docs that do NOT have a valid collectionId (>= 1)
-                                BooleanQuery.Builder unsortedBuilder = new BooleanQuery.Builder();
-                                unsortedBuilder.add(IntPoint.newRangeQuery(DocFields.LIBRARY_SAVE_STATUS, 1, Integer.MAX_VALUE), BooleanClause.Occur.MUST);
-
-                                // Exclude docs that have a valid collection (collectionId >= 1)
-                                // This covers: collectionId = -1, collectionId = 0, or field doesn't exist (old docs)
-                                unsortedBuilder.add(LongPoint.newRangeQuery(DocFields.COLLECTION_ID, 1L, Long.MAX_VALUE), BooleanClause.Occur.MUST_NOT);
-
-                                query = unsortedBuilder.build();
-                                break;
-                            default:
-                                break;
-                        }
-                        if (query != null) {
-                            boolQueryBuilder.add(query, BooleanClause.Occur.MUST);
-                        }
-                    }
+        List<FieldQueryInfo> fields = new ArrayList<>();
+        fields.add(new FieldQueryInfo().setName(DocFields.TITLE).setNgramName(DocFields.TITLE_NGRAM).setBoost(100));
+        if (!Boolean.TRUE.equals(option.getOnlySearchTitle())) {
+            fields.add(new FieldQueryInfo().setName(DocFields.CONTENT).setBoost(5));
+        }
+        var boolQueryBuilder = new BooleanQuery.Builder();
+        if (Boolean.TRUE.equals(option.getAlreadyRead())) {
+            Query query = statusQuery(NumericDocValuesField.newSlowRangeQuery(DocFields.LAST_READ_AT, 1, Long.MAX_VALUE),
+                    LongPoint.newRangeQuery(DocFields.LAST_READ_AT, 1, Long.MAX_VALUE));
+            boolQueryBuilder.add(query, BooleanClause.Occur.MUST);
+        }
+        if (option.getType() != null) {
+            Query query = null;
+            switch (option.getType()) {
+                case TWEET:
+                    query = IntPoint.newExactQuery(DocFields.CONTENT_TYPE, ContentType.TWEET.getCode());
+                    break;
+                case GITHUB_STARRED_REPO:
+                    query = IntPoint.newExactQuery(DocFields.CONNECTOR_TYPE, ConnectorType.GITHUB.getCode());
+                    break;
+                case BROWSER_HISTORY:
+                    query = IntPoint.newExactQuery(DocFields.CONTENT_TYPE, ContentType.BROWSER_HISTORY.getCode());
+                    break;
+                case FEEDS:
+                    query = IntPoint.newExactQuery(DocFields.CONNECTOR_TYPE, ConnectorType.RSS.getCode());
+                    break;
+                default:
+                    break;
+            }
+            if (query != null) {
+                boolQueryBuilder.add(query, BooleanClause.Occur.MUST);
+            }
+        }
+        if (option.getLibrary() != null) {
+            Query query = null;
+            switch (option.getLibrary()) {
+                case MY_LIST:
+                    query = statusQuery(NumericDocValuesField.newSlowExactQuery(DocFields.LIBRARY_SAVE_STATUS, LibrarySaveStatus.SAVED.getCode()),
+                            IntPoint.newExactQuery(DocFields.LIBRARY_SAVE_STATUS, LibrarySaveStatus.SAVED.getCode()));
+                    break;
+                case STARRED:
+                    query = statusQuery(NumericDocValuesField.newSlowExactQuery(DocFields.STARRED, 1),
+                            new TermQuery(new Term(DocFields.STARRED, "1")));
+                    break;
+                case READ_LATER:
+                    query = statusQuery(NumericDocValuesField.newSlowExactQuery(DocFields.READ_LATER, 1),
+                            new TermQuery(new Term(DocFields.READ_LATER, "1")));
+                    break;
+                case ARCHIVE:
+                    query = statusQuery(NumericDocValuesField.newSlowExactQuery(DocFields.LIBRARY_SAVE_STATUS, LibrarySaveStatus.ARCHIVED.getCode()),
+                            IntPoint.newExactQuery(DocFields.LIBRARY_SAVE_STATUS, LibrarySaveStatus.ARCHIVED.getCode()));
+                    break;
+                case HIGHLIGHTS:
+                    query = statusQuery(NumericDocValuesField.newSlowRangeQuery(DocFields.HIGHLIGHT_COUNT, 1, Integer.MAX_VALUE),
+                            IntPoint.newRangeQuery(DocFields.HIGHLIGHT_COUNT, 1, Integer.MAX_VALUE));
+                    break;
+                case UNSORTED:
+                    // Unsorted: must be in library (librarySaveStatus > 0) AND no collection assigned
+                    // For backward compatibility with old docs that don't have collection_id field:
+                    // Match docs that do NOT have a valid collectionId (>= 1)
+                    BooleanQuery.Builder unsortedBuilder = new BooleanQuery.Builder();
+                    unsortedBuilder.add(statusQuery(NumericDocValuesField.newSlowRangeQuery(DocFields.LIBRARY_SAVE_STATUS, 1, Integer.MAX_VALUE),
+                            IntPoint.newRangeQuery(DocFields.LIBRARY_SAVE_STATUS, 1, Integer.MAX_VALUE)), BooleanClause.Occur.MUST);
 
-                    Query dateRangeQuery = buildSearchDateRangeQuery(searchQuery);
-                    if (dateRangeQuery != null) {
-                        boolQueryBuilder.add(dateRangeQuery, BooleanClause.Occur.MUST);
-                    }
+                    // Exclude docs that have a valid collection (collectionId >= 1)
+                    // This covers: collectionId = -1, collectionId = 0, or field doesn't exist (old docs)
+                    unsortedBuilder.add(statusQuery(NumericDocValuesField.newSlowRangeQuery(DocFields.COLLECTION_ID, 1L, Long.MAX_VALUE),
+                            LongPoint.newRangeQuery(DocFields.COLLECTION_ID, 1L, Long.MAX_VALUE)), BooleanClause.Occur.MUST_NOT);
 
-                    for (AdvancedSearch advancedSearch : completeSearch.advancedSearches) {
-                        if (CollectionUtils.isEmpty(advancedSearch.words)) {
-                            continue;
-                        }
-                        var advancedSearchQueryBuilder = new BooleanQuery.Builder();
-                        for (String word : advancedSearch.words) {
-                            var query = new WildcardQuery(new Term(advancedSearch.docField, "*" + word + "*"));
-                            advancedSearchQueryBuilder.add(query, BooleanClause.Occur.SHOULD);
-                        }
-                        boolQueryBuilder.add(advancedSearchQueryBuilder.build(), BooleanClause.Occur.MUST);
-                    }
+                    query = unsortedBuilder.build();
+                    break;
+                default:
+                    break;
+            }
+            if (query != null) {
+                boolQueryBuilder.add(query, BooleanClause.Occur.MUST);
+            }
+        }
 
-                    // Filter by collection IDs if specified
-                    if (!CollectionUtils.isEmpty(completeSearch.getCollectionIds())) {
-                        var collectionQueryBuilder = new BooleanQuery.Builder();
-                        for (Long collectionId : completeSearch.getCollectionIds()) {
-                            Query collectionQuery = LongPoint.newExactQuery(DocFields.COLLECTION_ID, collectionId);
-                            collectionQueryBuilder.add(collectionQuery, BooleanClause.Occur.SHOULD);
-                        }
-                        boolQueryBuilder.add(collectionQueryBuilder.build(), BooleanClause.Occur.MUST);
-                    }
+        Query dateRangeQuery = buildSearchDateRangeQuery(searchQuery);
+        if (dateRangeQuery != null) {
+            boolQueryBuilder.add(dateRangeQuery, BooleanClause.Occur.MUST);
+        }
 
-                    for (String word : words) {
-                        var wordQueryBuilder = new BooleanQuery.Builder();
-                        for (FieldQueryInfo field : fields) {
-                            Query query;
-                            if (field.isWildcard()) {
-                                query = new WildcardQuery(new Term(field.getName(), "*" + word + "*"));
-                            } else {
-                                query = new TermQuery(new Term(field.getName(), word));
-                            }
-                            BoostQuery boosted = new BoostQuery(query, field.getBoost());
-                            wordQueryBuilder.add(boosted, BooleanClause.Occur.SHOULD);
-                        }
-                        boolQueryBuilder.add(wordQueryBuilder.build(), BooleanClause.Occur.MUST);
-                    }
-                    StopWatch sw = new StopWatch();
-                    sw.start();
-                    var page = ObjectUtils.defaultIfNull(searchQuery.getPage(), 1);
-                    var size = PageSizeUtils.getPageSize(searchQuery.getSize(), 100);
-                    var maxPage = 10000;
-                    int startIndex = (page - 1) * size;
-                    TopScoreDocCollector collector = TopScoreDocCollector.create(page * size, maxPage);
-                    searcher.search(boolQueryBuilder.build(), collector);
-                    TopDocs docs = collector.topDocs(startIndex, size);
-                    if (docs.totalHits.value > 0) {
-                        var hits = docs.scoreDocs;
-                        for (ScoreDoc hit : hits) {
-                            var doc = searcher.doc(hit.doc);
-                            PageItem item = docToPageItem(doc);
-                            pageItems.add(item);
-                        }
-                    }
-                    sw.stop();
-                    searchResult.setPage(page);
-                    searchResult.setTotalHits(docs.totalHits.value);
-                    searchResult.setCostSeconds(sw.getTotalTimeSeconds());
-                }
+        for (AdvancedSearch advancedSearch : completeSearch.advancedSearches) {
+            if (CollectionUtils.isEmpty(advancedSearch.words)) {
+                continue;
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            var advancedSearchQueryBuilder = new BooleanQuery.Builder();
+            for (String word : advancedSearch.words) {
+                var query = substringQuery(advancedSearch.docField, advancedSearch.ngramField, word);
+                advancedSearchQueryBuilder.add(query, BooleanClause.Occur.SHOULD);
+            }
+            boolQueryBuilder.add(advancedSearchQueryBuilder.build(), BooleanClause.Occur.MUST);
+        }
+
+        // Filter by collection IDs if specified
+        if (!CollectionUtils.isEmpty(completeSearch.getCollectionIds())) {
+            var collectionQueryBuilder = new BooleanQuery.Builder();
+            for (Long collectionId : completeSearch.getCollectionIds()) {
+                Query collectionQuery = statusQuery(NumericDocValuesField.newSlowExactQuery(DocFields.COLLECTION_ID, collectionId),
+                        LongPoint.newExactQuery(DocFields.COLLECTION_ID, collectionId));
+                collectionQueryBuilder.add(collectionQuery, BooleanClause.Occur.SHOULD);
+            }
+            boolQueryBuilder.add(collectionQueryBuilder.build(), BooleanClause.Occur.MUST);
         }
+        // hybrid search applies the same filters to the vector hits
+        BooleanQuery filterQuery = boolQueryBuilder.build();
 
+        for (String word : words) {
+            var wordQueryBuilder = new BooleanQuery.Builder();
+            for (FieldQueryInfo field : fields) {
+                Query query;
+                if (field.getNgramName() != null) {
+                    query = substringQuery(field.getName(), field.getNgramName(), word);
+                } else {
+                    // content has no n-gram subfield, a prefix only walks the matching terms
+                    query = new PrefixQuery(new Term(field.getName(), word));
+                }
+                BoostQuery boosted = new BoostQuery(query, field.getBoost());
+                wordQueryBuilder.add(boosted, BooleanClause.Occur.SHOULD);
+            }
+            boolQueryBuilder.add(wordQueryBuilder.build(), BooleanClause.Occur.MUST);
+        }
+        StopWatch sw = new StopWatch();
+        sw.start();
+        var page = ObjectUtils.defaultIfNull(searchQuery.getPage(), 1);
+        var size = PageSizeUtils.getPageSize(searchQuery.getSize(), 100);
+        var maxPage = 10000;
+        SearchOption.Sort sortOption = ObjectUtils.defaultIfNull(option.getSort(), SearchOption.Sort.RELEVANCE);
+        String sortDateField = resolveSearchDateField(searchQuery.getDateField());
+        Query query = boolQueryBuilder.build();
+        boolean recencySorted = sortOption == SearchOption.Sort.RECENT;
+        Long recencyOrigin = null;
+        if (recencySorted) {
+            // a continuation boosts from the same time as its first page, or its scores would not line up with the cursor
+            recencyOrigin = cursor != null && cursor.getRecencyOrigin() != null
+                    ? cursor.getRecencyOrigin() : clock.instant().getEpochSecond();
+            query = new BooleanQuery.Builder()
+                    .add(query, BooleanClause.Occur.MUST)
+                    .add(recencyBoostQuery(sortDateField, recencyOrigin), BooleanClause.Occur.SHOULD)
+                    .build();
+        }
+        Sort dateSort = buildDateSort(sortOption, sortDateField);
+        boolean fieldSorted = dateSort != null;
+        if (cursor != null) {
+            if (cursor.getDoc() >= searcher.getIndexReader().maxDoc() || fieldSorted != (cursor.getSortValue() != null)
+                    || recencySorted != (cursor.getRecencyOrigin() != null)) {
+                throw new RequestVerifyException("invalid search cursor");
+            }
+            // only the page after the cursor is collected, whatever the page number
+            page = cursor.getPage();
+        }
+        int numHits = cursor != null ? size : page * size;
+        // fused results have no stable position to continue from, so hybrid search pages by number
+        String embeddingModel = Boolean.TRUE.equals(searchQuery.getHybrid()) && cursor == null && !fieldSorted
+                && !words.isEmpty() && numHits <= AppConstants.LUCENE_HYBRID_MAX_HITS ? embeddings.getModelId() : null;
+        float[] queryVector = embeddingModel != null ? embeddings.embedQuery(embeddingModel, keyword) : null;
+        // collector managers let the searcher collect its segment slices in parallel and merge the results
+        CollectorManager<? extends TopDocsCollector<?>, ? extends TopDocs> topDocsManager;
+        if (fieldSorted) {
+            // sorting on a field indexed as points and doc values lets lucene skip non competitive docs
+            FieldDoc after = cursor != null
+                    ? new FieldDoc(cursor.getDoc(), Float.NaN, new Object[]{cursor.getSortValue()}) : null;
+            topDocsManager = TopFieldCollector.createSharedManager(dateSort, numHits, after, maxPage);
+        } else {
+            ScoreDoc after = cursor != null ? new ScoreDoc(cursor.getDoc(), cursor.getScore()) : null;
+            topDocsManager = TopScoreDocCollector.createSharedManager(numHits, after, maxPage);
+        }
+        TopDocs topDocs;
+        if (Boolean.TRUE.equals(searchQuery.getFacets())) {
+            // the facet collector needs every match, which also turns off skipping of non competitive hits
+            Object[] results = searcher.search(query, new MultiCollectorManager(topDocsManager, PageFacetCollector.createManager()));
+            topDocs = (TopDocs) results[0];
+            searchResult.setFacets(PageFacetCollector.castCounts(results[1]));
+        } else {
+            topDocs = searcher.search(query, topDocsManager);
+        }
+        if (queryVector != null) {
+            Query vectorFilter = new BooleanQuery.Builder()
+                    .add(new TermQuery(new Term(DocFields.EMBEDDING_MODEL, embeddingModel)), BooleanClause.Occur.FILTER)
+                    .add(filterQuery.clauses().isEmpty() ? new MatchAllDocsQuery() : filterQuery, BooleanClause.Occur.FILTER)
+                    .build();
+            TopDocs vectorDocs = searcher.search(new KnnVectorQuery(DocFields.EMBEDDING, queryVector, numHits,
+                    vectorFilter), numHits);
+            topDocs = reciprocalRankFusion(numHits, topDocs, vectorDocs);
+        }
+        TopDocs docs = cursor != null ? topDocs : pageOf(topDocs, (page - 1) * size, size);
+        var hits = docs.scoreDocs;
+        if (docs.totalHits.value > 0) {
+            for (ScoreDoc hit : hits) {
+                PageItem item = docToPageItem(loadPageItemDocument(searcher, hit.doc));
+                pageItems.add(item);
+            }
+        }
+        int snippetCount = snippetCountOf(searchQuery);
+        if (snippetCount > 0 && !pageItems.isEmpty() && !Boolean.TRUE.equals(option.getOnlySearchTitle())
+                && indexSchemaVersion >= SNIPPET_OFFSETS_SCHEMA_VERSION) {
+            int[] docIds = Arrays.stream(hits).mapToInt(hit -> hit.doc).toArray();
+            List<List<String>> snippets = new LuceneSnippetHighlighter(searcher, analysis.getIkAnalyzer(),
+                    snippetLengthOf(searchQuery)).highlight(query, docIds, snippetCount);
+            for (int i = 0; i < pageItems.size(); i++) {
+                pageItems.get(i).setSnippets(snippets.get(i));
+            }
+        }
+        sw.stop();
+        boolean hasMore = docs.totalHits.relation == TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO
+                || (long) page * size < docs.totalHits.value;
+        if (hits.length == size && hasMore && queryVector == null) {
+            ScoreDoc last = hits[hits.length - 1];
+            Long sortValue = last instanceof FieldDoc ? (Long) ((FieldDoc) last).fields[0] : null;
+            searchResult.setNextCursor(new SearchCursor(searcherVersion, last.doc, last.score, page + 1, sortValue,
+                    recencyOrigin).encode());
+        }
+        searchResult.setPage(page);
+        searchResult.setTotalHits(docs.totalHits.value);
+        searchResult.setCostSeconds(sw.getTotalTimeSeconds());
         return searchResult;
     }
 
+    /**
+     * merge ranked results by the sum of 1 / (k + rank) of each doc, which needs no comparable scores.
+     */
+    static TopDocs reciprocalRankFusion(int topN, TopDocs... results) {
+        Map<Integer, Float> scores = new HashMap<>();
+        long totalHits = 0;
+        TotalHits.Relation relation = TotalHits.Relation.EQUAL_TO;
+        for (TopDocs result : results) {
+            for (int rank = 0; rank < result.scoreDocs.length; rank++) {
+                scores.merge(result.scoreDocs[rank].doc, 1f / (AppConstants.LUCENE_HYBRID_RRF_K + rank + 1), Float::sum);
+            }
+            totalHits = Math.max(totalHits, result.totalHits.value);
+            if (result.totalHits.relation == TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO) {
+                relation = TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO;
+            }
+        }
+        ScoreDoc[] fused = scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Float>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(topN)
+                .map(entry -> new ScoreDoc(entry.getKey(), entry.getValue()))
+                .toArray(ScoreDoc[]::new);
+        return new TopDocs(new TotalHits(Math.max(totalHits, scores.size()), relation), fused);
+    }
+
+    static int snippetCountOf(SearchQuery searchQuery) {
+        int count = ObjectUtils.defaultIfNull(searchQuery.getSnippetCount(), 0);
+        return Math.max(0, Math.min(count, AppConstants.LUCENE_SNIPPET_MAX_COUNT));
+    }
+
+    static int snippetLengthOf(SearchQuery searchQuery) {
+        return PageSizeUtils.getPageSize(ObjectUtils.defaultIfNull(searchQuery.getSnippetLength(), 0),
+                AppConstants.DEFAULT_LUCENE_SNIPPET_LENGTH, AppConstants.LUCENE_SNIPPET_MAX_LENGTH);
+    }
+
+    private static Sort buildDateSort(SearchOption.Sort sortOption, String dateField) {
+        SortField sortField;
+        switch (sortOption) {
+            case NEWEST:
+                sortField = new SortField(dateField, SortField.Type.LONG, true);
+                sortField.setMissingValue(Long.MIN_VALUE);
+                break;
+            case OLDEST:
+                sortField = new SortField(dateField, SortField.Type.LONG);
+                sortField.setMissingValue(Long.MAX_VALUE);
+                break;
+            default:
+                return null;
+        }
+        return new Sort(sortField);
+    }
+
+    /**
+     * scores up to the recency weight, halved when the page is one pivot older than the origin.
+     */
+    private static Query recencyBoostQuery(String dateField, long originEpochSecond) {
+        long pivot = TimeUnit.DAYS.toSeconds(AppConstants.LUCENE_RECENCY_PIVOT_DAYS);
+        if (DocFields.CREATED_AT.equals(dateField)) {
+            return LongPoint.newDistanceFeatureQuery(dateField, AppConstants.LUCENE_RECENCY_BOOST_WEIGHT,
+                    originEpochSecond, pivot);
+        }
+        // status dates are doc values only, so a status change can rewrite them in place, the distance feature needs points
+        return new FunctionScoreQuery(new FieldExistsQuery(dateField), new RecencyValuesSource(dateField,
+                AppConstants.LUCENE_RECENCY_BOOST_WEIGHT, originEpochSecond, pivot));
+    }
+
+    private static TopDocs pageOf(TopDocs topDocs, int start, int size) {
+        ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+        int from = Math.min(start, scoreDocs.length);
+        int to = Math.min(start + size, scoreDocs.length);
+        return new TopDocs(topDocs.totalHits, Arrays.copyOfRange(scoreDocs, from, to));
+    }
+
+    /**
+     * status fields are doc values only, until the rebuild is swapped in older docs are also matched by their points or terms.
+     */
+    private Query statusQuery(Query docValuesQuery, Query legacyQuery) {
+        if (indexSchemaVersion >= STATUS_DOC_VALUES_SCHEMA_VERSION) {
+            return docValuesQuery;
+        }
+        return new ConstantScoreQuery(new BooleanQuery.Builder()
+                .add(docValuesQuery, BooleanClause.Occur.SHOULD)
+                .add(legacyQuery, BooleanClause.Occur.SHOULD)
+                .build());
+    }
+
+    private Query substringQuery(String field, String ngramField, String word) {
+        if (indexSchemaVersion >= NGRAM_SCHEMA_VERSION) {
+            return ngramSubstringQuery(ngramField, word);
+        }
+        return legacySubstringQuery(field, word);
+    }
+
+    /**
+     * leading wildcard over the analyzed field, enumerates the whole term dictionary.
+     */
+    static Query legacySubstringQuery(String field, String word) {
+        return new WildcardQuery(new Term(field, "*" + word + "*"));
+    }
+
+    /**
+     * substring match on an n-gram subfield, costs one term lookup per gram.
+     */
+    static Query ngramSubstringQuery(String ngramField, String word) {
+        int[] codePoints = word.codePoints()
+                .filter(c -> !Character.isWhitespace(c))
+                .map(Character::toLowerCase)
+                .toArray();
+        if (codePoints.length == 0) {
+            return new MatchNoDocsQuery("Empty substring");
+        }
+        int gram = NGramSubstringAnalyzer.MAX_GRAM;
+        if (codePoints.length <= gram) {
+            return new ConstantScoreQuery(new TermQuery(new Term(ngramField, new String(codePoints, 0, codePoints.length))));
+        }
+        var builder = new BooleanQuery.Builder();
+        for (int i = 0; i + gram <= codePoints.length; i++) {
+            builder.add(new TermQuery(new Term(ngramField, new String(codePoints, i, gram))), BooleanClause.Occur.FILTER);
+        }
+        return new ConstantScoreQuery(builder.build());
+    }
+
     CompleteSearch extractCompleteSearch(String keyword) {
         CompleteSearch completeSearch = new CompleteSearch();
         completeSearch.setAdvancedSearches(new ArrayList<>());
@@ -469,9 +1386,9 @@ public class LuceneService implements DisposableBean {
                 continue;
             }
             if (key.startsWith("url:")) {
-                completeSearch.advancedSearches.add(extractAdvancedSearch(key, DocFields.URL_TEXT, ":"));
+                completeSearch.advancedSearches.add(extractAdvancedSearch(key, DocFields.URL_TEXT, DocFields.URL_NGRAM, ":"));
             } else if (key.startsWith("author:")) {
-                completeSearch.advancedSearches.add(extractAdvancedSearch(key, DocFields.AUTHOR, ":"));
+                completeSearch.advancedSearches.add(extractAdvancedSearch(key, DocFields.AUTHOR, DocFields.AUTHOR_NGRAM, ":"));
             } else if (key.startsWith("collection:")) {
                 String collectionName = key.substring("collection:".length());
                 if (StringUtils.isNotBlank(collectionName)) {
@@ -490,11 +1407,12 @@ public class LuceneService implements DisposableBean {
         return completeSearch;
     }
 
-    private AdvancedSearch extractAdvancedSearch(String key, String docField, String seperator) {
+    private AdvancedSearch extractAdvancedSearch(String key, String docField, String ngramField, String seperator) {
         AdvancedSearch advancedSearch = new AdvancedSearch();
         advancedSearch.setDocField(docField);
+        advancedSearch.setNgramField(ngramField);
         advancedSearch.setKeyword(extractAdvancedSearchKeyword(key, seperator));
-        advancedSearch.words = segmentWords(advancedSearch.getKeyword(), true);
+        advancedSearch.words = analysis.segmentWords(advancedSearch.getKeyword());
         return advancedSearch;
     }
 
@@ -557,7 +1475,7 @@ public class LuceneService implements DisposableBean {
         return tokens;
     }
 
-    SearchOption resolveSearchOption(SearchQuery searchQuery) {
+    static SearchOption resolveSearchOption(SearchQuery searchQuery) {
         SearchOption option = parseSearchOption(searchQuery != null ? searchQuery.getQueryOptions() : null);
         if (searchQuery == null) {
             return option;
@@ -579,10 +1497,15 @@ public class LuceneService implements DisposableBean {
         if (searchQuery.getSearchTitleOnly() != null) {
             option.setOnlySearchTitle(searchQuery.getSearchTitleOnly());
         }
+
+        SearchOption.Sort sort = parseSearchSort(searchQuery.getSort());
+        if (sort != null) {
+            option.setSort(sort);
+        }
         return option;
     }
 
-    private SearchOption parseSearchOption(String options) {
+    private static SearchOption parseSearchOption(String options) {
         SearchOption option = new SearchOption();
         if (StringUtils.isNotBlank(options)) {
             String[] keywords = options.split(",");
@@ -599,6 +1522,12 @@ public class LuceneService implements DisposableBean {
                     continue;
                 }
 
+                SearchOption.Sort sort = parseSearchSort(key);
+                if (sort != null) {
+                    option.setSort(sort);
+                    continue;
+                }
+
                 switch (StringUtils.lowerCase(StringUtils.trimToEmpty(key))) {
                     case "read":
                         option.setAlreadyRead(true);
@@ -614,7 +1543,7 @@ public class LuceneService implements DisposableBean {
         return option;
     }
 
-    private SearchOption.Type parseSearchType(String contentType) {
+    private static SearchOption.Type parseSearchType(String contentType) {
         switch (StringUtils.lowerCase(StringUtils.trimToEmpty(contentType))) {
             case "tweet":
                 return SearchOption.Type.TWEET;
@@ -629,7 +1558,22 @@ public class LuceneService implements DisposableBean {
         }
     }
 
-    private SearchOption.Library parseLibraryFilter(String libraryFilter) {
+    private static SearchOption.Sort parseSearchSort(String sort) {
+        switch (StringUtils.lowerCase(StringUtils.trimToEmpty(sort))) {
+            case "relevance":
+                return SearchOption.Sort.RELEVANCE;
+            case "newest":
+                return SearchOption.Sort.NEWEST;
+            case "oldest":
+                return SearchOption.Sort.OLDEST;
+            case "recent":
+                return SearchOption.Sort.RECENT;
+            default:
+                return null;
+        }
+    }
+
+    private static SearchOption.Library parseLibraryFilter(String libraryFilter) {
         switch (StringUtils.lowerCase(StringUtils.trimToEmpty(libraryFilter))) {
             case "highlights":
                 return SearchOption.Library.HIGHLIGHTS;
@@ -656,10 +1600,15 @@ public class LuceneService implements DisposableBean {
         if (dateRange.getEndEpochSecond() < dateRange.getStartEpochSecond()) {
             return new MatchNoDocsQuery("Invalid search date range");
         }
-        return LongPoint.newRangeQuery(dateRange.getDocField(), dateRange.getStartEpochSecond(), dateRange.getEndEpochSecond());
+        Query pointQuery = LongPoint.newRangeQuery(dateRange.getDocField(), dateRange.getStartEpochSecond(), dateRange.getEndEpochSecond());
+        if (DocFields.CREATED_AT.equals(dateRange.getDocField())) {
+            return pointQuery;
+        }
+        return statusQuery(NumericDocValuesField.newSlowRangeQuery(dateRange.getDocField(),
+                dateRange.getStartEpochSecond(), dateRange.getEndEpochSecond()), pointQuery);
     }
 
-    SearchDateRange resolveSearchDateRange(SearchQuery searchQuery) {
+    static SearchDateRange resolveSearchDateRange(SearchQuery searchQuery) {
         if (searchQuery == null || (StringUtils.isBlank(searchQuery.getStartDate()) && StringUtils.isBlank(searchQuery.getEndDate()))) {
             return null;
         }
@@ -674,7 +1623,7 @@ public class LuceneService implements DisposableBean {
                 .setEndEpochSecond(endEpochSecond);
     }
 
-    private String resolveSearchDateField(String dateField) {
+    static String resolveSearchDateField(String dateField) {
         switch (StringUtils.lowerCase(StringUtils.trimToEmpty(dateField))) {
             case "collected_at":
             case "collectedat":
@@ -694,7 +1643,7 @@ public class LuceneService implements DisposableBean {
         }
     }
 
-    private Instant parseSearchDate(String date, int plusDay) {
+    private static Instant parseSearchDate(String date, int plusDay) {
         if (StringUtils.isBlank(date)) {
             return null;
         }
@@ -704,7 +1653,7 @@ public class LuceneService implements DisposableBean {
         return LocalDate.parse(date).atStartOfDay(ZoneId.systemDefault()).toInstant().plus(plusDay, ChronoUnit.DAYS);
     }
 
-    private Instant parseSearchDateTime(String dateTime) {
+    private static Instant parseSearchDateTime(String dateTime) {
         try {
             return Instant.parse(dateTime);
         } catch (DateTimeParseException e) {
@@ -716,44 +1665,544 @@ public class LuceneService implements DisposableBean {
         }
     }
 
-    private List<String> segmentWords(String keyword, boolean useSmart) {
-        List<String> words = new ArrayList<>();
-        if (StringUtils.isBlank(keyword)) {
-            return words;
+    private LuceneSuggester getSuggester() {
+        if (!suggesterOpened) {
+            synchronized (this) {
+                if (!suggesterOpened) {
+                    try {
+                        boolean exists = suggester.open();
+                        suggesterOpened = true;
+                        if (!exists) {
+                            rebuildSuggestions();
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        }
+        return suggester;
+    }
+
+    /**
+     * suggest titles, authors, site names and collection names containing a word that starts with the input.
+     */
+    @Override
+    public List<SearchSuggestion> suggest(String text, Integer limit) {
+        if (StringUtils.isBlank(text)) {
+            return List.of();
         }
-        StringReader sr = new StringReader(keyword);
-        IKSegmenter segmenter = new IKSegmenter(sr, useSmart);
-        Lexeme lexeme = null;
-        while (true) {
+        int count = PageSizeUtils.getPageSize(ObjectUtils.defaultIfNull(limit, 0),
+                AppConstants.DEFAULT_LUCENE_SUGGEST_LIMIT, AppConstants.LUCENE_SUGGEST_MAX_LIMIT);
+        try {
+            return getSuggester().lookup(text.trim(), count);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * keep the suggestion of a created or renamed collection, renamed away names stay until the next rebuild.
+     */
+    @Override
+    public void indexCollectionSuggestion(Collection collection) {
+        if (StringUtils.isNotBlank(collection.getName())) {
+            getSuggester().submit(List.of(collectionSuggestEntry(collection)));
+        }
+    }
+
+    /**
+     * rebuild the suggestions from the index in the background, drops those of deleted pages and collections.
+     */
+    public synchronized void rebuildSuggestions() {
+        LuceneSuggester currentSuggester = getSuggester();
+        if (suggestRebuildThread != null && suggestRebuildThread.isAlive()) {
+            return;
+        }
+        // resolved here, the rebuild thread must not wait for this service's lock
+        SearcherManager manager = getSearcherManager();
+        suggestRebuildThread = new Thread(() -> {
             try {
-                if ((lexeme = segmenter.next()) == null) {
-                    break;
+                StopWatch sw = new StopWatch();
+                sw.start();
+                AtomicInteger entryCount = new AtomicInteger();
+                currentSuggester.rebuild(() -> {
+                    List<LuceneSuggester.Entry> entries = collectSuggestEntries(manager);
+                    entryCount.set(entries.size());
+                    return entries;
+                });
+                sw.stop();
+                log.info("search suggestions rebuilt, entries: {}, cost: {} ms", entryCount.get(), sw.getTotalTimeMillis());
+            } catch (Exception e) {
+                log.error("rebuild search suggestions failed", e);
+            }
+        }, "lucene_suggest_rebuild_thread");
+        suggestRebuildThread.setDaemon(true);
+        suggestRebuildThread.start();
+    }
+
+    private List<LuceneSuggester.Entry> collectSuggestEntries(SearcherManager manager) throws IOException {
+        Map<String, LuceneSuggester.Entry> entries = new HashMap<>();
+        manager.maybeRefreshBlocking();
+        IndexSearcher searcher = manager.acquire();
+        try {
+            Set<String> fields = Set.of(DocFields.ID, DocFields.TITLE, DocFields.AUTHOR, DocFields.CONNECTOR_ID,
+                    DocFields.SOURCE_ID, DocFields.CREATED_AT);
+            for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+                Bits liveDocs = leaf.reader().getLiveDocs();
+                for (int docId = 0; docId < leaf.reader().maxDoc(); docId++) {
+                    if (liveDocs != null && !liveDocs.get(docId)) {
+                        continue;
+                    }
+                    Document doc = leaf.reader().document(docId, fields);
+                    IndexableField connectorId = doc.getField(DocFields.CONNECTOR_ID);
+                    IndexableField sourceId = doc.getField(DocFields.SOURCE_ID);
+                    IndexableField createdAt = doc.getField(DocFields.CREATED_AT);
+                    List<LuceneSuggester.Entry> pageEntries = suggestEntries(Long.parseLong(doc.get(DocFields.ID)),
+                            doc.get(DocFields.TITLE), doc.get(DocFields.AUTHOR),
+                            connectorId != null ? connectorId.numericValue().intValue() : null,
+                            sourceId != null ? sourceId.numericValue().intValue() : null,
+                            createdAt != null ? createdAt.numericValue().longValue() : 0);
+                    for (LuceneSuggester.Entry entry : pageEntries) {
+                        // the same author or site is suggested with the weight of its newest page
+                        entries.merge(entry.getText(), entry, (a, b) -> a.getWeight() >= b.getWeight() ? a : b);
+                    }
                 }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
             }
-            words.add(lexeme.getLexemeText());
+        } finally {
+            manager.release(searcher);
         }
-        return words;
+        for (Collection collection : collectionRepository.findAll()) {
+            if (StringUtils.isNotBlank(collection.getName())) {
+                LuceneSuggester.Entry entry = collectionSuggestEntry(collection);
+                entries.put(entry.getText(), entry);
+            }
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * weighted by the creation time of the page, so newer pages are suggested first.
+     */
+    private List<LuceneSuggester.Entry> suggestEntries(Long pageId, String title, String author, Integer connectorId,
+                                                       Integer sourceId, long weight) {
+        List<LuceneSuggester.Entry> entries = new ArrayList<>();
+        if (StringUtils.isNotBlank(title)) {
+            entries.add(new LuceneSuggester.Entry(title.trim(), SearchSuggestion.TYPE_TITLE, weight, pageId));
+        }
+        if (StringUtils.isNotBlank(author)) {
+            entries.add(new LuceneSuggester.Entry(author.trim(), SearchSuggestion.TYPE_AUTHOR, weight, null));
+        }
+        if ((connectorId != null && connectorId > 0) || (sourceId != null && sourceId > 0)) {
+            var item = new PageItem();
+            item.setConnectorId(connectorId);
+            item.setSourceId(sourceId);
+            item = pageListService.updatePageItemRelationData(item);
+            if (item != null && StringUtils.isNotBlank(item.getSiteName())) {
+                entries.add(new LuceneSuggester.Entry(item.getSiteName().trim(), SearchSuggestion.TYPE_SITE, weight, null));
+            }
+        }
+        return entries;
     }
 
+    /**
+     * collections are few and picked on purpose, they are suggested before any page.
+     */
+    private static LuceneSuggester.Entry collectionSuggestEntry(Collection collection) {
+        return new LuceneSuggester.Entry(collection.getName().trim(), SearchSuggestion.TYPE_COLLECTION,
+                Long.MAX_VALUE, collection.getId());
+    }
+
+    /**
+     * wait until the queued suggestion updates are visible.
+     */
+    boolean flushSuggestions(long timeoutMillis) throws InterruptedException {
+        return getSuggester().flush(timeoutMillis);
+    }
+
+    @Override
     public void deletePage(Long id) {
+        Term idTerm = new Term(DocFields.ID, id.toString());
+        getIndexQueue().submit(LuceneIndexQueue.JournalKind.DELETE, List.of(id),
+                indexWriter -> indexWriter.deleteDocuments(idTerm));
+        relatedPageCache.invalidate(id);
+    }
+
+    /**
+     * compare the index with the page table in chunks and repair the differences, stops after maxMillis
+     * and the next call continues where it stopped.
+     */
+    public IndexReconcileResult reconcileIndex(long maxMillis) {
+        ensureLuceneIndexWriter();
+        // a running or pending full reindex fixes everything anyway
+        if (indexSchemaVersion < RECONCILE_SCHEMA_VERSION || isReindexRunning()) {
+            IndexReconcileResult result = new IndexReconcileResult();
+            result.setStatus(IndexReconcileResult.STATUS_SKIPPED);
+            return result;
+        }
+        return reconciler.run(maxMillis);
+    }
+
+    private synchronized boolean isReindexRunning() {
+        return reindexJob != null && reindexJob.isRunning();
+    }
+
+    /**
+     * queue the pages indexed without a vector of the current embedding model, e.g. after semantic search
+     * was turned on or the model changed.
+     *
+     * @return the number of queued pages
+     */
+    public int embedMissingPages() {
+        String model = embeddings.getModelId();
+        if (model == null) {
+            return 0;
+        }
+        SearcherManager manager = getSearcherManager();
+        try {
+            IndexSearcher searcher = manager.acquire();
+            try {
+                Query missing = new BooleanQuery.Builder()
+                        .add(new MatchAllDocsQuery(), BooleanClause.Occur.FILTER)
+                        .add(new TermQuery(new Term(DocFields.EMBEDDING_MODEL, model)), BooleanClause.Occur.MUST_NOT)
+                        .build();
+                TopDocs docs = searcher.search(missing, AppConstants.LUCENE_EMBEDDING_QUEUE_CAPACITY);
+                for (ScoreDoc scoreDoc : docs.scoreDocs) {
+                    embeddings.submit(Long.parseLong(searcher.doc(scoreDoc.doc, Set.of(DocFields.ID)).get(DocFields.ID)));
+                }
+                return docs.scoreDocs.length;
+            } finally {
+                manager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * wait until the queued pages are embedded and submitted to the index queue.
+     */
+    boolean flushEmbeddings(long timeoutMillis) throws InterruptedException {
+        return embeddings.flush(timeoutMillis);
+    }
+
+    public IndexReconcileResult getLastReconcileResult() {
+        IndexReconcileResult result = reconciler.getLastResult();
+        if (result == null) {
+            result = new IndexReconcileResult();
+            result.setStatus(IndexReconcileResult.STATUS_IDLE);
+        }
+        return result;
+    }
+
+    /**
+     * merge the index down to a few segments, or rewrite the segments with many deleted docs.
+     * meant for off-peak hours, a force merge rewrites most of the index.
+     */
+    public IndexSegmentStats maintainIndex() {
         ensureLuceneIndexWriter();
+        // a full reindex writes a freshly merged index anyway
+        if (isReindexRunning()) {
+            maintainer.skip();
+        } else {
+            maintainer.maintain(writer, getSegmentStats(), () -> {
+                LuceneIndexQueue queue = getIndexQueue();
+                queue.submit(IndexWriter::commit);
+                queue.flush(AppConstants.LUCENE_INDEX_QUEUE_CLOSE_TIMEOUT_MILLIS);
+            });
+        }
+        refreshSearcher();
+        return getSegmentStats();
+    }
+
+    public IndexSegmentStats getSegmentStats() {
+        SearcherManager manager = getSearcherManager();
         try {
-            writer.deleteDocuments(new Term("id", id.toString()));
-            writer.commit();
+            IndexSearcher searcher = manager.acquire();
+            try {
+                return maintainer.stats(writer, searcher.getIndexReader());
+            } finally {
+                manager.release(searcher);
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * the updated at, in epoch millis, of the docs with an id in the range, null for docs without one.
+     */
+    Map<Long, Long> loadIndexWatermarks(long fromId, long toId) throws IOException {
+        SearcherManager manager = getSearcherManager();
+        IndexSearcher searcher = manager.acquire();
+        try {
+            Map<Long, Long> watermarks = new HashMap<>();
+            searcher.search(LongPoint.newRangeQuery(DocFields.ID, fromId, toId), new SimpleCollector() {
+                private NumericDocValues ids;
+
+                private NumericDocValues updatedAts;
+
+                @Override
+                protected void doSetNextReader(LeafReaderContext context) throws IOException {
+                    ids = DocValues.getNumeric(context.reader(), DocFields.ID);
+                    updatedAts = DocValues.getNumeric(context.reader(), DocFields.UPDATED_AT);
+                }
+
+                @Override
+                public void collect(int doc) throws IOException {
+                    if (ids.advanceExact(doc)) {
+                        watermarks.put(ids.longValue(), updatedAts.advanceExact(doc) ? updatedAts.longValue() : null);
+                    }
+                }
+
+                @Override
+                public ScoreMode scoreMode() {
+                    return ScoreMode.COMPLETE_NO_SCORES;
+                }
+            });
+            return watermarks;
+        } finally {
+            manager.release(searcher);
+        }
+    }
+
+    /**
+     * pages similar to the given one by the title and content terms that are frequent in it and rare in the index.
+     */
+    @Override
+    public List<PageItem> findRelatedPages(Long pageId, Integer limit) {
+        int count = PageSizeUtils.getPageSize(ObjectUtils.defaultIfNull(limit, 0),
+                AppConstants.DEFAULT_LUCENE_RELATED_LIMIT, AppConstants.LUCENE_RELATED_MAX_LIMIT);
+        try {
+            List<Long> relatedIds = relatedPageCache.get(pageId, () -> searchRelatedPageIds(pageId));
+            SearcherManager manager = getSearcherManager();
+            IndexSearcher searcher = manager.acquire();
+            try {
+                List<PageItem> items = new ArrayList<>();
+                for (Long relatedId : relatedIds.subList(0, Math.min(count, relatedIds.size()))) {
+                    // loaded from the current searcher, so status changes since the ids were cached show up
+                    TopDocs docs = searcher.search(new TermQuery(new Term(DocFields.ID, relatedId.toString())), 1);
+                    if (docs.scoreDocs.length > 0) {
+                        items.add(docToPageItem(loadPageItemDocument(searcher, docs.scoreDocs[0].doc)));
+                    }
+                }
+                return items;
+            } finally {
+                manager.release(searcher);
+            }
+        } catch (IOException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private List<Long> searchRelatedPageIds(Long pageId) throws IOException {
+        SearcherManager manager = getSearcherManager();
+        IndexSearcher searcher = manager.acquire();
+        try {
+            Term idTerm = new Term(DocFields.ID, pageId.toString());
+            TopDocs self = searcher.search(new TermQuery(idTerm), 1);
+            if (self.scoreDocs.length == 0) {
+                return List.of();
+            }
+            int docId = self.scoreDocs[0].doc;
+            IndexReader reader = searcher.getIndexReader();
+            MoreLikeThis moreLikeThis = new MoreLikeThis(reader);
+            moreLikeThis.setFieldNames(new String[]{DocFields.TITLE, DocFields.CONTENT});
+            // only used for docs indexed without term vectors, whose stored title is analyzed instead
+            moreLikeThis.setAnalyzer(analysis.getIkAnalyzer());
+            moreLikeThis.setBoost(true);
+            moreLikeThis.setMinDocFreq(2);
+            // a small library has few docs, keep terms shared by a handful of them
+            moreLikeThis.setMaxDocFreq(Math.max(10,
+                    reader.maxDoc() / 100 * AppConstants.LUCENE_RELATED_MAX_DOC_FREQ_PERCENT));
+            moreLikeThis.setMaxQueryTerms(AppConstants.LUCENE_RELATED_MAX_QUERY_TERMS);
+            moreLikeThis.setMinTermFreq(relatedMinTermFreq(reader.getTermVectors(docId),
+                    AppConstants.LUCENE_RELATED_MAX_CANDIDATE_TERMS));
+            Query query = new BooleanQuery.Builder()
+                    .add(moreLikeThis.like(docId), BooleanClause.Occur.MUST)
+                    .add(new TermQuery(idTerm), BooleanClause.Occur.MUST_NOT)
+                    .build();
+            TopDocs docs = searcher.search(query, AppConstants.LUCENE_RELATED_MAX_LIMIT);
+            List<Long> relatedIds = new ArrayList<>();
+            for (ScoreDoc hit : docs.scoreDocs) {
+                relatedIds.add(Long.parseLong(searcher.doc(hit.doc, Set.of(DocFields.ID)).get(DocFields.ID)));
+            }
+            return relatedIds;
+        } finally {
+            manager.release(searcher);
+        }
+    }
+
+    /**
+     * MoreLikeThis looks up the doc freq of every term of the page that reaches the min term freq,
+     * for long pages the min is raised until at most maxCandidates terms are left.
+     */
+    static int relatedMinTermFreq(Fields termVectors, int maxCandidates) throws IOException {
+        if (termVectors == null) {
+            return 1;
+        }
+        List<Long> termFreqs = new ArrayList<>();
+        for (String field : new String[]{DocFields.TITLE, DocFields.CONTENT}) {
+            Terms terms = termVectors.terms(field);
+            if (terms == null) {
+                continue;
+            }
+            TermsEnum termsEnum = terms.iterator();
+            while (termsEnum.next() != null) {
+                termFreqs.add(termsEnum.totalTermFreq());
+            }
+        }
+        if (termFreqs.size() <= maxCandidates) {
+            return 1;
+        }
+        termFreqs.sort(Collections.reverseOrder());
+        return Math.toIntExact(termFreqs.get(maxCandidates) + 1);
+    }
+
+    /**
+     * commit all queued writes and wait until they are durable.
+     *
+     * @return false if the writes were not committed within the timeout
+     */
+    public boolean flush(long timeoutMillis) {
+        return getIndexQueue().flush(timeoutMillis);
+    }
+
+    /**
+     * force the shared searcher to see all changes applied so far.
+     */
+    public void refreshSearcher() {
+        try {
+            getSearcherManager().maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public SearchIndexStats getIndexStats() {
+        SearchIndexStats stats = new SearchIndexStats();
+        refreshLagListener.fillStats(stats);
+        CacheStats cacheStats = searchCache.stats();
+        stats.setSearchCacheSize(searchCache.size());
+        stats.setSearchCacheHits(cacheStats.hitCount());
+        stats.setSearchCacheMisses(cacheStats.missCount());
+        stats.setSearchCacheHitRate(cacheStats.hitRate());
+        stats.setSegmentCacheSize(analysis.getWordCacheSize());
+        stats.setSegmentCacheHitRate(analysis.getWordCacheHitRate());
+        stats.setReconcileDriftDocs(reconciler.getDriftDocs());
+        stats.setEmbeddingQueueDepth(embeddings.getQueueDepth());
+        stats.setEmbeddedTexts(embeddings.getEmbeddedTexts());
+        stats.setFailedEmbeddings(embeddings.getFailedPages());
+        IndexReconcileResult reconcileResult = reconciler.getLastResult();
+        if (reconcileResult != null) {
+            stats.setLastReconcileAt(reconcileResult.getFinishedAt());
+        }
+        if (indexQueue != null) {
+            indexQueue.fillStats(stats);
+        }
+        if (searcherManager != null) {
+            try {
+                IndexSearcher searcher = searcherManager.acquire();
+                try {
+                    stats.setNumDocs(searcher.getIndexReader().numDocs());
+                    stats.setSearcherVersion(((DirectoryReader) searcher.getIndexReader()).getVersion());
+                    stats.setSearcherCurrent(((DirectoryReader) searcher.getIndexReader()).isCurrent());
+                } finally {
+                    searcherManager.release(searcher);
+                }
+            } catch (IOException e) {
+                log.warn("failed to read lucene searcher stats", e);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * loads the stored fields needed by a list item, skipping the content text.
+     */
+    static class PageItemFieldVisitor extends DocumentStoredFieldVisitor {
+        @Override
+        public Status needsField(FieldInfo fieldInfo) throws IOException {
+            if (DocFields.CONTENT_STORED.equals(fieldInfo.name)) {
+                // stored last, nothing after it is needed
+                return Status.STOP;
+            }
+            if (DocFields.CONTENT.equals(fieldInfo.name)) {
+                return Status.NO;
+            }
+            return super.needsField(fieldInfo);
+        }
+    }
+
+    /**
+     * tracks how long index changes wait before they become visible to searches.
+     */
+    static class RefreshLagListener implements ReferenceManager.RefreshListener {
+        /**
+         * nano time of the oldest change not yet visible to searchers, 0 when there is none.
+         */
+        private final AtomicLong pendingSince = new AtomicLong();
+
+        private final AtomicLong refreshCount = new AtomicLong();
+
+        private final AtomicLong totalLagNanos = new AtomicLong();
+
+        private volatile long lastLagNanos;
+
+        private volatile long maxLagNanos;
+
+        private volatile Instant lastRefreshAt;
+
+        private long refreshingSince;
+
+        void markChanged() {
+            pendingSince.compareAndSet(0, System.nanoTime());
+        }
+
+        @Override
+        public void beforeRefresh() {
+            // changes marked after this point may not be in the new searcher, they stay pending
+            refreshingSince = pendingSince.getAndSet(0);
+        }
+
+        @Override
+        public void afterRefresh(boolean didRefresh) {
+            long since = refreshingSince;
+            refreshingSince = 0;
+            if (since == 0) {
+                return;
+            }
+            if (!didRefresh) {
+                pendingSince.accumulateAndGet(since, (current, old) -> current == 0 ? old : Math.min(current, old));
+                return;
+            }
+            long lag = System.nanoTime() - since;
+            lastLagNanos = lag;
+            maxLagNanos = Math.max(maxLagNanos, lag);
+            totalLagNanos.addAndGet(lag);
+            refreshCount.incrementAndGet();
+            lastRefreshAt = Instant.now();
+        }
+
+        void fillStats(SearchIndexStats stats) {
+            long count = refreshCount.get();
+            long since = pendingSince.get();
+            stats.setRefreshCount(count);
+            stats.setLastRefreshAt(lastRefreshAt);
+            stats.setLastRefreshLagMillis(TimeUnit.NANOSECONDS.toMillis(lastLagNanos));
+            stats.setMaxRefreshLagMillis(TimeUnit.NANOSECONDS.toMillis(maxLagNanos));
+            stats.setAvgRefreshLagMillis(count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLagNanos.get() / count));
+            stats.setPendingRefreshMillis(since == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - since));
+        }
+    }
+
     @Setter
     @Getter
     @Accessors(chain = true)
     static class FieldQueryInfo {
         private String name;
+        private String ngramName;
         private float boost;
-        private boolean wildcard;
     }
 
     @Getter
@@ -768,6 +2217,7 @@ public class LuceneService implements DisposableBean {
     @Setter
     static class AdvancedSearch {
         private String docField;
+        private String ngramField;
         private String keyword;
         private List<String> words;
     }
@@ -0,0 +1,100 @@
+package com.huntly.server.service;
+
+import com.huntly.server.domain.constant.AppConstants;
+import com.huntly.server.domain.constant.DocFields;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.LengthGoalBreakIterator;
+import org.apache.lucene.search.uhighlight.Passage;
+import org.apache.lucene.search.uhighlight.PassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+
+import java.io.IOException;
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Highlighted snippets of the content of search hits.
+ * <p>
+ * Match offsets are read from the content postings, so the text is never analyzed again. It is only needed to
+ * cut out the passages and is inflated from the stored copy, up to {@link AppConstants#LUCENE_SNIPPET_MAX_CONTENT_LENGTH}.
+ *
+ * @author lcomplete
+ */
+class LuceneSnippetHighlighter extends UnifiedHighlighter {
+
+    private static final String[] FIELDS = {DocFields.CONTENT};
+
+    /**
+     * @param analyzer only used for fields without offsets, LuceneService does not highlight before the schema
+     *                 has them
+     */
+    LuceneSnippetHighlighter(IndexSearcher searcher, Analyzer analyzer, int snippetLength) {
+        super(UnifiedHighlighter.builder(searcher, analyzer)
+                .withMaxLength(AppConstants.LUCENE_SNIPPET_MAX_CONTENT_LENGTH)
+                // the first match sits around the middle of its snippet
+                .withBreakIterator(() -> LengthGoalBreakIterator.createClosestToLength(
+                        BreakIterator.getSentenceInstance(Locale.ROOT), snippetLength, 0.5f))
+                .withFormatter(new SnippetFormatter())
+                // hits matching the title only get no snippet, the description already summarizes them
+                .withMaxNoHighlightPassages(0));
+    }
+
+    /**
+     * @return the snippets of each doc in the order of docIds, empty for docs whose content did not match
+     */
+    @SuppressWarnings("unchecked")
+    List<List<String>> highlight(Query query, int[] docIds, int maxSnippets) throws IOException {
+        Map<String, Object[]> highlights = highlightFieldsAsObjects(FIELDS, query, docIds, new int[]{maxSnippets});
+        Object[] docSnippets = highlights.get(DocFields.CONTENT);
+        List<List<String>> snippets = new ArrayList<>(docIds.length);
+        for (Object docSnippet : docSnippets) {
+            snippets.add(docSnippet != null ? (List<String>) docSnippet : List.of());
+        }
+        return snippets;
+    }
+
+    @Override
+    protected List<CharSequence[]> loadFieldValues(String[] fields, DocIdSetIterator docIter, int cacheCharsThreshold)
+            throws IOException {
+        List<CharSequence[]> docValues = new ArrayList<>();
+        long chars = 0;
+        for (int docId = docIter.nextDoc(); docId != DocIdSetIterator.NO_MORE_DOCS; docId = docIter.nextDoc()) {
+            CharSequence[] values = new CharSequence[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                // FIELDS only holds the content, which is stored deflated
+                String content = LuceneService.readStoredContent(getIndexSearcher(), docId, getMaxLength());
+                values[i] = content != null ? content : "";
+                chars += values[i].length();
+            }
+            docValues.add(values);
+            // the rest of the docs is loaded in the next call
+            if (cacheCharsThreshold != 0 && chars > cacheCharsThreshold) {
+                break;
+            }
+        }
+        return docValues;
+    }
+
+    /**
+     * formats every passage on its own, so each one becomes a separate snippet.
+     */
+    private static class SnippetFormatter extends PassageFormatter {
+        private final DefaultPassageFormatter passageFormatter = new DefaultPassageFormatter("<em>", "</em>", "", true);
+
+        @Override
+        public Object format(Passage[] passages, String content) {
+            List<String> snippets = new ArrayList<>(passages.length);
+            for (Passage passage : passages) {
+                snippets.add(passageFormatter.format(new Passage[]{passage}, content).trim());
+            }
+            return snippets;
+        }
+    }
+}
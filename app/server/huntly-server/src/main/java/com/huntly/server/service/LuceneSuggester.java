@@ -0,0 +1,350 @@
+package com.huntly.server.service;
+
+import com.huntly.server.domain.dto.SearchSuggestion;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.Lookup;
+import org.apache.lucene.search.suggest.analyzing.AnalyzingInfixSuggester;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Prefix and infix suggestions over page titles, authors, site names and collection names.
+ * <p>
+ * Suggestions live in their own small index. Updates are applied on a single background thread so index
+ * writers never wait for them, a rebuild fills a new generation directory and swaps it in when done, while
+ * lookups keep using the previous generation.
+ *
+ * @author lcomplete
+ */
+@Slf4j
+class LuceneSuggester {
+
+    /**
+     * a suggestion, its text is the key, so the same title or name is only suggested once.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    static class Entry {
+        private final String text;
+
+        private final String type;
+
+        /**
+         * higher weights are suggested first
+         */
+        private final long weight;
+
+        /**
+         * page id of a title, collection id of a collection
+         */
+        private final Long id;
+    }
+
+    private final Path basePath;
+
+    private final Analyzer analyzer = new StandardAnalyzer(CharArraySet.EMPTY_SET);
+
+    /**
+     * a rebuild takes the write lock only to swap in the new generation.
+     */
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private final ThreadPoolExecutor updateExecutor;
+
+    private AnalyzingInfixSuggester suggester;
+
+    private Path generationPath;
+
+    /**
+     * updates applied while a rebuild is running, replayed on the new generation before it is swapped in.
+     */
+    private volatile List<Entry> pending;
+
+    LuceneSuggester(Path basePath, int queueCapacity) {
+        this.basePath = basePath;
+        // the suggestions are rebuilt from the index regularly, so dropping updates under load is fine
+        this.updateExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "lucene_suggest_thread");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * open the latest generation and delete the older ones.
+     *
+     * @return false if there was none and the suggestions need to be rebuilt
+     */
+    boolean open() throws IOException {
+        Files.createDirectories(basePath);
+        List<Path> generations;
+        try (Stream<Path> paths = Files.list(basePath)) {
+            generations = paths.filter(path -> path.getFileName().toString().matches("\\d+"))
+                    .sorted((a, b) -> Long.compare(generationOf(b), generationOf(a)))
+                    .collect(Collectors.toList());
+        }
+        Path latest = null;
+        for (Path path : generations) {
+            if (latest == null && isIndex(path)) {
+                latest = path;
+            } else {
+                FileSystemUtils.deleteRecursively(path);
+            }
+        }
+        boolean exists = latest != null;
+        if (latest == null) {
+            latest = basePath.resolve(String.valueOf(System.currentTimeMillis()));
+        }
+        suggester = newSuggester(latest);
+        generationPath = latest;
+        return exists;
+    }
+
+    private static long generationOf(Path path) {
+        return Long.parseLong(path.getFileName().toString());
+    }
+
+    private static boolean isIndex(Path path) throws IOException {
+        try (Directory dir = FSDirectory.open(path)) {
+            return DirectoryReader.indexExists(dir);
+        }
+    }
+
+    private AnalyzingInfixSuggester newSuggester(Path path) throws IOException {
+        // keep the writer open after a build, updates follow right away
+        return new AnalyzingInfixSuggester(FSDirectory.open(path), analyzer, analyzer,
+                AnalyzingInfixSuggester.DEFAULT_MIN_PREFIX_CHARS, true, true, false, false);
+    }
+
+    /**
+     * queue suggestions for a background update, returns immediately.
+     */
+    void submit(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        updateExecutor.execute(() -> {
+            try {
+                apply(entries);
+            } catch (Exception e) {
+                log.warn("failed to update search suggestions", e);
+            }
+        });
+    }
+
+    private void apply(List<Entry> entries) throws IOException {
+        swapLock.readLock().lock();
+        try {
+            for (Entry entry : entries) {
+                update(suggester, entry);
+            }
+            List<Entry> rebuildPending = pending;
+            if (rebuildPending != null) {
+                rebuildPending.addAll(entries);
+            }
+            if (updateExecutor.getQueue().isEmpty()) {
+                // make a burst of updates visible and durable at once
+                suggester.refresh();
+                suggester.commit();
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static void update(AnalyzingInfixSuggester target, Entry entry) throws IOException {
+        target.update(new BytesRef(entry.getText()), Set.of(new BytesRef(entry.getType())), entry.getWeight(),
+                payloadOf(entry));
+    }
+
+    private static BytesRef payloadOf(Entry entry) {
+        return entry.getId() != null ? new BytesRef(entry.getId().toString()) : new BytesRef();
+    }
+
+    /**
+     * build a new generation from all entries and swap it in, lookups and updates keep running meanwhile.
+     * updates from the moment the entries are collected on are replayed on the new generation.
+     */
+    void rebuild(Callable<Collection<Entry>> entrySource) throws Exception {
+        pending = Collections.synchronizedList(new ArrayList<>());
+        Collection<Entry> entries;
+        try {
+            entries = entrySource.call();
+        } catch (Exception e) {
+            pending = null;
+            throw e;
+        }
+        Path newPath = basePath.resolve(String.valueOf(
+                Math.max(System.currentTimeMillis(), generationOf(generationPath) + 1)));
+        AnalyzingInfixSuggester newSuggester = null;
+        AnalyzingInfixSuggester oldSuggester;
+        Path oldPath;
+        try {
+            newSuggester = newSuggester(newPath);
+            newSuggester.build(new EntryIterator(entries.iterator()));
+            swapLock.writeLock().lock();
+            try {
+                for (Entry entry : pending) {
+                    update(newSuggester, entry);
+                }
+                newSuggester.refresh();
+                newSuggester.commit();
+                oldSuggester = suggester;
+                oldPath = generationPath;
+                suggester = newSuggester;
+                generationPath = newPath;
+            } finally {
+                pending = null;
+                swapLock.writeLock().unlock();
+            }
+        } catch (IOException | RuntimeException e) {
+            pending = null;
+            if (newSuggester != null) {
+                newSuggester.close();
+            }
+            FileSystemUtils.deleteRecursively(newPath);
+            throw e;
+        }
+        oldSuggester.close();
+        FileSystemUtils.deleteRecursively(oldPath);
+    }
+
+    List<SearchSuggestion> lookup(String text, int count) throws IOException {
+        swapLock.readLock().lock();
+        try {
+            if (suggester.getCount() == 0) {
+                return List.of();
+            }
+            List<SearchSuggestion> suggestions = new ArrayList<>();
+            for (Lookup.LookupResult result : suggester.lookup(text, count, true, false)) {
+                SearchSuggestion suggestion = new SearchSuggestion();
+                suggestion.setText(result.key.toString());
+                if (result.contexts != null && !result.contexts.isEmpty()) {
+                    suggestion.setType(result.contexts.iterator().next().utf8ToString());
+                }
+                if (result.payload != null && result.payload.length > 0) {
+                    long id = Long.parseLong(result.payload.utf8ToString());
+                    if (SearchSuggestion.TYPE_COLLECTION.equals(suggestion.getType())) {
+                        suggestion.setCollectionId(id);
+                    } else {
+                        suggestion.setPageId(id);
+                    }
+                }
+                suggestions.add(suggestion);
+            }
+            return suggestions;
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    long getCount() throws IOException {
+        swapLock.readLock().lock();
+        try {
+            return suggester.getCount();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * wait until the queued updates are applied and visible.
+     */
+    boolean flush(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (updateExecutor.getQueue().size() > 0 || updateExecutor.getActiveCount() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    void close(long timeoutMillis) throws IOException, InterruptedException {
+        updateExecutor.shutdown();
+        if (!updateExecutor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            log.warn("search suggestion updates did not finish in {} ms", timeoutMillis);
+        }
+        swapLock.writeLock().lock();
+        try {
+            if (suggester != null) {
+                suggester.close();
+            }
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private static class EntryIterator implements InputIterator {
+        private final Iterator<Entry> entries;
+
+        private Entry current;
+
+        EntryIterator(Iterator<Entry> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public BytesRef next() {
+            if (!entries.hasNext()) {
+                current = null;
+                return null;
+            }
+            current = entries.next();
+            return new BytesRef(current.getText());
+        }
+
+        @Override
+        public long weight() {
+            return current.getWeight();
+        }
+
+        @Override
+        public BytesRef payload() {
+            return payloadOf(current);
+        }
+
+        @Override
+        public boolean hasPayloads() {
+            return true;
+        }
+
+        @Override
+        public Set<BytesRef> contexts() {
+            return Set.of(new BytesRef(current.getType()));
+        }
+
+        @Override
+        public boolean hasContexts() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.huntly.server.service;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.ngram.NGramTokenizer;
+
+/**
+ * Splits text into lower cased 1 to {@link #MAX_GRAM} character grams, skipping whitespace.
+ * <p>
+ * A substring of at most {@link #MAX_GRAM} characters is then a single term, longer substrings are
+ * matched by requiring all of their grams of length {@link #MAX_GRAM}.
+ *
+ * @author lcomplete
+ */
+class NGramSubstringAnalyzer extends Analyzer {
+
+    static final int MIN_GRAM = 1;
+
+    static final int MAX_GRAM = 3;
+
+    @Override
+    protected TokenStreamComponents createComponents(String fieldName) {
+        Tokenizer tokenizer = new NGramTokenizer(MIN_GRAM, MAX_GRAM) {
+            @Override
+            protected boolean isTokenChar(int chr) {
+                return !Character.isWhitespace(chr);
+            }
+        };
+        TokenStream stream = new LowerCaseFilter(tokenizer);
+        return new TokenStreamComponents(tokenizer, stream);
+    }
+}
@@ -0,0 +1,122 @@
+package com.huntly.server.service;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.constant.AppConstants;
+import com.huntly.server.domain.entity.GlobalSetting;
+import com.openai.client.OpenAIClient;
+import com.openai.client.okhttp.OpenAIOkHttpClient;
+import com.openai.models.embeddings.CreateEmbeddingResponse;
+import com.openai.models.embeddings.Embedding;
+import com.openai.models.embeddings.EmbeddingCreateParams;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Embeddings from an OpenAI compatible endpoint, configured with the API key and base url of the global setting.
+ *
+ * @author lcomplete
+ */
+@Component
+@Slf4j
+public class OpenAIEmbeddingProvider implements EmbeddingProvider {
+
+    private final GlobalSettingService globalSettingService;
+
+    private final int dimensions;
+
+    private volatile Settings settings;
+
+    public OpenAIEmbeddingProvider(GlobalSettingService globalSettingService, HuntlyProperties huntlyProperties) {
+        this.globalSettingService = globalSettingService;
+        this.dimensions = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneEmbeddingDimensions(),
+                AppConstants.DEFAULT_LUCENE_EMBEDDING_DIMENSIONS);
+    }
+
+    @Override
+    public String getModelId() {
+        return getSettings().model;
+    }
+
+    @Override
+    public List<float[]> embed(List<String> texts) {
+        Settings current = getSettings();
+        if (current.model == null) {
+            throw new IllegalStateException("semantic search is not enabled");
+        }
+        EmbeddingCreateParams.Builder params = EmbeddingCreateParams.builder()
+                .model(current.model)
+                .inputOfArrayOfStrings(texts);
+        // older models have a fixed size and reject the parameter
+        if (current.model.startsWith("text-embedding-3")) {
+            params.dimensions(dimensions);
+        }
+        CreateEmbeddingResponse response = current.client.embeddings().create(params.build());
+        List<Embedding> data = new ArrayList<>(response.data());
+        data.sort(Comparator.comparingLong(Embedding::index));
+        List<float[]> vectors = new ArrayList<>(data.size());
+        for (Embedding embedding : data) {
+            List<Float> values = embedding.embedding();
+            float[] vector = new float[values.size()];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = values.get(i);
+            }
+            vectors.add(vector);
+        }
+        return vectors;
+    }
+
+    private Settings getSettings() {
+        Settings current = settings;
+        if (current == null || System.currentTimeMillis() - current.loadedAt > AppConstants.EMBEDDING_SETTING_REFRESH_MILLIS) {
+            current = loadSettings(current);
+            settings = current;
+        }
+        return current;
+    }
+
+    private synchronized Settings loadSettings(Settings previous) {
+        GlobalSetting setting = globalSettingService.getGlobalSetting();
+        String apiKey = setting.getOpenApiKey();
+        String baseUrl = setting.getOpenApiBaseUrl();
+        String model = StringUtils.defaultIfBlank(setting.getOpenApiEmbeddingModel(), AppConstants.DEFAULT_EMBEDDING_MODEL);
+        if (!Boolean.TRUE.equals(setting.getEnableSemanticSearch()) || StringUtils.isBlank(apiKey)) {
+            return new Settings(null, null, null, null);
+        }
+        if (previous != null && previous.client != null && Objects.equals(previous.apiKey, apiKey)
+                && Objects.equals(previous.baseUrl, baseUrl)) {
+            return new Settings(model, apiKey, baseUrl, previous.client);
+        }
+        OpenAIOkHttpClient.Builder builder = OpenAIOkHttpClient.builder().apiKey(apiKey);
+        if (StringUtils.isNotBlank(baseUrl)) {
+            builder.baseUrl(baseUrl);
+        }
+        log.info("embedding model for semantic search: {}", model);
+        return new Settings(model, apiKey, baseUrl, builder.build());
+    }
+
+    private static class Settings {
+        private final String model;
+
+        private final String apiKey;
+
+        private final String baseUrl;
+
+        private final OpenAIClient client;
+
+        private final long loadedAt = System.currentTimeMillis();
+
+        Settings(String model, String apiKey, String baseUrl, OpenAIClient client) {
+            this.model = model;
+            this.apiKey = apiKey;
+            this.baseUrl = baseUrl;
+            this.client = client;
+        }
+    }
+}
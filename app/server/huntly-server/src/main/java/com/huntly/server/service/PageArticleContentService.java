@@ -6,7 +6,10 @@ import com.huntly.server.repository.PageArticleContentRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author lcomplete
@@ -35,6 +38,17 @@ public class PageArticleContentService {
         return pageArticleContentRepository.findByPageIdAndArticleContentCategory(pageId, contentCategory.getCode()).orElse(null);
     }
 
+    /**
+     * @return ids of the given pages that have content of the category
+     */
+    public Set<Long> findPageIdsWithContent(Collection<Long> pageIds, ArticleContentCategory contentCategory) {
+        if (pageIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(pageArticleContentRepository.findPageIdsByPageIdInAndArticleContentCategory(pageIds,
+                contentCategory.getCode()));
+    }
+
     public void deleteContent(Long pageId, ArticleContentCategory contentCategory) {
         pageArticleContentRepository.deleteByPageIdAndArticleContentCategory(pageId, contentCategory.getCode());
     }
@@ -0,0 +1,242 @@
+package com.huntly.server.service;
+
+import com.google.common.hash.Hashing;
+import com.huntly.server.data.converter.CompressedTextConverter;
+import com.huntly.server.domain.constant.AppConstants;
+import com.huntly.server.domain.entity.Page;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * the page content store, article bodies live in the page_content table keyed by their sha-256, so the page table
+ * stays small for list and count queries and a body that arrives through several feeds is stored once.
+ * <p>
+ * a loaded page reads its body on the first {@link Page#getContent()}, and {@link BasePageService} stores the body
+ * before the page is saved. Bodies no page refers to any more are deleted by {@link #deleteUnreferencedContent()}.
+ *
+ * @author lcomplete
+ */
+@Service
+@Slf4j
+public class PageContentService {
+    private static final String INSERT_CONTENT = "INSERT OR IGNORE INTO page_content (id, content) VALUES (?, ?)";
+
+    /**
+     * bodies read per query by {@link #loadContents(Collection)}, sqlite takes up to 999 parameters.
+     */
+    private static final int LOAD_CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DatabaseWriter databaseWriter;
+
+    private final TransactionTemplate readTransactionTemplate;
+
+    private final TransactionTemplate loadTransactionTemplate;
+
+    public PageContentService(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate,
+                              DatabaseWriter databaseWriter, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseWriter = databaseWriter;
+        this.readTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTransactionTemplate.setReadOnly(true);
+        // a jdbc transaction is enough to route a lazy load to the read pool
+        this.loadTransactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(Objects.requireNonNull(jdbcTemplate.getDataSource())));
+        this.loadTransactionTemplate.setReadOnly(true);
+        entityManagerFactory.unwrap(SessionFactoryImpl.class).getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) this::onPostLoad);
+    }
+
+    static String hashOf(String content) {
+        return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+    }
+
+    private void onPostLoad(PostLoadEvent event) {
+        if (!(event.getEntity() instanceof Page)) {
+            return;
+        }
+        Page page = (Page) event.getEntity();
+        if (page.getContentHash() != null) {
+            page.loadContentLazily(() -> loadContent(page.getContentHash()));
+        } else {
+            page.setContent(page.getInlineContent());
+        }
+    }
+
+    public String loadContent(String hash) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return queryContent(hash);
+        }
+        return loadTransactionTemplate.execute(status -> queryContent(hash));
+    }
+
+    private String queryContent(String hash) {
+        return jdbcTemplate.query("SELECT content FROM page_content WHERE id = ?",
+                rs -> rs.next() ? decode(rs.getBytes(1)) : null, hash);
+    }
+
+    /**
+     * @return the bodies by their hash, hashes without a stored body are left out
+     */
+    public Map<String, String> loadContents(Collection<String> hashes) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return queryContents(hashes);
+        }
+        return loadTransactionTemplate.execute(status -> queryContents(hashes));
+    }
+
+    private Map<String, String> queryContents(Collection<String> hashes) {
+        Map<String, String> contents = new HashMap<>(hashes.size());
+        List<String> ids = new ArrayList<>(hashes);
+        for (int from = 0; from < ids.size(); from += LOAD_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + LOAD_CHUNK_SIZE, ids.size()));
+            jdbcTemplate.query("SELECT id, content FROM page_content WHERE id IN ("
+                            + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                    (RowCallbackHandler) rs -> contents.put(rs.getString(1), decode(rs.getBytes(2))), chunk.toArray());
+        }
+        return contents;
+    }
+
+    /**
+     * load the bodies of the pages that were not loaded yet with one query, instead of one query per page on the
+     * first {@link Page#getContent()}. called before the documents of many pages are built.
+     */
+    public void fillContents(List<Page> pages) {
+        Set<String> hashes = new LinkedHashSet<>();
+        for (Page page : pages) {
+            if (page.hasUnloadedContent() && page.getContentHash() != null) {
+                hashes.add(page.getContentHash());
+            }
+        }
+        if (hashes.isEmpty()) {
+            return;
+        }
+        Map<String, String> contents = loadContents(hashes);
+        for (Page page : pages) {
+            // a body missing from the store stays lazy, it must not be saved as an empty one
+            if (page.hasUnloadedContent() && contents.containsKey(page.getContentHash())) {
+                page.setContent(contents.get(page.getContentHash()));
+            }
+        }
+    }
+
+    private static String decode(byte[] bytes) {
+        return bytes == null ? null : CompressedTextConverter.decode(bytes);
+    }
+
+    /**
+     * store the body of the page and point the page at it, a body that was never loaded is left as it is.
+     * called in the transaction that saves the page.
+     */
+    public void storeContent(Page page) {
+        if (page.hasUnloadedContent()) {
+            return;
+        }
+        String content = page.getContent();
+        String hash = content == null ? null : hashOf(content);
+        if (hash != null && !hash.equals(page.getContentHash())) {
+            jdbcTemplate.update(INSERT_CONTENT, hash, CompressedTextConverter.encode(content));
+        }
+        page.setContentHash(hash);
+        page.setInlineContent(null);
+    }
+
+    /**
+     * {@link #storeContent(Page)} for several pages, the new bodies are inserted as one jdbc batch.
+     */
+    public void storeContents(List<Page> pages) {
+        List<Object[]> contents = new ArrayList<>();
+        for (Page page : pages) {
+            if (page.hasUnloadedContent()) {
+                continue;
+            }
+            String content = page.getContent();
+            String hash = content == null ? null : hashOf(content);
+            if (hash != null && !hash.equals(page.getContentHash())) {
+                contents.add(new Object[]{hash, CompressedTextConverter.encode(content)});
+            }
+            page.setContentHash(hash);
+            page.setInlineContent(null);
+        }
+        if (!contents.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CONTENT, contents);
+        }
+    }
+
+    /**
+     * move the bodies still stored in the page table to the content store, in id chunks.
+     *
+     * @return pages moved
+     */
+    public long moveInlineContent() {
+        long lastId = 0;
+        long moved = 0;
+        while (true) {
+            long afterId = lastId;
+            List<Object[]> rows = readTransactionTemplate.execute(status -> jdbcTemplate.query(
+                    "SELECT id, content FROM page WHERE id > ? AND content IS NOT NULL ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new Object[]{rs.getLong(1), decode(rs.getBytes(2))},
+                    afterId, AppConstants.CONTENT_MIGRATION_CHUNK_SIZE));
+            if (rows == null || rows.isEmpty()) {
+                break;
+            }
+            lastId = (Long) rows.get(rows.size() - 1)[0];
+            List<Object[]> contents = new ArrayList<>(rows.size());
+            List<Object[]> pages = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                String content = (String) row[1];
+                String hash = hashOf(content);
+                contents.add(new Object[]{hash, CompressedTextConverter.encode(content)});
+                pages.add(new Object[]{hash, row[0]});
+            }
+            databaseWriter.run(() -> {
+                jdbcTemplate.batchUpdate(INSERT_CONTENT, contents);
+                // a page saved meanwhile already points at its new body
+                jdbcTemplate.batchUpdate("UPDATE page SET content_hash = COALESCE(content_hash, ?), content = NULL "
+                        + "WHERE id = ?", pages);
+            });
+            moved += rows.size();
+        }
+        if (moved > 0) {
+            log.info("moved the content of {} pages to the content store", moved);
+        }
+        return moved;
+    }
+
+    /**
+     * @return bodies deleted
+     */
+    public int deleteUnreferencedContent() {
+        int deleted = databaseWriter.execute(() -> jdbcTemplate.update("DELETE FROM page_content WHERE NOT EXISTS "
+                + "(SELECT 1 FROM page WHERE page.content_hash = page_content.id)"));
+        if (deleted > 0) {
+            log.info("deleted {} unreferenced page contents", deleted);
+        }
+        return deleted;
+    }
+}
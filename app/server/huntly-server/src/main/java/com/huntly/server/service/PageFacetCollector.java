@@ -0,0 +1,99 @@
+package com.huntly.server.service;
+
+import com.huntly.server.domain.constant.DocFields;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SimpleCollector;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the matching docs per value of the facet fields, reading their numeric doc values.
+ * <p>
+ * Meant to be combined with the top docs collector, so a search returns its hits and facet counts in one pass.
+ *
+ * @author lcomplete
+ */
+class PageFacetCollector extends SimpleCollector {
+
+    static final List<String> FACET_FIELDS = List.of(
+            DocFields.CONTENT_TYPE,
+            DocFields.CONNECTOR_TYPE,
+            DocFields.CONNECTOR_ID,
+            DocFields.LIBRARY_SAVE_STATUS,
+            DocFields.COLLECTION_ID);
+
+    private final Map<String, Map<Long, Long>> counts = new LinkedHashMap<>();
+
+    private final NumericDocValues[] docValues = new NumericDocValues[FACET_FIELDS.size()];
+
+    PageFacetCollector() {
+        for (String field : FACET_FIELDS) {
+            counts.put(field, new HashMap<>());
+        }
+    }
+
+    @Override
+    protected void doSetNextReader(LeafReaderContext context) throws IOException {
+        for (int i = 0; i < FACET_FIELDS.size(); i++) {
+            // docs indexed before the facet doc values existed have none, they are not counted
+            docValues[i] = DocValues.getNumeric(context.reader(), FACET_FIELDS.get(i));
+        }
+    }
+
+    @Override
+    public void collect(int doc) throws IOException {
+        for (int i = 0; i < docValues.length; i++) {
+            if (docValues[i].advanceExact(doc)) {
+                counts.get(FACET_FIELDS.get(i)).merge(docValues[i].longValue(), 1L, Long::sum);
+            }
+        }
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return ScoreMode.COMPLETE_NO_SCORES;
+    }
+
+    /**
+     * @return counts by facet field, then by field value
+     */
+    Map<String, Map<Long, Long>> getCounts() {
+        return counts;
+    }
+
+    /**
+     * one collector per segment slice, their counts are summed up when the search completes.
+     */
+    static CollectorManager<PageFacetCollector, Map<String, Map<Long, Long>>> createManager() {
+        return new CollectorManager<>() {
+            @Override
+            public PageFacetCollector newCollector() {
+                return new PageFacetCollector();
+            }
+
+            @Override
+            public Map<String, Map<Long, Long>> reduce(Collection<PageFacetCollector> collectors) {
+                Map<String, Map<Long, Long>> merged = new PageFacetCollector().counts;
+                for (PageFacetCollector collector : collectors) {
+                    collector.counts.forEach((field, values) ->
+                            values.forEach((value, count) -> merged.get(field).merge(value, count, Long::sum)));
+                }
+                return merged;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Map<Long, Long>> castCounts(Object reduced) {
+        return (Map<String, Map<Long, Long>>) reduced;
+    }
+}
@@ -35,8 +35,10 @@ public class PageHighlightService extends BasePageService {
 
     public PageHighlightService(PageHighlightRepository pageHighlightRepository,
                                PageRepository pageRepository,
-                               LuceneService luceneService) {
-        super(pageRepository, luceneService);
+                               SearchEngine searchEngine,
+                               DatabaseWriter databaseWriter,
+                               PageContentService pageContentService) {
+        super(pageRepository, searchEngine, databaseWriter, pageContentService);
         this.pageHighlightRepository = pageHighlightRepository;
     }
 
@@ -101,7 +103,7 @@ public class PageHighlightService extends BasePageService {
                 .orElseThrow(() -> new RuntimeException("Page not found"));
 
         page.setHighlightCount(count);
-        save(page); // 使用父类的save方法，会自动更新Lucene索引
+        saveStatus(page); // 只更新索引中的状态字段，不重建文档
     }
 
     /**
@@ -11,6 +11,7 @@ import com.huntly.jpa.spec.Specifications;
 import com.huntly.server.cache.CacheService;
 import com.huntly.server.domain.entity.Page;
 import com.huntly.server.domain.mapper.PageItemMapper;
+import com.huntly.server.domain.projection.PageListView;
 import com.huntly.server.repository.PageRepository;
 import com.huntly.server.util.PageSizeUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -132,8 +133,7 @@ public class PageListService {
                 .build();
         org.springframework.data.domain.Sort sort = (listQuery.isAsc() ? Sorts.builder().asc(sortField) : Sorts.builder().desc(sortField)).build();
         var size = PageSizeUtils.getPageSize(listQuery.getCount());
-        List<Page> pages = pageRepository.findAll(specs, size, sort);
-        // todo enhance query
+        List<PageListView> pages = pageRepository.findAll(specs, PageListView.class, size, sort);
 
         // mapper
         PageListSort finalListSort = listSort;
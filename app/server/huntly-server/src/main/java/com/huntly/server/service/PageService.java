@@ -53,11 +53,12 @@ public class PageService extends BasePageService {
 
     private final OpenAIService openAIService;
 
-    public PageService(PageRepository pageRepository, LuceneService luceneService,
+    public PageService(PageRepository pageRepository, SearchEngine searchEngine,
             ConnectorRepository connectorRepository, SourceRepository sourceRepository,
             GlobalSettingService globalSettingService, PageArticleContentService pageArticleContentService,
-            EventPublisher eventPublisher, OpenAIService openAIService) {
-        super(pageRepository, luceneService);
+            EventPublisher eventPublisher, OpenAIService openAIService, DatabaseWriter databaseWriter,
+            PageContentService pageContentService) {
+        super(pageRepository, searchEngine, databaseWriter, pageContentService);
         this.connectorRepository = connectorRepository;
         this.sourceRepository = sourceRepository;
         this.globalSettingService = globalSettingService;
@@ -97,7 +98,7 @@ public class PageService extends BasePageService {
         var page = requireOne(id);
         if (!Objects.equals(page.getLibrarySaveStatus(), librarySaveStatus.getCode())) {
             setPageLibrarySaveStatus(page, librarySaveStatus);
-            save(page);
+            saveStatus(page);
         }
         return toPageOperateResult(page);
     }
@@ -138,7 +139,7 @@ public class PageService extends BasePageService {
     public PageOperateResult starPage(Long id) {
         var page = requireOne(id);
         setPageStarred(page);
-        save(page);
+        saveStatus(page);
         return toPageOperateResult(page);
     }
 
@@ -158,14 +159,14 @@ public class PageService extends BasePageService {
     public PageOperateResult unStarPage(Long id) {
         var page = requireOne(id);
         page.setStarred(false);
-        save(page);
+        saveStatus(page);
         return toPageOperateResult(page);
     }
 
     public PageOperateResult readLaterPage(Long id) {
         var page = requireOne(id);
         setPageReadLater(page);
-        save(page);
+        saveStatus(page);
         return toPageOperateResult(page);
     }
 
@@ -178,7 +179,7 @@ public class PageService extends BasePageService {
     public PageOperateResult unReadLaterPage(Long id) {
         var page = requireOne(id);
         page.setReadLater(false);
-        save(page);
+        saveStatus(page);
         return toPageOperateResult(page);
     }
 
@@ -190,7 +191,7 @@ public class PageService extends BasePageService {
         var page = requireOne(id);
         if (!Objects.equals(page.getMarkRead(), true)) {
             page.setMarkRead(true);
-            save(page);
+            saveStatus(page);
             sendInboxChangedEvent(page.getConnectorId());
         }
     }
@@ -207,7 +208,7 @@ public class PageService extends BasePageService {
         var page = requireOne(id);
         if (!Objects.equals(page.getMarkRead(), false)) {
             page.setMarkRead(false);
-            save(page);
+            saveStatus(page);
             sendInboxChangedEvent(page.getConnectorId());
         }
     }
@@ -218,10 +219,10 @@ public class PageService extends BasePageService {
         page.setLastReadAt(Instant.now());
         if (!Objects.equals(page.getMarkRead(), true)) {
             page.setMarkRead(true);
-            save(page);
+            saveStatus(page);
             sendInboxChangedEvent(page.getConnectorId());
         } else {
-            save(page);
+            saveStatus(page);
         }
     }
 
@@ -243,14 +244,14 @@ public class PageService extends BasePageService {
     }
 
     public Integer markReadByPageIds(List<Long> ids, boolean markRead) {
-        int effectCount = pageRepository.updateMarkReadByIds(ids, markRead);
+        int effectCount = databaseWriter.execute(() -> pageRepository.updateMarkReadByIds(ids, markRead));
         List<Integer> connectorIds = pageRepository.getConnectorIdsByPageIds(ids);
         connectorIds.forEach(this::sendInboxChangedEvent);
         return effectCount;
     }
 
     public Integer markReadByConnectorId(Integer connectorId, boolean markRead) {
-        int effectCount = pageRepository.updateMarkReadByConnectorId(connectorId, markRead);
+        int effectCount = databaseWriter.execute(() -> pageRepository.updateMarkReadByConnectorId(connectorId, markRead));
         if (effectCount > 0) {
             sendInboxChangedEvent(connectorId, markRead ? 0 : null);
         }
@@ -258,7 +259,7 @@ public class PageService extends BasePageService {
     }
 
     public Integer markReadByFolderId(Integer folderId, boolean markRead) {
-        int effectCount = pageRepository.updateMarkReadByFolderId(folderId, markRead);
+        int effectCount = databaseWriter.execute(() -> pageRepository.updateMarkReadByFolderId(folderId, markRead));
         if (effectCount > 0) {
             var connectors = connectorRepository.findByFolderId(folderId);
             connectors.forEach(c -> sendInboxChangedEvent(c.getId(), markRead ? 0 : null));
@@ -267,7 +268,7 @@ public class PageService extends BasePageService {
     }
 
     public Integer markReadByConnectorType(Integer connectorType, boolean markRead) {
-        int effectCount = pageRepository.updateMarkReadByConnectorType(connectorType, markRead);
+        int effectCount = databaseWriter.execute(() -> pageRepository.updateMarkReadByConnectorType(connectorType, markRead));
         if (effectCount > 0) {
             var connectors = connectorRepository.findByType(connectorType);
             connectors.forEach(c -> sendInboxChangedEvent(c.getId(), markRead ? 0 : null));
@@ -285,7 +286,7 @@ public class PageService extends BasePageService {
             }
             page.setLastReadAt(Instant.now());
             page.setReadCount(ObjectUtils.defaultIfNull(page.getReadCount(), 0) + 1);
-            save(page);
+            saveStatus(page);
         }
         return page;
     }
@@ -511,7 +512,7 @@ public class PageService extends BasePageService {
                 page.getLibrarySaveStatus() == LibrarySaveStatus.NOT_SAVED.getCode()) {
             setPageLibrarySaveStatus(page, LibrarySaveStatus.SAVED);
         }
-        save(page);
+        saveStatus(page);
     }
 
 }
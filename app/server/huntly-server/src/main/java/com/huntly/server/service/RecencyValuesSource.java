@@ -0,0 +1,90 @@
+package com.huntly.server.service;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.search.DoubleValues;
+import org.apache.lucene.search.DoubleValuesSource;
+import org.apache.lucene.search.IndexSearcher;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Recency score of an epoch second doc values field, {@code weight * pivot / (pivot + distance)} like
+ * {@link org.apache.lucene.document.LongPoint#newDistanceFeatureQuery}, for date fields that are updated in place
+ * and therefore have no points.
+ *
+ * @author lcomplete
+ */
+class RecencyValuesSource extends DoubleValuesSource {
+
+    private final String field;
+
+    private final double weight;
+
+    private final long origin;
+
+    private final long pivot;
+
+    RecencyValuesSource(String field, double weight, long origin, long pivot) {
+        this.field = field;
+        this.weight = weight;
+        this.origin = origin;
+        this.pivot = pivot;
+    }
+
+    @Override
+    public DoubleValues getValues(LeafReaderContext ctx, DoubleValues scores) throws IOException {
+        NumericDocValues values = DocValues.getNumeric(ctx.reader(), field);
+        return new DoubleValues() {
+            @Override
+            public double doubleValue() throws IOException {
+                double distance = Math.abs((double) origin - values.longValue());
+                return weight * pivot / (pivot + distance);
+            }
+
+            @Override
+            public boolean advanceExact(int doc) throws IOException {
+                return values.advanceExact(doc);
+            }
+        };
+    }
+
+    @Override
+    public boolean needsScores() {
+        return false;
+    }
+
+    @Override
+    public DoubleValuesSource rewrite(IndexSearcher reader) {
+        return this;
+    }
+
+    @Override
+    public boolean isCacheable(LeafReaderContext ctx) {
+        return DocValues.isCacheable(ctx, field);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RecencyValuesSource that = (RecencyValuesSource) o;
+        return field.equals(that.field) && weight == that.weight && origin == that.origin && pivot == that.pivot;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, weight, origin, pivot);
+    }
+
+    @Override
+    public String toString() {
+        return "recency(" + field + ", origin=" + origin + ", pivot=" + pivot + ")";
+    }
+}
@@ -0,0 +1,92 @@
+package com.huntly.server.service;
+
+import com.huntly.interfaces.external.query.SearchQuery;
+import com.huntly.server.util.PageSizeUtils;
+import lombok.Value;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Cache key of a search result: the normalized query plus the version of the searcher it ran on,
+ * so a result is never served once the index has changed. {@code collection:} names are resolved
+ * against the database rather than the index, so the ids they resolved to are part of the key too.
+ *
+ * @author lcomplete
+ */
+@Value
+class SearchCacheKey {
+
+    long searcherVersion;
+
+    String q;
+
+    String queryOptions;
+
+    String contentType;
+
+    String libraryFilter;
+
+    Boolean alreadyRead;
+
+    Boolean searchTitleOnly;
+
+    String startDate;
+
+    String endDate;
+
+    String dateField;
+
+    String sort;
+
+    int page;
+
+    int size;
+
+    String cursor;
+
+    boolean facets;
+
+    int snippetCount;
+
+    int snippetLength;
+
+    boolean hybrid;
+
+    List<Long> collectionIds;
+
+    static SearchCacheKey of(long searcherVersion, SearchQuery searchQuery, Collection<Long> collectionIds) {
+        return new SearchCacheKey(searcherVersion,
+                normalize(searchQuery.getQ()),
+                normalize(searchQuery.getQueryOptions()),
+                normalize(searchQuery.getContentType()),
+                normalize(searchQuery.getLibraryFilter()),
+                searchQuery.getAlreadyRead(),
+                searchQuery.getSearchTitleOnly(),
+                StringUtils.trimToNull(searchQuery.getStartDate()),
+                StringUtils.trimToNull(searchQuery.getEndDate()),
+                normalize(searchQuery.getDateField()),
+                normalize(searchQuery.getSort()),
+                ObjectUtils.defaultIfNull(searchQuery.getPage(), 1),
+                PageSizeUtils.getPageSize(ObjectUtils.defaultIfNull(searchQuery.getSize(), 0), 100),
+                StringUtils.trimToNull(searchQuery.getCursor()),
+                Boolean.TRUE.equals(searchQuery.getFacets()),
+                LuceneService.snippetCountOf(searchQuery),
+                LuceneService.snippetLengthOf(searchQuery),
+                Boolean.TRUE.equals(searchQuery.getHybrid()),
+                collectionIds.stream().sorted().distinct().collect(Collectors.toList()));
+    }
+
+    /**
+     * search terms are lower cased by the analyzers and collection names match ignoring case.
+     */
+    private static String normalize(String value) {
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        return StringUtils.normalizeSpace(value).toLowerCase();
+    }
+}
@@ -0,0 +1,70 @@
+package com.huntly.server.service;
+
+import com.huntly.common.exceptions.RequestVerifyException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque searchAfter position: the last hit of a page plus the searcher version it was found in.
+ * Date sorted searches also carry the sort value of that hit, recent sorted searches the time their recency boost
+ * was measured from, so the scores of the next page match the ones of the first.
+ * <p>
+ * Doc ids are only stable within one searcher, so the next page must be searched on the same version.
+ *
+ * @author lcomplete
+ */
+@Getter
+@RequiredArgsConstructor
+class SearchCursor {
+
+    private final long searcherVersion;
+
+    private final int doc;
+
+    private final float score;
+
+    /**
+     * page number of the results this cursor leads to
+     */
+    private final int page;
+
+    /**
+     * sort value of the last hit, null for relevance ordered searches
+     */
+    private final Long sortValue;
+
+    /**
+     * epoch second the recency boost is measured from, null unless sorted by recent
+     */
+    private final Long recencyOrigin;
+
+    String encode() {
+        String raw = searcherVersion + ":" + doc + ":" + Float.floatToIntBits(score) + ":" + page;
+        if (sortValue != null || recencyOrigin != null) {
+            raw += ":" + (sortValue != null ? sortValue : "");
+        }
+        if (recencyOrigin != null) {
+            raw += ":" + recencyOrigin;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length < 4 || parts.length > 6) {
+                throw new RequestVerifyException("invalid search cursor");
+            }
+            return new SearchCursor(Long.parseLong(parts[0]), Integer.parseInt(parts[1]),
+                    Float.intBitsToFloat(Integer.parseInt(parts[2])), Integer.parseInt(parts[3]),
+                    parts.length >= 5 && !parts[4].isEmpty() ? Long.valueOf(parts[4]) : null,
+                    parts.length == 6 ? Long.valueOf(parts[5]) : null);
+        } catch (IllegalArgumentException e) {
+            throw new RequestVerifyException("invalid search cursor", e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.huntly.server.service;
+
+import com.huntly.interfaces.external.dto.PageItem;
+import com.huntly.interfaces.external.dto.PageSearchResult;
+import com.huntly.interfaces.external.query.SearchQuery;
+import com.huntly.server.domain.dto.ReindexProgress;
+import com.huntly.server.domain.dto.SearchSuggestion;
+import com.huntly.server.domain.entity.Collection;
+import com.huntly.server.domain.entity.Page;
+
+import java.util.List;
+
+/**
+ * The full text search of the pages, lucene by default, or the sqlite fts5 tables for low-memory installs.
+ * The backend is chosen by huntly.searchEngine.
+ *
+ * @author lcomplete
+ */
+public interface SearchEngine {
+
+    /**
+     * add or replace the page.
+     */
+    void indexPage(Page page);
+
+    /**
+     * whether the index is written in the database transaction of the page, then it is rolled back with it.
+     * otherwise index changes are applied after the commit.
+     */
+    default boolean writesInTransaction() {
+        return false;
+    }
+
+    /**
+     * add or replace the pages, backends that can write them as one batch override this.
+     */
+    default void indexPages(List<Page> pages) {
+        pages.forEach(this::indexPage);
+    }
+
+    /**
+     * apply a change that only touches the status fields of the page, like starred or read later.
+     */
+    void updatePageStatus(Page page);
+
+    void deletePage(Long id);
+
+    PageSearchResult searchPages(SearchQuery searchQuery);
+
+    /**
+     * start rebuilding the whole index in the background.
+     */
+    ReindexProgress indexAllPages();
+
+    ReindexProgress getReindexProgress();
+
+    /**
+     * search suggestions, none unless the backend keeps them.
+     */
+    default List<SearchSuggestion> suggest(String text, Integer limit) {
+        return List.of();
+    }
+
+    default void indexCollectionSuggestion(Collection collection) {
+    }
+
+    /**
+     * pages similar to the given one, none unless the backend supports it.
+     */
+    default List<PageItem> findRelatedPages(Long pageId, Integer limit) {
+        return List.of();
+    }
+}
@@ -0,0 +1,543 @@
+package com.huntly.server.service;
+
+import com.huntly.common.exceptions.RequestVerifyException;
+import com.huntly.interfaces.external.dto.PageItem;
+import com.huntly.interfaces.external.dto.PageSearchResult;
+import com.huntly.interfaces.external.model.ContentType;
+import com.huntly.interfaces.external.model.LibrarySaveStatus;
+import com.huntly.interfaces.external.model.SearchOption;
+import com.huntly.interfaces.external.query.SearchQuery;
+import com.huntly.server.connector.ConnectorType;
+import com.huntly.server.domain.constant.AppConstants;
+import com.huntly.server.domain.constant.DocFields;
+import com.huntly.server.domain.dto.ReindexProgress;
+import com.huntly.server.domain.entity.Page;
+import com.huntly.server.domain.mapper.PageItemMapper;
+import com.huntly.server.domain.projection.PageListView;
+import com.huntly.server.repository.CollectionRepository;
+import com.huntly.server.repository.PageRepository;
+import com.huntly.server.util.PageSizeUtils;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StopWatch;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Full text search on sqlite fts5 tables in the main database, for installs where lucene needs too much memory.
+ * <p>
+ * The text of a page is kept in an fts5 table with the trigram tokenizer, which matches substrings in any
+ * language without a dictionary. The filter and sort values are kept in a plain table with the same ids. Both
+ * are written on the same path as the lucene index, so they share its transaction when the caller has one.
+ * A rebuild fills new tables next to them through the {@link DatabaseWriter} and swaps them in with one write.
+ * Search queries are parsed like the lucene ones, but there are no cursors, facets, snippets, suggestions or
+ * related pages.
+ *
+ * @author lcomplete
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "huntly.search-engine", havingValue = AppConstants.SEARCH_ENGINE_SQLITE)
+public class SqliteSearchEngine implements SearchEngine, InitializingBean {
+
+    private static final String SEARCH_TABLE = "page_search";
+
+    private static final String FTS_TABLE = "page_search_fts";
+
+    /**
+     * the tables a running rebuild fills, they take the place of the live ones when it completes.
+     */
+    private static final String REBUILD_SUFFIX = "_rebuild";
+
+    /**
+     * trigrams can not match shorter words, those are matched with like on the same table.
+     */
+    private static final int TRIGRAM = 3;
+
+    private static final String UPSERT_SEARCH_ROW = "INSERT OR REPLACE INTO " + SEARCH_TABLE + "%s (id, content_type, "
+            + "connector_type, library_save_status, is_starred, is_read_later, highlight_count, collection_id, created_at, "
+            + "last_read_at, collected_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_FTS_ROW = "INSERT INTO " + FTS_TABLE + "%s (rowid, title, content, author, url) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PageRepository pageRepository;
+
+    private final PageListService pageListService;
+
+    private final CollectionRepository collectionRepository;
+
+    private final PageContentService pageContentService;
+
+    private final DatabaseWriter databaseWriter;
+
+    /**
+     * set while the rebuild tables exist, writes go to them too. only changed in a write command.
+     */
+    private volatile boolean rebuilding;
+
+    private volatile String reindexStatus;
+
+    private volatile long reindexTotalPages;
+
+    private volatile long reindexedPages;
+
+    private volatile Instant reindexStartedAt;
+
+    private volatile Instant reindexFinishedAt;
+
+    private volatile String reindexError;
+
+    public SqliteSearchEngine(JdbcTemplate jdbcTemplate, PageRepository pageRepository,
+                              PageListService pageListService, CollectionRepository collectionRepository,
+                              PageContentService pageContentService, DatabaseWriter databaseWriter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pageRepository = pageRepository;
+        this.pageListService = pageListService;
+        this.collectionRepository = collectionRepository;
+        this.pageContentService = pageContentService;
+        this.databaseWriter = databaseWriter;
+    }
+
+    /**
+     * create the search tables, a new install or a switch from lucene fills them in the background.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM sqlite_master WHERE name = '" + FTS_TABLE + "'", Integer.class);
+        createTables("");
+        createIndexes();
+        // left by a rebuild that did not complete
+        dropTables(REBUILD_SUFFIX);
+        if (existing == null || existing == 0) {
+            indexAllPages();
+        }
+    }
+
+    private void createTables(String suffix) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + SEARCH_TABLE + suffix + " (id INTEGER PRIMARY KEY, "
+                + "content_type INTEGER, connector_type INTEGER, library_save_status INTEGER, is_starred INTEGER, "
+                + "is_read_later INTEGER, highlight_count INTEGER, collection_id INTEGER, created_at INTEGER, "
+                + "last_read_at INTEGER, collected_at INTEGER)");
+        jdbcTemplate.execute("CREATE VIRTUAL TABLE IF NOT EXISTS " + FTS_TABLE + suffix
+                + " USING fts5(title, content, author, url, tokenize = 'trigram')");
+    }
+
+    private void createIndexes() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_page_search_created_at ON " + SEARCH_TABLE + " (created_at)");
+    }
+
+    private void dropTables(String suffix) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + SEARCH_TABLE + suffix);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + FTS_TABLE + suffix);
+    }
+
+    /**
+     * the live tables, and the rebuild tables while a rebuild runs.
+     */
+    private List<String> tableSuffixes() {
+        return rebuilding ? List.of("", REBUILD_SUFFIX) : List.of("");
+    }
+
+    /**
+     * the search tables are in the main database, so they commit and roll back with the page.
+     */
+    @Override
+    public boolean writesInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void indexPage(Page page) {
+        indexPages(List.of(page));
+    }
+
+    @Override
+    public void indexPages(List<Page> pages) {
+        for (String suffix : tableSuffixes()) {
+            writeRows(suffix, pages);
+        }
+    }
+
+    private void writeRows(String suffix, List<Page> pages) {
+        pageContentService.fillContents(pages);
+        List<Object[]> searchRows = new ArrayList<>(pages.size());
+        List<Object[]> ids = new ArrayList<>(pages.size());
+        List<Object[]> ftsRows = new ArrayList<>(pages.size());
+        for (Page page : pages) {
+            searchRows.add(searchRowOf(page));
+            ids.add(new Object[]{page.getId()});
+            ftsRows.add(ftsRowOf(page));
+        }
+        jdbcTemplate.batchUpdate(String.format(UPSERT_SEARCH_ROW, suffix), searchRows);
+        jdbcTemplate.batchUpdate("DELETE FROM " + FTS_TABLE + suffix + " WHERE rowid = ?", ids);
+        jdbcTemplate.batchUpdate(String.format(INSERT_FTS_ROW, suffix), ftsRows);
+    }
+
+    /**
+     * only the filter values change, the text stays as it is.
+     */
+    @Override
+    public void updatePageStatus(Page page) {
+        for (String suffix : tableSuffixes()) {
+            jdbcTemplate.update("UPDATE " + SEARCH_TABLE + suffix + " SET library_save_status = ?, is_starred = ?, "
+                            + "is_read_later = ?, highlight_count = ?, collection_id = ?, last_read_at = ?, "
+                            + "collected_at = ? WHERE id = ?",
+                    page.getLibrarySaveStatus(), flagOf(page.getStarred()), flagOf(page.getReadLater()),
+                    page.getHighlightCount(), page.getCollectionId(), epochSecondOrNull(page.getLastReadAt()),
+                    epochSecondOrNull(page.getCollectedAt()), page.getId());
+        }
+    }
+
+    @Override
+    public void deletePage(Long id) {
+        for (String suffix : tableSuffixes()) {
+            jdbcTemplate.update("DELETE FROM " + SEARCH_TABLE + suffix + " WHERE id = ?", id);
+            jdbcTemplate.update("DELETE FROM " + FTS_TABLE + suffix + " WHERE rowid = ?", id);
+        }
+    }
+
+    private static Object[] searchRowOf(Page page) {
+        return new Object[]{page.getId(), page.getContentType(), page.getConnectorType(), page.getLibrarySaveStatus(),
+                flagOf(page.getStarred()), flagOf(page.getReadLater()), page.getHighlightCount(), page.getCollectionId(),
+                epochSecondOrNull(page.getCreatedAt()), epochSecondOrNull(page.getLastReadAt()),
+                epochSecondOrNull(page.getCollectedAt())};
+    }
+
+    private static Object[] ftsRowOf(Page page) {
+        return new Object[]{page.getId(), page.getTitle(), LuceneService.contentTextOf(page), page.getAuthor(),
+                page.getUrl()};
+    }
+
+    private static int flagOf(Boolean value) {
+        return Boolean.TRUE.equals(value) ? 1 : 0;
+    }
+
+    private static Long epochSecondOrNull(Instant instant) {
+        return instant != null ? instant.getEpochSecond() : null;
+    }
+
+    /**
+     * rebuild both tables from the page table, searches use the old ones until the new ones are swapped in.
+     */
+    @Override
+    public synchronized ReindexProgress indexAllPages() {
+        if (!ReindexProgress.STATUS_RUNNING.equals(reindexStatus)) {
+            reindexStatus = ReindexProgress.STATUS_RUNNING;
+            reindexTotalPages = 0;
+            reindexedPages = 0;
+            reindexStartedAt = Instant.now();
+            reindexFinishedAt = null;
+            reindexError = null;
+            Thread thread = new Thread(this::rebuild, "sqlite_search_reindex_thread");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return getReindexProgress();
+    }
+
+    @Override
+    public ReindexProgress getReindexProgress() {
+        ReindexProgress progress = new ReindexProgress();
+        progress.setStatus(ObjectUtils.defaultIfNull(reindexStatus, ReindexProgress.STATUS_IDLE));
+        progress.setTotalPages(reindexTotalPages);
+        progress.setProcessedPages(reindexedPages);
+        progress.setFailedPages(0L);
+        progress.setStartedAt(reindexStartedAt);
+        progress.setFinishedAt(reindexFinishedAt);
+        progress.setError(reindexError);
+        if (reindexTotalPages > 0) {
+            progress.setPercent(Math.min(100.0, reindexedPages * 100.0 / reindexTotalPages));
+        }
+        return progress;
+    }
+
+    private void rebuild() {
+        try {
+            reindexTotalPages = pageRepository.count();
+            databaseWriter.run(() -> {
+                dropTables(REBUILD_SUFFIX);
+                createTables(REBUILD_SUFFIX);
+                rebuilding = true;
+            });
+            long lastId = 0;
+            while (true) {
+                long afterId = lastId;
+                // read in the write command, a page saved or deleted by another command is either read as it is now
+                // or written to the rebuild tables by that command afterwards
+                List<Page> pages = databaseWriter.execute(() -> {
+                    List<Page> chunk = pageRepository.findByIdGreaterThanOrderByIdAsc(afterId,
+                            PageRequest.ofSize(AppConstants.SQLITE_SEARCH_REINDEX_CHUNK_SIZE));
+                    writeRows(REBUILD_SUFFIX, chunk);
+                    return chunk;
+                });
+                if (pages.isEmpty()) {
+                    break;
+                }
+                lastId = pages.get(pages.size() - 1).getId();
+                reindexedPages += pages.size();
+            }
+            databaseWriter.run(() -> {
+                rebuilding = false;
+                dropTables("");
+                jdbcTemplate.execute("ALTER TABLE " + SEARCH_TABLE + REBUILD_SUFFIX + " RENAME TO " + SEARCH_TABLE);
+                jdbcTemplate.execute("ALTER TABLE " + FTS_TABLE + REBUILD_SUFFIX + " RENAME TO " + FTS_TABLE);
+                createIndexes();
+            });
+            reindexStatus = ReindexProgress.STATUS_COMPLETED;
+            log.info("sqlite search tables rebuilt, pages: {}", reindexedPages);
+        } catch (RuntimeException e) {
+            reindexError = e.getMessage();
+            reindexStatus = ReindexProgress.STATUS_FAILED;
+            log.error("rebuild sqlite search tables failed", e);
+            try {
+                databaseWriter.run(() -> {
+                    rebuilding = false;
+                    dropTables(REBUILD_SUFFIX);
+                });
+            } catch (RuntimeException dropError) {
+                log.warn("failed to drop the sqlite search rebuild tables", dropError);
+            }
+        } finally {
+            reindexFinishedAt = Instant.now();
+        }
+    }
+
+    @Override
+    public PageSearchResult searchPages(@NonNull SearchQuery searchQuery) {
+        if (StringUtils.isNotBlank(searchQuery.getCursor())) {
+            throw new RequestVerifyException("search cursors are not supported by the sqlite search engine");
+        }
+        StopWatch sw = new StopWatch();
+        sw.start();
+        LuceneService.CompleteSearch completeSearch = extractCompleteSearch(StringUtils.trimToEmpty(searchQuery.getQ()));
+        SearchOption option = LuceneService.resolveSearchOption(searchQuery);
+        String dateColumn = columnOf(LuceneService.resolveSearchDateField(searchQuery.getDateField()));
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        addFilters(option, searchQuery, completeSearch, conditions, params);
+        boolean joinText = !completeSearch.getAdvancedSearches().isEmpty();
+        for (LuceneService.AdvancedSearch advancedSearch : completeSearch.getAdvancedSearches()) {
+            String column = DocFields.URL_TEXT.equals(advancedSearch.getDocField()) ? "url" : "author";
+            List<String> likes = new ArrayList<>();
+            for (String word : advancedSearch.getWords()) {
+                likes.add(FTS_TABLE + "." + column + " LIKE ? ESCAPE '\\'");
+                params.add(likePattern(word));
+            }
+            if (!likes.isEmpty()) {
+                conditions.add("(" + String.join(" OR ", likes) + ")");
+            }
+        }
+        boolean titleOnly = Boolean.TRUE.equals(option.getOnlySearchTitle());
+        List<String> phrases = new ArrayList<>();
+        for (String word : LuceneService.splitSearchTokens(completeSearch.getKeyword())) {
+            if (word.codePointCount(0, word.length()) >= TRIGRAM) {
+                phrases.add((titleOnly ? "title" : "{title content}") + " : \"" + word.replace("\"", "\"\"") + "\"");
+            } else if (titleOnly) {
+                conditions.add(FTS_TABLE + ".title LIKE ? ESCAPE '\\'");
+                params.add(likePattern(word));
+                joinText = true;
+            } else {
+                conditions.add("(" + FTS_TABLE + ".title LIKE ? ESCAPE '\\' OR " + FTS_TABLE + ".content LIKE ? ESCAPE '\\')");
+                params.add(likePattern(word));
+                params.add(likePattern(word));
+                joinText = true;
+            }
+        }
+        boolean matched = !phrases.isEmpty();
+        if (matched) {
+            conditions.add(0, FTS_TABLE + " MATCH ?");
+            params.add(0, String.join(" AND ", phrases));
+        }
+
+        PageSearchResult searchResult = new PageSearchResult();
+        var page = ObjectUtils.defaultIfNull(searchQuery.getPage(), 1);
+        var size = PageSizeUtils.getPageSize(searchQuery.getSize(), 100);
+        searchResult.setPage(page);
+        searchResult.setItems(new ArrayList<>());
+        searchResult.setTotalHits(0L);
+        // like lucene, a query without any clause matches nothing
+        if (!conditions.isEmpty()) {
+            String from = matched || joinText
+                    ? FTS_TABLE + " JOIN page_search s ON s.id = " + FTS_TABLE + ".rowid"
+                    : "page_search s";
+            String where = " WHERE " + String.join(" AND ", conditions);
+            Long totalHits = jdbcTemplate.queryForObject("SELECT count(*) FROM " + from + where, Long.class,
+                    params.toArray());
+            searchResult.setTotalHits(ObjectUtils.defaultIfNull(totalHits, 0L));
+            if (searchResult.getTotalHits() > (long) (page - 1) * size) {
+                List<Object> pageParams = new ArrayList<>(params);
+                pageParams.add(size);
+                pageParams.add((long) (page - 1) * size);
+                List<Long> ids = jdbcTemplate.queryForList("SELECT s.id FROM " + from + where + " ORDER BY "
+                                + orderBy(option.getSort(), dateColumn, matched) + " LIMIT ? OFFSET ?",
+                        Long.class, pageParams.toArray());
+                searchResult.setItems(loadPageItems(ids));
+            }
+        }
+        sw.stop();
+        searchResult.setCostSeconds(sw.getTotalTimeSeconds());
+        return searchResult;
+    }
+
+    /**
+     * the lucene parsing, but advanced keywords are split on whitespace since there is no analyzer.
+     */
+    private LuceneService.CompleteSearch extractCompleteSearch(String keyword) {
+        LuceneService.CompleteSearch completeSearch = new LuceneService.CompleteSearch();
+        completeSearch.setAdvancedSearches(new ArrayList<>());
+        completeSearch.setCollectionIds(new ArrayList<>());
+        List<String> simpleWords = new ArrayList<>();
+        for (String key : LuceneService.splitSearchTokens(keyword)) {
+            if (key.startsWith("url:") || key.startsWith("author:")) {
+                LuceneService.AdvancedSearch advancedSearch = new LuceneService.AdvancedSearch();
+                advancedSearch.setDocField(key.startsWith("url:") ? DocFields.URL_TEXT : DocFields.AUTHOR);
+                advancedSearch.setKeyword(LuceneService.extractAdvancedSearchKeyword(key, ":"));
+                advancedSearch.setWords(List.of(StringUtils.split(advancedSearch.getKeyword())));
+                completeSearch.getAdvancedSearches().add(advancedSearch);
+            } else if (key.startsWith("collection:")) {
+                String collectionName = key.substring("collection:".length());
+                if (StringUtils.isNotBlank(collectionName)) {
+                    collectionRepository.findByNameContainingIgnoreCase(collectionName)
+                            .forEach(collection -> completeSearch.getCollectionIds().add(collection.getId()));
+                }
+            } else {
+                simpleWords.add(key);
+            }
+        }
+        completeSearch.setKeyword(String.join(" ", simpleWords));
+        return completeSearch;
+    }
+
+    private static void addFilters(SearchOption option, SearchQuery searchQuery,
+                                   LuceneService.CompleteSearch completeSearch, List<String> conditions,
+                                   List<Object> params) {
+        if (Boolean.TRUE.equals(option.getAlreadyRead())) {
+            conditions.add("s.last_read_at >= 1");
+        }
+        if (option.getType() != null) {
+            switch (option.getType()) {
+                case TWEET:
+                    conditions.add("s.content_type = " + ContentType.TWEET.getCode());
+                    break;
+                case GITHUB_STARRED_REPO:
+                    conditions.add("s.connector_type = " + ConnectorType.GITHUB.getCode());
+                    break;
+                case BROWSER_HISTORY:
+                    conditions.add("s.content_type = " + ContentType.BROWSER_HISTORY.getCode());
+                    break;
+                case FEEDS:
+                    conditions.add("s.connector_type = " + ConnectorType.RSS.getCode());
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (option.getLibrary() != null) {
+            switch (option.getLibrary()) {
+                case MY_LIST:
+                    conditions.add("s.library_save_status = " + LibrarySaveStatus.SAVED.getCode());
+                    break;
+                case STARRED:
+                    conditions.add("s.is_starred = 1");
+                    break;
+                case READ_LATER:
+                    conditions.add("s.is_read_later = 1");
+                    break;
+                case ARCHIVE:
+                    conditions.add("s.library_save_status = " + LibrarySaveStatus.ARCHIVED.getCode());
+                    break;
+                case HIGHLIGHTS:
+                    conditions.add("s.highlight_count >= 1");
+                    break;
+                case UNSORTED:
+                    conditions.add("s.library_save_status >= 1 AND (s.collection_id IS NULL OR s.collection_id < 1)");
+                    break;
+                default:
+                    break;
+            }
+        }
+        LuceneService.SearchDateRange dateRange = LuceneService.resolveSearchDateRange(searchQuery);
+        if (dateRange != null) {
+            conditions.add("s." + columnOf(dateRange.getDocField()) + " BETWEEN ? AND ?");
+            params.add(dateRange.getStartEpochSecond());
+            params.add(dateRange.getEndEpochSecond());
+        }
+        if (!completeSearch.getCollectionIds().isEmpty()) {
+            conditions.add("s.collection_id IN (" + completeSearch.getCollectionIds().stream()
+                    .map(String::valueOf).collect(Collectors.joining(", ")) + ")");
+        }
+    }
+
+    private static String orderBy(SearchOption.Sort sort, String dateColumn, boolean matched) {
+        // bm25 is negative, lower ranks first
+        String rank = matched ? "bm25(" + FTS_TABLE + ", " + AppConstants.SQLITE_SEARCH_TITLE_WEIGHT + ", 1.0, 1.0, 1.0)"
+                : null;
+        switch (ObjectUtils.defaultIfNull(sort, SearchOption.Sort.RELEVANCE)) {
+            case NEWEST:
+                return "s." + dateColumn + " IS NULL, s." + dateColumn + " DESC, s.id";
+            case OLDEST:
+                return "s." + dateColumn + " IS NULL, s." + dateColumn + ", s.id";
+            case RECENT:
+                // the boost halves when the page is one pivot away from now, as in lucene
+                long pivot = TimeUnit.DAYS.toSeconds(AppConstants.LUCENE_RECENCY_PIVOT_DAYS);
+                String boost = "COALESCE(" + AppConstants.LUCENE_RECENCY_BOOST_WEIGHT + " * " + pivot + " / (" + pivot
+                        + " + abs(" + Instant.now().getEpochSecond() + " - s." + dateColumn + ")), 0)";
+                return (rank != null ? rank + " - " : "-") + boost + ", s.id";
+            default:
+                return rank != null ? rank + ", s.id" : "s.id";
+        }
+    }
+
+    private static String columnOf(String docField) {
+        switch (docField) {
+            case DocFields.LAST_READ_AT:
+                return "last_read_at";
+            case DocFields.COLLECTED_AT:
+                return "collected_at";
+            default:
+                return "created_at";
+        }
+    }
+
+    private static String likePattern(String word) {
+        return "%" + word.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private List<PageItem> loadPageItems(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, PageListView> pages = new HashMap<>();
+        pageRepository.findListViewsByIdIn(ids).forEach(page -> pages.put(page.getId(), page));
+        List<PageItem> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            PageListView page = pages.get(id);
+            if (page == null) {
+                continue;
+            }
+            PageItem item = PageItemMapper.INSTANCE.fromPage(page);
+            item.setRecordAt(page.getLastReadAt() != null ? page.getLastReadAt() : page.getCreatedAt());
+            items.add(pageListService.updatePageItemRelationData(item));
+        }
+        return items;
+    }
+}
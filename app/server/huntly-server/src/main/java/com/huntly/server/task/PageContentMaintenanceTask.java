@@ -0,0 +1,32 @@
+package com.huntly.server.task;
+
+import com.huntly.server.service.ContentCompressionService;
+import com.huntly.server.service.PageContentService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * migrates the article content stored before the page content store and compression in the background, and deletes
+ * the page bodies no page refers to any more.
+ *
+ * @author lcomplete
+ */
+@Component
+public class PageContentMaintenanceTask {
+    private final PageContentService pageContentService;
+
+    private final ContentCompressionService contentCompressionService;
+
+    public PageContentMaintenanceTask(PageContentService pageContentService,
+                                      ContentCompressionService contentCompressionService) {
+        this.pageContentService = pageContentService;
+        this.contentCompressionService = contentCompressionService;
+    }
+
+    @Scheduled(initialDelay = 1000 * 60 * 2, fixedDelay = 1000 * 60 * 60 * 6)
+    public void maintainContent() {
+        pageContentService.moveInlineContent();
+        contentCompressionService.compressStoredContent();
+        pageContentService.deleteUnreferencedContent();
+    }
+}
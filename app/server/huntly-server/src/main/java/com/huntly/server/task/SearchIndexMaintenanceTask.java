@@ -0,0 +1,72 @@
+package com.huntly.server.task;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.constant.AppConstants;
+import com.huntly.server.service.LuceneService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * merges the search index once a day at the configured off-peak time.
+ *
+ * @author lcomplete
+ */
+@Component
+@ConditionalOnProperty(name = "huntly.search-engine", havingValue = AppConstants.SEARCH_ENGINE_LUCENE, matchIfMissing = true)
+@Slf4j
+public class SearchIndexMaintenanceTask {
+    private static final DateTimeFormatter MAINTENANCE_TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final LuceneService luceneService;
+    private final Clock clock;
+    private final boolean enabled;
+    private final LocalTime maintenanceTime;
+
+    private LocalDate lastMaintenanceDate;
+
+    @Autowired
+    public SearchIndexMaintenanceTask(LuceneService luceneService, HuntlyProperties huntlyProperties) {
+        this(luceneService, huntlyProperties, Clock.systemDefaultZone());
+    }
+
+    SearchIndexMaintenanceTask(LuceneService luceneService, HuntlyProperties huntlyProperties, Clock clock) {
+        this.luceneService = luceneService;
+        this.clock = clock;
+        this.enabled = ObjectUtils.defaultIfNull(huntlyProperties.getLuceneMaintenanceEnabled(), true);
+        this.maintenanceTime = parseMaintenanceTime(huntlyProperties.getLuceneMaintenanceTime());
+    }
+
+    @Scheduled(cron = "0 * * * * ?")
+    public synchronized void maintainIndex() {
+        LocalDateTime now = LocalDateTime.now(clock).truncatedTo(ChronoUnit.MINUTES);
+        if (!enabled || !now.toLocalTime().equals(maintenanceTime) || now.toLocalDate().equals(lastMaintenanceDate)) {
+            return;
+        }
+        lastMaintenanceDate = now.toLocalDate();
+        luceneService.maintainIndex();
+    }
+
+    private LocalTime parseMaintenanceTime(String time) {
+        if (StringUtils.isBlank(time)) {
+            return LocalTime.parse(AppConstants.DEFAULT_LUCENE_MAINTENANCE_TIME, MAINTENANCE_TIME_FORMATTER);
+        }
+        try {
+            return LocalTime.parse(time, MAINTENANCE_TIME_FORMATTER);
+        } catch (RuntimeException e) {
+            log.warn("invalid search index maintenance time: {}, fallback to default", time);
+            return LocalTime.parse(AppConstants.DEFAULT_LUCENE_MAINTENANCE_TIME, MAINTENANCE_TIME_FORMATTER);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.huntly.server.task;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.constant.AppConstants;
+import com.huntly.server.domain.dto.IndexReconcileResult;
+import com.huntly.server.service.LuceneService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * repairs the drift between the page table and the search index, a run that runs out of time is continued
+ * by the next one.
+ *
+ * @author lcomplete
+ */
+@Component
+@ConditionalOnProperty(name = "huntly.search-engine", havingValue = AppConstants.SEARCH_ENGINE_LUCENE, matchIfMissing = true)
+@Slf4j
+public class SearchIndexReconcileTask {
+    private final LuceneService luceneService;
+
+    private final long maxMillis;
+
+    public SearchIndexReconcileTask(LuceneService luceneService, HuntlyProperties huntlyProperties) {
+        this.luceneService = luceneService;
+        this.maxMillis = TimeUnit.SECONDS.toMillis(ObjectUtils.defaultIfNull(huntlyProperties.getLuceneReconcileMaxSeconds(),
+                AppConstants.DEFAULT_LUCENE_RECONCILE_MAX_SECONDS));
+    }
+
+    @Scheduled(initialDelay = 1000 * 60 * 60, fixedDelay = 1000 * 60 * 60 * 6)
+    public void reconcileIndex() {
+        IndexReconcileResult result = luceneService.reconcileIndex(maxMillis);
+        log.info("reconcile search index: {}, checked pages: {}", result.getStatus(), result.getCheckedPages());
+        int queued = luceneService.embedMissingPages();
+        if (queued > 0) {
+            log.info("queued {} pages without embeddings", queued);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.huntly.server.task;
+
+import com.huntly.server.domain.constant.AppConstants;
+import com.huntly.server.service.LuceneService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * rebuilds the search suggestions once a day, incremental updates never remove suggestions of deleted pages.
+ *
+ * @author lcomplete
+ */
+@Component
+@ConditionalOnProperty(name = "huntly.search-engine", havingValue = AppConstants.SEARCH_ENGINE_LUCENE, matchIfMissing = true)
+@Slf4j
+public class SearchSuggestRebuildTask {
+    private final LuceneService luceneService;
+
+    public SearchSuggestRebuildTask(LuceneService luceneService) {
+        this.luceneService = luceneService;
+    }
+
+    @Scheduled(initialDelay = 1000 * 60 * 30, fixedDelay = 1000 * 60 * 60 * 24)
+    public void rebuildSuggestions() {
+        log.info("rebuild search suggestions");
+        luceneService.rebuildSuggestions();
+    }
+}
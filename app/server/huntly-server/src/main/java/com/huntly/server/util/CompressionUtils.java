@@ -0,0 +1,74 @@
+package com.huntly.server.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * @author lcomplete
+ */
+@UtilityClass
+public class CompressionUtils {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    public static byte[] deflate(String text) {
+        return deflate(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, input.length / 3));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                output.write(buffer, 0, count);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static String inflate(byte[] bytes, int offset, int length) {
+        return inflate(bytes, offset, length, Integer.MAX_VALUE);
+    }
+
+    /**
+     * inflate only the first maxChars chars of the text, the rest is never decompressed.
+     */
+    public static String inflate(byte[] bytes, int offset, int length, int maxChars) {
+        // a char takes at most 4 bytes in utf-8
+        long maxBytes = (long) maxChars * 4;
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, length);
+            ByteArrayOutputStream output = new ByteArrayOutputStream((int) Math.min(length * 3L, maxBytes));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished() && output.size() < maxBytes) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("truncated deflate data");
+                }
+                output.write(buffer, 0, count);
+            }
+            String text = output.toString(StandardCharsets.UTF_8);
+            return text.length() > maxChars ? text.substring(0, maxChars) : text;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public static String inflate(byte[] bytes) {
+        return inflate(bytes, 0, bytes.length);
+    }
+}
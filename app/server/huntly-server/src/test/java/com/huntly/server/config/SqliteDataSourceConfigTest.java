@@ -0,0 +1,98 @@
+package com.huntly.server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SqliteDataSourceConfigTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HikariDataSource writer;
+
+    private HikariDataSource reader;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl("jdbc:sqlite:" + tempDir.resolve("db.sqlite"));
+        HuntlyProperties huntlyProperties = new HuntlyProperties();
+        huntlyProperties.setSqliteReadPoolSize(2);
+        SqliteDataSourceConfig config = new SqliteDataSourceConfig();
+        writer = config.writerDataSource(dataSourceProperties, huntlyProperties);
+        writer.setMaximumPoolSize(1);
+        reader = config.readerDataSource(dataSourceProperties, huntlyProperties, writer);
+        DataSource dataSource = config.dataSource(writer, reader);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite.executeWithoutResult(status -> jdbcTemplate.execute("create table item (id integer primary key, name text)"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reader.close();
+        writer.close();
+    }
+
+    @Test
+    void writerSwitchesTheFileToWal() {
+        String journalMode = readOnly.execute(status -> jdbcTemplate.queryForObject("pragma journal_mode", String.class));
+
+        assertThat(journalMode).isEqualToIgnoringCase("wal");
+    }
+
+    @Test
+    void readOnlyTransactionsRunOnTheReaderPool() {
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("insert into item (id, name) values (1, 'a')"));
+
+        Integer count = readOnly.execute(status -> jdbcTemplate.queryForObject("select count(*) from item", Integer.class));
+
+        assertThat(count).isEqualTo(1);
+        assertThatThrownBy(() -> readOnly.executeWithoutResult(
+                status -> jdbcTemplate.update("insert into item (id, name) values (2, 'b')")))
+                .isInstanceOf(DataAccessException.class)
+                .hasMessageContaining("readonly");
+    }
+
+    @Test
+    void readsDoNotWaitForAnOpenWriteTransaction() {
+        TransactionTemplate readOnlyRequiresNew = new TransactionTemplate(readOnly.getTransactionManager(), readOnly);
+        readOnlyRequiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("insert into item (id, name) values (1, 'a')"));
+
+        Integer count = readWrite.execute(status -> {
+            jdbcTemplate.update("insert into item (id, name) values (2, 'b')");
+            // the writer holds its lock, a reader still sees the last commit
+            Integer committed = readOnlyRequiresNew.execute(
+                    inner -> jdbcTemplate.queryForObject("select count(*) from item", Integer.class));
+            assertThat(committed).isEqualTo(1);
+            return jdbcTemplate.queryForObject("select count(*) from item", Integer.class);
+        });
+
+        assertThat(count).isEqualTo(2);
+    }
+}
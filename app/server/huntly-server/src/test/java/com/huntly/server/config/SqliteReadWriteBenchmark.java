@@ -0,0 +1,153 @@
+package com.huntly.server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read latency while a background thread keeps writing, with the single shared connection and with the writer and
+ * reader pools in WAL mode.
+ * <p>
+ * Run the main method from the IDE, or after {@code mvn test-compile} with the test classpath.
+ *
+ * @author lcomplete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Threads(4)
+@Fork(1)
+public class SqliteReadWriteBenchmark {
+
+    private static final int ROW_COUNT = 20_000;
+
+    private static final int ROWS_PER_WRITE = 200;
+
+    /**
+     * single is one connection for everything in the default rollback journal mode, split is SqliteDataSourceConfig.
+     */
+    @Param({"single", "split"})
+    private String mode;
+
+    private Path dbDir;
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    private volatile boolean writing;
+
+    private Thread writerThread;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dbDir = Files.createTempDirectory("huntly_sqlite_read_write_benchmark");
+        String url = "jdbc:sqlite:" + dbDir.resolve("db.sqlite");
+        DataSource dataSource;
+        if ("single".equals(mode)) {
+            HikariDataSource single = new HikariDataSource();
+            single.setJdbcUrl(url);
+            single.setMaximumPoolSize(1);
+            single.setConnectionTimeout(60_000);
+            pools.add(single);
+            dataSource = single;
+        } else {
+            DataSourceProperties dataSourceProperties = new DataSourceProperties();
+            dataSourceProperties.setUrl(url);
+            HuntlyProperties huntlyProperties = new HuntlyProperties();
+            SqliteDataSourceConfig config = new SqliteDataSourceConfig();
+            HikariDataSource writer = config.writerDataSource(dataSourceProperties, huntlyProperties);
+            writer.setMaximumPoolSize(1);
+            writer.setConnectionTimeout(60_000);
+            HikariDataSource reader = config.readerDataSource(dataSourceProperties, huntlyProperties, writer);
+            pools.add(reader);
+            pools.add(writer);
+            dataSource = config.dataSource(writer, reader);
+        }
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.execute("create table page (id integer primary key, title text, content text, created_at integer)");
+            jdbcTemplate.execute("create index idx_page_created_at on page (created_at)");
+        });
+        for (int i = 0; i < ROW_COUNT; i += ROWS_PER_WRITE) {
+            insertRows();
+        }
+
+        writing = true;
+        writerThread = new Thread(() -> {
+            while (writing) {
+                insertRows();
+            }
+        }, "sqlite_benchmark_writer");
+        writerThread.start();
+    }
+
+    private void insertRows() {
+        readWrite.executeWithoutResult(status -> {
+            List<Object[]> rows = new ArrayList<>(ROWS_PER_WRITE);
+            for (int i = 0; i < ROWS_PER_WRITE; i++) {
+                rows.add(new Object[]{"title " + i, "content of the page ".repeat(50), System.currentTimeMillis()});
+            }
+            jdbcTemplate.batchUpdate("insert into page (title, content, created_at) values (?, ?, ?)", rows);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        writing = false;
+        writerThread.join();
+        pools.forEach(HikariDataSource::close);
+        FileSystemUtils.deleteRecursively(dbDir);
+    }
+
+    @Benchmark
+    public Object readPageList() {
+        int offset = ThreadLocalRandom.current().nextInt(ROW_COUNT);
+        return readOnly.execute(status -> jdbcTemplate.queryForList(
+                "select id, title, created_at from page order by created_at desc limit 20 offset ?", offset));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SqliteReadWriteBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
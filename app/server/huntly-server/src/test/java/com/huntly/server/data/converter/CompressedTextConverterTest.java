@@ -0,0 +1,43 @@
+package com.huntly.server.data.converter;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressedTextConverterTest {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    void longTextIsDeflatedBehindTheMarker() {
+        String html = "<p>一段很长的文章 with some english words</p>\n".repeat(200);
+
+        byte[] stored = converter.convertToDatabaseColumn(html);
+
+        assertThat(CompressedTextConverter.isDeflated(stored)).isTrue();
+        assertThat(stored.length).isLessThan(html.getBytes(StandardCharsets.UTF_8).length / 10);
+        assertThat(converter.convertToEntityAttribute(stored)).isEqualTo(html);
+    }
+
+    @Test
+    void shortTextIsStoredAsUtf8() {
+        String text = "<p>short</p>";
+
+        byte[] stored = converter.convertToDatabaseColumn(text);
+
+        assertThat(stored).isEqualTo(text.getBytes(StandardCharsets.UTF_8));
+        assertThat(converter.convertToEntityAttribute(stored)).isEqualTo(text);
+    }
+
+    @Test
+    void uncompressedRowsAreReadAsText() {
+        String legacy = "<div>" + "stored before compression ".repeat(100) + "</div>";
+
+        assertThat(converter.convertToEntityAttribute(legacy.getBytes(StandardCharsets.UTF_8))).isEqualTo(legacy);
+        assertThat(converter.convertToEntityAttribute(new byte[0])).isEmpty();
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+}
@@ -3,6 +3,7 @@ package com.huntly.server.mcp;
 import com.huntly.interfaces.external.dto.PageItem;
 import com.huntly.interfaces.external.dto.PageSearchResult;
 import com.huntly.interfaces.external.query.SearchQuery;
+import com.huntly.server.domain.constant.AppConstants;
 import com.huntly.server.mcp.dto.McpPageItem;
 import com.huntly.server.mcp.tool.SearchContentTool;
 import com.huntly.server.service.LuceneService;
@@ -15,6 +16,7 @@ import java.util.Map;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -98,6 +100,36 @@ class SearchContentToolTest {
         assertThat(items).extracting(McpPageItem::getId).containsExactly(7L);
     }
 
+    @Test
+    void executePassesSnippetLimitsAndReturnsSnippets() {
+        LuceneService luceneService = mock(LuceneService.class);
+        SearchContentTool tool = new SearchContentTool(luceneService, new McpUtils());
+        PageSearchResult searchResult = new PageSearchResult();
+        PageItem pageItem = new PageItem();
+        pageItem.setId(7L);
+        pageItem.setSnippets(List.of("about <em>lucene</em> offsets"));
+        searchResult.setItems(List.of(pageItem));
+        when(luceneService.searchPages(any(SearchQuery.class))).thenReturn(searchResult);
+
+        Object rawResponse = tool.execute(Map.of("query", "lucene", "snippet_count", 3, "snippet_length", 80));
+
+        ArgumentCaptor<SearchQuery> queryCaptor = ArgumentCaptor.forClass(SearchQuery.class);
+        verify(luceneService).searchPages(queryCaptor.capture());
+        assertThat(queryCaptor.getValue().getSnippetCount()).isEqualTo(3);
+        assertThat(queryCaptor.getValue().getSnippetLength()).isEqualTo(80);
+        assertThat(asPageItems(asMap(rawResponse).get("items")))
+                .extracting(McpPageItem::getSnippets)
+                .containsExactly(List.of("about <em>lucene</em> offsets"));
+
+        tool.execute(Map.of("query", "lucene", "snippet_count", 3, "title_only", true));
+        verify(luceneService, times(2)).searchPages(queryCaptor.capture());
+        assertThat(queryCaptor.getValue().getSnippetCount()).isZero();
+
+        tool.execute(Map.of("query", "lucene"));
+        verify(luceneService, times(3)).searchPages(queryCaptor.capture());
+        assertThat(queryCaptor.getValue().getSnippetCount()).isEqualTo(AppConstants.DEFAULT_MCP_SNIPPET_COUNT);
+    }
+
     @Test
     void executeClampsPageToSafeMaximumForLuceneCollection() {
         LuceneService luceneService = mock(LuceneService.class);
@@ -123,6 +155,33 @@ class SearchContentToolTest {
         assertThat(response.get("page_size")).isEqualTo(500);
     }
 
+    @Test
+    void executePassesCursorAndReturnsNextCursor() {
+        LuceneService luceneService = mock(LuceneService.class);
+        SearchContentTool tool = new SearchContentTool(luceneService, new McpUtils());
+        PageSearchResult searchResult = new PageSearchResult();
+        searchResult.setItems(List.of());
+        searchResult.setPage(31);
+        searchResult.setTotalHits(20_000);
+        searchResult.setNextCursor("next-token");
+        when(luceneService.searchPages(any(SearchQuery.class))).thenReturn(searchResult);
+
+        Object rawResponse = tool.execute(Map.of(
+                "query", "machine learning",
+                "limit", 500,
+                "cursor", "previous-token"
+        ));
+
+        ArgumentCaptor<SearchQuery> queryCaptor = ArgumentCaptor.forClass(SearchQuery.class);
+        verify(luceneService).searchPages(queryCaptor.capture());
+        assertThat(queryCaptor.getValue().getCursor()).isEqualTo("previous-token");
+
+        Map<String, Object> response = asMap(rawResponse);
+        assertThat(response.get("page")).isEqualTo(31);
+        assertThat(response.get("next_cursor")).isEqualTo("next-token");
+        assertThat(response.get("has_more")).isEqualTo(true);
+    }
+
     @SuppressWarnings("unchecked")
     private Map<String, Object> asMap(Object value) {
         return (Map<String, Object>) value;
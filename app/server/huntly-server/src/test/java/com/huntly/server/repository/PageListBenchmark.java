@@ -0,0 +1,129 @@
+package com.huntly.server.repository;
+
+import com.huntly.jpa.spec.Specifications;
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.entity.Page;
+import com.huntly.server.domain.projection.PageListView;
+import com.huntly.server.service.DatabaseWriter;
+import com.huntly.server.service.PageContentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.util.FileSystemUtils;
+import org.sqlite.SQLiteDataSource;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of the list, 50 pages read as entities against the same pages read as {@link PageListView}.
+ * <p>
+ * {@code contentKb} is the size of the article content of every page. Run the main method from the IDE, or after
+ * {@code mvn test-compile} with the test classpath.
+ *
+ * @author lcomplete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PageListBenchmark {
+
+    private static final int PAGE_COUNT = 500;
+
+    private static final int LIST_SIZE = 50;
+
+    private static final Sort SORT = Sort.by(Sort.Direction.DESC, "createdAt");
+
+    @Param({"1", "100"})
+    private int contentKb;
+
+    private Path dbDir;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private PageRepository pageRepository;
+
+    private DatabaseWriter databaseWriter;
+
+    private Specification<Page> spec;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        dbDir = Files.createTempDirectory("huntly_page_list_benchmark");
+        SQLiteDataSource dataSource = SqliteJpaTestSupport.newDataSource(dbDir.resolve("db.sqlite"));
+        entityManagerFactory = SqliteJpaTestSupport.newEntityManagerFactory(dataSource);
+        pageRepository = SqliteJpaTestSupport.newRepository(entityManagerFactory, PageRepository.class);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        databaseWriter = new DatabaseWriter(transactionManager,
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory), new HuntlyProperties());
+        PageContentService pageContentService = new PageContentService(entityManagerFactory,
+                new JdbcTemplate(dataSource), databaseWriter, transactionManager);
+        databaseWriter.run(() -> {
+            for (int i = 0; i < PAGE_COUNT; i++) {
+                // distinct bodies, the store keeps one row per body
+                String content = "<p>" + i + "x".repeat(contentKb * 1024) + "</p>";
+                Page page = new Page();
+                page.setTitle("page " + i);
+                page.setUrl("https://example.com/post/" + i);
+                page.setDescription("description of page " + i);
+                page.setContent(content);
+                page.setMarkRead(false);
+                page.setCreatedAt(Instant.ofEpochSecond(1_700_000_000L + i));
+                pageContentService.storeContent(page);
+                pageRepository.save(page);
+            }
+        });
+        spec = Specifications.<Page>and().eq("markRead", false).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        databaseWriter.destroy();
+        entityManagerFactory.close();
+        FileSystemUtils.deleteRecursively(dbDir.toFile());
+    }
+
+    @Benchmark
+    public List<Page> entities() {
+        return pageRepository.findAll(spec, LIST_SIZE, SORT);
+    }
+
+    @Benchmark
+    public List<PageListView> listViews() {
+        return pageRepository.findAll(spec, PageListView.class, LIST_SIZE, SORT);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PageListBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package com.huntly.server.repository;
+
+import com.huntly.jpa.spec.Specifications;
+import com.huntly.server.domain.entity.Page;
+import com.huntly.server.domain.projection.PageListView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageRepositoryProjectionTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private PageRepository pageRepository;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory = SqliteJpaTestSupport.newEntityManagerFactory(tempDir.resolve("db.sqlite"));
+        pageRepository = SqliteJpaTestSupport.newRepository(entityManagerFactory, PageRepository.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        transactionTemplate.executeWithoutResult(status -> {
+            for (long i = 1; i <= 3; i++) {
+                Page page = new Page();
+                page.setTitle("page " + i);
+                page.setContent("<p>long article " + i + "</p>");
+                page.setPageJsonProperties("{\"id\":" + i + "}");
+                page.setStarred(i != 2);
+                page.setCreatedAt(Instant.parse("2026-04-0" + i + "T00:00:00Z"));
+                pageRepository.save(page);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void listViewsSelectTheListColumns() {
+        List<PageListView> views = pageRepository.findAll(Specifications.<Page>and().eq("starred", true).build(),
+                PageListView.class, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        assertThat(views).extracting(PageListView::getTitle).containsExactly("page 3", "page 1");
+        PageListView view = views.get(0);
+        assertThat(view).isNotInstanceOf(Page.class);
+        assertThat(view.getCreatedAt()).isEqualTo(Instant.parse("2026-04-03T00:00:00Z"));
+        assertThat(view.getPageJsonProperties()).isEqualTo("{\"id\":3}");
+        assertThat(view.getStarred()).isTrue();
+    }
+
+    @Test
+    void listViewsByIdSkipMissingIds() {
+        List<PageListView> views = pageRepository.findListViewsByIdIn(List.of(2L, 3L, 99L));
+
+        assertThat(views).extracting(PageListView::getId).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(views).extracting(PageListView::getStarred).containsExactlyInAnyOrder(false, true);
+    }
+}
@@ -0,0 +1,57 @@
+package com.huntly.server.repository;
+
+import com.huntly.jpa.converter.InstantStringConverter;
+import com.huntly.jpa.repository.support.CustomJpaRepository;
+import com.huntly.server.data.dialect.SQLiteDialect;
+import com.huntly.server.domain.entity.Page;
+import lombok.experimental.UtilityClass;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.sqlite.SQLiteDataSource;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * the entities and repositories on a sqlite file, set up like the app does without starting it.
+ *
+ * @author lcomplete
+ */
+@UtilityClass
+public class SqliteJpaTestSupport {
+
+    public static SQLiteDataSource newDataSource(Path dbFile) {
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + dbFile + "?date_class=TEXT");
+        return dataSource;
+    }
+
+    public static EntityManagerFactory newEntityManagerFactory(Path dbFile) {
+        return newEntityManagerFactory(newDataSource(dbFile));
+    }
+
+    public static EntityManagerFactory newEntityManagerFactory(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan(Page.class.getPackageName(), InstantStringConverter.class.getPackageName());
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.dialect", SQLiteDialect.class.getName(),
+                "hibernate.hbm2ddl.auto", "update",
+                "hibernate.jdbc.batch_size", "50",
+                "hibernate.order_updates", "true"));
+        factoryBean.afterPropertiesSet();
+        return factoryBean.getObject();
+    }
+
+    public static <R> R newRepository(EntityManagerFactory entityManagerFactory, Class<R> repositoryInterface) {
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        repositoryFactory.setRepositoryBaseClass(CustomJpaRepository.class);
+        return repositoryFactory.getRepository(repositoryInterface);
+    }
+}
@@ -0,0 +1,194 @@
+package com.huntly.server.service;
+
+import com.huntly.interfaces.external.model.CapturePage;
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.entity.Connector;
+import com.huntly.server.domain.entity.Page;
+import com.huntly.server.repository.ConnectorRepository;
+import com.huntly.server.repository.PageRepository;
+import com.huntly.server.repository.SourceRepository;
+import com.huntly.server.repository.SqliteJpaTestSupport;
+import com.huntly.server.repository.TwitterUserSettingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.sqlite.SQLiteDataSource;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CapturePageServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private DatabaseWriter databaseWriter;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private PageRepository pageRepository;
+
+    private SearchEngine searchEngine;
+
+    private CapturePageService capturePageService;
+
+    private Integer connectorId;
+
+    @BeforeEach
+    void setUp() {
+        SQLiteDataSource dataSource = SqliteJpaTestSupport.newDataSource(tempDir.resolve("db.sqlite"));
+        entityManagerFactory = SqliteJpaTestSupport.newEntityManagerFactory(dataSource);
+        pageRepository = SqliteJpaTestSupport.newRepository(entityManagerFactory, PageRepository.class);
+        ConnectorRepository connectorRepository = SqliteJpaTestSupport.newRepository(entityManagerFactory,
+                ConnectorRepository.class);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        databaseWriter = new DatabaseWriter(transactionManager,
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory), new HuntlyProperties());
+        searchEngine = mock(SearchEngine.class);
+        capturePageService = new CapturePageService(pageRepository, searchEngine,
+                SqliteJpaTestSupport.newRepository(entityManagerFactory, SourceRepository.class), connectorRepository,
+                SqliteJpaTestSupport.newRepository(entityManagerFactory, TwitterUserSettingRepository.class),
+                databaseWriter, new PageContentService(entityManagerFactory, jdbcTemplate, databaseWriter,
+                transactionManager));
+        Connector connector = new Connector();
+        connector.setName("feed");
+        connector.setFolderId(3);
+        connectorId = databaseWriter.execute(() -> connectorRepository.save(connector)).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseWriter.destroy();
+        entityManagerFactory.close();
+    }
+
+    private CapturePage entry(String url, String title) {
+        CapturePage page = new CapturePage();
+        page.setUrl(url);
+        page.setTitle(title);
+        page.setContent("<p>" + title + "</p>");
+        page.setDomain("example.com");
+        page.setSiteName("Example");
+        page.setConnectorId(connectorId);
+        page.setConnectedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        return page;
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetchedPagesAreMergedLikeSingleSaves() {
+        Page existing = capturePageService.save(entry("http://example.com/a", "old title"));
+
+        List<Page> saved = capturePageService.saveFetchedPages(List.of(
+                entry("https://example.com/a", "new title"),
+                entry("https://example.com/b", "first"),
+                entry("https://example.com/b#comments", "second")));
+
+        assertThat(saved).hasSize(3);
+        // the other protocol and the url with a plain hash resolve to the same pages
+        assertThat(saved.get(0).getId()).isEqualTo(existing.getId());
+        assertThat(saved.get(2).getId()).isEqualTo(saved.get(1).getId());
+        assertThat(count("page")).isEqualTo(2);
+        assertThat(count("source")).isEqualTo(1);
+        Page updated = pageRepository.findById(existing.getId()).orElseThrow();
+        assertThat(updated.getTitle()).isEqualTo("new title");
+        assertThat(updated.getUrl()).isEqualTo("https://example.com/a");
+        assertThat(updated.getFolderId()).isEqualTo(3);
+        assertThat(updated.getContent()).isEqualTo("<p>new title</p>");
+        Page added = pageRepository.findById(saved.get(1).getId()).orElseThrow();
+        assertThat(added.getTitle()).isEqualTo("second");
+        assertThat(added.getSourceId()).isEqualTo(updated.getSourceId());
+        assertThat(added.getMarkRead()).isFalse();
+
+        assertThat(databaseWriter.flushAfterCommit(5_000)).isTrue();
+        ArgumentCaptor<List<Page>> indexed = ArgumentCaptor.forClass(List.class);
+        verify(searchEngine).indexPages(indexed.capture());
+        assertThat(indexed.getValue()).extracting(Page::getId)
+                .containsExactly(existing.getId(), added.getId(), added.getId());
+    }
+
+    @Test
+    void pagesOfRolledBackCommandsAreNotIndexed() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> blocker = databaseWriter.submit(() -> {
+            blocked.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        // queued behind the blocker, so both commands run in one batch that is rolled back and retried
+        CompletableFuture<Page> kept = CompletableFuture.supplyAsync(
+                () -> capturePageService.save(entry("https://example.com/kept", "kept")));
+        CompletableFuture<Page> failed = databaseWriter.submit(() -> {
+            capturePageService.save(entry("https://example.com/failed", "failed"));
+            throw new IllegalStateException("failed after the save");
+        });
+        while (databaseWriter.getStats().getQueueDepth() < 2) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+
+        Long keptId = kept.get(5, TimeUnit.SECONDS).getId();
+        assertThat(failed).failsWithin(5, TimeUnit.SECONDS);
+        assertThat(databaseWriter.getStats().getRolledBackBatches()).isEqualTo(1);
+        assertThat(count("page")).isEqualTo(1);
+        assertThat(databaseWriter.flushAfterCommit(5_000)).isTrue();
+        ArgumentCaptor<Page> indexed = ArgumentCaptor.forClass(Page.class);
+        verify(searchEngine).indexPage(indexed.capture());
+        assertThat(indexed.getValue().getId()).isEqualTo(keptId);
+    }
+
+    @Test
+    void savesDoNotWaitForASlowSearchIndex() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(searchEngine).indexPage(any());
+
+        capturePageService.save(entry("https://example.com/a", "first"));
+        capturePageService.save(entry("https://example.com/b", "second"));
+
+        assertThat(count("page")).isEqualTo(2);
+        assertThat(databaseWriter.getStats().getPendingAfterCommitActions()).isPositive();
+        release.countDown();
+        assertThat(databaseWriter.flushAfterCommit(5_000)).isTrue();
+        verify(searchEngine, times(2)).indexPage(any());
+        assertThat(databaseWriter.getStats().getPendingAfterCommitActions()).isZero();
+    }
+
+    @Test
+    void emptyFeedsSaveNothing() {
+        assertThat(capturePageService.saveFetchedPages(List.of())).isEmpty();
+        assertThat(capturePageService.findByUrls(List.of())).isEmpty();
+        verify(searchEngine, never()).indexPages(any());
+    }
+}
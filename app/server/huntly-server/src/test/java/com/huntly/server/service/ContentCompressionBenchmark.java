@@ -0,0 +1,148 @@
+package com.huntly.server.service;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.entity.Page;
+import com.huntly.server.repository.PageRepository;
+import com.huntly.server.repository.SqliteJpaTestSupport;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.util.FileSystemUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads of single pages with their content and a count over the page table, from a database of uncompressed content
+ * stored in the page table and from the same database after {@link PageContentService} moved it to the compressed
+ * page content store. The database file sizes are printed after the setup.
+ * <p>
+ * Run the main method from the IDE, or after {@code mvn test-compile} with the test classpath.
+ *
+ * @author lcomplete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ContentCompressionBenchmark {
+
+    private static final int PAGE_COUNT = 2000;
+
+    @Param({"inline", "store"})
+    private String storage;
+
+    private Path dbDir;
+
+    private HikariDataSource dataSource;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private DatabaseWriter databaseWriter;
+
+    private PageRepository pageRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        dbDir = Files.createTempDirectory("huntly_content_compression_benchmark");
+        Path dbFile = dbDir.resolve("db.sqlite");
+        // pooled like the app, a new sqlite connection per query would dominate the reads
+        dataSource = new HikariDataSource();
+        dataSource.setDataSource(SqliteJpaTestSupport.newDataSource(dbFile));
+        dataSource.setMaximumPoolSize(4);
+        entityManagerFactory = SqliteJpaTestSupport.newEntityManagerFactory(dataSource);
+        pageRepository = SqliteJpaTestSupport.newRepository(entityManagerFactory, PageRepository.class);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        databaseWriter = new DatabaseWriter(transactionManager,
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory), new HuntlyProperties());
+        // content as it was stored before the page content store
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= PAGE_COUNT; id++) {
+            rows.add(new Object[]{id, "page " + id, article(random)});
+        }
+        databaseWriter.run(() -> jdbcTemplate.batchUpdate("INSERT INTO page (id, title, content, connector_id, "
+                + "is_mark_read) VALUES (?, ?, ?, 1, 0)", rows));
+        jdbcTemplate.execute("VACUUM");
+        long textBytes = Files.size(dbFile);
+        PageContentService pageContentService = new PageContentService(entityManagerFactory, jdbcTemplate,
+                databaseWriter, transactionManager);
+        if ("store".equals(storage)) {
+            pageContentService.moveInlineContent();
+            jdbcTemplate.execute("VACUUM");
+        }
+        System.out.printf("%n%s database: %.1f MB (inline text %.1f MB)%n", storage,
+                Files.size(dbFile) / 1048576.0, textBytes / 1048576.0);
+    }
+
+    /**
+     * an html article of about 40 KB from a vocabulary of a few thousand words.
+     */
+    private static String article(Random random) {
+        StringBuilder html = new StringBuilder("<article><h1>title</h1>");
+        while (html.length() < 40_000) {
+            html.append("<p class=\"paragraph\">");
+            int words = 40 + random.nextInt(80);
+            for (int i = 0; i < words; i++) {
+                html.append("word").append(random.nextInt(5000)).append(' ');
+            }
+            html.append("</p>\n");
+        }
+        return html.append("</article>").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        databaseWriter.destroy();
+        entityManagerFactory.close();
+        dataSource.close();
+        FileSystemUtils.deleteRecursively(dbDir);
+    }
+
+    @Benchmark
+    public String readPage() {
+        long id = 1 + ThreadLocalRandom.current().nextInt(PAGE_COUNT);
+        Page page = pageRepository.findById(id).orElseThrow();
+        return page.getContent();
+    }
+
+    @Benchmark
+    public int countUnread() {
+        return pageRepository.countByConnectorIdAndMarkRead(1, false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ContentCompressionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
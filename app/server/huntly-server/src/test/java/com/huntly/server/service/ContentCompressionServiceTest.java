@@ -0,0 +1,97 @@
+package com.huntly.server.service;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.entity.PageArticleContent;
+import com.huntly.server.repository.PageArticleContentRepository;
+import com.huntly.server.repository.SqliteJpaTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.sqlite.SQLiteDataSource;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentCompressionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private DatabaseWriter databaseWriter;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private PageArticleContentRepository articleContentRepository;
+
+    private ContentCompressionService contentCompressionService;
+
+    @BeforeEach
+    void setUp() {
+        SQLiteDataSource dataSource = SqliteJpaTestSupport.newDataSource(tempDir.resolve("db.sqlite"));
+        entityManagerFactory = SqliteJpaTestSupport.newEntityManagerFactory(dataSource);
+        articleContentRepository = SqliteJpaTestSupport.newRepository(entityManagerFactory,
+                PageArticleContentRepository.class);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        databaseWriter = new DatabaseWriter(transactionManager,
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory), new HuntlyProperties());
+        contentCompressionService = new ContentCompressionService(jdbcTemplate, databaseWriter, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseWriter.destroy();
+        entityManagerFactory.close();
+    }
+
+    private String typeOfContent(String table, long id) {
+        return jdbcTemplate.queryForObject("SELECT typeof(content) FROM " + table + " WHERE id = ?", String.class, id);
+    }
+
+    @Test
+    void textRowsAreCompressedAndReadBack() {
+        String article = "<article>" + "content saved by an older version. ".repeat(300) + "</article>";
+        // rows written before the converter, as text
+        for (long id = 1; id <= 250; id++) {
+            jdbcTemplate.update("INSERT INTO page_article_content (id, page_id, content) VALUES (?, ?, ?)", id, id,
+                    id == 2 ? "<p>short</p>" : article);
+        }
+        jdbcTemplate.update("INSERT INTO page_article_content (id, page_id) VALUES (251, 251)");
+
+        assertThat(contentCompressionService.compressStoredContent()).isEqualTo(250);
+
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT typeof(content) FROM page_article_content",
+                String.class)).containsExactlyInAnyOrder("blob", "null");
+        assertThat(jdbcTemplate.queryForObject("SELECT length(content) FROM page_article_content WHERE id = 1",
+                Integer.class)).isLessThan(article.length() / 10);
+        assertThat(articleContentRepository.findAllByPageId(1L)).extracting(PageArticleContent::getContent)
+                .isEqualTo(List.of(article));
+        assertThat(articleContentRepository.findAllByPageId(2L)).extracting(PageArticleContent::getContent)
+                .isEqualTo(List.of("<p>short</p>"));
+        assertThat(articleContentRepository.findAllByPageId(251L)).extracting(PageArticleContent::getContent)
+                .containsOnlyNulls();
+        assertThat(contentCompressionService.compressStoredContent()).isZero();
+    }
+
+    @Test
+    void contentSavedByTheAppIsNotMigratedAgain() {
+        PageArticleContent articleContent = new PageArticleContent();
+        articleContent.setPageId(1L);
+        articleContent.setContent("<p>" + "saved with compression ".repeat(100) + "</p>");
+        Long id = databaseWriter.execute(() -> articleContentRepository.save(articleContent)).getId();
+
+        assertThat(typeOfContent("page_article_content", id)).isEqualTo("blob");
+        assertThat(articleContentRepository.findById(id).orElseThrow().getContent())
+                .isEqualTo(articleContent.getContent());
+        assertThat(contentCompressionService.compressStoredContent()).isZero();
+    }
+}
@@ -0,0 +1,121 @@
+package com.huntly.server.service;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import javax.persistence.EntityManager;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Page captures from many threads at once, each one its own transaction on the single writer connection, against
+ * the same captures submitted to the {@link DatabaseWriter}.
+ * <p>
+ * A capture looks the url up and inserts or updates the page, like {@link CapturePageService#save}. Run the main
+ * method from the IDE, or after {@code mvn test-compile} with the test classpath.
+ *
+ * @author lcomplete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Threads(16)
+@Fork(1)
+public class DatabaseWriterBenchmark {
+
+    private static final int URL_COUNT = 50_000;
+
+    @Param({"direct", "queued"})
+    private String mode;
+
+    private Path dbDir;
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private DatabaseWriter databaseWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dbDir = Files.createTempDirectory("huntly_database_writer_benchmark");
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:sqlite:" + dbDir.resolve("db.sqlite"));
+        // the writer pool of the app
+        dataSource.setMaximumPoolSize(1);
+        dataSource.setConnectionTimeout(60_000);
+        dataSource.addDataSourceProperty("journal_mode", "WAL");
+        dataSource.addDataSourceProperty("synchronous", "NORMAL");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table page (id integer primary key, url text, title text, content text, "
+                + "read_count integer, updated_at integer)");
+        jdbcTemplate.execute("create index idx_page_url on page (url)");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        databaseWriter = new DatabaseWriter(transactionManager, mock(EntityManager.class), new HuntlyProperties());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        databaseWriter.destroy();
+        dataSource.close();
+        FileSystemUtils.deleteRecursively(dbDir);
+    }
+
+    private Long capture(String url) {
+        List<Long> ids = jdbcTemplate.queryForList("select id from page where url = ?", Long.class, url);
+        long now = System.currentTimeMillis();
+        if (ids.isEmpty()) {
+            jdbcTemplate.update("insert into page (url, title, content, read_count, updated_at) values (?, ?, ?, 1, ?)",
+                    url, "title of " + url, "content of the page ".repeat(100), now);
+            return jdbcTemplate.queryForObject("select last_insert_rowid()", Long.class);
+        }
+        jdbcTemplate.update("update page set read_count = read_count + 1, updated_at = ? where id = ?", now, ids.get(0));
+        return ids.get(0);
+    }
+
+    @Benchmark
+    public Long capturePage() {
+        String url = "https://example.com/post/" + ThreadLocalRandom.current().nextInt(URL_COUNT);
+        if ("direct".equals(mode)) {
+            return transactionTemplate.execute(status -> capture(url));
+        }
+        return databaseWriter.execute(() -> capture(url));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DatabaseWriterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,150 @@
+package com.huntly.server.service;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.dto.DatabaseWriterStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class DatabaseWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SingleConnectionDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private DataSourceTransactionManager transactionManager;
+
+    private DatabaseWriter databaseWriter;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + tempDir.resolve("db.sqlite"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table item (id integer primary key, name text not null)");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        HuntlyProperties properties = new HuntlyProperties();
+        properties.setDbWriterMaxBatchSize(16);
+        databaseWriter = new DatabaseWriter(transactionManager, mock(EntityManager.class), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseWriter.destroy();
+        dataSource.destroy();
+    }
+
+    private int insert(int id, String name) {
+        return jdbcTemplate.update("insert into item (id, name) values (?, ?)", id, name);
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("select count(*) from item", Integer.class);
+    }
+
+    @Test
+    void queuedCommandsAreCommittedInBatches() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> first = databaseWriter.submit(() -> {
+            blocked.countDown();
+            awaitQuietly(release);
+            return insert(0, "first");
+        });
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        // queued while the writer is busy, so they are drained together
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            int id = i;
+            futures.add(databaseWriter.submit(() -> insert(id, "item " + id)));
+        }
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<Integer> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        }
+
+        DatabaseWriterStats stats = databaseWriter.getStats();
+        assertThat(count()).isEqualTo(21);
+        assertThat(stats.getCompletedCommands()).isEqualTo(21);
+        assertThat(stats.getMaxBatchSize()).isEqualTo(16);
+        assertThat(stats.getBatchCount()).isEqualTo(3);
+        assertThat(stats.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void failingCommandOnlyFailsItself() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        databaseWriter.submit(() -> {
+            blocked.countDown();
+            awaitQuietly(release);
+            return null;
+        });
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Integer> before = databaseWriter.submit(() -> insert(1, "before"));
+        CompletableFuture<Integer> failing = databaseWriter.submit(() -> insert(2, null));
+        CompletableFuture<Integer> after = databaseWriter.submit(() -> insert(3, "after"));
+        release.countDown();
+
+        assertThat(before.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(after.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThatThrownBy(() -> failing.get(5, TimeUnit.SECONDS)).hasMessageContaining("NOT NULL");
+        assertThat(jdbcTemplate.queryForList("select id from item order by id", Integer.class)).containsExactly(1, 3);
+        DatabaseWriterStats stats = databaseWriter.getStats();
+        assertThat(stats.getRolledBackBatches()).isEqualTo(1);
+        assertThat(stats.getFailedCommands()).isEqualTo(1);
+    }
+
+    @Test
+    void executeRethrowsTheCommandException() {
+        assertThatThrownBy(() -> databaseWriter.execute(() -> {
+            throw new IllegalArgumentException("bad command");
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("bad command");
+    }
+
+    @Test
+    void writeTransactionsOfTheCallerRunInline() {
+        String thread = new TransactionTemplate(transactionManager).execute(status ->
+                databaseWriter.execute(() -> Thread.currentThread().getName()));
+
+        assertThat(thread).isEqualTo(Thread.currentThread().getName());
+        assertThat(databaseWriter.execute(() -> Thread.currentThread().getName())).isEqualTo("db_writer_thread");
+        assertThat(databaseWriter.getStats().getInlineCommands()).isEqualTo(1);
+    }
+
+    @Test
+    void commandsAfterCloseRunOnTheCaller() {
+        databaseWriter.destroy();
+
+        assertThat(databaseWriter.execute(() -> insert(1, "late"))).isEqualTo(1);
+        assertThat(count()).isEqualTo(1);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
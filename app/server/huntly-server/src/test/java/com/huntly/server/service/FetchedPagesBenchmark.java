@@ -0,0 +1,198 @@
+package com.huntly.server.service;
+
+import com.huntly.interfaces.external.dto.PageItem;
+import com.huntly.interfaces.external.model.CapturePage;
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.entity.Connector;
+import com.huntly.server.repository.CollectionRepository;
+import com.huntly.server.repository.ConnectorRepository;
+import com.huntly.server.repository.PageRepository;
+import com.huntly.server.repository.SourceRepository;
+import com.huntly.server.repository.SqliteJpaTestSupport;
+import com.huntly.server.repository.TwitterUserSettingRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.util.FileSystemUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Saving a fetched feed of 200 entries entry by entry through {@link CapturePageService#save(CapturePage)}, as the
+ * connector fetch did, and as one batch through {@link CapturePageService#saveFetchedPages(List)}, indexed by lucene.
+ * The feed is either all new entries or entries of existing pages with a changed title.
+ * <p>
+ * Run the main method from the IDE, or after {@code mvn test-compile} with the test classpath.
+ *
+ * @author lcomplete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class FetchedPagesBenchmark {
+
+    private static final int FEED_SIZE = 200;
+
+    @Param({"single", "batch"})
+    private String save;
+
+    @Param({"new", "changed"})
+    private String feed;
+
+    private Path dataDir;
+
+    private HikariDataSource dataSource;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private DatabaseWriter databaseWriter;
+
+    private LuceneService luceneService;
+
+    private CapturePageService capturePageService;
+
+    private Integer connectorId;
+
+    private List<String> articles;
+
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        dataDir = Files.createTempDirectory("huntly_fetched_pages_benchmark");
+        dataSource = new HikariDataSource();
+        dataSource.setDataSource(SqliteJpaTestSupport.newDataSource(dataDir.resolve("db.sqlite")));
+        dataSource.setMaximumPoolSize(4);
+        entityManagerFactory = SqliteJpaTestSupport.newEntityManagerFactory(dataSource);
+        PageRepository pageRepository = SqliteJpaTestSupport.newRepository(entityManagerFactory, PageRepository.class);
+        ConnectorRepository connectorRepository = SqliteJpaTestSupport.newRepository(entityManagerFactory,
+                ConnectorRepository.class);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        databaseWriter = new DatabaseWriter(transactionManager,
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory), new HuntlyProperties());
+        HuntlyProperties properties = new HuntlyProperties();
+        properties.setLuceneDir(dataDir.resolve("lucene").toString());
+        properties.setLuceneSuggestDir(dataDir.resolve("lucene_suggest").toString());
+        PageListService pageListService = mock(PageListService.class);
+        when(pageListService.updatePageItemRelationData(any(PageItem.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        luceneService = new LuceneService(pageRepository, pageListService, properties,
+                mock(CollectionRepository.class));
+        capturePageService = new CapturePageService(pageRepository, luceneService,
+                SqliteJpaTestSupport.newRepository(entityManagerFactory, SourceRepository.class), connectorRepository,
+                SqliteJpaTestSupport.newRepository(entityManagerFactory, TwitterUserSettingRepository.class),
+                databaseWriter, new PageContentService(entityManagerFactory, jdbcTemplate, databaseWriter,
+                transactionManager));
+        Connector connector = new Connector();
+        connector.setName("feed");
+        connectorId = databaseWriter.execute(() -> connectorRepository.save(connector)).getId();
+        Random random = new Random(42);
+        articles = new ArrayList<>(FEED_SIZE);
+        for (int i = 0; i < FEED_SIZE; i++) {
+            articles.add(article(random));
+        }
+        // the pages the changed feed updates
+        capturePageService.saveFetchedPages(feed(0));
+    }
+
+    /**
+     * an html article of about 5 KB.
+     */
+    private static String article(Random random) {
+        StringBuilder html = new StringBuilder("<article>");
+        while (html.length() < 5_000) {
+            html.append("<p>");
+            for (int i = 0; i < 60; i++) {
+                html.append("word").append(random.nextInt(5000)).append(' ');
+            }
+            html.append("</p>");
+        }
+        return html.append("</article>").toString();
+    }
+
+    private List<CapturePage> feed(int round) {
+        List<CapturePage> pages = new ArrayList<>(FEED_SIZE);
+        for (int i = 0; i < FEED_SIZE; i++) {
+            CapturePage page = new CapturePage();
+            page.setUrl("https://example.com/" + ("new".equals(feed) ? round + "/" : "") + i);
+            page.setTitle("entry " + i + " of round " + round);
+            page.setContent(articles.get(i));
+            page.setDomain("example.com");
+            page.setSiteName("Example");
+            page.setConnectorId(connectorId);
+            page.setConnectedAt(Instant.ofEpochSecond(1_700_000_000L + i));
+            pages.add(page);
+        }
+        return pages;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        luceneService.destroy();
+        databaseWriter.destroy();
+        entityManagerFactory.close();
+        dataSource.close();
+        FileSystemUtils.deleteRecursively(dataDir);
+    }
+
+    /**
+     * the index is committed at the end, so each feed is measured until it is searchable.
+     */
+    @Benchmark
+    public int saveFeed() {
+        List<CapturePage> pages = feed(++round);
+        int saved = 0;
+        if ("batch".equals(save)) {
+            saved = capturePageService.saveFetchedPages(pages).size();
+        } else {
+            for (CapturePage page : pages) {
+                capturePageService.save(page);
+                saved++;
+            }
+        }
+        databaseWriter.flushAfterCommit(60_000);
+        luceneService.flush(60_000);
+        return saved;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FetchedPagesBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package com.huntly.server.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.wltea.analyzer.core.IKSegmenter;
+import org.wltea.analyzer.core.Lexeme;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LuceneAnalysisTest {
+
+    private final LuceneAnalysis analysis = new LuceneAnalysis(10);
+
+    @AfterEach
+    void tearDown() {
+        analysis.close();
+    }
+
+    static List<String> segmentWithNewSegmenter(String keyword) throws IOException {
+        List<String> words = new ArrayList<>();
+        IKSegmenter segmenter = new IKSegmenter(new StringReader(keyword), true);
+        Lexeme lexeme;
+        while ((lexeme = segmenter.next()) != null) {
+            words.add(lexeme.getLexemeText());
+        }
+        return words;
+    }
+
+    @Test
+    void segmentWords_matchesSegmenterAndCachesKeywords() throws IOException {
+        for (String keyword : LuceneSegmentWordsBenchmark.KEYWORDS) {
+            assertThat(analysis.segmentWords(keyword)).isEqualTo(segmentWithNewSegmenter(keyword));
+        }
+        assertThat(analysis.segmentWords("  ")).isEmpty();
+
+        List<String> first = analysis.segmentWords("Java 并发编程实战");
+        assertThat(analysis.segmentWords("Java 并发编程实战")).isSameAs(first);
+        assertThat(analysis.getWordCacheHitRate()).isPositive();
+    }
+
+    @Test
+    void segmentWords_isSafeToShareBetweenThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> {
+                    for (int round = 0; round < 50; round++) {
+                        for (String keyword : LuceneSegmentWordsBenchmark.KEYWORDS) {
+                            if (!analysis.analyzeWords(keyword).equals(segmentWithNewSegmenter(keyword))) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.huntly.server.service;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.constant.DocFields;
+import com.huntly.server.domain.entity.Page;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MultiCollectorManager;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a search on the caller thread with a search over parallel segment slices, on a multi segment index.
+ * <p>
+ * The facet variant has to visit every match, which is where parallel slices pay off the most. Run the main
+ * method from the IDE, or after {@code mvn test-compile} with the test classpath.
+ *
+ * @author lcomplete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LuceneParallelSearchBenchmark {
+
+    private static final int DOC_COUNT = 200_000;
+
+    private static final int DOCS_PER_SEGMENT = 20_000;
+
+    private static final int VOCABULARY_SIZE = 2000;
+
+    @Param({"false", "true"})
+    private boolean facets;
+
+    private Path indexPath;
+
+    private Directory directory;
+
+    private DirectoryReader reader;
+
+    private LuceneService sequentialService;
+
+    private LuceneService parallelService;
+
+    private IndexSearcher sequentialSearcher;
+
+    private IndexSearcher parallelSearcher;
+
+    private Query query;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        indexPath = Files.createTempDirectory("huntly_parallel_search_benchmark");
+        sequentialService = newService(1);
+        parallelService = newService(Runtime.getRuntime().availableProcessors());
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            vocabulary[i] = "word" + i;
+        }
+        Random random = new Random(42);
+        directory = FSDirectory.open(indexPath);
+        // no merges and a fixed flush size, so the index ends up with DOC_COUNT / DOCS_PER_SEGMENT segments
+        try (IndexWriter writer = new IndexWriter(directory, sequentialService.newIndexWriterConfig()
+                .setMergePolicy(NoMergePolicy.INSTANCE)
+                .setMaxBufferedDocs(DOCS_PER_SEGMENT))) {
+            for (long id = 1; id <= DOC_COUNT; id++) {
+                StringBuilder content = new StringBuilder();
+                for (int i = 0; i < 50; i++) {
+                    // skewed towards the first words, so they match most docs
+                    int index = (int) Math.min(VOCABULARY_SIZE - 1, Math.abs(random.nextGaussian()) * VOCABULARY_SIZE / 8);
+                    content.append(vocabulary[index]).append(' ');
+                }
+                Page page = new Page();
+                page.setId(id);
+                page.setTitle("page " + id);
+                page.setContentText(content.toString());
+                page.setContentType(random.nextInt(5));
+                writer.addDocument(sequentialService.pageToDocument(page));
+            }
+            writer.commit();
+        }
+        reader = DirectoryReader.open(directory);
+        sequentialSearcher = sequentialService.newSearcherFactory().newSearcher(reader, null);
+        parallelSearcher = parallelService.newSearcherFactory().newSearcher(reader, null);
+        query = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(DocFields.CONTENT, "word1")), BooleanClause.Occur.SHOULD)
+                .add(new TermQuery(new Term(DocFields.CONTENT, "word2")), BooleanClause.Occur.SHOULD)
+                .build();
+    }
+
+    private LuceneService newService(int searchThreads) {
+        HuntlyProperties properties = new HuntlyProperties();
+        properties.setLuceneDir(indexPath.toString());
+        properties.setLuceneSearchThreads(searchThreads);
+        properties.setLuceneSearchSliceMaxSegments(1);
+        return new LuceneService(null, null, properties, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        reader.close();
+        directory.close();
+        sequentialService.destroy();
+        parallelService.destroy();
+        FileSystemUtils.deleteRecursively(indexPath);
+    }
+
+    private Object search(IndexSearcher searcher) throws IOException {
+        var topDocsManager = TopScoreDocCollector.createSharedManager(20, null, 10000);
+        if (facets) {
+            return searcher.search(query, new MultiCollectorManager(topDocsManager, PageFacetCollector.createManager()));
+        }
+        return searcher.search(query, topDocsManager);
+    }
+
+    @Benchmark
+    public Object sequential() throws IOException {
+        return search(sequentialSearcher);
+    }
+
+    @Benchmark
+    public Object parallel() throws IOException {
+        return search(parallelSearcher);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LuceneParallelSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
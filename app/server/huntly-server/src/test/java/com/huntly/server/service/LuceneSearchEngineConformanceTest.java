@@ -0,0 +1,28 @@
+package com.huntly.server.service;
+
+import com.huntly.server.config.HuntlyProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LuceneSearchEngineConformanceTest extends SearchEngineConformanceTest {
+
+    @Override
+    SearchEngine newSearchEngine() {
+        HuntlyProperties properties = new HuntlyProperties();
+        properties.setLuceneDir(tempDir.resolve("index").toString());
+        properties.setLuceneSuggestDir(tempDir.resolve("suggest").toString());
+        return new LuceneService(pageRepository, pageListService, properties, collectionRepository);
+    }
+
+    @Override
+    void refresh(SearchEngine searchEngine) {
+        LuceneService luceneService = (LuceneService) searchEngine;
+        assertThat(luceneService.flush(10_000)).isTrue();
+        luceneService.refreshSearcher();
+    }
+
+    @Override
+    void close(SearchEngine searchEngine) throws Exception {
+        ((LuceneService) searchEngine).destroy();
+    }
+}
@@ -0,0 +1,93 @@
+package com.huntly.server.service;
+
+import com.huntly.server.domain.constant.AppConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares segmenting search keywords with a new IK segmenter per call, the shared analyzer and the cached words.
+ * <p>
+ * The keywords mix Chinese, English and numbers like real searches do. Run the main method from the IDE,
+ * or after {@code mvn test-compile} with the test classpath.
+ *
+ * @author lcomplete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LuceneSegmentWordsBenchmark {
+
+    static final List<String> KEYWORDS = List.of(
+            "Java 并发编程实战",
+            "spring boot 自动配置原理",
+            "如何用 Lucene 实现中文全文搜索",
+            "Kubernetes 集群监控与告警",
+            "rust async await 入门",
+            "机器学习 transformer 模型",
+            "2023年度技术趋势报告",
+            "React hooks 最佳实践",
+            "数据库索引优化",
+            "distributed systems consensus raft");
+
+    private LuceneAnalysis analysis;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        analysis = new LuceneAnalysis(AppConstants.LUCENE_SEGMENT_CACHE_MAX_KEYWORDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        analysis.close();
+    }
+
+    @Benchmark
+    public void newSegmenter(Blackhole blackhole) throws IOException {
+        for (String keyword : KEYWORDS) {
+            blackhole.consume(LuceneAnalysisTest.segmentWithNewSegmenter(keyword));
+        }
+    }
+
+    @Benchmark
+    public void sharedAnalyzer(Blackhole blackhole) throws IOException {
+        for (String keyword : KEYWORDS) {
+            blackhole.consume(analysis.analyzeWords(keyword));
+        }
+    }
+
+    @Benchmark
+    public void cachedWords(Blackhole blackhole) {
+        for (String keyword : KEYWORDS) {
+            blackhole.consume(analysis.segmentWords(keyword));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LuceneSegmentWordsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
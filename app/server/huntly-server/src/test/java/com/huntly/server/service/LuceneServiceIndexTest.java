@@ -0,0 +1,834 @@
+package com.huntly.server.service;
+
+import com.huntly.common.exceptions.RequestVerifyException;
+import com.huntly.interfaces.external.dto.PageItem;
+import com.huntly.interfaces.external.dto.PageSearchResult;
+import com.huntly.interfaces.external.model.ContentType;
+import com.huntly.interfaces.external.model.LibrarySaveStatus;
+import com.huntly.interfaces.external.query.SearchQuery;
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.connector.ConnectorType;
+import com.huntly.server.domain.constant.DocFields;
+import com.huntly.server.domain.dto.IndexReconcileResult;
+import com.huntly.server.domain.dto.IndexSegmentStats;
+import com.huntly.server.domain.dto.ReindexProgress;
+import com.huntly.server.domain.dto.SearchIndexStats;
+import com.huntly.server.domain.dto.SearchSuggestion;
+import com.huntly.server.domain.entity.Collection;
+import com.huntly.server.domain.entity.EmbeddingCache;
+import com.huntly.server.domain.entity.Page;
+import com.huntly.server.repository.CollectionRepository;
+import com.huntly.server.repository.EmbeddingCacheRepository;
+import com.huntly.server.repository.PageRepository;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LuceneServiceIndexTest {
+
+    @TempDir
+    Path luceneDir;
+
+    private LuceneService luceneService;
+
+    private PageRepository pageRepository;
+
+    private CollectionRepository collectionRepository;
+
+    private ConceptEmbeddingProvider embeddingProvider;
+
+    private Map<String, EmbeddingCache> embeddingCache;
+
+    @BeforeEach
+    void setUp() {
+        PageListService pageListService = mock(PageListService.class);
+        when(pageListService.updatePageItemRelationData(any(PageItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        HuntlyProperties properties = new HuntlyProperties();
+        properties.setLuceneDir(luceneDir.resolve("index").toString());
+        properties.setLuceneSuggestDir(luceneDir.resolve("suggest").toString());
+        properties.setLuceneReindexChunkSize(2);
+        properties.setLuceneReindexThreads(2);
+        properties.setLuceneReindexJournalMaxPages(3);
+        properties.setLuceneReconcileChunkSize(2);
+        // one segment per slice, so multi segment tests go through the parallel search path
+        properties.setLuceneSearchThreads(2);
+        properties.setLuceneSearchSliceMaxDocs(1);
+        properties.setLuceneSearchSliceMaxSegments(1);
+        pageRepository = mock(PageRepository.class);
+        collectionRepository = mock(CollectionRepository.class);
+        embeddingProvider = new ConceptEmbeddingProvider();
+        embeddingCache = new HashMap<>();
+        EmbeddingCacheRepository embeddingCacheRepository = mock(EmbeddingCacheRepository.class);
+        when(embeddingCacheRepository.findById(any())).thenAnswer(invocation ->
+                Optional.ofNullable(embeddingCache.get(invocation.<String>getArgument(0))));
+        when(embeddingCacheRepository.saveAll(any())).thenAnswer(invocation -> {
+            invocation.<Iterable<EmbeddingCache>>getArgument(0).forEach(row -> embeddingCache.put(row.getContentHash(), row));
+            return List.of();
+        });
+        luceneService = new LuceneService(pageRepository, pageListService, properties, collectionRepository,
+                embeddingProvider, embeddingCacheRepository);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        luceneService.destroy();
+    }
+
+    /**
+     * a local stand-in for the embeddings endpoint, words of the same topic get the same direction.
+     */
+    static class ConceptEmbeddingProvider implements EmbeddingProvider {
+        private static final List<Set<String>> TOPICS = List.of(
+                Set.of("kubernetes", "cluster", "container", "orchestration", "nodes"),
+                Set.of("bread", "sourdough", "baking", "oven"));
+
+        private volatile boolean enabled;
+
+        private final AtomicInteger embeddedTexts = new AtomicInteger();
+
+        @Override
+        public String getModelId() {
+            return enabled ? "concepts-v1" : null;
+        }
+
+        @Override
+        public List<float[]> embed(List<String> texts) {
+            embeddedTexts.addAndGet(texts.size());
+            List<float[]> vectors = new ArrayList<>();
+            for (String text : texts) {
+                float[] vector = new float[TOPICS.size() + 1];
+                for (String word : text.toLowerCase().split("\\W+")) {
+                    boolean found = false;
+                    for (int topic = 0; topic < TOPICS.size(); topic++) {
+                        if (TOPICS.get(topic).contains(word)) {
+                            vector[topic]++;
+                            found = true;
+                        }
+                    }
+                    if (!found) {
+                        vector[TOPICS.size()] += 0.1f;
+                    }
+                }
+                vectors.add(vector);
+            }
+            return vectors;
+        }
+    }
+
+    private void flushAndRefresh() {
+        assertThat(luceneService.flush(10_000)).isTrue();
+        luceneService.refreshSearcher();
+    }
+
+    static Page newPage(long id, String title, String contentText) {
+        Page page = new Page();
+        page.setId(id);
+        page.setTitle(title);
+        page.setContentText(contentText);
+        page.setUrl("https://example.com/" + id);
+        page.setCreatedAt(Instant.parse("2026-04-01T00:00:00Z"));
+        return page;
+    }
+
+    static SearchQuery newQuery(String q) {
+        SearchQuery searchQuery = new SearchQuery();
+        searchQuery.setQ(q);
+        searchQuery.setPage(1);
+        searchQuery.setSize(20);
+        return searchQuery;
+    }
+
+    @Test
+    void searchPages_seesIndexedPageAfterRefresh() {
+        luceneService.indexPage(newPage(1L, "Lucene near real time search", "shared searcher"));
+        flushAndRefresh();
+
+        PageSearchResult result = luceneService.searchPages(newQuery("lucene"));
+
+        assertThat(result.getTotalHits()).isEqualTo(1);
+        assertThat(result.getItems()).extracting(PageItem::getId).containsExactly(1L);
+    }
+
+    @Test
+    void indexPage_updatesExistingDocumentInsteadOfAddingDuplicate() {
+        luceneService.indexPage(newPage(1L, "first title", "body"));
+        luceneService.indexPage(newPage(1L, "second title", "body"));
+        flushAndRefresh();
+
+        assertThat(luceneService.searchPages(newQuery("title")).getTotalHits()).isEqualTo(1);
+        assertThat(luceneService.searchPages(newQuery("second")).getItems()).extracting(PageItem::getId).containsExactly(1L);
+        assertThat(luceneService.searchPages(newQuery("first")).getTotalHits()).isZero();
+    }
+
+    @Test
+    void deletePage_removesDocumentAndRecordsRefreshLag() {
+        luceneService.indexPage(newPage(1L, "deleted page", "body"));
+        luceneService.deletePage(1L);
+        flushAndRefresh();
+
+        assertThat(luceneService.searchPages(newQuery("deleted")).getTotalHits()).isZero();
+        SearchIndexStats stats = luceneService.getIndexStats();
+        assertThat(stats.getRefreshCount()).isPositive();
+        assertThat(stats.getPendingRefreshMillis()).isZero();
+        assertThat(stats.getSearcherCurrent()).isTrue();
+    }
+
+    @Test
+    void indexPage_groupCommitsQueuedWrites() {
+        for (long id = 1; id <= 50; id++) {
+            luceneService.indexPage(newPage(id, "feed entry " + id, "body"));
+        }
+        flushAndRefresh();
+
+        SearchIndexStats stats = luceneService.getIndexStats();
+        assertThat(luceneService.searchPages(newQuery("entry")).getTotalHits()).isEqualTo(50);
+        assertThat(stats.getUncommittedOperations()).isZero();
+        assertThat(stats.getAppliedOperations()).isGreaterThanOrEqualTo(50);
+        assertThat(stats.getCommitCount()).isLessThan(50);
+        assertThat(stats.getFailedOperations()).isZero();
+    }
+
+    @Test
+    void searchPages_matchesSubstringsThroughNgramFields() {
+        Page page = newPage(1L, "Elasticsearch internals", "body");
+        page.setUrl("https://github.com/lcomplete/huntly");
+        page.setAuthor("lcomplete");
+        luceneService.indexPage(page);
+        luceneService.indexPage(newPage(2L, "unrelated", "body"));
+        flushAndRefresh();
+
+        assertThat(luceneService.searchPages(newQuery("sticsear")).getItems()).extracting(PageItem::getId).containsExactly(1L);
+        assertThat(luceneService.searchPages(newQuery("url:huntly")).getItems()).extracting(PageItem::getId).containsExactly(1L);
+        assertThat(luceneService.searchPages(newQuery("author:complete")).getItems()).extracting(PageItem::getId).containsExactly(1L);
+        assertThat(luceneService.searchPages(newQuery("searchelastic")).getTotalHits()).isZero();
+    }
+
+    @Test
+    void pageToDocument_storesContentCompressedAsLastField() {
+        String content = "searchable body text ".repeat(200);
+        var doc = luceneService.pageToDocument(newPage(1L, "stored fields", content));
+        var storedFields = doc.getFields().stream().filter(field -> field.fieldType().stored()).collect(Collectors.toList());
+
+        assertThat(storedFields.get(storedFields.size() - 1).name()).isEqualTo(DocFields.CONTENT_STORED);
+        assertThat(doc.getField(DocFields.CONTENT).fieldType().stored()).isFalse();
+        assertThat(doc.getBinaryValue(DocFields.CONTENT_STORED).length).isLessThan(content.length());
+    }
+
+    @Test
+    void searchPages_findsContentWithoutLoadingItAndLoadsItOnDemand() {
+        luceneService.indexPage(newPage(1L, "slim hit", "the article mentions lucene stored fields"));
+        flushAndRefresh();
+
+        PageSearchResult result = luceneService.searchPages(newQuery("mentions"));
+
+        assertThat(result.getItems()).extracting(PageItem::getTitle).containsExactly("slim hit");
+        assertThat(luceneService.loadContent(1L)).isEqualTo("the article mentions lucene stored fields");
+        assertThat(luceneService.loadContent(2L)).isNull();
+    }
+
+    @Test
+    void searchPages_pagesWithCursorOnTheSameSearcherView() {
+        for (long id = 1; id <= 5; id++) {
+            luceneService.indexPage(newPage(id, "cursor page " + id, "body"));
+        }
+        flushAndRefresh();
+
+        SearchQuery query = newQuery("cursor");
+        query.setSize(2);
+        PageSearchResult first = luceneService.searchPages(query);
+        // changes after the first page must not shift the following pages
+        luceneService.indexPage(newPage(6L, "cursor page 6", "body"));
+        luceneService.deletePage(1L);
+        flushAndRefresh();
+
+        List<Long> ids = new ArrayList<>();
+        first.getItems().forEach(item -> ids.add(item.getId()));
+        String cursor = first.getNextCursor();
+        int pages = 1;
+        while (cursor != null) {
+            query.setCursor(cursor);
+            PageSearchResult next = luceneService.searchPages(query);
+            next.getItems().forEach(item -> ids.add(item.getId()));
+            assertThat(next.getPage()).isEqualTo(++pages);
+            cursor = next.getNextCursor();
+        }
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(ids).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void searchPages_rejectsMalformedCursor() {
+        SearchQuery query = newQuery("cursor");
+        query.setCursor("not-a-cursor");
+
+        assertThatThrownBy(() -> luceneService.searchPages(query)).isInstanceOf(RequestVerifyException.class);
+    }
+
+    @Test
+    void searchPages_returnsFacetCountsOfAllMatches() {
+        for (long id = 1; id <= 5; id++) {
+            Page page = newPage(id, "facet page " + id, "body");
+            page.setContentType(id <= 3 ? ContentType.TWEET.getCode() : ContentType.BROWSER_HISTORY.getCode());
+            page.setConnectorType(id == 5 ? ConnectorType.RSS.getCode() : null);
+            page.setLibrarySaveStatus(LibrarySaveStatus.SAVED.getCode());
+            page.setCollectionId(id == 1 ? 9L : null);
+            luceneService.indexPage(page);
+        }
+        luceneService.indexPage(newPage(6L, "other", "body"));
+        flushAndRefresh();
+
+        SearchQuery query = newQuery("facet");
+        query.setSize(2);
+        query.setFacets(true);
+        PageSearchResult result = luceneService.searchPages(query);
+
+        assertThat(result.getItems()).hasSize(2);
+        assertThat(result.getFacets().get(DocFields.CONTENT_TYPE))
+                .containsOnly(entry((long) ContentType.TWEET.getCode(), 3L), entry((long) ContentType.BROWSER_HISTORY.getCode(), 2L));
+        assertThat(result.getFacets().get(DocFields.CONNECTOR_TYPE)).containsOnly(entry((long) ConnectorType.RSS.getCode(), 1L));
+        assertThat(result.getFacets().get(DocFields.LIBRARY_SAVE_STATUS)).containsOnly(entry((long) LibrarySaveStatus.SAVED.getCode(), 5L));
+        assertThat(result.getFacets().get(DocFields.COLLECTION_ID)).containsOnly(entry(9L, 1L), entry(-1L, 4L));
+        assertThat(luceneService.searchPages(newQuery("facet")).getFacets()).isNull();
+    }
+
+    @Test
+    void updatePageStatus_updatesStatusInPlaceWithoutTouchingText() {
+        Page page = newPage(1L, "status page", "original article text");
+        page.setLibrarySaveStatus(LibrarySaveStatus.SAVED.getCode());
+        luceneService.indexPage(page);
+        flushAndRefresh();
+
+        SearchQuery starredQuery = newQuery("status");
+        starredQuery.setLibraryFilter("starred");
+        assertThat(luceneService.searchPages(starredQuery).getTotalHits()).isZero();
+
+        // the entity of a status change has no content loaded, a full rebuild would drop the article text
+        page.setContentText(null);
+        page.setStarred(true);
+        page.setHighlightCount(2);
+        page.setLastReadAt(Instant.parse("2026-04-02T00:00:00Z"));
+        luceneService.updatePageStatus(page);
+        flushAndRefresh();
+
+        PageSearchResult starred = luceneService.searchPages(starredQuery);
+        assertThat(starred.getTotalHits()).isEqualTo(1);
+        assertThat(starred.getItems().get(0).getStarred()).isTrue();
+        assertThat(starred.getItems().get(0).getHighlightCount()).isEqualTo(2);
+        assertThat(luceneService.searchPages(newQuery("article")).getTotalHits()).isEqualTo(1);
+        SearchQuery readQuery = newQuery("status");
+        readQuery.setAlreadyRead(true);
+        assertThat(luceneService.searchPages(readQuery).getTotalHits()).isEqualTo(1);
+
+        page.setStarred(false);
+        page.setLastReadAt(null);
+        luceneService.updatePageStatus(page);
+        flushAndRefresh();
+
+        assertThat(luceneService.searchPages(starredQuery).getTotalHits()).isZero();
+        assertThat(luceneService.searchPages(readQuery).getTotalHits()).isZero();
+        assertThat(luceneService.searchPages(newQuery("status")).getItems().get(0).getStarred()).isFalse();
+    }
+
+    @Test
+    void suggest_matchesWordPrefixesAndDropsDeletedPagesOnRebuild() throws Exception {
+        Page page = newPage(1L, "Understanding Lucene suggesters", "body");
+        page.setAuthor("Ada Lovelace");
+        luceneService.indexPage(page);
+        luceneService.indexPage(newPage(2L, "Garden notes", "body"));
+        flushAndRefresh();
+        assertThat(luceneService.flushSuggestions(10_000)).isTrue();
+
+        List<SearchSuggestion> suggestions = luceneService.suggest("sugg", null);
+        assertThat(suggestions).extracting(SearchSuggestion::getText).containsExactly("Understanding Lucene suggesters");
+        assertThat(suggestions.get(0).getType()).isEqualTo(SearchSuggestion.TYPE_TITLE);
+        assertThat(suggestions.get(0).getPageId()).isEqualTo(1L);
+        assertThat(luceneService.suggest("love", 5)).extracting(SearchSuggestion::getType)
+                .containsExactly(SearchSuggestion.TYPE_AUTHOR);
+        assertThat(luceneService.suggest(" ", 5)).isEmpty();
+
+        luceneService.deletePage(1L);
+        flushAndRefresh();
+        luceneService.rebuildSuggestions();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!luceneService.suggest("sugg", null).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(luceneService.suggest("sugg", null)).isEmpty();
+        assertThat(luceneService.suggest("gard", null)).extracting(SearchSuggestion::getPageId).containsExactly(2L);
+    }
+
+    @Test
+    void searchPages_returnsHighlightedSnippetsOfMatchingContent() {
+        luceneService.indexPage(newPage(1L, "Index internals", "Postings list the docs of every term. "
+                + "The highlighter reads match offsets from the postings instead of analyzing the text again. "
+                + "Gardening is unrelated to any of this. A <b> tag in the text is escaped, offsets included."));
+        luceneService.indexPage(newPage(2L, "Offsets explained", "nothing matches in this content"));
+        flushAndRefresh();
+
+        SearchQuery query = newQuery("offsets");
+        query.setSnippetCount(2);
+        query.setSnippetLength(40);
+        Map<Long, List<String>> snippets = luceneService.searchPages(query).getItems().stream()
+                .collect(Collectors.toMap(PageItem::getId, PageItem::getSnippets));
+
+        assertThat(snippets.get(1L)).hasSize(2);
+        assertThat(snippets.get(1L).get(0)).contains("<em>offsets</em>").doesNotContain("Gardening");
+        assertThat(snippets.get(1L).get(1)).contains("&lt;b&gt;").contains("<em>offsets</em>");
+        assertThat(snippets.get(2L)).isEmpty();
+
+        query.setSnippetCount(0);
+        assertThat(luceneService.searchPages(query).getItems()).extracting(PageItem::getSnippets).containsOnlyNulls();
+        // the list of the web ui does not ask for snippets
+        query.setSnippetCount(null);
+        assertThat(luceneService.searchPages(query).getItems()).extracting(PageItem::getSnippets).containsOnlyNulls();
+    }
+
+    @Test
+    void findRelatedPages_returnsSimilarPagesFromTermVectors() {
+        luceneService.indexPage(newPage(1L, "Kubernetes scheduling",
+                "kubernetes scheduler places pods on cluster nodes, kubernetes pods need resources"));
+        luceneService.indexPage(newPage(2L, "Kubernetes cluster tuning",
+                "tuning the kubernetes scheduler so pods spread across cluster nodes"));
+        luceneService.indexPage(newPage(3L, "Sourdough bread",
+                "feed the starter, fold the dough and bake the bread in a hot oven"));
+        luceneService.indexPage(newPage(4L, "Baking at home",
+                "a hot oven and a good starter make better bread"));
+        flushAndRefresh();
+
+        assertThat(luceneService.findRelatedPages(1L, null)).extracting(PageItem::getId).containsExactly(2L);
+        assertThat(luceneService.findRelatedPages(3L, 5)).extracting(PageItem::getId).containsExactly(4L);
+        assertThat(luceneService.findRelatedPages(99L, null)).isEmpty();
+    }
+
+    private Page datedPage(long id, String title, Instant createdAt) {
+        Page page = newPage(id, title, "body");
+        page.setCreatedAt(createdAt);
+        return page;
+    }
+
+    @Test
+    void searchPages_sortsByDateAndPagesWithCursor() {
+        Instant base = Instant.parse("2026-01-01T00:00:00Z");
+        for (long id = 1; id <= 5; id++) {
+            // ids and dates in different orders so the sort can not fall back to doc order
+            luceneService.indexPage(datedPage(id, "dated page", base.plus(Duration.ofDays((id * 3) % 5))));
+        }
+        Page undated = newPage(6L, "dated page", "body");
+        undated.setCreatedAt(null);
+        luceneService.indexPage(undated);
+        flushAndRefresh();
+
+        SearchQuery newest = newQuery("dated");
+        newest.setSort("newest");
+        newest.setSize(4);
+        PageSearchResult first = luceneService.searchPages(newest);
+        newest.setCursor(first.getNextCursor());
+        PageSearchResult second = luceneService.searchPages(newest);
+
+        assertThat(first.getItems()).extracting(PageItem::getId).containsExactly(3L, 1L, 4L, 2L);
+        assertThat(second.getItems()).extracting(PageItem::getId).containsExactly(5L, 6L);
+        assertThat(second.getNextCursor()).isNull();
+
+        SearchQuery oldest = newQuery("dated");
+        oldest.setQueryOptions("oldest");
+        assertThat(luceneService.searchPages(oldest).getItems()).extracting(PageItem::getId).containsExactly(5L, 2L, 4L, 1L, 3L, 6L);
+    }
+
+    @Test
+    void searchPages_recentSortBoostsNewerPagesWithinTheSameRelevance() {
+        Instant now = Instant.now();
+        luceneService.indexPage(datedPage(1L, "boost page", now.minus(Duration.ofDays(400))));
+        luceneService.indexPage(datedPage(2L, "boost page", now.minus(Duration.ofDays(1))));
+        luceneService.indexPage(datedPage(3L, "other", now));
+        flushAndRefresh();
+
+        SearchQuery query = newQuery("boost");
+        query.setSort("recent");
+        PageSearchResult result = luceneService.searchPages(query);
+
+        assertThat(result.getItems()).extracting(PageItem::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void searchPages_recentSortBoostsStatusDatesAfterAStatusUpdate() {
+        Instant now = Instant.parse("2026-06-01T00:00:00Z");
+        luceneService.clock = Clock.fixed(now, ZoneOffset.UTC);
+        long[] ageDays = {1, 300, 100};
+        List<Page> pages = new ArrayList<>();
+        for (int i = 0; i < ageDays.length; i++) {
+            Page page = newPage(i + 1, "status date page", "body");
+            page.setCollectedAt(now.minus(Duration.ofDays(ageDays[i])));
+            page.setLastReadAt(now.minus(Duration.ofDays(ageDays[i])));
+            luceneService.indexPage(page);
+            pages.add(page);
+        }
+        flushAndRefresh();
+        // the dates are rewritten in place, page 2 becomes the newest and page 1 falls behind
+        for (Page page : List.of(pages.get(0), pages.get(1))) {
+            Instant changedAt = now.minus(Duration.ofDays(page.getId() == 1L ? 100 : 1));
+            page.setCollectedAt(changedAt);
+            page.setLastReadAt(changedAt);
+            luceneService.updatePageStatus(page);
+        }
+        flushAndRefresh();
+
+        for (String dateField : List.of("collectedAt", "lastReadAt")) {
+            SearchQuery query = newQuery("status");
+            query.setSort("recent");
+            query.setDateField(dateField);
+            assertThat(luceneService.searchPages(query).getItems()).extracting(PageItem::getId)
+                    .as(dateField).containsExactly(2L, 1L, 3L);
+        }
+    }
+
+    @Test
+    void searchPages_recentSortPagesWithCursorWhileTimePasses() {
+        Instant now = Instant.parse("2026-06-01T00:00:00Z");
+        long[] ageDays = {1, 3, 10, 40, 100, 400};
+        for (int i = 0; i < ageDays.length; i++) {
+            luceneService.indexPage(datedPage(i + 1, "recent page", now.minus(Duration.ofDays(ageDays[i]))));
+        }
+        flushAndRefresh();
+        luceneService.clock = Clock.fixed(now, ZoneOffset.UTC);
+
+        SearchQuery query = newQuery("recent");
+        query.setSort("recent");
+        query.setSize(2);
+        List<Long> ids = new ArrayList<>();
+        PageSearchResult result = luceneService.searchPages(query);
+        result.getItems().forEach(item -> ids.add(item.getId()));
+        while (result.getNextCursor() != null) {
+            // later pages are requested after the boost origin of the first one moved on
+            luceneService.clock = Clock.offset(luceneService.clock, Duration.ofDays(20));
+            query.setCursor(result.getNextCursor());
+            result = luceneService.searchPages(query);
+            result.getItems().forEach(item -> ids.add(item.getId()));
+        }
+
+        assertThat(ids).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+    }
+
+    @Test
+    void searchPages_servesRepeatedQueriesFromCacheUntilTheIndexChanges() {
+        luceneService.indexPage(newPage(1L, "cached page", "body"));
+        flushAndRefresh();
+
+        PageSearchResult first = luceneService.searchPages(newQuery("cached"));
+        PageSearchResult second = luceneService.searchPages(newQuery("  CACHED "));
+        luceneService.indexPage(newPage(2L, "cached page two", "body"));
+        flushAndRefresh();
+        PageSearchResult third = luceneService.searchPages(newQuery("cached"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(third.getTotalHits()).isEqualTo(2);
+        SearchIndexStats stats = luceneService.getIndexStats();
+        assertThat(stats.getSearchCacheHits()).isEqualTo(1);
+        assertThat(stats.getSearchCacheMisses()).isEqualTo(2);
+        assertThat(stats.getSearchCacheSize()).isEqualTo(1);
+    }
+
+    @Test
+    void searchPages_cachedCollectionSearchFollowsARenamedCollection() {
+        Page reading = newPage(1L, "cached page", "body");
+        reading.setCollectionId(10L);
+        Page later = newPage(2L, "cached page two", "body");
+        later.setCollectionId(20L);
+        luceneService.indexPages(List.of(reading, later));
+        flushAndRefresh();
+        when(collectionRepository.findByNameContainingIgnoreCase("reading")).thenReturn(List.of(collection(10L)));
+
+        PageSearchResult before = luceneService.searchPages(newQuery("cached collection:reading"));
+        // renaming a collection commits nothing to the index
+        when(collectionRepository.findByNameContainingIgnoreCase("reading")).thenReturn(List.of(collection(20L)));
+        PageSearchResult after = luceneService.searchPages(newQuery("cached collection:reading"));
+
+        assertThat(before.getItems()).extracting(PageItem::getId).containsExactly(1L);
+        assertThat(after.getItems()).extracting(PageItem::getId).containsExactly(2L);
+        assertThat(luceneService.getIndexStats().getSearchCacheHits()).isZero();
+    }
+
+    private static Collection collection(long id) {
+        Collection collection = new Collection();
+        collection.setId(id);
+        return collection;
+    }
+
+    @Test
+    void searchPages_searchesSegmentSlicesInParallelWithSameResults() throws Exception {
+        for (long id = 1; id <= 3; id++) {
+            luceneService.indexPage(newPage(id, "slice page " + id, "body"));
+            // every commit writes a new segment
+            assertThat(luceneService.flush(10_000)).isTrue();
+        }
+        luceneService.refreshSearcher();
+
+        try (DirectoryReader reader = DirectoryReader.open(luceneService.getDirectory())) {
+            IndexSearcher searcher = luceneService.newSearcherFactory().newSearcher(reader, null);
+            assertThat(searcher.getSlices()).hasSize(reader.leaves().size());
+            assertThat(reader.leaves().size()).isGreaterThan(1);
+        }
+        SearchQuery query = newQuery("slice");
+        query.setFacets(true);
+        PageSearchResult result = luceneService.searchPages(query);
+        assertThat(result.getItems()).extracting(PageItem::getId).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(result.getFacets().get(DocFields.COLLECTION_ID)).containsOnly(entry(-1L, 3L));
+    }
+
+    @Test
+    void indexAllPages_rebuildsIndexInChunksAndDropsStaleDocuments() throws Exception {
+        luceneService.indexPage(newPage(99L, "stale rebuild page", "body"));
+        flushAndRefresh();
+        when(pageRepository.count()).thenReturn(3L);
+        when(pageRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(newPage(1L, "rebuild one", "body"), newPage(2L, "rebuild two", "body")));
+        when(pageRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(newPage(3L, "rebuild three", "body")));
+        when(pageRepository.findByIdGreaterThanOrderByIdAsc(eq(3L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        luceneService.indexAllPages();
+        ReindexProgress progress = luceneService.getReindexProgress();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!"COMPLETED".equals(progress.getStatus()) && System.currentTimeMillis() < deadline) {
+            assertThat(progress.getStatus()).isNotEqualTo("FAILED");
+            Thread.sleep(20);
+            progress = luceneService.getReindexProgress();
+        }
+
+        assertThat(progress.getStatus()).isEqualTo("COMPLETED");
+        assertThat(progress.getProcessedPages()).isEqualTo(3);
+        assertThat(progress.getPercent()).isEqualTo(100.0);
+        assertThat(luceneService.searchPages(newQuery("rebuild")).getItems())
+                .extracting(PageItem::getId).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void indexAllPages_abortsWhenMorePagesChangeThanTheJournalHolds() throws Exception {
+        luceneService.indexPage(newPage(99L, "live page", "body"));
+        flushAndRefresh();
+        AtomicInteger journalPages = new AtomicInteger(-1);
+        when(pageRepository.count()).thenReturn(2L);
+        when(pageRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            // a busy feed saves pages while the rebuild runs
+            luceneService.indexPages(List.of(newPage(10L, "busy feed", "body"), newPage(11L, "busy feed", "body")));
+            luceneService.flush(10_000);
+            journalPages.set(luceneService.getIndexStats().getReindexJournalPages());
+            luceneService.indexPages(List.of(newPage(12L, "busy feed", "body"), newPage(13L, "busy feed", "body")));
+            luceneService.flush(10_000);
+            return List.of(newPage(1L, "rebuild one", "body"), newPage(2L, "rebuild two", "body"));
+        });
+        when(pageRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class))).thenReturn(List.of());
+
+        luceneService.indexAllPages();
+        ReindexProgress progress = luceneService.getReindexProgress();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!"FAILED".equals(progress.getStatus()) && System.currentTimeMillis() < deadline) {
+            assertThat(progress.getStatus()).isNotEqualTo("COMPLETED");
+            Thread.sleep(20);
+            progress = luceneService.getReindexProgress();
+        }
+        flushAndRefresh();
+
+        assertThat(progress.getStatus()).isEqualTo("FAILED");
+        assertThat(progress.getError()).contains("too many pages changed");
+        assertThat(journalPages.get()).isEqualTo(2);
+        assertThat(luceneService.getIndexStats().getReindexJournalPages()).isZero();
+        // the live index is kept and still takes the writes
+        assertThat(luceneService.searchPages(newQuery("busy")).getItems())
+                .extracting(PageItem::getId).containsExactlyInAnyOrder(10L, 11L, 12L, 13L);
+        assertThat(luceneService.searchPages(newQuery("live")).getItems())
+                .extracting(PageItem::getId).containsExactly(99L);
+        assertThat(luceneService.searchPages(newQuery("rebuild")).getItems()).isEmpty();
+        verify(pageRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void reconcileIndex_repairsMissingStaleAndOrphanDocsInChunks() {
+        Instant updatedAt = Instant.parse("2026-04-02T00:00:00Z");
+        Map<Long, Page> pages = new TreeMap<>();
+        for (long id = 1; id <= 5; id++) {
+            Page page = newPage(id, "reconcile page " + id, "body");
+            page.setUpdatedAt(updatedAt);
+            pages.put(id, page);
+            if (id != 2) {
+                // page 2 was saved but never indexed
+                luceneService.indexPage(page);
+            }
+        }
+        Page orphan = newPage(6L, "reconcile page 6", "body");
+        orphan.setUpdatedAt(updatedAt);
+        luceneService.indexPage(orphan);
+        // page 3 changed in the database after it was indexed
+        pages.get(3L).setTitle("reconcile page three changed");
+        pages.get(3L).setUpdatedAt(updatedAt.plusSeconds(60));
+        flushAndRefresh();
+        when(pageRepository.findIdAndUpdatedAtByIdGreaterThan(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int size = invocation.<Pageable>getArgument(1).getPageSize();
+            return pages.values().stream().filter(page -> page.getId() > afterId).limit(size)
+                    .map(page -> new Object[]{page.getId(), page.getUpdatedAt()}).collect(Collectors.toList());
+        });
+        when(pageRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Page> found = new ArrayList<>();
+            invocation.<Iterable<Long>>getArgument(0).forEach(id -> {
+                if (pages.containsKey(id)) {
+                    found.add(pages.get(id));
+                }
+            });
+            return found;
+        });
+        when(pageRepository.findExistingIds(any())).thenReturn(List.of());
+
+        IndexReconcileResult result = luceneService.reconcileIndex(10_000);
+        flushAndRefresh();
+
+        assertThat(result.getStatus()).isEqualTo(IndexReconcileResult.STATUS_COMPLETED);
+        assertThat(result.getCheckedPages()).isEqualTo(5);
+        assertThat(result.getMissingDocs()).isEqualTo(1);
+        assertThat(result.getStaleDocs()).isEqualTo(1);
+        assertThat(result.getOrphanDocs()).isEqualTo(1);
+        assertThat(result.getRepairedDocs()).isEqualTo(3);
+        assertThat(luceneService.searchPages(newQuery("reconcile")).getItems())
+                .extracting(PageItem::getId).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+        assertThat(luceneService.searchPages(newQuery("changed")).getItems())
+                .extracting(PageItem::getId).containsExactly(3L);
+        assertThat(luceneService.getIndexStats().getReconcileDriftDocs()).isEqualTo(3);
+
+        // status changes update the watermark in place, so they are no drift
+        pages.get(4L).setStarred(true);
+        pages.get(4L).setUpdatedAt(updatedAt.plusSeconds(120));
+        luceneService.updatePageStatus(pages.get(4L));
+        IndexReconcileResult second = luceneService.reconcileIndex(10_000);
+        assertThat(second.getMissingDocs() + second.getStaleDocs() + second.getOrphanDocs()).isZero();
+
+        IndexReconcileResult outOfTime = luceneService.reconcileIndex(0);
+        assertThat(outOfTime.getStatus()).isEqualTo(IndexReconcileResult.STATUS_PARTIAL);
+        assertThat(outOfTime.getCheckedPages()).isZero();
+    }
+
+    @Test
+    void maintainIndex_mergesSmallSegmentsAndReportsSegmentStats() {
+        // every flush commits at least one tiny segment
+        for (long id = 1; id <= 16; id += 2) {
+            luceneService.indexPage(newPage(id, "segment page " + id, "body"));
+            luceneService.indexPage(newPage(id + 1, "segment page " + (id + 1), "body"));
+            flushAndRefresh();
+        }
+        luceneService.deletePage(16L);
+        flushAndRefresh();
+
+        IndexSegmentStats before = luceneService.getSegmentStats();
+        assertThat(before.getSegmentCount()).isGreaterThan(5);
+        assertThat(before.getNumDocs()).isEqualTo(15);
+        // the delete is dropped with its segment if page 16 got a segment of its own
+        assertThat(before.getDeletedDocs()).isEqualTo(before.getMaxDoc() - 15);
+        assertThat(before.getDeletedDocsRatio()).isEqualTo((double) before.getDeletedDocs() / before.getMaxDoc());
+        assertThat(before.getSizeBytes()).isPositive().isGreaterThan(before.getLargestSegmentBytes());
+        assertThat(before.getLastMaintenanceAction()).isNull();
+
+        IndexSegmentStats after = luceneService.maintainIndex();
+
+        assertThat(after.getLastMaintenanceAction()).isEqualTo(IndexSegmentStats.ACTION_FORCE_MERGE);
+        assertThat(after.getLastMaintenanceError()).isNull();
+        assertThat(after.getSegmentCount()).isLessThanOrEqualTo(5);
+        assertThat(after.getNumDocs()).isEqualTo(15);
+        assertThat(after.getMergeCount()).isPositive();
+        assertThat(after.getLastMergeAt()).isNotNull();
+        assertThat(luceneService.searchPages(newQuery("segment")).getTotalHits()).isEqualTo(15);
+
+        // few segments and few deletes, nothing to do
+        assertThat(luceneService.maintainIndex().getLastMaintenanceAction()).isEqualTo(IndexSegmentStats.ACTION_NONE);
+    }
+
+    @Test
+    void searchPages_hybridSearchFusesKeywordAndEmbeddingMatches() throws Exception {
+        embeddingProvider.enabled = true;
+        Map<Long, Page> pages = Map.of(
+                1L, newPage(1L, "Kubernetes cluster upgrade", "rolling upgrade of the nodes"),
+                2L, newPage(2L, "Sourdough bread", "baking bread in a home oven"),
+                3L, newPage(3L, "Notes on orchestration", "orchestration of services"));
+        when(pageRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Page> found = new ArrayList<>();
+            invocation.<Iterable<Long>>getArgument(0).forEach(id -> found.add(pages.get(id)));
+            return found;
+        });
+        pages.values().forEach(luceneService::indexPage);
+        // indexed right away without vectors, then again once they are embedded
+        assertThat(luceneService.flushEmbeddings(10_000)).isTrue();
+        flushAndRefresh();
+        assertThat(embeddingProvider.embeddedTexts).hasValue(3);
+        assertThat(embeddingCache).hasSize(3);
+
+        SearchQuery keywordQuery = newQuery("orchestration");
+        assertThat(luceneService.searchPages(keywordQuery).getItems()).extracting(PageItem::getId).containsExactly(3L);
+        SearchQuery hybridQuery = newQuery("orchestration");
+        hybridQuery.setHybrid(true);
+        PageSearchResult hybrid = luceneService.searchPages(hybridQuery);
+        assertThat(hybrid.getItems()).extracting(PageItem::getId).startsWith(3L, 1L);
+        assertThat(hybrid.getNextCursor()).isNull();
+
+        // unchanged text keeps its cached vector, nothing is embedded again
+        luceneService.indexPage(pages.get(1L));
+        assertThat(luceneService.flushEmbeddings(10_000)).isTrue();
+        flushAndRefresh();
+        // the fourth text is the search keyword
+        assertThat(embeddingProvider.embeddedTexts).hasValue(4);
+        assertThat(luceneService.embedMissingPages()).isZero();
+        assertThat(luceneService.searchPages(hybridQuery).getItems()).extracting(PageItem::getId).startsWith(3L, 1L);
+
+        // without semantic search the flag is ignored
+        embeddingProvider.enabled = false;
+        luceneService.indexPage(pages.get(2L));
+        flushAndRefresh();
+        assertThat(luceneService.searchPages(hybridQuery).getItems()).extracting(PageItem::getId).containsExactly(3L);
+    }
+
+    @Test
+    void reciprocalRankFusion_ranksDocsFoundByBothListsFirst() {
+        TopDocs keyword = new TopDocs(new TotalHits(3, TotalHits.Relation.EQUAL_TO),
+                new ScoreDoc[]{new ScoreDoc(1, 9f), new ScoreDoc(2, 5f), new ScoreDoc(3, 1f)});
+        TopDocs vector = new TopDocs(new TotalHits(2, TotalHits.Relation.EQUAL_TO),
+                new ScoreDoc[]{new ScoreDoc(3, 0.9f), new ScoreDoc(4, 0.8f)});
+
+        TopDocs fused = LuceneService.reciprocalRankFusion(3, keyword, vector);
+
+        // 2 and 4 share a rank, ties go to the lower doc id
+        assertThat(fused.scoreDocs).extracting(scoreDoc -> scoreDoc.doc).containsExactly(3, 1, 2);
+        assertThat(fused.totalHits.value).isEqualTo(4);
+    }
+}
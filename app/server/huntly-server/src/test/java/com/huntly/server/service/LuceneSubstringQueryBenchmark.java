@@ -0,0 +1,135 @@
+package com.huntly.server.service;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.constant.DocFields;
+import com.huntly.server.domain.entity.Page;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares leading wildcard title search with the n-gram subfield on a synthetic index.
+ * <p>
+ * Titles are built from random words so the term dictionary grows with the index, which is what makes
+ * the wildcard scan slow. Run the main method from the IDE, or after {@code mvn test-compile} with the
+ * test classpath.
+ *
+ * @author lcomplete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LuceneSubstringQueryBenchmark {
+
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    @Param({"10000", "100000"})
+    private int docCount;
+
+    @Param({"ear", "earch"})
+    private String word;
+
+    private Path indexPath;
+
+    private Directory directory;
+
+    private DirectoryReader reader;
+
+    private IndexSearcher searcher;
+
+    private Query wildcardQuery;
+
+    private Query ngramQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        indexPath = Files.createTempDirectory("huntly_substring_benchmark");
+        HuntlyProperties properties = new HuntlyProperties();
+        properties.setLuceneDir(indexPath.toString());
+        LuceneService luceneService = new LuceneService(null, null, properties, null);
+        Random random = new Random(42);
+        directory = FSDirectory.open(indexPath);
+        try (IndexWriter writer = new IndexWriter(directory, luceneService.newIndexWriterConfig())) {
+            for (long id = 1; id <= docCount; id++) {
+                Page page = new Page();
+                page.setId(id);
+                page.setTitle(randomTitle(random));
+                page.setUrl("https://example.com/" + id);
+                writer.addDocument(luceneService.pageToDocument(page));
+            }
+            writer.commit();
+        }
+        reader = DirectoryReader.open(directory);
+        searcher = new IndexSearcher(reader);
+        wildcardQuery = LuceneService.legacySubstringQuery(DocFields.TITLE, word);
+        ngramQuery = LuceneService.ngramSubstringQuery(DocFields.TITLE_NGRAM, word);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+        FileSystemUtils.deleteRecursively(indexPath);
+    }
+
+    private static String randomTitle(Random random) {
+        StringBuilder title = new StringBuilder();
+        int words = 4 + random.nextInt(6);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            int length = 4 + random.nextInt(7);
+            for (int j = 0; j < length; j++) {
+                title.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+            }
+        }
+        return title.toString();
+    }
+
+    @Benchmark
+    public TopDocs wildcard() throws IOException {
+        return searcher.search(wildcardQuery, 20);
+    }
+
+    @Benchmark
+    public TopDocs ngram() throws IOException {
+        return searcher.search(ngramQuery, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LuceneSubstringQueryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,158 @@
+package com.huntly.server.service;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.data.converter.CompressedTextConverter;
+import com.huntly.server.domain.entity.Page;
+import com.huntly.server.repository.PageRepository;
+import com.huntly.server.repository.SqliteJpaTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.sqlite.SQLiteDataSource;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageContentServiceTest {
+
+    private static final String ARTICLE = "<article>" + "the same story from several feeds. ".repeat(100) + "</article>";
+
+    @TempDir
+    Path tempDir;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private DatabaseWriter databaseWriter;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private PageRepository pageRepository;
+
+    private PageContentService pageContentService;
+
+    @BeforeEach
+    void setUp() {
+        SQLiteDataSource dataSource = SqliteJpaTestSupport.newDataSource(tempDir.resolve("db.sqlite"));
+        entityManagerFactory = SqliteJpaTestSupport.newEntityManagerFactory(dataSource);
+        pageRepository = SqliteJpaTestSupport.newRepository(entityManagerFactory, PageRepository.class);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        databaseWriter = new DatabaseWriter(transactionManager,
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory), new HuntlyProperties());
+        pageContentService = new PageContentService(entityManagerFactory, jdbcTemplate, databaseWriter,
+                transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseWriter.destroy();
+        entityManagerFactory.close();
+    }
+
+    /**
+     * like {@link BasePageService#save(Page)}.
+     */
+    private Page save(Page page) {
+        return databaseWriter.execute(() -> {
+            pageContentService.storeContent(page);
+            return pageRepository.save(page);
+        });
+    }
+
+    private Page newPage(String title, String content) {
+        Page page = new Page();
+        page.setTitle(title);
+        page.setContent(content);
+        return save(page);
+    }
+
+    private int contentCount() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM page_content", Integer.class);
+    }
+
+    @Test
+    void sameBodiesAreStoredOnceAndLoadedOnAccess() {
+        Long first = newPage("from feed a", ARTICLE).getId();
+        Long second = newPage("from feed b", ARTICLE).getId();
+
+        assertThat(contentCount()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM page WHERE content IS NOT NULL", Integer.class))
+                .isZero();
+        Page page = pageRepository.findById(first).orElseThrow();
+        assertThat(page.hasUnloadedContent()).isTrue();
+        assertThat(page.getContent()).isEqualTo(ARTICLE);
+        assertThat(page.hasUnloadedContent()).isFalse();
+        assertThat(pageRepository.findById(second).orElseThrow().getContent()).isEqualTo(ARTICLE);
+    }
+
+    @Test
+    void unloadedBodiesSurviveSavesAndChangedBodiesReplaceThem() {
+        Long id = newPage("page", ARTICLE).getId();
+
+        Page page = pageRepository.findById(id).orElseThrow();
+        page.setTitle("renamed");
+        save(page);
+        assertThat(pageRepository.findById(id).orElseThrow().getContent()).isEqualTo(ARTICLE);
+
+        page = pageRepository.findById(id).orElseThrow();
+        page.setContent("<p>rewritten</p>");
+        assertThat(save(page).getContent()).isEqualTo("<p>rewritten</p>");
+        assertThat(pageRepository.findById(id).orElseThrow().getContent()).isEqualTo("<p>rewritten</p>");
+        assertThat(contentCount()).isEqualTo(2);
+
+        assertThat(pageContentService.deleteUnreferencedContent()).isEqualTo(1);
+        assertThat(pageRepository.findById(id).orElseThrow().getContent()).isEqualTo("<p>rewritten</p>");
+    }
+
+    @Test
+    void bodiesOfManyPagesAreFilledInWithOneQuery() {
+        for (int i = 0; i < 3; i++) {
+            newPage("page " + i, ARTICLE + i);
+        }
+        newPage("same body", ARTICLE + 0);
+        newPage("no body", null);
+        jdbcTemplate.update("INSERT INTO page (id, title, content_hash) VALUES (100, 'lost body', 'missing')");
+        List<Page> pages = pageRepository.findAll(Sort.by("id"));
+
+        pageContentService.fillContents(pages);
+        // nothing is read on access any more
+        jdbcTemplate.update("DELETE FROM page_content");
+
+        assertThat(pages.subList(0, 5)).extracting(Page::getContent)
+                .containsExactly(ARTICLE + 0, ARTICLE + 1, ARTICLE + 2, ARTICLE + 0, null);
+        assertThat(pages.subList(0, 5)).noneMatch(Page::hasUnloadedContent);
+        // a body missing from the store is not taken as an empty one
+        assertThat(pages.get(5).hasUnloadedContent()).isTrue();
+    }
+
+    @Test
+    void inlineBodiesAreReadAndMovedToTheStore() {
+        // a text row of an old version and a row compressed in the page table
+        jdbcTemplate.update("INSERT INTO page (id, title, content) VALUES (1, 'text', ?)", ARTICLE);
+        jdbcTemplate.update("INSERT INTO page (id, title, content) VALUES (2, 'compressed', ?)",
+                (Object) CompressedTextConverter.encode(ARTICLE));
+        jdbcTemplate.update("INSERT INTO page (id, title) VALUES (3, 'empty')");
+
+        assertThat(pageRepository.findById(1L).orElseThrow().getContent()).isEqualTo(ARTICLE);
+        assertThat(pageRepository.findById(2L).orElseThrow().getContent()).isEqualTo(ARTICLE);
+
+        assertThat(pageContentService.moveInlineContent()).isEqualTo(2);
+
+        assertThat(contentCount()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM page WHERE content IS NOT NULL", Integer.class))
+                .isZero();
+        assertThat(pageRepository.findById(1L).orElseThrow().getContent()).isEqualTo(ARTICLE);
+        assertThat(pageRepository.findById(2L).orElseThrow().getContent()).isEqualTo(ARTICLE);
+        assertThat(pageRepository.findById(3L).orElseThrow().getContent()).isNull();
+        assertThat(pageContentService.moveInlineContent()).isZero();
+        assertThat(pageContentService.deleteUnreferencedContent()).isZero();
+    }
+}
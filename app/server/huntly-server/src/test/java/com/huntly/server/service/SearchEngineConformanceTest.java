@@ -0,0 +1,276 @@
+package com.huntly.server.service;
+
+import com.huntly.interfaces.external.dto.PageItem;
+import com.huntly.interfaces.external.dto.PageSearchResult;
+import com.huntly.interfaces.external.model.ContentType;
+import com.huntly.interfaces.external.model.LibrarySaveStatus;
+import com.huntly.interfaces.external.query.SearchQuery;
+import com.huntly.server.connector.ConnectorType;
+import com.huntly.server.domain.dto.ReindexProgress;
+import com.huntly.server.domain.entity.Collection;
+import com.huntly.server.domain.entity.Page;
+import com.huntly.server.repository.CollectionRepository;
+import com.huntly.server.repository.PageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The same search queries against every search engine, each backend extends it.
+ */
+abstract class SearchEngineConformanceTest {
+
+    @TempDir
+    Path tempDir;
+
+    PageRepository pageRepository;
+
+    PageListService pageListService;
+
+    CollectionRepository collectionRepository;
+
+    private final Map<Long, Page> pages = new TreeMap<>();
+
+    private SearchEngine searchEngine;
+
+    abstract SearchEngine newSearchEngine() throws Exception;
+
+    /**
+     * make the indexed changes visible to searches.
+     */
+    abstract void refresh(SearchEngine searchEngine) throws Exception;
+
+    abstract void close(SearchEngine searchEngine) throws Exception;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pageRepository = mock(PageRepository.class);
+        when(pageRepository.findListViewsByIdIn(any())).thenAnswer(invocation -> {
+            List<Page> found = new ArrayList<>();
+            invocation.<Iterable<Long>>getArgument(0).forEach(id -> {
+                if (pages.containsKey(id)) {
+                    found.add(pages.get(id));
+                }
+            });
+            return found;
+        });
+        when(pageRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Page> found = new ArrayList<>();
+            synchronized (pages) {
+                invocation.<Iterable<Long>>getArgument(0).forEach(id -> {
+                    if (pages.containsKey(id)) {
+                        found.add(pages.get(id));
+                    }
+                });
+            }
+            return found;
+        });
+        pageListService = mock(PageListService.class);
+        when(pageListService.updatePageItemRelationData(any(PageItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        collectionRepository = mock(CollectionRepository.class);
+        Collection collection = new Collection();
+        collection.setId(7L);
+        collection.setName("Reading");
+        when(collectionRepository.findByNameContainingIgnoreCase("reading")).thenReturn(List.of(collection));
+        searchEngine = newSearchEngine();
+
+        index(1L, "Kubernetes cluster upgrade", "rolling upgrade of the nodes", "2026-04-01T00:00:00Z", page -> {
+            page.setStarred(true);
+            page.setAuthor("Jane Doe");
+            page.setUrl("https://kubeblog.dev/upgrade");
+        });
+        index(2L, "Sourdough bread", "baking bread in a home oven", "2026-04-10T00:00:00Z", page -> {
+            page.setReadLater(true);
+            page.setLibrarySaveStatus(LibrarySaveStatus.SAVED.getCode());
+            page.setCollectionId(7L);
+            page.setCollectedAt(Instant.parse("2026-04-11T00:00:00Z"));
+        });
+        index(3L, "Notes on orchestration", "kubernetes orchestration of services", "2026-04-20T00:00:00Z", page -> {
+            page.setLibrarySaveStatus(LibrarySaveStatus.ARCHIVED.getCode());
+            page.setLastReadAt(Instant.parse("2026-04-21T00:00:00Z"));
+            page.setContentType(ContentType.TWEET.getCode());
+        });
+        index(4L, "Feed item about bread", "no kneading needed", "2026-05-01T00:00:00Z", page -> {
+            page.setConnectorType(ConnectorType.RSS.getCode());
+            page.setLibrarySaveStatus(LibrarySaveStatus.SAVED.getCode());
+        });
+        refresh(searchEngine);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        close(searchEngine);
+    }
+
+    private void index(long id, String title, String contentText, String createdAt, Consumer<Page> customizer) {
+        Page page = LuceneServiceIndexTest.newPage(id, title, contentText);
+        page.setCreatedAt(Instant.parse(createdAt));
+        customizer.accept(page);
+        pages.put(id, page);
+        searchEngine.indexPage(page);
+    }
+
+    private List<Long> search(String q, Consumer<SearchQuery> customizer) {
+        SearchQuery searchQuery = LuceneServiceIndexTest.newQuery(q);
+        customizer.accept(searchQuery);
+        return idsOf(searchEngine.searchPages(searchQuery));
+    }
+
+    private List<Long> search(String q) {
+        return search(q, searchQuery -> {
+        });
+    }
+
+    private static List<Long> idsOf(PageSearchResult result) {
+        List<Long> ids = new ArrayList<>();
+        result.getItems().forEach(item -> ids.add(item.getId()));
+        return ids;
+    }
+
+    @Test
+    void keywordMatchesTitleAndContent() {
+        assertThat(search("kubernetes")).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(search("kubernetes", q -> q.setSearchTitleOnly(true))).containsExactly(1L);
+        assertThat(search("kubernetes", q -> q.setQueryOptions("title"))).containsExactly(1L);
+        // both words must match
+        assertThat(search("kubernetes services")).containsExactly(3L);
+        assertThat(search("unknownword")).isEmpty();
+    }
+
+    @Test
+    void titleMatchesRankFirst() {
+        assertThat(search("bread")).containsExactly(2L, 4L);
+    }
+
+    @Test
+    void libraryAndTypeOptionsFilterMatches() {
+        assertThat(search("kubernetes", q -> q.setLibraryFilter("starred"))).containsExactly(1L);
+        assertThat(search("kubernetes", q -> q.setLibraryFilter("archive"))).containsExactly(3L);
+        assertThat(search("bread", q -> q.setLibraryFilter("list"))).containsExactlyInAnyOrder(2L, 4L);
+        assertThat(search("bread", q -> q.setLibraryFilter("later"))).containsExactly(2L);
+        assertThat(search("bread", q -> q.setLibraryFilter("unsorted"))).containsExactly(4L);
+        assertThat(search("kubernetes", q -> q.setQueryOptions("read"))).containsExactly(3L);
+        assertThat(search("orchestration", q -> q.setContentType("tweet"))).containsExactly(3L);
+        assertThat(search("bread", q -> q.setQueryOptions("feeds"))).containsExactly(4L);
+    }
+
+    @Test
+    void dateRangesFilterOnTheChosenDateField() {
+        assertThat(search("bread", q -> q.setStartDate("2026-04-15T00:00:00Z"))).containsExactly(4L);
+        assertThat(search("bread", q -> q.setEndDate("2026-04-15T00:00:00Z"))).containsExactly(2L);
+        assertThat(search("kubernetes", q -> {
+            q.setStartDate("2026-04-15T00:00:00Z");
+            q.setEndDate("2026-04-25T00:00:00Z");
+        })).containsExactly(3L);
+        assertThat(search("kubernetes", q -> {
+            q.setDateField("read");
+            q.setStartDate("2026-01-01T00:00:00Z");
+        })).containsExactly(3L);
+        assertThat(search("bread", q -> {
+            q.setStartDate("2026-05-01T00:00:00Z");
+            q.setEndDate("2026-04-01T00:00:00Z");
+        })).isEmpty();
+    }
+
+    @Test
+    void collectionAndAdvancedSearchesFilterMatches() {
+        assertThat(search("bread collection:reading")).containsExactly(2L);
+        assertThat(search("collection:reading")).containsExactly(2L);
+        assertThat(search("author:jane")).containsExactly(1L);
+        assertThat(search("upgrade url:kubeblog")).containsExactly(1L);
+    }
+
+    @Test
+    void dateSortsOrderTheMatches() {
+        assertThat(search("bread", q -> q.setSort("newest"))).containsExactly(4L, 2L);
+        assertThat(search("bread", q -> q.setSort("oldest"))).containsExactly(2L, 4L);
+        assertThat(search("kubernetes", q -> q.setSort("recent"))).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void pagesThroughTheMatches() {
+        SearchQuery searchQuery = LuceneServiceIndexTest.newQuery("kubernetes");
+        searchQuery.setSize(1);
+        searchQuery.setPage(2);
+
+        PageSearchResult result = searchEngine.searchPages(searchQuery);
+
+        assertThat(result.getTotalHits()).isEqualTo(2);
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getPage()).isEqualTo(2);
+    }
+
+    @Test
+    void statusUpdatesAndDeletesAreSearchable() throws Exception {
+        Page page = pages.get(2L);
+        page.setStarred(true);
+        searchEngine.updatePageStatus(page);
+        searchEngine.deletePage(4L);
+        pages.remove(4L);
+        refresh(searchEngine);
+
+        assertThat(search("bread", q -> q.setLibraryFilter("starred"))).containsExactly(2L);
+        assertThat(search("bread")).containsExactly(2L);
+    }
+
+    @Test
+    void pagesChangedDuringARebuildAreKept() throws Exception {
+        AtomicInteger chunks = new AtomicInteger();
+        AtomicReference<List<Long>> searchedDuringRebuild = new AtomicReference<>();
+        when(pageRepository.count()).thenAnswer(invocation -> (long) pages.size());
+        when(pageRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            synchronized (pages) {
+                int chunk = chunks.incrementAndGet();
+                if (chunk == 1) {
+                    // saved ahead of the rebuild cursor, the rebuild reaches it afterwards
+                    index(5L, "Rye bread", "a dense bread", "2026-05-02T00:00:00Z", page -> {
+                    });
+                    refresh(searchEngine);
+                    searchedDuringRebuild.set(search("kubernetes"));
+                } else if (chunk == 2) {
+                    // deleted after the rebuild has read it
+                    pages.remove(4L);
+                    searchEngine.deletePage(4L);
+                }
+                long afterId = invocation.getArgument(0);
+                int size = invocation.<Pageable>getArgument(1).getPageSize();
+                return pages.values().stream().filter(page -> page.getId() > afterId).limit(size)
+                        .collect(Collectors.toList());
+            }
+        });
+
+        searchEngine.indexAllPages();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!Set.of(ReindexProgress.STATUS_COMPLETED, ReindexProgress.STATUS_FAILED)
+                .contains(searchEngine.getReindexProgress().getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        refresh(searchEngine);
+
+        assertThat(chunks.get()).isGreaterThanOrEqualTo(2);
+        assertThat(searchedDuringRebuild.get()).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(searchEngine.getReindexProgress().getStatus()).isEqualTo(ReindexProgress.STATUS_COMPLETED);
+        assertThat(search("bread")).containsExactlyInAnyOrder(2L, 5L);
+        assertThat(search("kubernetes")).containsExactlyInAnyOrder(1L, 3L);
+    }
+}
@@ -0,0 +1,46 @@
+package com.huntly.server.service;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.domain.dto.ReindexProgress;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.sqlite.SQLiteDataSource;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SqliteSearchEngineConformanceTest extends SearchEngineConformanceTest {
+
+    private DatabaseWriter databaseWriter;
+
+    @Override
+    SearchEngine newSearchEngine() throws Exception {
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + tempDir.resolve("db.sqlite"));
+        databaseWriter = new DatabaseWriter(new DataSourceTransactionManager(dataSource), mock(EntityManager.class),
+                new HuntlyProperties());
+        SqliteSearchEngine searchEngine = new SqliteSearchEngine(new JdbcTemplate(dataSource), pageRepository,
+                pageListService, collectionRepository, mock(PageContentService.class), databaseWriter);
+        searchEngine.afterPropertiesSet();
+        // the new tables are filled from the empty page table, wait so it does not clear the test pages
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (ReindexProgress.STATUS_RUNNING.equals(searchEngine.getReindexProgress().getStatus())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(searchEngine.getReindexProgress().getStatus()).isEqualTo(ReindexProgress.STATUS_COMPLETED);
+        return searchEngine;
+    }
+
+    @Override
+    void refresh(SearchEngine searchEngine) {
+        // written synchronously
+    }
+
+    @Override
+    void close(SearchEngine searchEngine) {
+        databaseWriter.destroy();
+    }
+}
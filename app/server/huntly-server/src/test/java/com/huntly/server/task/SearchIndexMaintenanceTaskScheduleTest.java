@@ -0,0 +1,61 @@
+package com.huntly.server.task;
+
+import com.huntly.server.config.HuntlyProperties;
+import com.huntly.server.service.LuceneService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SearchIndexMaintenanceTaskScheduleTest {
+    private LuceneService luceneService;
+    private HuntlyProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        luceneService = mock(LuceneService.class);
+        properties = new HuntlyProperties();
+    }
+
+    private static Clock clockAt(LocalDateTime dateTime) {
+        return Clock.fixed(dateTime.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+    }
+
+    @Test
+    void maintainIndex_shouldRunOnceAtConfiguredTime() {
+        properties.setLuceneMaintenanceTime("03:15");
+        SearchIndexMaintenanceTask task = new SearchIndexMaintenanceTask(luceneService, properties,
+                clockAt(LocalDateTime.of(2026, 5, 24, 3, 15)));
+
+        task.maintainIndex();
+        task.maintainIndex();
+
+        verify(luceneService).maintainIndex();
+    }
+
+    @Test
+    void maintainIndex_shouldSkipOtherTimesAndWhenDisabled() {
+        new SearchIndexMaintenanceTask(luceneService, properties, clockAt(LocalDateTime.of(2026, 5, 24, 3, 15)))
+                .maintainIndex();
+        properties.setLuceneMaintenanceEnabled(false);
+        new SearchIndexMaintenanceTask(luceneService, properties, clockAt(LocalDateTime.of(2026, 5, 24, 4, 30)))
+                .maintainIndex();
+
+        verify(luceneService, never()).maintainIndex();
+    }
+
+    @Test
+    void maintainIndex_shouldFallbackToDefaultTime() {
+        properties.setLuceneMaintenanceTime("25:00");
+        new SearchIndexMaintenanceTask(luceneService, properties, clockAt(LocalDateTime.of(2026, 5, 24, 4, 30)))
+                .maintainIndex();
+
+        verify(luceneService).maintainIndex();
+    }
+}